@@ -0,0 +1,220 @@
+package Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import common.ByteStreamReader;
+import common.ImageBufferedReader;
+import common.ImageMappedReader;
+import common.ImagePrefetchReader;
+
+class FileReaderTest
+{
+    private static final int SAMPLE_SIZE = 1000;
+
+    /* Positions around the 64-byte boundaries used below, plus the end of the file */
+    private static final int[] POSITIONS = {0, 1, 57, 60, 63, 64, 121, 127, 128, 190, 250, 255, 256, 500, SAMPLE_SIZE - 8};
+
+    @Test
+    public void testBufferedReadsAcrossPages() throws IOException
+    {
+        byte[] data = createData();
+        Path file = createSample(data);
+
+        try (ImageBufferedReader reader = new ImageBufferedReader(file, ByteOrder.BIG_ENDIAN, 64, 3))
+        {
+            assertReadsMatch(reader, data);
+        }
+
+        finally
+        {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testBufferedReloadsEvictedPage() throws IOException
+    {
+        byte[] data = createData();
+        Path file = createSample(data);
+
+        try (ImageBufferedReader reader = new ImageBufferedReader(file, ByteOrder.LITTLE_ENDIAN, 64, 2))
+        {
+            // Touch more pages than the cache holds, then return to the first
+            for (int page = 0; page < 8; page++)
+            {
+                reader.seek(page * 64 + 62);
+                assertEquals(ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN).getInt(page * 64 + 62), reader.readInteger());
+            }
+
+            reader.seek(0);
+            assertArrayEquals(Arrays.copyOf(data, 200), reader.readBytes(200));
+            assertArrayEquals(Arrays.copyOfRange(data, 700, 900), reader.readAt(700, 200));
+            assertEquals(200, reader.getCurrentPosition());
+        }
+
+        finally
+        {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testMappedReadsAcrossSegments() throws IOException
+    {
+        byte[] data = createData();
+        Path file = createSample(data);
+
+        try (ImageMappedReader reader = new ImageMappedReader(file, ByteOrder.BIG_ENDIAN, 64))
+        {
+            assertReadsMatch(reader, data);
+        }
+
+        finally
+        {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testMappedSliceAcrossSegments() throws IOException
+    {
+        byte[] data = createData();
+        Path file = createSample(data);
+
+        try (ImageMappedReader reader = new ImageMappedReader(file, ByteOrder.LITTLE_ENDIAN, 64))
+        {
+            ByteBuffer within = reader.slice(130, 60);
+            ByteBuffer across = reader.slice(60, 200);
+            byte[] bytes = new byte[200];
+
+            assertEquals(60, within.remaining());
+            assertEquals(ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN).getInt(130), within.getInt(0));
+
+            across.get(bytes);
+            assertArrayEquals(Arrays.copyOfRange(data, 60, 260), bytes);
+            assertEquals(ByteOrder.LITTLE_ENDIAN, across.order());
+
+            reader.seek(SAMPLE_SIZE - 10);
+            assertEquals(10, reader.readSlice(10).remaining());
+            assertThrows(IOException.class, () -> reader.slice(SAMPLE_SIZE - 10, 11));
+        }
+
+        finally
+        {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testPrefetchReadsInsideAndBeyondWindow() throws IOException
+    {
+        byte[] data = createData();
+        Path file = createSample(data);
+
+        try (ImagePrefetchReader reader = new ImagePrefetchReader(file, ByteOrder.BIG_ENDIAN, 64, 256))
+        {
+            assertReadsMatch(reader, data);
+            assertTrue(reader.hasFallenBack());
+            assertEquals(256, reader.getWindowSize());
+        }
+
+        finally
+        {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testPrefetchWindowGrowth() throws IOException
+    {
+        byte[] data = createData();
+        Path file = createSample(data);
+
+        try (ImagePrefetchReader reader = new ImagePrefetchReader(file, ByteOrder.BIG_ENDIAN, 64, 256))
+        {
+            assertEquals(64, reader.getWindowSize());
+
+            // A read running past the window end doubles the window
+            reader.seek(62);
+            assertEquals(ByteBuffer.wrap(data).getInt(62), reader.readInteger());
+            assertEquals(128, reader.getWindowSize());
+
+            reader.seek(120);
+            assertArrayEquals(Arrays.copyOfRange(data, 120, 220), reader.readBytes(100));
+            assertEquals(256, reader.getWindowSize());
+            assertFalse(reader.hasFallenBack());
+
+            // Beyond the maximum size, the window stays as it is
+            reader.seek(500);
+            assertArrayEquals(Arrays.copyOfRange(data, 500, 600), reader.readBytes(100));
+            assertEquals(256, reader.getWindowSize());
+            assertTrue(reader.hasFallenBack());
+        }
+
+        finally
+        {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Reads from each of the sample positions in both byte orders, checking bulk and primitive
+     * reads against the file content.
+     */
+    private static void assertReadsMatch(ByteStreamReader reader, byte[] data) throws IOException
+    {
+        for (ByteOrder order : new ByteOrder[]{ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN})
+        {
+            ByteBuffer expected = ByteBuffer.wrap(data).order(order);
+
+            reader.setByteOrder(order);
+
+            for (int pos : POSITIONS)
+            {
+                int length = Math.min(100, data.length - pos);
+
+                reader.seek(pos);
+                assertArrayEquals(Arrays.copyOfRange(data, pos, pos + length), reader.readBytes(length));
+                assertEquals(pos + length, reader.getCurrentPosition());
+
+                reader.seek(pos);
+                assertEquals(expected.getShort(pos), reader.readShort());
+                reader.seek(pos);
+                assertEquals(expected.getInt(pos), reader.readInteger());
+                reader.seek(pos);
+                assertEquals(expected.getLong(pos), reader.readLong());
+                assertEquals(data[pos + 3], reader.peek(pos + 3));
+            }
+        }
+
+        reader.seek(data.length - 2);
+        assertThrows(IOException.class, () -> reader.readInteger());
+    }
+
+    private static byte[] createData()
+    {
+        byte[] data = new byte[SAMPLE_SIZE];
+
+        for (int i = 0; i < data.length; i++)
+        {
+            data[i] = (byte) (i * 31 + 7);
+        }
+
+        return data;
+    }
+
+    private static Path createSample(byte[] data) throws IOException
+    {
+        Path file = Files.createTempFile("reader", ".bin");
+
+        Files.write(file, data);
+
+        return file;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,270 @@
+package Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+import common.ImageFileInputStream;
+import tif.DirectoryIFD;
+import tif.DirectoryIdentifier;
+import tif.IFDHandler;
+import tif.TifMetadata;
+import tif.TifParser;
+import tif.TraversalBudget;
+import tif.tagspecs.TagIFD_Baseline;
+import tif.tagspecs.TagIFD_Exif;
+
+class IFDHandlerTest
+{
+    private static final String DESCRIPTION = "BigTIFF test";
+    private static final String CAPTION = "Forward only";
+
+    @Test
+    public void testBigTiffLittleEndian() throws IOException
+    {
+        assertBigTiffParsed(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Test
+    public void testBigTiffBigEndian() throws IOException
+    {
+        assertBigTiffParsed(ByteOrder.BIG_ENDIAN);
+    }
+
+    @Test
+    public void testForwardOnlyMatchesPointerOrder() throws IOException
+    {
+        byte[] tiff = createTwoPageTiff();
+
+        try (IFDHandler handler = new IFDHandler(tiff))
+        {
+            handler.setForwardOnly(true);
+
+            assertTrue(handler.parseMetadata());
+            assertEquals(2, handler.pageCount());
+
+            DirectoryIFD ifd0 = handler.getPage(0).get(0);
+            DirectoryIFD exif = handler.getPage(0).get(1);
+            DirectoryIFD ifd1 = handler.getPage(1).get(0);
+
+            assertEquals(DirectoryIdentifier.IFD_DIRECTORY_IFD0, ifd0.getDirectoryType());
+            assertEquals(CAPTION, ifd0.getString(TagIFD_Baseline.IFD_IMAGE_DESCRIPTION));
+            assertEquals(DirectoryIdentifier.IFD_EXIF_SUBIFD_DIRECTORY, exif.getDirectoryType());
+            assertEquals(640, exif.getIntValue(TagIFD_Exif.EXIF_PIXEL_XDIMENSION));
+            assertEquals(DirectoryIdentifier.IFD_DIRECTORY_IFD1, ifd1.getDirectoryType());
+            assertEquals(160, ifd1.getIntValue(TagIFD_Baseline.IFD_IMAGE_WIDTH));
+        }
+    }
+
+    @Test
+    public void testForwardOnlyStreamValuesSurviveClose() throws IOException
+    {
+        TifParser parser = new TifParser(new ImageFileInputStream(new ByteArrayInputStream(createTwoPageTiff())));
+        TifMetadata metadata;
+
+        try
+        {
+            assertTrue(parser.readMetadata());
+            metadata = (TifMetadata) parser.getMetadata();
+        }
+
+        finally
+        {
+            parser.close();
+        }
+
+        DirectoryIFD ifd0 = metadata.getDirectory(DirectoryIdentifier.IFD_DIRECTORY_IFD0);
+
+        assertEquals(100, ifd0.getIntValue(TagIFD_Baseline.IFD_IMAGE_WIDTH));
+        assertEquals(CAPTION, ifd0.getString(TagIFD_Baseline.IFD_IMAGE_DESCRIPTION));
+        assertEquals(640, metadata.getDirectory(DirectoryIdentifier.IFD_EXIF_SUBIFD_DIRECTORY).getIntValue(TagIFD_Exif.EXIF_PIXEL_XDIMENSION));
+        assertEquals(2, metadata.pageCount());
+    }
+
+    @Test
+    public void testSelfReferencingSubDirectoryIsBounded() throws IOException
+    {
+        for (boolean forwardOnly : new boolean[]{false, true})
+        {
+            try (IFDHandler handler = new IFDHandler(createExifLoop()))
+            {
+                handler.setForwardOnly(forwardOnly);
+
+                assertTrue(handler.parseMetadata());
+                assertEquals(2, handler.getDirectories().size());
+                assertEquals(DirectoryIdentifier.IFD_EXIF_SUBIFD_DIRECTORY, handler.getDirectories().get(1).getDirectoryType());
+            }
+        }
+    }
+
+    @Test
+    public void testNextPointerLoopIsRejected() throws IOException
+    {
+        byte[] tiff = createTwoPageTiff();
+
+        // IFD1 points back to IFD0
+        ByteBuffer.wrap(tiff).order(ByteOrder.LITTLE_ENDIAN).putInt(96, 8);
+
+        for (boolean forwardOnly : new boolean[]{false, true})
+        {
+            try (IFDHandler handler = new IFDHandler(tiff))
+            {
+                handler.setForwardOnly(forwardOnly);
+
+                assertFalse(handler.parseMetadata());
+                assertTrue(handler.getDirectories().isEmpty());
+            }
+        }
+    }
+
+    @Test
+    public void testDirectoryBudgetTruncates() throws IOException
+    {
+        for (boolean forwardOnly : new boolean[]{false, true})
+        {
+            try (IFDHandler handler = new IFDHandler(createTwoPageTiff()))
+            {
+                handler.setForwardOnly(forwardOnly);
+                handler.setBudget(new TraversalBudget(TraversalBudget.DEFAULT_MAX_DEPTH, 1, TraversalBudget.DEFAULT_MAX_ENTRIES, TraversalBudget.DEFAULT_MAX_VALUE_BYTES));
+
+                assertTrue(handler.parseMetadata());
+                assertTrue(handler.isTruncated());
+                assertEquals(1, handler.getDirectories().size());
+                assertEquals(DirectoryIdentifier.IFD_DIRECTORY_IFD0, handler.getDirectories().get(0).getDirectoryType());
+            }
+        }
+    }
+
+    @Test
+    public void testValueBudgetTruncates() throws IOException
+    {
+        for (boolean forwardOnly : new boolean[]{false, true})
+        {
+            try (IFDHandler handler = new IFDHandler(createTwoPageTiff()))
+            {
+                handler.setForwardOnly(forwardOnly);
+                handler.setBudget(new TraversalBudget(TraversalBudget.DEFAULT_MAX_DEPTH, TraversalBudget.DEFAULT_MAX_DIRECTORIES, TraversalBudget.DEFAULT_MAX_ENTRIES, 4));
+
+                assertTrue(handler.parseMetadata());
+                assertTrue(handler.isTruncated());
+                assertEquals(3, handler.getDirectories().size());
+                assertFalse(handler.getDirectories().get(0).hasTag(TagIFD_Baseline.IFD_IMAGE_DESCRIPTION));
+            }
+        }
+    }
+
+    @Test
+    public void testOverflowingValueLengthIsRejected() throws IOException
+    {
+        byte[] tiff = createBigTiff(ByteOrder.LITTLE_ENDIAN);
+
+        // Description count and offset whose sum overflows a long
+        ByteBuffer.wrap(tiff).order(ByteOrder.LITTLE_ENDIAN).putLong(48, Long.MAX_VALUE - 8).putLong(56, 72);
+
+        try (IFDHandler handler = new IFDHandler(tiff))
+        {
+            assertTrue(handler.parseMetadata());
+
+            DirectoryIFD ifd0 = handler.getDirectories().get(0);
+
+            assertEquals(100, ifd0.getIntValue(TagIFD_Baseline.IFD_IMAGE_WIDTH));
+            assertFalse(ifd0.hasTag(TagIFD_Baseline.IFD_IMAGE_DESCRIPTION));
+        }
+    }
+
+    private static void assertBigTiffParsed(ByteOrder order) throws IOException
+    {
+        try (IFDHandler handler = new IFDHandler(createBigTiff(order)))
+        {
+            assertTrue(handler.parseMetadata());
+            assertTrue(handler.isBigTiffVersion());
+            assertEquals(order, handler.getTifByteOrder());
+
+            DirectoryIFD ifd0 = handler.getDirectories().get(0);
+
+            assertEquals(DirectoryIdentifier.IFD_DIRECTORY_IFD0, ifd0.getDirectoryType());
+            assertEquals(100, ifd0.getIntValue(TagIFD_Baseline.IFD_IMAGE_WIDTH));
+            assertEquals(DESCRIPTION, ifd0.getString(TagIFD_Baseline.IFD_IMAGE_DESCRIPTION));
+        }
+    }
+
+    /**
+     * Builds a BigTIFF (version 43) whose IFD0 holds an inline image width and an out-of-line
+     * description, addressed by 8-byte offsets.
+     */
+    private static byte[] createBigTiff(ByteOrder order)
+    {
+        byte[] text = (DESCRIPTION + "\0").getBytes(StandardCharsets.US_ASCII);
+        int valueOffset = 16 + 8 + 2 * 20 + 8;
+        ByteBuffer buf = ByteBuffer.allocate(valueOffset + text.length).order(order);
+
+        buf.putShort((short) (order == ByteOrder.BIG_ENDIAN ? 0x4D4D : 0x4949));
+        buf.putShort((short) 43).putShort((short) 8).putShort((short) 0).putLong(16);
+
+        // IFD0 with two 20-byte entries
+        buf.putLong(2);
+        buf.putShort((short) 0x0100).putShort((short) 3).putLong(1).putShort((short) 100).putShort((short) 0).putInt(0);
+        buf.putShort((short) 0x010E).putShort((short) 2).putLong(text.length).putLong(valueOffset);
+        buf.putLong(0);
+
+        buf.put(text);
+
+        return buf.array();
+    }
+
+    /**
+     * Builds a little-endian TIFF with two pages, where the Exif sub-directory and the out-of-line
+     * description of IFD0 lie between IFD0 and IFD1.
+     */
+    private static byte[] createTwoPageTiff()
+    {
+        byte[] text = (CAPTION + "\0").getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer buf = ByteBuffer.allocate(100).order(ByteOrder.LITTLE_ENDIAN);
+
+        buf.putShort((short) 0x4949).putShort((short) 42).putInt(8);
+
+        // IFD0 at 8, with the Exif sub-directory at 50, the description at 68 and IFD1 at 82
+        buf.putShort((short) 3);
+        buf.putShort((short) 0x0100).putShort((short) 3).putInt(1).putShort((short) 100).putShort((short) 0);
+        buf.putShort((short) 0x010E).putShort((short) 2).putInt(text.length).putInt(68);
+        buf.putShort((short) 0x8769).putShort((short) 4).putInt(1).putInt(50);
+        buf.putInt(82);
+
+        buf.putShort((short) 1);
+        buf.putShort((short) 0xA002).putShort((short) 3).putInt(1).putShort((short) 640).putShort((short) 0);
+        buf.putInt(0);
+
+        buf.put(text).put((byte) 0);
+
+        buf.putShort((short) 1);
+        buf.putShort((short) 0x0100).putShort((short) 3).putInt(1).putShort((short) 160).putShort((short) 0);
+        buf.putInt(0);
+
+        return buf.array();
+    }
+
+    /**
+     * Builds a little-endian TIFF whose Exif sub-directory holds an interoperability pointer back
+     * to itself.
+     */
+    private static byte[] createExifLoop()
+    {
+        ByteBuffer buf = ByteBuffer.allocate(44).order(ByteOrder.LITTLE_ENDIAN);
+
+        buf.putShort((short) 0x4949).putShort((short) 42).putInt(8);
+
+        // IFD0 at 8, with the Exif sub-directory at 26
+        buf.putShort((short) 1);
+        buf.putShort((short) 0x8769).putShort((short) 4).putInt(1).putInt(26);
+        buf.putInt(0);
+
+        buf.putShort((short) 1);
+        buf.putShort((short) 0xA005).putShort((short) 4).putInt(1).putInt(26);
+        buf.putInt(0);
+
+        return buf.array();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,118 @@
+package Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import jpg.JpgParser;
+import tif.TifMetadata;
+import xmp.XmpDirectory;
+import xmp.XmpProperty;
+
+class JpgExtendedXmpTest
+{
+    private static final String GUID = "55A23EE23F1E30FE0E8AAF3AEAA3B6C2";
+    private static final String OTHER_GUID = "0123456789ABCDEF0123456789ABCDEF";
+    private static final String MAIN_XMP = "<x:xmpmeta xmlns:x=\"adobe:ns:meta/\"><rdf:RDF xmlns:rdf=\"http://www.w3.org/1999/02/22-rdf-syntax-ns#\">"
+            + "<rdf:Description rdf:about=\"\" xmlns:xmp=\"http://ns.adobe.com/xap/1.0/\" xmlns:xmpNote=\"http://ns.adobe.com/xmp/note/\""
+            + " xmp:CreateDate=\"2011-10-07T22:59:20\" xmpNote:HasExtendedXMP=\"" + GUID + "\"/></rdf:RDF></x:xmpmeta>";
+    private static final String EXTENDED_XMP = "<x:xmpmeta xmlns:x=\"adobe:ns:meta/\"><rdf:RDF xmlns:rdf=\"http://www.w3.org/1999/02/22-rdf-syntax-ns#\">"
+            + "<rdf:Description rdf:about=\"\" xmlns:xmp=\"http://ns.adobe.com/xap/1.0/\" xmp:CreatorTool=\"Extended tool\"/></rdf:RDF></x:xmpmeta>";
+
+    @Test
+    public void testChunksOutOfOrderAreMerged() throws IOException
+    {
+        XmpDirectory dir = readXmp(createSample(GUID, true), false);
+
+        assertEquals("2011-10-07T22:59:20", dir.getValueByPath(XmpProperty.XMP_CREATEDATE).get());
+        assertEquals("Extended tool", dir.getValueByPath(XmpProperty.XMP_CREATORTOOL).get());
+    }
+
+    @Test
+    public void testSkipExtendedXmp() throws IOException
+    {
+        XmpDirectory dir = readXmp(createSample(GUID, false), true);
+
+        assertTrue(dir.getValueByPath(XmpProperty.XMP_CREATEDATE).isPresent());
+        assertFalse(dir.getValueByPath(XmpProperty.XMP_CREATORTOOL).isPresent());
+    }
+
+    @Test
+    public void testUndeclaredGuidIsIgnored() throws IOException
+    {
+        XmpDirectory dir = readXmp(createSample(OTHER_GUID, false), false);
+
+        assertTrue(dir.getValueByPath(XmpProperty.XMP_CREATEDATE).isPresent());
+        assertFalse(dir.getValueByPath(XmpProperty.XMP_CREATORTOOL).isPresent());
+    }
+
+    private static XmpDirectory readXmp(Path file, boolean skipExtended) throws IOException
+    {
+        try (JpgParser parser = new JpgParser(file))
+        {
+            parser.setSkipExtendedXmp(skipExtended);
+            parser.readMetadata();
+
+            XmpDirectory dir = ((TifMetadata) parser.getMetadata()).getXmpDirectory();
+
+            assertNotNull(dir);
+
+            return dir;
+        }
+
+        finally
+        {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Writes a baseline JPEG whose main XMP packet declares an Extended XMP packet, split into two
+     * chunks under the specified GUID and optionally stored in reverse order.
+     */
+    private static Path createSample(String guid, boolean reversed) throws IOException
+    {
+        byte[] main = ("http://ns.adobe.com/xap/1.0/\0" + MAIN_XMP).getBytes(StandardCharsets.UTF_8);
+        byte[] extended = EXTENDED_XMP.getBytes(StandardCharsets.UTF_8);
+        int split = extended.length / 2;
+        byte[][] chunks = {
+                extensionChunk(guid, extended, 0, split), extensionChunk(guid, extended, split, extended.length)
+        };
+        byte[] tail = {
+                (byte) 0xFF, (byte) 0xDA, 0x00, 0x08, 0x01, 0x01, 0x00, 0x00, 0x3F, 0x00, 0x11, 0x22, (byte) 0xFF, (byte) 0xD9
+        };
+        ByteBuffer buf = ByteBuffer.allocate(2 + 4 + main.length + 8 + chunks[0].length + chunks[1].length + tail.length);
+
+        buf.putShort((short) 0xFFD8);
+        buf.putShort((short) 0xFFE1).putShort((short) (2 + main.length)).put(main);
+
+        for (int i = 0; i < chunks.length; i++)
+        {
+            byte[] chunk = chunks[reversed ? chunks.length - 1 - i : i];
+
+            buf.putShort((short) 0xFFE1).putShort((short) (2 + chunk.length)).put(chunk);
+        }
+
+        buf.put(tail);
+
+        Path file = Files.createTempFile("xmp", ".jpg");
+
+        Files.write(file, buf.array());
+
+        return file;
+    }
+
+    private static byte[] extensionChunk(String guid, byte[] packet, int from, int to)
+    {
+        byte[] header = ("http://ns.adobe.com/xmp/extension/\0" + guid).getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer chunk = ByteBuffer.allocate(header.length + 8 + to - from);
+
+        chunk.put(header).putInt(packet.length).putInt(from).put(Arrays.copyOfRange(packet, from, to));
+
+        return chunk.array();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,173 @@
+package Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import jpg.JpgMpfIndex;
+import jpg.JpgParser;
+
+class JpgMpfIndexTest
+{
+    /* Stand-in for a second embedded JPEG, such as a large preview */
+    private static final byte[] SECONDARY = {
+            (byte) 0xFF, (byte) 0xD8, 0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08, (byte) 0xFF, (byte) 0xD9
+    };
+
+    @Test
+    public void testTransferSecondaryImage() throws IOException
+    {
+        Path file = createMpfSample();
+
+        try
+        {
+            JpgMpfIndex.ImageRegion region = readSecondaryRegion(file);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            assertEquals(SECONDARY.length, region.transferTo(file, Channels.newChannel(out)));
+            assertArrayEquals(SECONDARY, out.toByteArray());
+        }
+
+        finally
+        {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testTransferFallsBackWhenTargetStalls() throws IOException
+    {
+        Path file = createMpfSample();
+
+        try
+        {
+            JpgMpfIndex.ImageRegion region = readSecondaryRegion(file);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            WritableByteChannel target = new StallingChannel(Channels.newChannel(out), 1);
+
+            assertEquals(SECONDARY.length, region.transferTo(file, target));
+            assertArrayEquals(SECONDARY, out.toByteArray());
+        }
+
+        finally
+        {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testTransferFailsWhenTargetNeverAccepts() throws IOException
+    {
+        Path file = createMpfSample();
+
+        try
+        {
+            JpgMpfIndex.ImageRegion region = readSecondaryRegion(file);
+            WritableByteChannel target = new StallingChannel(Channels.newChannel(new ByteArrayOutputStream()), Integer.MAX_VALUE);
+
+            assertThrows(IOException.class, () -> region.transferTo(file, target));
+        }
+
+        finally
+        {
+            Files.delete(file);
+        }
+    }
+
+    private static JpgMpfIndex.ImageRegion readSecondaryRegion(Path file) throws IOException
+    {
+        try (JpgParser parser = new JpgParser(file))
+        {
+            parser.readMetadata();
+
+            JpgMpfIndex index = parser.getMpfIndex().get();
+
+            assertEquals(2, index.size());
+
+            return index.getRegions().get(1);
+        }
+    }
+
+    /**
+     * Writes a baseline JPEG whose MPF segment indexes itself and the secondary image appended
+     * after its EOI marker.
+     */
+    private static Path createMpfSample() throws IOException
+    {
+        int tiffOffset = 10;
+        int tiffLength = 82;
+        byte[] primaryTail = {
+                (byte) 0xFF, (byte) 0xDA, 0x00, 0x08, 0x01, 0x01, 0x00, 0x00, 0x3F, 0x00, 0x11, 0x22, (byte) 0xFF, (byte) 0xD9
+        };
+        int primaryLength = tiffOffset + tiffLength + primaryTail.length;
+        ByteBuffer buf = ByteBuffer.allocate(primaryLength + SECONDARY.length);
+
+        buf.putShort((short) 0xFFD8);
+        buf.putShort((short) 0xFFE2).putShort((short) (2 + 4 + tiffLength)).put("MPF\0".getBytes("US-ASCII"));
+
+        // Big-endian TIFF header and MP Index IFD with three entries
+        buf.putShort((short) 0x4D4D).putShort((short) 42).putInt(8);
+        buf.putShort((short) 3);
+        buf.putShort((short) 0xB000).putShort((short) 7).putInt(4).put("0100".getBytes("US-ASCII"));
+        buf.putShort((short) 0xB001).putShort((short) 4).putInt(1).putInt(2);
+        buf.putShort((short) 0xB002).putShort((short) 7).putInt(32).putInt(50);
+        buf.putInt(0);
+
+        // MP Entry records: representative primary image, then a large thumbnail
+        buf.putInt(0x20030000).putInt(primaryLength).putInt(0).putShort((short) 0).putShort((short) 0);
+        buf.putInt(0x00010001).putInt(SECONDARY.length).putInt(primaryLength - tiffOffset).putShort((short) 0).putShort((short) 0);
+
+        buf.put(primaryTail);
+        buf.put(SECONDARY);
+
+        Path file = Files.createTempFile("mpf", ".jpg");
+
+        Files.write(file, buf.array());
+
+        return file;
+    }
+
+    /**
+     * Accepts no bytes for the specified number of writes, then passes them on.
+     */
+    private static final class StallingChannel implements WritableByteChannel
+    {
+        private final WritableByteChannel delegate;
+        private int stalls;
+
+        private StallingChannel(WritableByteChannel delegate, int stalls)
+        {
+            this.delegate = delegate;
+            this.stalls = stalls;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException
+        {
+            if (stalls > 0)
+            {
+                stalls--;
+                return 0;
+            }
+
+            return delegate.write(src);
+        }
+
+        @Override
+        public boolean isOpen()
+        {
+            return delegate.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            delegate.close();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,57 @@
+package Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import tif.DirectoryIFD;
+import tif.DirectoryIdentifier;
+import tif.TifMetadata;
+import tif.TifParser;
+import tif.tagspecs.TagIFD_Baseline;
+
+class TifMetadataTest
+{
+    /*
+     * Little-endian TIFF whose IFD0 references two SubIFDs, each holding
+     * a different image width.
+     */
+    private static final byte[] TWO_SUBIFDS = {
+            0x49, 0x49, 0x2A, 0x00, 0x08, 0x00, 0x00, 0x00, // header, IFD0 at 8
+            0x02, 0x00, // IFD0: 2 entries
+            0x00, 0x01, 0x03, 0x00, 0x01, 0x00, 0x00, 0x00, 0x64, 0x00, 0x00, 0x00, // ImageWidth = 100
+            0x4A, 0x01, 0x04, 0x00, 0x02, 0x00, 0x00, 0x00, 0x26, 0x00, 0x00, 0x00, // SubIFDs at 38
+            0x00, 0x00, 0x00, 0x00, // no next IFD
+            0x2E, 0x00, 0x00, 0x00, 0x40, 0x00, 0x00, 0x00, // SubIFD offsets 46, 64
+            0x01, 0x00, // SubIFD A: 1 entry
+            0x00, 0x01, 0x03, 0x00, 0x01, 0x00, 0x00, 0x00, (byte) 0x80, 0x02, 0x00, 0x00, // ImageWidth = 640
+            0x00, 0x00, 0x00, 0x00,
+            0x01, 0x00, // SubIFD B: 1 entry
+            0x00, 0x01, 0x03, 0x00, 0x01, 0x00, 0x00, 0x00, 0x40, 0x01, 0x00, 0x00, // ImageWidth = 320
+            0x00, 0x00, 0x00, 0x00
+    };
+
+    @Test
+    public void testSubIfdsSharingIdentifierAreKept()
+    {
+        TifMetadata metadata = TifParser.parseTiffMetadataFromBytes(TWO_SUBIFDS);
+        List<DirectoryIFD> subIfds = metadata.getDirectories(DirectoryIdentifier.IFD_DIRECTORY_SUBIFD);
+
+        assertEquals(2, subIfds.size());
+        assertEquals(640, subIfds.get(0).getIntValue(TagIFD_Baseline.IFD_IMAGE_WIDTH));
+        assertEquals(320, subIfds.get(1).getIntValue(TagIFD_Baseline.IFD_IMAGE_WIDTH));
+        assertSame(subIfds.get(0), metadata.getDirectory(DirectoryIdentifier.IFD_DIRECTORY_SUBIFD));
+    }
+
+    @Test
+    public void testRemoveDirectoryKeepsSibling()
+    {
+        TifMetadata metadata = TifParser.parseTiffMetadataFromBytes(TWO_SUBIFDS);
+        List<DirectoryIFD> subIfds = metadata.getDirectories(DirectoryIdentifier.IFD_DIRECTORY_SUBIFD);
+        DirectoryIFD second = subIfds.get(1);
+
+        assertTrue(metadata.removeDirectory(subIfds.get(0)));
+        assertSame(second, metadata.getDirectory(DirectoryIdentifier.IFD_DIRECTORY_SUBIFD));
+        assertTrue(metadata.removeDirectory(second));
+        assertFalse(metadata.isDirectoryPresent(DirectoryIdentifier.IFD_DIRECTORY_SUBIFD));
+    }
+}
\ No newline at end of file
@@ -112,7 +112,7 @@ public final class BatchConsole2 extends BatchExecutor
                 {
                     if (media.isJPG())
                     {
-                        JpgDatePatcher.patchAllDates(targetPath, captureTime, false);
+                        JpgDatePatcher.patchAllDates(targetPath, captureTime, false, media.getSegmentIndex());
                     }
 
                     else if (media.isPNG())
@@ -19,6 +19,8 @@ import common.ImageParserFactory;
 import common.Metadata;
 import common.SmartDateParser;
 import common.SystemInfo;
+import jpg.JpgParser;
+import jpg.JpgSegmentIndex;
 import logger.LogFactory;
 
 /**
@@ -372,17 +374,16 @@ public class BatchExecutor implements Iterable<MediaFile>
             {
                 LOGGER.info("Original file [" + fpath + "] registered for processing");
 
-                try
+                try (AbstractImageParser parser = ImageParserFactory.getParser(fpath))
                 {
-                    AbstractImageParser parser = ImageParserFactory.getParser(fpath);
-
                     parser.readMetadata();
 
                     Metadata<?> meta = parser.getMetadata();
                     Date metadataDate = meta.extractDate();
 
                     FileTime modifiedTime = selectDateTaken(fpath, metadataDate, attr.lastModifiedTime());
-                    MediaFile media = new MediaFile(fpath, modifiedTime, parser.getImageFormat(), (metadataDate == null));
+                    JpgSegmentIndex index = (parser instanceof JpgParser ? ((JpgParser) parser).getSegmentIndex() : null);
+                    MediaFile media = new MediaFile(fpath, modifiedTime, parser.getImageFormat(), (metadataDate == null), index);
 
                     // System.out.printf("METADATA DATE -> %s%n", metadataDate);
                     System.out.printf("%s%n", parser.formatDiagnosticString());
@@ -4,6 +4,7 @@ import java.nio.file.Path;
 import java.nio.file.attribute.FileTime;
 import java.util.Objects;
 import common.DigitalSignature;
+import jpg.JpgSegmentIndex;
 
 /**
  * Represents metadata for a single media file, including file path, capture date, file format, and
@@ -19,6 +20,7 @@ public final class MediaFile
     private final FileTime dateTaken;
     private final boolean hasNoMetadata;
     private final DigitalSignature mediaFormat;
+    private final JpgSegmentIndex segmentIndex;
 
     /**
      * Constructs a MediaFile instance with the specified file path, capture date, and format
@@ -49,11 +51,33 @@ public final class MediaFile
      *        true if the media file has missing or empty metadata
      */
     public MediaFile(Path fpath, FileTime date, DigitalSignature sig, boolean emptymeta)
+    {
+        this(fpath, date, sig, emptymeta, null);
+    }
+
+    /**
+     * Constructs a MediaFile instance with the specified path, date, format, metadata status, and
+     * the segment index built while the file was parsed.
+     *
+     * @param fpath
+     *        the path to the media file
+     * @param date
+     *        the capture or creation date of the media
+     * @param sig
+     *        the media format signature
+     * @param emptymeta
+     *        true if the media file has missing or empty metadata
+     * @param index
+     *        the segment index of a JPG file, allowing the patch phase to seek straight to the
+     *        metadata segments, or null if there is none
+     */
+    public MediaFile(Path fpath, FileTime date, DigitalSignature sig, boolean emptymeta, JpgSegmentIndex index)
     {
         this.mediaFile = fpath;
         this.dateTaken = date;
         this.mediaFormat = sig;
         this.hasNoMetadata = emptymeta;
+        this.segmentIndex = index;
     }
 
     /**
@@ -65,7 +89,7 @@ public final class MediaFile
      */
     public MediaFile(MediaFile obj)
     {
-        this(obj.getPath(), obj.getDateTaken(), obj.getMediaFormat(), obj.isMetadataEmpty());
+        this(obj.getPath(), obj.getDateTaken(), obj.getMediaFormat(), obj.isMetadataEmpty(), obj.getSegmentIndex());
     }
 
     /**
@@ -120,6 +144,16 @@ public final class MediaFile
         return hasNoMetadata;
     }
 
+    /**
+     * Returns the segment index recorded when the file was parsed, which only JPG files carry.
+     *
+     * @return the {@link JpgSegmentIndex}, or null if none was recorded
+     */
+    public JpgSegmentIndex getSegmentIndex()
+    {
+        return segmentIndex;
+    }
+
     /**
      * Returns whether this media file is in JPG format.
      *
@@ -141,13 +175,14 @@ public final class MediaFile
     }
 
     /**
-     * Returns whether this media file is in TIFF format.
+     * Returns whether this media file is in TIFF format, including the raw camera formats built on
+     * it, for example: DNG or NEF.
      *
-     * @return true if TIFF, otherwise false
+     * @return true if TIFF-based, otherwise false
      */
     public boolean isTIF()
     {
-        return mediaFormat == DigitalSignature.TIF;
+        return mediaFormat.isTiffBased();
     }
 
     /**
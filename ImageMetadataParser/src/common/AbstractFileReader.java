@@ -0,0 +1,640 @@
+package common;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+
+/**
+ * A skeletal {@link ByteStreamReader} over a file of fixed length, which keeps the current position,
+ * byte order and mark stack in memory and implements every primitive read on top of a few
+ * storage-specific operations.
+ *
+ * <p>
+ * Subclasses only decide where the bytes come from, for example: a page cache, a memory mapping, a
+ * prefetched window or positional channel reads. They implement {@link #byteAt(long)} and
+ * {@link #copyTo(long, byte[], int, int)}, and may override {@link #valueAt(long, int)} to decode
+ * multi-byte values in place when the bytes are already in memory. All bounds checks are made here,
+ * before any of these operations is called, so the readers report out-of-range requests in the same
+ * way.
+ * </p>
+ *
+ * <p>
+ * <strong>Thread Safety:</strong> This class is not thread-safe.
+ * </p>
+ *
+ * @author Trevor Maggs
+ * @version 1.0
+ * @since 16 October 2026
+ */
+public abstract class AbstractFileReader implements ByteStreamReader
+{
+    private final Deque<Long> positionStack = new ArrayDeque<>();
+    private final Path pfile;
+    private ByteOrder byteOrder;
+    private EndianDecoder decoder;
+    private long position;
+
+    /**
+     * Initialises the state shared by all file readers.
+     *
+     * @param fpath
+     *        the path to the file
+     * @param order
+     *        the {@link ByteOrder} for multi-byte interpretation
+     *
+     * @throws NullPointerException
+     *         if either argument is null
+     */
+    protected AbstractFileReader(Path fpath, ByteOrder order)
+    {
+        this.pfile = Objects.requireNonNull(fpath, "File path cannot be null");
+        this.byteOrder = Objects.requireNonNull(order, "Byte order cannot be null");
+        this.decoder = EndianDecoder.of(order);
+    }
+
+    /**
+     * Returns the byte at the specified absolute offset, which has already been checked to lie
+     * within the file.
+     *
+     * @param offset
+     *        the absolute file position
+     * @return the signed byte value
+     *
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    protected abstract byte byteAt(long offset) throws IOException;
+
+    /**
+     * Copies a range of bytes, which has already been checked to lie within the file, into the
+     * destination array.
+     *
+     * @param offset
+     *        the absolute file position to start copying from
+     * @param dst
+     *        the destination array
+     * @param dstPos
+     *        the starting index within the destination array
+     * @param length
+     *        the number of bytes to copy
+     *
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    protected abstract void copyTo(long offset, byte[] dst, int dstPos, int length) throws IOException;
+
+    /**
+     * Decodes an integral value of up to 8 bytes at the specified absolute offset, which has
+     * already been checked to lie within the file, using the current byte order. This copies the
+     * bytes out first, and subclasses holding them in memory should decode them in place instead.
+     *
+     * @param offset
+     *        the absolute file position of the value
+     * @param numBytes
+     *        the number of bytes making up the value
+     * @return the assembled value, zero-extended to 64 bits
+     *
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    protected long valueAt(long offset, int numBytes) throws IOException
+    {
+        byte[] src = new byte[numBytes];
+
+        copyTo(offset, src, 0, numBytes);
+
+        return decoder.getValue(src, 0, numBytes);
+    }
+
+    /**
+     * Returns the decoder matching the current byte order.
+     *
+     * @return the active {@link EndianDecoder}
+     */
+    protected EndianDecoder decoder()
+    {
+        return decoder;
+    }
+
+    /**
+     * Gets the file name, which this stream is based on.
+     *
+     * @return the file encapsulated in a Path resource
+     */
+    @Override
+    public Path getFilename()
+    {
+        return pfile;
+    }
+
+    /**
+     * Updates the byte order for subsequent multi-byte read operations.
+     *
+     * @param order
+     *        the new byte order
+     */
+    @Override
+    public void setByteOrder(ByteOrder order)
+    {
+        this.byteOrder = Objects.requireNonNull(order, "Byte order cannot be null");
+        this.decoder = EndianDecoder.of(order);
+    }
+
+    /**
+     * Returns the current byte order used for interpreting data.
+     *
+     * @return the active {@link ByteOrder}, either {@link ByteOrder#BIG_ENDIAN} or
+     *         {@link ByteOrder#LITTLE_ENDIAN}
+     */
+    @Override
+    public ByteOrder getByteOrder()
+    {
+        return byteOrder;
+    }
+
+    /**
+     * Returns the current absolute byte offset. This is tracked in memory and does not query the
+     * underlying file.
+     *
+     * @return the current position
+     */
+    @Override
+    public long getCurrentPosition()
+    {
+        return position;
+    }
+
+    /**
+     * Moves the position by a relative offset.
+     *
+     * @param n
+     *        the number of bytes to skip (positive to move forward, negative for backward)
+     * @throws EOFException
+     *         if the resulting position is out of file bounds
+     */
+    @Override
+    public void skip(long n) throws IOException
+    {
+        long offset = position + n;
+
+        if (offset < 0 || offset > length())
+        {
+            throw new EOFException("Skip target [" + offset + "] out of bounds [0-" + length() + "]");
+        }
+
+        position = offset;
+    }
+
+    /**
+     * Moves the position to an absolute offset.
+     *
+     * @param n
+     *        the target position (index 0)
+     * @throws IllegalArgumentException
+     *         if the position is negative
+     */
+    @Override
+    public void seek(long n) throws IOException
+    {
+        if (n < 0)
+        {
+            throw new IllegalArgumentException("Position cannot be negative");
+        }
+
+        position = n;
+    }
+
+    /**
+     * Pushes the current position onto the internal mark stack. A subsequent call to
+     * {@link #reset()} will pop this position and return the reader to it.
+     */
+    @Override
+    public void mark()
+    {
+        positionStack.push(position);
+    }
+
+    /**
+     * Returns to the position recorded by the most recent {@link #mark()}. This operation pops the
+     * position from the stack.
+     *
+     * @throws IllegalStateException
+     *         if the mark stack is empty
+     */
+    @Override
+    public void reset()
+    {
+        if (positionStack.isEmpty())
+        {
+            throw new IllegalStateException("Mark stack is empty");
+        }
+
+        position = positionStack.pop();
+    }
+
+    /**
+     * Reads a single byte at an absolute offset without advancing the current position.
+     *
+     * @param offset
+     *        the absolute position to read from
+     * @return the signed byte value
+     *
+     * @throws IOException
+     *         if the offset is out of bounds or an I/O error occurs
+     */
+    @Override
+    public byte peek(long offset) throws IOException
+    {
+        if (offset < 0 || offset >= length())
+        {
+            throw new EOFException("Peek offset [" + offset + "] out of bounds [0-" + length() + "]");
+        }
+
+        return byteAt(offset);
+    }
+
+    /**
+     * Reads a sequence of bytes at an absolute offset without moving the current position.
+     *
+     * @param offset
+     *        the absolute position to start reading from
+     * @param length
+     *        the number of bytes to read
+     * @return a new sub-array containing the read data
+     *
+     * @throws IOException
+     *         if the request exceeds the file length or an I/O error occurs
+     */
+    @Override
+    public byte[] peek(long offset, int length) throws IOException
+    {
+        checkRange(offset, length);
+
+        byte[] data = new byte[length];
+
+        copyTo(offset, data, 0, length);
+
+        return data;
+    }
+
+    /**
+     * Fills a region of the destination array with bytes read from an absolute offset, without
+     * using or moving the current position.
+     *
+     * @param offset
+     *        the absolute position to start reading from
+     * @param dst
+     *        the destination array
+     * @param dstPos
+     *        the starting index within the destination array
+     * @param length
+     *        the number of bytes to read
+     *
+     * @throws IOException
+     *         if the request exceeds the file length or an I/O error occurs
+     */
+    @Override
+    public void readAt(long offset, byte[] dst, int dstPos, int length) throws IOException
+    {
+        checkRange(offset, length);
+        copyTo(offset, dst, dstPos, length);
+    }
+
+    /**
+     * Reads a signed byte and advances the position by 1 step forward.
+     *
+     * @return the signed byte value
+     *
+     * @throws IOException
+     *         if an I/O error occurs or if the file has reached end of file
+     */
+    @Override
+    public byte readByte() throws IOException
+    {
+        checkBounds(1);
+
+        byte b = byteAt(position);
+
+        position++;
+
+        return b;
+    }
+
+    /**
+     * Reads a sequence of bytes and advances the position by the specified length.
+     *
+     * @param length
+     *        the number of bytes to read
+     * @return a new array containing the read bytes
+     *
+     * @throws IOException
+     *         if an I/O error occurs or when the file reaches the end of file before reading all
+     *         the bytes
+     */
+    @Override
+    public byte[] readBytes(int length) throws IOException
+    {
+        if (length < 0)
+        {
+            throw new IllegalArgumentException("Length cannot be negative");
+        }
+
+        else if (length == 0)
+        {
+            return new byte[0];
+        }
+
+        checkBounds(length);
+
+        byte[] bytes = new byte[length];
+
+        copyTo(position, bytes, 0, length);
+        position += length;
+
+        return bytes;
+    }
+
+    /**
+     * Reads a sequence of bytes into an existing array and advances the position by the specified
+     * length.
+     *
+     * @param dst
+     *        the destination array
+     * @param offset
+     *        the starting index within the destination array
+     * @param length
+     *        the number of bytes to read
+     *
+     * @throws IOException
+     *         if an I/O error occurs or when the file reaches the end of file before reading all
+     *         the bytes
+     */
+    @Override
+    public void readBytes(byte[] dst, int offset, int length) throws IOException
+    {
+        if (length < 0)
+        {
+            throw new IllegalArgumentException("Length cannot be negative");
+        }
+
+        checkBounds(length);
+        copyTo(position, dst, offset, length);
+        position += length;
+    }
+
+    /**
+     * Reads an unsigned byte (0-255).
+     *
+     * @return the unsigned 8-bit value as an integer
+     *
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    @Override
+    public int readUnsignedByte() throws IOException
+    {
+        return readByte() & 0xFF;
+    }
+
+    /**
+     * Reads a 16-bit short value respecting the current byte order.
+     *
+     * @return the signed short value
+     *
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    @Override
+    public short readShort() throws IOException
+    {
+        return (short) readValue(2);
+    }
+
+    /**
+     * Reads an unsigned 16-bit short value (0-65535).
+     *
+     * @return the unsigned short value as an integer
+     *
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    @Override
+    public int readUnsignedShort() throws IOException
+    {
+        return readShort() & 0xFFFF;
+    }
+
+    /**
+     * Reads a 32-bit integer respecting the current byte order.
+     *
+     * @return the signed integer value
+     *
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    @Override
+    public int readInteger() throws IOException
+    {
+        return (int) readValue(4);
+    }
+
+    /**
+     * Reads an unsigned 32-bit integer as a long.
+     *
+     * @return the unsigned integer value
+     *
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    @Override
+    public long readUnsignedInteger() throws IOException
+    {
+        return readInteger() & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Reads a 24-bit integer respecting the current byte order.
+     *
+     * @return the 24-bit value as a signed 32-bit integer
+     *
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    @Override
+    public int readUnsignedInt24() throws IOException
+    {
+        return (int) readValue(3);
+    }
+
+    /**
+     * Reads a 64-bit long respecting the current byte order.
+     *
+     * @return the signed long value
+     *
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    @Override
+    public long readLong() throws IOException
+    {
+        return readValue(8);
+    }
+
+    /**
+     * Reads a 32-bit float respecting the current byte order.
+     *
+     * @return the float value
+     *
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    @Override
+    public float readFloat() throws IOException
+    {
+        return Float.intBitsToFloat(readInteger());
+    }
+
+    /**
+     * Reads a 64-bit double respecting the current byte order.
+     *
+     * @return the double value
+     *
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    @Override
+    public double readDouble() throws IOException
+    {
+        return Double.longBitsToDouble(readLong());
+    }
+
+    /**
+     * Reads a null-terminated string using ISO-8859-1 encoding.
+     *
+     * @see #readString(Charset)
+     */
+    @Override
+    public String readString() throws IOException
+    {
+        return readString(StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Reads a null-terminated string (C-style) using the specified charset. The position is
+     * advanced past both the string data and the null terminator.
+     *
+     * @param charset
+     *        the character encoding for decoding the string
+     * @return the decoded string without the null terminator
+     *
+     * @throws UnsupportedOperationException
+     *         if the detected string length exceeds {@link Integer#MAX_VALUE}
+     * @throws IOException
+     *         if a null terminator is not found before the end of file
+     */
+    public String readString(Charset charset) throws IOException
+    {
+        long startPosition = position;
+        long end = startPosition;
+
+        while (true)
+        {
+            if (end >= length())
+            {
+                throw new IOException("Null terminator not found starting at [" + startPosition + "]");
+            }
+
+            if (byteAt(end) == 0x00)
+            {
+                break;
+            }
+
+            end++;
+        }
+
+        long length = end - startPosition;
+
+        if (length > Integer.MAX_VALUE)
+        {
+            throw new UnsupportedOperationException("String length exceeds maximum supported size: " + length);
+        }
+
+        byte[] stringBytes = new byte[(int) length];
+
+        copyTo(startPosition, stringBytes, 0, (int) length);
+        position = end + 1;
+
+        return new String(stringBytes, charset);
+    }
+
+    /**
+     * Validates that enough bytes remain in the file for the subsequent operation.
+     *
+     * @param byteLen
+     *        the number of bytes required
+     *
+     * @throws EOFException
+     *         if insufficient bytes remain
+     */
+    protected void checkBounds(int byteLen) throws EOFException
+    {
+        if (byteLen > length() - position)
+        {
+            throw new EOFException(String.format("Requested %d bytes, but only %d remain.", byteLen, length() - position));
+        }
+    }
+
+    /**
+     * Validates an absolute range request.
+     *
+     * @param offset
+     *        the absolute start position
+     * @param length
+     *        the number of bytes requested
+     *
+     * @throws IllegalArgumentException
+     *         if the length is negative
+     * @throws EOFException
+     *         if the range lies outside the file
+     */
+    protected void checkRange(long offset, int length) throws EOFException
+    {
+        if (length < 0)
+        {
+            throw new IllegalArgumentException("Length cannot be negative");
+        }
+
+        if (offset < 0 || length > length() - offset)
+        {
+            throw new EOFException("Read request [" + offset + "+" + length + "] exceeds file length [" + length() + "]");
+        }
+    }
+
+    /**
+     * Reads an integral value of up to 8 bytes from the current position and advances the
+     * position.
+     *
+     * @param numBytes
+     *        the number of bytes to read
+     * @return the assembled value
+     *
+     * @throws IOException
+     *         if an I/O error occurs or insufficient bytes remain
+     */
+    private long readValue(int numBytes) throws IOException
+    {
+        checkBounds(numBytes);
+
+        long value = valueAt(position, numBytes);
+
+        position += numBytes;
+
+        return value;
+    }
+}
\ No newline at end of file
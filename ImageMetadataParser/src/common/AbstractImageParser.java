@@ -1,11 +1,14 @@
 package common;
 
 import java.io.IOException;
+import java.nio.ByteOrder;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * An abstract base for image file parsers. Subclasses implement decoding logic for specific formats
@@ -15,14 +18,42 @@ import java.time.format.DateTimeFormatter;
  * This class handles file validation and provides utilities for retrieving basic file system
  * attributes and diagnostic information.
  * </p>
+ *
+ * <p>
+ * Parsers for formats that can be decoded in a single forward pass, namely JPEG, PNG, WebP and
+ * TIFF, may also be constructed over an {@link ImageFileInputStream}. In this case, the metadata is
+ * read straight from the stream and no file needs to exist on disk. Such a parser is single-use,
+ * since the stream is consumed by {@link #readMetadata()}.
+ * </p>
+ *
+ * <p>
+ * Likewise, any parser may be constructed over a reader that is already open, for example: the one
+ * {@link ImageParserFactory#getParser(Path)} used to sniff the file signature. The parser then
+ * takes ownership of that reader, so the file is opened only once. The reader is closed once
+ * {@link #readMetadata()} completes, unless the parser still needs it afterwards, as a
+ * {@link tif.TifParser} does for tag values read on demand, in which case it is closed by
+ * {@link #close()}. Either way, the parser itself must be closed by the caller.
+ * </p>
+ *
+ * <p>
+ * Payload buffers are drawn from the {@link BufferPool} configured via
+ * {@link #setBufferPool(BufferPool)}, which defaults to
+ * {@link ImageParserFactory#getDefaultBufferPool()}. Buffers still leased when {@link #close()} is
+ * called are handed back to the pool then. Buffers backing the parsed results, however, are handed
+ * over to the results via {@link #handOverBuffer(ByteSlice)} and never returned, so that a
+ * recycling pool cannot overwrite metadata that is still in use after the parser is closed.
+ * </p>
  * 
  * @author Trevor Maggs
  * @version 1.0
  * @since 13 August 2025
  */
-public abstract class AbstractImageParser
+public abstract class AbstractImageParser implements AutoCloseable
 {
     private final Path imageFile;
+    private final ByteStreamReader sourceReader;
+    private final LeaseTracker leases = new LeaseTracker();
+    private boolean sourceReaderOwned = true;
 
     /**
      * Constructs an image parser and validates the target file.
@@ -48,6 +79,29 @@ public abstract class AbstractImageParser
         }
 
         this.imageFile = fpath;
+        this.sourceReader = null;
+    }
+
+    /**
+     * Constructs an image parser over a reader that is already open, either an
+     * {@link ImageFileInputStream} or a reader opened on a file. No file system checks are made,
+     * since opening the reader has already proved the source readable.
+     *
+     * @param reader
+     *        the reader positioned at the start of the image data. The parser takes ownership of it
+     *
+     * @throws NullPointerException
+     *         if {@code reader} is null
+     */
+    protected AbstractImageParser(ByteStreamReader reader)
+    {
+        if (reader == null)
+        {
+            throw new NullPointerException("Image reader cannot be null");
+        }
+
+        this.imageFile = reader.getFilename();
+        this.sourceReader = reader;
     }
 
     /**
@@ -60,6 +114,143 @@ public abstract class AbstractImageParser
         return imageFile;
     }
 
+    /**
+     * Sets the pool from which payload buffers are drawn. This must be called before
+     * {@link #readMetadata()}.
+     *
+     * @param pool
+     *        the buffer pool to use
+     *
+     * @throws NullPointerException
+     *         if {@code pool} is null
+     * @throws IllegalStateException
+     *         if buffers are already leased from the current pool
+     */
+    public void setBufferPool(BufferPool pool)
+    {
+        if (pool == null)
+        {
+            throw new NullPointerException("Buffer pool cannot be null");
+        }
+
+        if (!leases.buffers.isEmpty())
+        {
+            throw new IllegalStateException("Buffer pool cannot be changed while buffers are leased");
+        }
+
+        leases.pool = pool;
+    }
+
+    /**
+     * Returns the pool from which payload buffers are drawn.
+     *
+     * @return the configured {@link BufferPool}
+     */
+    public BufferPool getBufferPool()
+    {
+        return leases.pool;
+    }
+
+    /**
+     * Returns a view of the configured pool that records every buffer acquired through it. Buffers
+     * that subclasses or their handlers release through this view are returned to the pool
+     * immediately, while the rest are returned by {@link #close()}.
+     *
+     * @return the tracking {@link BufferPool} view
+     */
+    protected BufferPool getTrackedBufferPool()
+    {
+        return leases;
+    }
+
+    /**
+     * Returns all buffers still leased by this parser to the pool and closes the pre-opened source
+     * reader, if any. Buffers handed over to the parsed results are not returned, so the metadata
+     * obtained from this parser remains valid.
+     *
+     * @throws IOException
+     *         if the source reader cannot be closed
+     */
+    @Override
+    public void close() throws IOException
+    {
+        leases.releaseAll();
+
+        if (sourceReader != null && sourceReaderOwned)
+        {
+            sourceReader.close();
+        }
+    }
+
+    /**
+     * Hands the pooled buffer backing the specified view over to the parsed results, which keep
+     * referring to it. The buffer is then no longer returned to the pool by {@link #close()}, where
+     * it could be recycled by the next parse while the results are still in use. Instead, it is
+     * reclaimed by the garbage collector along with them.
+     *
+     * @param view
+     *        a view of a buffer drawn from {@link #getTrackedBufferPool()}
+     */
+    protected void handOverBuffer(ByteSlice view)
+    {
+        leases.forget(view.backingArray());
+    }
+
+    /**
+     * Hands the pre-opened source reader over to another owner, for example: metadata that keeps
+     * reading from it after this parser is closed. The reader is then left open by {@link #close()}.
+     */
+    protected void handOverSourceReader()
+    {
+        sourceReaderOwned = false;
+    }
+
+    /**
+     * Indicates whether this parser reads from a stream rather than from a file on disk.
+     *
+     * @return true if the parser was constructed over an {@link ImageFileInputStream}
+     */
+    public boolean isStreamSource()
+    {
+        return (sourceReader instanceof ImageFileInputStream);
+    }
+
+    /**
+     * Opens the reader that subclasses use to decode the image. For file-based parsers, a new
+     * reader that prefetches the leading block of the file is opened via
+     * {@link ImageParserFactory#createPrefetchReader}. For parsers constructed over a stream or a
+     * pre-opened reader, that reader itself is returned, rewound to the start if it has been read
+     * from.
+     *
+     * <p>
+     * In either case, the caller is responsible for closing the returned reader, preferably
+     * within a {@code try-with-resources} block.
+     * </p>
+     *
+     * @param order
+     *        the initial byte order of the reader
+     * @return the reader positioned at the start of the image data
+     *
+     * @throws IOException
+     *         if the file cannot be opened
+     */
+    protected ByteStreamReader openReader(ByteOrder order) throws IOException
+    {
+        if (sourceReader != null)
+        {
+            sourceReader.setByteOrder(order);
+
+            if (sourceReader.getCurrentPosition() != 0)
+            {
+                sourceReader.seek(0);
+            }
+
+            return sourceReader;
+        }
+
+        return ImageParserFactory.createPrefetchReader(imageFile, order);
+    }
+
     /**
      * Summarises basic file attributes and metadata status for diagnostics.
      *
@@ -76,12 +267,21 @@ public abstract class AbstractImageParser
         sb.append("File Attributes").append(System.lineSeparator());
         sb.append(MetadataConstants.DIVIDER).append(System.lineSeparator());
 
-        BasicFileAttributes attr = Files.readAttributes(getImageFile(), BasicFileAttributes.class);
+        if (isStreamSource())
+        {
+            sb.append(String.format(MetadataConstants.FORMATTER, "File", "(input stream)"));
+        }
+
+        else
+        {
+            BasicFileAttributes attr = Files.readAttributes(getImageFile(), BasicFileAttributes.class);
+
+            sb.append(String.format(MetadataConstants.FORMATTER, "File", getImageFile()));
+            sb.append(String.format(MetadataConstants.FORMATTER, "Creation Time", df.format(attr.creationTime().toInstant())));
+            sb.append(String.format(MetadataConstants.FORMATTER, "Last Access Time", df.format(attr.lastAccessTime().toInstant())));
+            sb.append(String.format(MetadataConstants.FORMATTER, "Last Modified Time", df.format(attr.lastModifiedTime().toInstant())));
+        }
 
-        sb.append(String.format(MetadataConstants.FORMATTER, "File", getImageFile()));
-        sb.append(String.format(MetadataConstants.FORMATTER, "Creation Time", df.format(attr.creationTime().toInstant())));
-        sb.append(String.format(MetadataConstants.FORMATTER, "Last Access Time", df.format(attr.lastAccessTime().toInstant())));
-        sb.append(String.format(MetadataConstants.FORMATTER, "Last Modified Time", df.format(attr.lastModifiedTime().toInstant())));
         sb.append(String.format(MetadataConstants.FORMATTER, "Image Format Type", getImageFormat().getFileExtensionName()));
         sb.append(String.format(MetadataConstants.FORMATTER, "Byte Order", getMetadata().getByteOrder()));
         sb.append(System.lineSeparator());
@@ -112,4 +312,73 @@ public abstract class AbstractImageParser
      * @return the {@link DigitalSignature} representing the image format
      */
     public abstract DigitalSignature getImageFormat();
+
+    /**
+     * Forwards requests to the configured pool and keeps track of the buffers that have not yet
+     * been released.
+     */
+    private static final class LeaseTracker implements BufferPool
+    {
+        private final List<byte[]> buffers = new ArrayList<>();
+        private BufferPool pool = ImageParserFactory.getDefaultBufferPool();
+
+        @Override
+        public byte[] acquire(int minLength)
+        {
+            byte[] buffer = pool.acquire(minLength);
+
+            buffers.add(buffer);
+
+            return buffer;
+        }
+
+        @Override
+        public void release(byte[] buffer)
+        {
+            if (forget(buffer))
+            {
+                pool.release(buffer);
+            }
+        }
+
+        @Override
+        public BufferPoolStatistics getStatistics()
+        {
+            return pool.getStatistics();
+        }
+
+        /**
+         * Stops tracking the specified buffer without returning it to the pool.
+         *
+         * @param buffer
+         *        the buffer to stop tracking
+         * @return true if the buffer was being tracked
+         */
+        private boolean forget(byte[] buffer)
+        {
+            for (int i = buffers.size() - 1; i >= 0; i--)
+            {
+                if (buffers.get(i) == buffer)
+                {
+                    buffers.remove(i);
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        /**
+         * Returns every outstanding buffer to the pool.
+         */
+        private void releaseAll()
+        {
+            for (byte[] buffer : buffers)
+            {
+                pool.release(buffer);
+            }
+
+            buffers.clear();
+        }
+    }
 }
\ No newline at end of file
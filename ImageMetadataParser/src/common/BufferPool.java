@@ -0,0 +1,54 @@
+package common;
+
+/**
+ * Defines the contract for a source of reusable byte arrays, from which handlers draw the buffers
+ * that hold segment, chunk and item payloads while an image is parsed.
+ *
+ * <p>
+ * An acquired buffer may be longer than requested, so callers must track the number of valid
+ * bytes themselves, typically by wrapping the buffer in a {@link ByteSlice}. Once the contents are
+ * no longer referenced, the buffer is handed back via {@link #release(byte[])}, and must not be
+ * used again by the caller afterwards. Releasing the same buffer twice is not permitted.
+ * </p>
+ *
+ * <p>
+ * Implementations must be safe for use by multiple threads. The default implementation,
+ * {@link UnpooledBufferPool}, simply allocates a new array on each request, whereas
+ * {@link SizeClassedBufferPool} recycles released buffers across parses.
+ * </p>
+ *
+ * @author Trevor Maggs
+ * @version 1.0
+ * @since 16 October 2026
+ */
+public interface BufferPool
+{
+    /**
+     * Obtains a buffer holding at least the specified number of bytes. The contents of a recycled
+     * buffer are unspecified.
+     *
+     * @param minLength
+     *        the minimum number of bytes required
+     * @return a buffer whose length is equal to or greater than {@code minLength}
+     *
+     * @throws IllegalArgumentException
+     *         if {@code minLength} is negative
+     */
+    byte[] acquire(int minLength);
+
+    /**
+     * Returns a buffer to the pool. Buffers that the pool cannot retain are left to the garbage
+     * collector.
+     *
+     * @param buffer
+     *        the buffer previously obtained from {@link #acquire(int)}
+     */
+    void release(byte[] buffer);
+
+    /**
+     * Returns a snapshot of the usage counters of this pool.
+     *
+     * @return the current {@link BufferPoolStatistics}
+     */
+    BufferPoolStatistics getStatistics();
+}
@@ -0,0 +1,97 @@
+package common;
+
+/**
+ * An immutable snapshot of the usage counters of a {@link BufferPool}.
+ *
+ * @author Trevor Maggs
+ * @version 1.0
+ * @since 16 October 2026
+ */
+public final class BufferPoolStatistics
+{
+    private final long acquisitions;
+    private final long hits;
+    private final long releases;
+    private final long bytesRetained;
+
+    /**
+     * Constructs a snapshot with the specified counters.
+     *
+     * @param acquisitions
+     *        the total number of buffers requested
+     * @param hits
+     *        the number of requests served by a recycled buffer
+     * @param releases
+     *        the number of buffers handed back to the pool
+     * @param bytesRetained
+     *        the number of bytes currently held by the pool for reuse
+     */
+    public BufferPoolStatistics(long acquisitions, long hits, long releases, long bytesRetained)
+    {
+        this.acquisitions = acquisitions;
+        this.hits = hits;
+        this.releases = releases;
+        this.bytesRetained = bytesRetained;
+    }
+
+    /**
+     * @return the total number of buffers requested
+     */
+    public long getAcquisitions()
+    {
+        return acquisitions;
+    }
+
+    /**
+     * @return the number of requests served by a recycled buffer
+     */
+    public long getHits()
+    {
+        return hits;
+    }
+
+    /**
+     * @return the number of requests that required a new allocation
+     */
+    public long getMisses()
+    {
+        return acquisitions - hits;
+    }
+
+    /**
+     * @return the number of buffers handed back to the pool
+     */
+    public long getReleases()
+    {
+        return releases;
+    }
+
+    /**
+     * @return the number of bytes currently held by the pool for reuse
+     */
+    public long getBytesRetained()
+    {
+        return bytesRetained;
+    }
+
+    /**
+     * Returns the fraction of requests served by a recycled buffer.
+     *
+     * @return the hit rate between 0.0 and 1.0, or 0.0 if no buffer has been requested yet
+     */
+    public double getHitRate()
+    {
+        return (acquisitions == 0 ? 0.0 : (double) hits / acquisitions);
+    }
+
+    /**
+     * Returns a one-line summary of the counters.
+     *
+     * @return a formatted string
+     */
+    @Override
+    public String toString()
+    {
+        return String.format("Acquired [%d], hit rate [%.1f%%], released [%d], retained [%d] bytes", acquisitions, getHitRate() * 100.0, releases, bytesRetained);
+    }
+}
@@ -0,0 +1,293 @@
+package common;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * An immutable, read-only view over a region of a byte array.
+ *
+ * <p>
+ * A {@code ByteSlice} records a backing array together with an offset and a length, so that
+ * sub-ranges of a metadata payload can be handed from one parsing stage to the next without
+ * allocating and copying a fresh array each time. For example, a JPEG APP1 segment is read from
+ * disk once, and the TIFF block after the {@code Exif\0\0} preamble is then passed to the IFD
+ * parser as a slice of the same array.
+ * </p>
+ *
+ * <p>
+ * The view itself never modifies the backing array. Callers that need an independent array may
+ * obtain one via {@link #toByteArray()}, which always copies. Internal callers that only read the
+ * bytes may take the backing array without a copy via {@link #unsafeArray()}, provided
+ * {@link #hasWholeArray()} holds.
+ * </p>
+ *
+ * @author Trevor Maggs
+ * @version 1.0
+ * @since 16 October 2026
+ */
+public final class ByteSlice
+{
+    private static final byte[] EMPTY_ARRAY = new byte[0];
+    public static final ByteSlice EMPTY = new ByteSlice(EMPTY_ARRAY, 0, 0);
+    private final byte[] array;
+    private final int offset;
+    private final int length;
+
+    /**
+     * Constructs a view over the specified region of the array.
+     *
+     * @param array
+     *        the backing array
+     * @param offset
+     *        the index of the first byte in the view
+     * @param length
+     *        the number of bytes in the view
+     */
+    private ByteSlice(byte[] array, int offset, int length)
+    {
+        this.array = array;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Creates a view covering the whole array.
+     *
+     * @param array
+     *        the backing array
+     * @return a slice over the entire array
+     */
+    public static ByteSlice wrap(byte[] array)
+    {
+        return wrap(array, 0, Objects.requireNonNull(array, "Array cannot be null").length);
+    }
+
+    /**
+     * Creates a view covering the specified region of the array.
+     *
+     * @param array
+     *        the backing array
+     * @param offset
+     *        the index of the first byte in the view
+     * @param length
+     *        the number of bytes in the view
+     * @return a slice over the specified region
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the region lies outside the array
+     */
+    public static ByteSlice wrap(byte[] array, int offset, int length)
+    {
+        Objects.requireNonNull(array, "Array cannot be null");
+
+        if (offset < 0 || length < 0 || offset > array.length - length)
+        {
+            throw new IndexOutOfBoundsException("Slice [" + offset + "+" + length + "] out of bounds for array length [" + array.length + "]");
+        }
+
+        return new ByteSlice(array, offset, length);
+    }
+
+    /**
+     * @return the number of bytes in this view
+     */
+    public int length()
+    {
+        return length;
+    }
+
+    /**
+     * @return true if this view contains no bytes
+     */
+    public boolean isEmpty()
+    {
+        return (length == 0);
+    }
+
+    /**
+     * Returns the byte at the specified index within this view.
+     *
+     * @param index
+     *        the zero-based index relative to the start of the view
+     * @return the signed byte value
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the index is out of range
+     */
+    public byte get(int index)
+    {
+        if (index < 0 || index >= length)
+        {
+            throw new IndexOutOfBoundsException("Index [" + index + "] out of bounds for slice length [" + length + "]");
+        }
+
+        return array[offset + index];
+    }
+
+    /**
+     * Returns a view starting at the specified index and extending to the end of this view.
+     *
+     * @param from
+     *        the zero-based start index relative to this view
+     * @return the narrower slice, sharing the same backing array
+     */
+    public ByteSlice slice(int from)
+    {
+        return slice(from, length - from);
+    }
+
+    /**
+     * Returns a view over a sub-range of this view.
+     *
+     * @param from
+     *        the zero-based start index relative to this view
+     * @param len
+     *        the number of bytes in the new view
+     * @return the narrower slice, sharing the same backing array
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the sub-range lies outside this view
+     */
+    public ByteSlice slice(int from, int len)
+    {
+        if (from < 0 || len < 0 || from > length - len)
+        {
+            throw new IndexOutOfBoundsException("Sub-slice [" + from + "+" + len + "] out of bounds for slice length [" + length + "]");
+        }
+
+        return new ByteSlice(array, offset + from, len);
+    }
+
+    /**
+     * Checks whether this view begins with the specified byte sequence.
+     *
+     * @param prefix
+     *        the byte sequence to compare against
+     * @return true if the leading bytes of this view match the prefix
+     */
+    public boolean startsWith(byte[] prefix)
+    {
+        if (prefix.length > length)
+        {
+            return false;
+        }
+
+        for (int i = 0; i < prefix.length; i++)
+        {
+            if (array[offset + i] != prefix[i])
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Creates a sequential reader over this view without copying the bytes.
+     *
+     * @param order
+     *        the byte order of the reader
+     * @return a new {@link SequentialByteArrayReader} restricted to this view
+     */
+    public SequentialByteArrayReader newReader(ByteOrder order)
+    {
+        return new SequentialByteArrayReader(array, offset, length, order, null);
+    }
+
+    /**
+     * Returns a read-only {@link ByteBuffer} sharing the bytes of this view.
+     *
+     * @return a read-only buffer positioned at zero
+     */
+    public ByteBuffer asReadOnlyBuffer()
+    {
+        return ByteBuffer.wrap(array, offset, length).slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * Copies the bytes of this view into the destination array.
+     *
+     * @param dst
+     *        the destination array
+     * @param dstPos
+     *        the starting index within the destination array
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the destination is too small
+     */
+    public void copyTo(byte[] dst, int dstPos)
+    {
+        System.arraycopy(array, offset, dst, dstPos, length);
+    }
+
+    /**
+     * Writes the bytes of this view to the specified stream.
+     *
+     * @param out
+     *        the destination stream
+     *
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    public void writeTo(OutputStream out) throws IOException
+    {
+        out.write(array, offset, length);
+    }
+
+    /**
+     * Returns a copy of the bytes of this view, which the caller is free to modify.
+     *
+     * @return a new array holding the bytes of this view
+     */
+    public byte[] toByteArray()
+    {
+        return (length == 0 ? EMPTY_ARRAY : Arrays.copyOfRange(array, offset, offset + length));
+    }
+
+    /**
+     * Checks whether this view covers the whole backing array, in which case
+     * {@link #unsafeArray()} can hand it out without a copy.
+     *
+     * @return true if the view starts at index 0 and spans the entire array
+     */
+    public boolean hasWholeArray()
+    {
+        return (offset == 0 && length == array.length);
+    }
+
+    /**
+     * Returns the backing array itself, without copying it. This is intended for internal callers
+     * that pass the bytes on to code expecting a {@code byte[]} and never modify them. The array is
+     * shared with this view and with whoever created it, so it must not be changed.
+     *
+     * @return the backing array
+     *
+     * @throws IllegalStateException
+     *         if the view does not cover the whole backing array
+     */
+    public byte[] unsafeArray()
+    {
+        if (!hasWholeArray())
+        {
+            throw new IllegalStateException("View of [" + length + "] bytes at offset [" + offset + "] does not cover its backing array of [" + array.length + "] bytes");
+        }
+
+        return array;
+    }
+
+    /**
+     * Returns the backing array regardless of the region covered, for example: to identify the
+     * pooled buffer a view was cut from. Note that this method has package-private visibility.
+     *
+     * @return the backing array
+     */
+    byte[] backingArray()
+    {
+        return array;
+    }
+}
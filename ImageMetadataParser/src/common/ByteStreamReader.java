@@ -33,6 +33,68 @@ public interface ByteStreamReader extends AutoCloseable
     public byte[] peek(long offset, int length) throws IOException;
     public byte readByte() throws IOException;
     public byte[] readBytes(int length) throws IOException;
+
+    /**
+     * Reads bytes into an existing array, for example: a buffer obtained from a
+     * {@link BufferPool}, and advances the position by the specified length. Implementations are
+     * encouraged to override this default, which reads into a temporary array first.
+     *
+     * @param dst
+     *        the destination array
+     * @param offset
+     *        the starting index within the destination array
+     * @param length
+     *        the number of bytes to read
+     *
+     * @throws IOException
+     *         if an I/O error occurs or fewer than {@code length} bytes remain
+     */
+    default void readBytes(byte[] dst, int offset, int length) throws IOException
+    {
+        System.arraycopy(readBytes(length), 0, dst, offset, length);
+    }
+
+    /**
+     * Reads a sequence of bytes from an absolute offset, without using or moving the current
+     * position. Readers backed by positional file access, such as the one returned by
+     * {@link ImageChannelReader#open(Path, ByteOrder)}, serve this without any shared state, so
+     * concurrent calls are safe. This default delegates to {@link #peek(long, int)}, and is only as
+     * thread-safe as the implementation.
+     *
+     * @param offset
+     *        the absolute position to start reading from
+     * @param length
+     *        the number of bytes to read
+     * @return a new array containing the read bytes
+     *
+     * @throws IOException
+     *         if the request exceeds the data length or an I/O error occurs
+     */
+    default byte[] readAt(long offset, int length) throws IOException
+    {
+        return peek(offset, length);
+    }
+
+    /**
+     * Fills a region of the destination array with bytes read from an absolute offset, without
+     * using or moving the current position. This default delegates to {@link #peek(long, int)}.
+     *
+     * @param offset
+     *        the absolute position to start reading from
+     * @param dst
+     *        the destination array
+     * @param dstPos
+     *        the starting index within the destination array
+     * @param length
+     *        the number of bytes to read
+     *
+     * @throws IOException
+     *         if the request exceeds the data length or an I/O error occurs
+     */
+    default void readAt(long offset, byte[] dst, int dstPos, int length) throws IOException
+    {
+        System.arraycopy(peek(offset, length), 0, dst, dstPos, length);
+    }
     public int readUnsignedByte() throws IOException;
     public short readShort() throws IOException;
     public int readUnsignedShort() throws IOException;
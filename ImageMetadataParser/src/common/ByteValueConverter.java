@@ -3,7 +3,10 @@ package common;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -782,11 +785,64 @@ public final class ByteValueConverter
         }
 
         int count = (data.length - offset) / 2;
+        return toUnsignedShortArray(data, offset, count, order);
+    }
+
+    /**
+     * Decodes a run of signed 16-bit integers in bulk, honouring the specified byte order.
+     *
+     * @param data
+     *        the input byte array
+     * @param offset
+     *        the starting offset in the byte array
+     * @param count
+     *        the number of values to decode
+     * @param order
+     *        the byte order for interpreting the specified bytes, using either
+     *        {@code ByteOrder.BIG_ENDIAN} or {@code ByteOrder.LITTLE_ENDIAN}
+     * @return a short array containing the signed short values
+     *
+     * @throws NullPointerException
+     *         if the input byte array is null
+     * @throws IndexOutOfBoundsException
+     *         if the array holds fewer than {@code count} values starting at the offset
+     */
+    public static short[] toShortArray(byte[] data, int offset, int count, ByteOrder order)
+    {
+        short[] result = new short[count];
+
+        view(data, offset, count, 2, order).asShortBuffer().get(result);
+
+        return result;
+    }
+
+    /**
+     * Decodes a run of unsigned 16-bit integers in bulk, honouring the specified byte order.
+     *
+     * @param data
+     *        the input byte array
+     * @param offset
+     *        the starting offset in the byte array
+     * @param count
+     *        the number of values to decode
+     * @param order
+     *        the byte order for interpreting the specified bytes, using either
+     *        {@code ByteOrder.BIG_ENDIAN} or {@code ByteOrder.LITTLE_ENDIAN}
+     * @return an integer array containing the unsigned short values
+     *
+     * @throws NullPointerException
+     *         if the input byte array is null
+     * @throws IndexOutOfBoundsException
+     *         if the array holds fewer than {@code count} values starting at the offset
+     */
+    public static int[] toUnsignedShortArray(byte[] data, int offset, int count, ByteOrder order)
+    {
+        ShortBuffer view = view(data, offset, count, 2, order).asShortBuffer();
         int[] result = new int[count];
 
         for (int i = 0; i < count; i++)
         {
-            result[i] = toUnsignedShort(data, offset + (i * 2), order);
+            result[i] = view.get(i) & 0xFFFF;
         }
 
         return result;
@@ -849,11 +905,64 @@ public final class ByteValueConverter
         }
 
         int count = remainingLength / dataSize;
+        return toIntegerArray(data, offset, count, order);
+    }
+
+    /**
+     * Decodes a run of signed 32-bit integers in bulk, honouring the specified byte order.
+     *
+     * @param data
+     *        the input byte array
+     * @param offset
+     *        the starting offset in the byte array
+     * @param count
+     *        the number of values to decode
+     * @param order
+     *        the byte order for interpreting the specified bytes, using either
+     *        {@code ByteOrder.BIG_ENDIAN} or {@code ByteOrder.LITTLE_ENDIAN}
+     * @return an int array containing the signed integer values
+     *
+     * @throws NullPointerException
+     *         if the input byte array is null
+     * @throws IndexOutOfBoundsException
+     *         if the array holds fewer than {@code count} values starting at the offset
+     */
+    public static int[] toIntegerArray(byte[] data, int offset, int count, ByteOrder order)
+    {
         int[] result = new int[count];
 
+        view(data, offset, count, 4, order).asIntBuffer().get(result);
+
+        return result;
+    }
+
+    /**
+     * Decodes a run of unsigned 32-bit integers in bulk, honouring the specified byte order.
+     *
+     * @param data
+     *        the input byte array
+     * @param offset
+     *        the starting offset in the byte array
+     * @param count
+     *        the number of values to decode
+     * @param order
+     *        the byte order for interpreting the specified bytes, using either
+     *        {@code ByteOrder.BIG_ENDIAN} or {@code ByteOrder.LITTLE_ENDIAN}
+     * @return a long array containing the unsigned integer values
+     *
+     * @throws NullPointerException
+     *         if the input byte array is null
+     * @throws IndexOutOfBoundsException
+     *         if the array holds fewer than {@code count} values starting at the offset
+     */
+    public static long[] toUnsignedIntegerArray(byte[] data, int offset, int count, ByteOrder order)
+    {
+        IntBuffer view = view(data, offset, count, 4, order).asIntBuffer();
+        long[] result = new long[count];
+
         for (int i = 0; i < count; i++)
         {
-            result[i] = toInteger(data, offset + (i * dataSize), order);
+            result[i] = view.get(i) & 0xFFFFFFFFL;
         }
 
         return result;
@@ -920,12 +1029,33 @@ public final class ByteValueConverter
         }
 
         int count = remainingLength / dataSize;
+        return toLongArray(data, offset, count, order);
+    }
+
+    /**
+     * Decodes a run of signed 64-bit long integers in bulk, honouring the specified byte order.
+     *
+     * @param data
+     *        the input byte array
+     * @param offset
+     *        the starting offset in the byte array
+     * @param count
+     *        the number of values to decode
+     * @param order
+     *        the byte order for interpreting the specified bytes, using either
+     *        {@code ByteOrder.BIG_ENDIAN} or {@code ByteOrder.LITTLE_ENDIAN}
+     * @return a long array containing the signed long values
+     *
+     * @throws NullPointerException
+     *         if the input byte array is null
+     * @throws IndexOutOfBoundsException
+     *         if the array holds fewer than {@code count} values starting at the offset
+     */
+    public static long[] toLongArray(byte[] data, int offset, int count, ByteOrder order)
+    {
         long[] result = new long[count];
 
-        for (int i = 0; i < count; i++)
-        {
-            result[i] = toLong(data, offset + (i * dataSize), order);
-        }
+        view(data, offset, count, 8, order).asLongBuffer().get(result);
 
         return result;
     }
@@ -983,12 +1113,33 @@ public final class ByteValueConverter
         }
 
         int count = remaining / dataSize;
+        return toFloatArray(data, offset, count, order);
+    }
+
+    /**
+     * Decodes a run of 32-bit float values in bulk, honouring the specified byte order.
+     *
+     * @param data
+     *        the input byte array
+     * @param offset
+     *        the starting offset in the byte array
+     * @param count
+     *        the number of values to decode
+     * @param order
+     *        the byte order for interpreting the specified bytes, using either
+     *        {@code ByteOrder.BIG_ENDIAN} or {@code ByteOrder.LITTLE_ENDIAN}
+     * @return an array of float values
+     *
+     * @throws NullPointerException
+     *         if the input byte array is null
+     * @throws IndexOutOfBoundsException
+     *         if the array holds fewer than {@code count} values starting at the offset
+     */
+    public static float[] toFloatArray(byte[] data, int offset, int count, ByteOrder order)
+    {
         float[] result = new float[count];
 
-        for (int i = 0; i < count; i++)
-        {
-            result[i] = toFloat(data, offset + (i * dataSize), order);
-        }
+        view(data, offset, count, 4, order).asFloatBuffer().get(result);
 
         return result;
     }
@@ -1049,12 +1200,33 @@ public final class ByteValueConverter
         }
 
         int count = remaining / dataSize;
+        return toDoubleArray(data, offset, count, order);
+    }
+
+    /**
+     * Decodes a run of 64-bit double values in bulk, honouring the specified byte order.
+     *
+     * @param data
+     *        the input byte array
+     * @param offset
+     *        the starting offset in the byte array
+     * @param count
+     *        the number of values to decode
+     * @param order
+     *        the byte order for interpreting the specified bytes, using either
+     *        {@code ByteOrder.BIG_ENDIAN} or {@code ByteOrder.LITTLE_ENDIAN}
+     * @return an array of double values
+     *
+     * @throws NullPointerException
+     *         if the input byte array is null
+     * @throws IndexOutOfBoundsException
+     *         if the array holds fewer than {@code count} values starting at the offset
+     */
+    public static double[] toDoubleArray(byte[] data, int offset, int count, ByteOrder order)
+    {
         double[] result = new double[count];
 
-        for (int i = 0; i < count; i++)
-        {
-            result[i] = toDouble(data, offset + (i * dataSize), order);
-        }
+        view(data, offset, count, 8, order).asDoubleBuffer().get(result);
 
         return result;
     }
@@ -1094,16 +1266,80 @@ public final class ByteValueConverter
         }
 
         int count = (data.length - offset) / 8;
+        return toRationalArray(data, offset, count, order, type);
+    }
+
+    /**
+     * Decodes a run of {@link RationalNumber} objects in bulk, interpreting each 8-byte segment
+     * as a numerator-denominator pair.
+     *
+     * @param data
+     *        the input byte array
+     * @param offset
+     *        the starting offset in the byte array
+     * @param count
+     *        the number of values to decode
+     * @param order
+     *        the byte order for interpreting the specified bytes, using either
+     *        {@code ByteOrder.BIG_ENDIAN} or {@code ByteOrder.LITTLE_ENDIAN}
+     * @param type
+     *        the rational number type (SIGNED or UNSIGNED)
+     * @return an array of RationalNumber objects
+     *
+     * @throws NullPointerException
+     *         if the input byte array is null
+     * @throws IndexOutOfBoundsException
+     *         if the array holds fewer than {@code count} values starting at the offset
+     */
+    public static RationalNumber[] toRationalArray(byte[] data, int offset, int count, ByteOrder order, RationalNumber.DataType type)
+    {
+        IntBuffer view = view(data, offset, count, 8, order).asIntBuffer();
         RationalNumber[] result = new RationalNumber[count];
 
         for (int i = 0; i < count; i++)
         {
-            result[i] = toRational(data, offset + (i * 8), order, type);
+            result[i] = new RationalNumber(view.get(i * 2), view.get(i * 2 + 1), type);
         }
 
         return result;
     }
 
+    /**
+     * Wraps a run of fixed-size values in the byte array as a buffer in the specified byte order,
+     * from which a typed view can decode the whole run in bulk rather than one value at a time.
+     *
+     * @param data
+     *        the input byte array
+     * @param offset
+     *        the starting offset in the byte array
+     * @param count
+     *        the number of values in the run
+     * @param size
+     *        the size of each value in bytes
+     * @param order
+     *        the byte order for interpreting the specified bytes
+     * @return a buffer positioned at zero, covering exactly {@code count * size} bytes
+     *
+     * @throws NullPointerException
+     *         if the input byte array is null
+     * @throws IndexOutOfBoundsException
+     *         if the array holds fewer than {@code count} values starting at the offset
+     */
+    private static ByteBuffer view(byte[] data, int offset, int count, int size, ByteOrder order)
+    {
+        if (data == null)
+        {
+            throw new NullPointerException("Input byte array cannot be null");
+        }
+
+        if (offset < 0 || count < 0 || offset > data.length || (long) count * size > data.length - offset)
+        {
+            throw new IndexOutOfBoundsException("Cannot decode [" + count + "] values of [" + size + "] bytes at offset [" + offset + "] from array of length [" + data.length + "]");
+        }
+
+        return ByteBuffer.wrap(data, offset, count * size).slice().order(order);
+    }
+
     /**
      * Packs a numerator and denominator into an 8-byte segment of a byte array as a TIFF RATIONAL,
      * honouring the specified byte order.
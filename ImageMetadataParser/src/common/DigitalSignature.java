@@ -12,6 +12,12 @@ import java.util.EnumSet;
  * Enumerates known image formats by identifying their distinct magic numbers in the image file
  * header. These magic numbers reside in the first few bytes of the file.
  *
+ * <p>
+ * Raw camera formats such as DNG, CR2, NEF and ARW are TIFF files sharing the TIFF signature, so
+ * {@link #detectFormat(byte[])} reports them as {@link #TIF}. They are only told apart once IFD0
+ * has been parsed, by {@link tif.TifParser#getImageFormat()}.
+ * </p>
+ *
  * @author Trevor Maggs
  * @version 1.0
  * @since 13 August 2025
@@ -20,6 +26,10 @@ public enum DigitalSignature
 {
     JPG("jpg", new int[][]{{0xFF, 0xD8}}),
     TIF("tif", new int[][]{{0x4D, 0x4D}, {0x49, 0x49}}),
+    DNG("dng", new int[][]{{0x4D, 0x4D}, {0x49, 0x49}}),
+    CR2("cr2", new int[][]{{0x49, 0x49}}),
+    NEF("nef", new int[][]{{0x4D, 0x4D}, {0x49, 0x49}}),
+    ARW("arw", new int[][]{{0x49, 0x49}}),
     PNG("png", new int[][]{{0x89, 0x50, 0x4E, 0x47, 0x0D, 0x0A, 0x1A, 0x0A}}),
     HEIF("heic", new int[][]{{0x66, 0x74, 0x79, 0x70, 0x68, 0x65, 0x69, 0x63}}),
     WEBP("webp", new int[][]{{0x57, 0x45, 0x42, 0x50}}),
@@ -100,6 +110,37 @@ public enum DigitalSignature
         }
     }
 
+    /**
+     * Returns whether this format is built on the TIFF structure, namely TIFF itself or one of the
+     * raw camera formats, for example: DNG, CR2, NEF, ARW etc.
+     *
+     * @return true if the file consists of TIFF directories, otherwise false
+     */
+    public boolean isTiffBased()
+    {
+        return (this == TIF || isRawImage());
+    }
+
+    /**
+     * Returns whether this format is a raw camera format, for example: DNG, CR2, NEF, ARW etc.
+     *
+     * @return true if the image holds raw sensor data, otherwise false
+     */
+    public boolean isRawImage()
+    {
+        switch (this)
+        {
+            case DNG:
+            case CR2:
+            case NEF:
+            case ARW:
+                return true;
+
+            default:
+                return false;
+        }
+    }
+
     /**
      * Detects the file signature based on magic numbers.
      *
@@ -125,25 +166,11 @@ public enum DigitalSignature
      */
     public static DigitalSignature detectFormat(Path path) throws IOException
     {
-        int maxLength = 0;
-
-        /* Determine the longest magic number sequence (for buffer size) */
-        for (DigitalSignature sig : EnumSet.complementOf(EnumSet.of(UNKNOWN)))
-        {
-            for (int[] magic : sig.magicNumbers)
-            {
-                if (magic.length > maxLength)
-                {
-                    maxLength = magic.length;
-                }
-            }
-        }
-
         /*
          * Verifies that the source array length meets the
          * minimum requirements for the search operation.
          */
-        byte[] buffer = new byte[maxLength * 2];
+        byte[] buffer = new byte[getHeaderLength()];
 
         try (BufferedInputStream input = new BufferedInputStream(Files.newInputStream(path)))
         {
@@ -161,25 +188,63 @@ public enum DigitalSignature
 
                 totalRead += bytesRead;
             }
+        }
 
-            for (DigitalSignature sig : EnumSet.complementOf(EnumSet.of(UNKNOWN)))
+        catch (NoSuchFileException e)
+        {
+            throw new IOException("File [" + path + "] does not exist", e);
+        }
+
+        return detectFormat(buffer);
+    }
+
+    /**
+     * Detects the signature of data already held in memory, for example: the leading bytes peeked
+     * from a non-seekable stream.
+     *
+     * @param header
+     *        the initial bytes of the file, ideally {@link #getHeaderLength()} bytes long
+     * @return a matching DigitalSignature enum, or UNKNOWN if none matched
+     */
+    public static DigitalSignature detectFormat(byte[] header)
+    {
+        for (DigitalSignature sig : EnumSet.complementOf(EnumSet.of(UNKNOWN)))
+        {
+            for (int[] magic : sig.magicNumbers)
             {
-                for (int[] magic : sig.magicNumbers)
+                if (containsMagicNumbers(header, magic))
                 {
-                    if (containsMagicNumbers(buffer, magic))
-                    {
-                        return sig;
-                    }
+                    return sig;
                 }
             }
         }
 
-        catch (NoSuchFileException e)
+        return UNKNOWN;
+    }
+
+    /**
+     * Returns the number of leading bytes examined during signature detection, which is twice the
+     * length of the longest magic number sequence.
+     *
+     * @return the header length in bytes
+     */
+    public static int getHeaderLength()
+    {
+        int maxLength = 0;
+
+        /* Determine the longest magic number sequence (for buffer size) */
+        for (DigitalSignature sig : EnumSet.complementOf(EnumSet.of(UNKNOWN)))
         {
-            throw new IOException("File [" + path + "] does not exist", e);
+            for (int[] magic : sig.magicNumbers)
+            {
+                if (magic.length > maxLength)
+                {
+                    maxLength = magic.length;
+                }
+            }
         }
 
-        return UNKNOWN;
+        return maxLength * 2;
     }
 
     /**
@@ -0,0 +1,468 @@
+package common;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * A read-only view of an ICC colour profile, stitched together from one or more chunks without
+ * copying them into a single array.
+ *
+ * <p>
+ * Some containers split a profile across several records, for example: the {@code APP2} segments
+ * of a JPEG file, each limited to 64 KB. This view presents the chunks, in sequence order, as one
+ * contiguous run of bytes, which can be read at any position or copied out when the whole profile
+ * is needed.
+ * </p>
+ *
+ * <p>
+ * Only the header and the tag table are ever interpreted, and only on first access. The profile
+ * class, colour space, rendering intent and version are taken from the 128-byte header, and the
+ * description from the {@code desc} tag, which may be either a {@code textDescriptionType}
+ * (version 2) or a {@code multiLocalizedUnicodeType} (version 4). The results are memoised.
+ * </p>
+ *
+ * @author Trevor Maggs
+ * @version 1.0
+ * @since 16 October 2026
+ */
+public final class IccProfile
+{
+    private static final int HEADER_LENGTH = 128;
+    private static final int TAG_ENTRY_LENGTH = 12;
+    private static final int MAX_TAG_COUNT = 1024;
+    private static final int PROFILE_SIGNATURE = 0x61637370; // acsp
+    private static final int TAG_DESC = 0x64657363; // desc
+    private static final int TYPE_DESC = 0x64657363; // desc
+    private static final int TYPE_MLUC = 0x6D6C7563; // mluc
+    private static final String[] INTENT_NAMES = {"Perceptual", "Media-Relative Colorimetric", "Saturation", "ICC-Absolute Colorimetric"};
+    private final ByteSlice[] chunks;
+    private final int[] starts;
+    private final int length;
+    private boolean headerParsed;
+    private String profileClass;
+    private String colourSpace;
+    private int renderingIntent = -1;
+    private String version;
+    private boolean descriptionParsed;
+    private String description;
+
+    /**
+     * Constructs a profile view over the specified chunks.
+     *
+     * @param chunks
+     *        the profile data, split into chunks in sequence order
+     *
+     * @throws NullPointerException
+     *         if the list or any chunk is null
+     */
+    public IccProfile(List<ByteSlice> chunks)
+    {
+        if (chunks == null)
+        {
+            throw new NullPointerException("ICC profile chunks cannot be null");
+        }
+
+        this.chunks = chunks.toArray(new ByteSlice[0]);
+        this.starts = new int[this.chunks.length];
+
+        int total = 0;
+
+        for (int i = 0; i < this.chunks.length; i++)
+        {
+            if (this.chunks[i] == null)
+            {
+                throw new NullPointerException("ICC profile chunk cannot be null");
+            }
+
+            starts[i] = total;
+            total += this.chunks[i].length();
+        }
+
+        this.length = total;
+    }
+
+    /**
+     * Returns the total length of the profile across all chunks.
+     *
+     * @return the length in bytes
+     */
+    public int length()
+    {
+        return length;
+    }
+
+    /**
+     * Returns the number of chunks the profile is stitched from.
+     *
+     * @return the chunk count
+     */
+    public int getChunkCount()
+    {
+        return chunks.length;
+    }
+
+    /**
+     * Returns the byte at the specified position of the profile.
+     *
+     * @param index
+     *        the position, counted from the start of the profile
+     * @return the byte value
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the index is outside the profile
+     */
+    public byte get(int index)
+    {
+        if (index < 0 || index >= length)
+        {
+            throw new IndexOutOfBoundsException("Index [" + index + "] out of bounds for length [" + length + "]");
+        }
+
+        int chunk = findChunk(index);
+
+        return chunks[chunk].get(index - starts[chunk]);
+    }
+
+    /**
+     * Copies a range of the profile into the destination array, crossing chunk boundaries as
+     * needed.
+     *
+     * @param from
+     *        the starting position within the profile
+     * @param dst
+     *        the destination array
+     * @param dstPos
+     *        the starting index within the destination array
+     * @param len
+     *        the number of bytes to copy
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the range is outside the profile or the destination is too small
+     */
+    public void copyTo(int from, byte[] dst, int dstPos, int len)
+    {
+        if (from < 0 || len < 0 || from + len > length)
+        {
+            throw new IndexOutOfBoundsException(String.format("Range [%d, %d] out of bounds for length [%d]", from, from + len, length));
+        }
+
+        int chunk = (len > 0 ? findChunk(from) : 0);
+
+        while (len > 0)
+        {
+            int pos = from - starts[chunk];
+            int n = Math.min(len, chunks[chunk].length() - pos);
+
+            chunks[chunk].slice(pos, n).copyTo(dst, dstPos);
+            from += n;
+            dstPos += n;
+            len -= n;
+            chunk++;
+        }
+    }
+
+    /**
+     * Copies the whole profile into a new array, for example: to hand it to a colour management
+     * library.
+     *
+     * @return a new array holding the profile
+     */
+    public byte[] toByteArray()
+    {
+        byte[] data = new byte[length];
+
+        copyTo(0, data, 0, length);
+
+        return data;
+    }
+
+    /**
+     * Checks whether the profile is long enough to hold a header and carries the {@code acsp}
+     * signature.
+     *
+     * @return true if the header is present and signed
+     */
+    public boolean isValid()
+    {
+        return (length >= HEADER_LENGTH + 4 && readInt(36) == PROFILE_SIGNATURE);
+    }
+
+    /**
+     * Returns the profile or device class, for example: {@code mntr} for a display device or
+     * {@code prtr} for an output device.
+     *
+     * @return the four-character class signature, or null if the header is invalid
+     */
+    public synchronized String getProfileClass()
+    {
+        parseHeader();
+
+        return profileClass;
+    }
+
+    /**
+     * Returns the colour space of the data the profile describes, for example: {@code RGB} or
+     * {@code CMYK}.
+     *
+     * @return the colour space signature without trailing spaces, or null if the header is invalid
+     */
+    public synchronized String getColourSpace()
+    {
+        parseHeader();
+
+        return colourSpace;
+    }
+
+    /**
+     * Returns the rendering intent declared in the header, where 0 is perceptual, 1 is
+     * media-relative colorimetric, 2 is saturation and 3 is ICC-absolute colorimetric.
+     *
+     * @return the rendering intent, or -1 if the header is invalid
+     */
+    public synchronized int getRenderingIntent()
+    {
+        parseHeader();
+
+        return renderingIntent;
+    }
+
+    /**
+     * Returns the version of the profile format, for example: {@code 4.3}.
+     *
+     * @return the major and minor version, or null if the header is invalid
+     */
+    public synchronized String getVersion()
+    {
+        parseHeader();
+
+        return version;
+    }
+
+    /**
+     * Returns the description of the profile, taken from its {@code desc} tag, for example:
+     * {@code Display P3} or {@code sRGB IEC61966-2.1}. Where a version 4 profile holds several
+     * localised descriptions, the first one is returned.
+     *
+     * @return the description, or null if the tag is absent or malformed
+     */
+    public synchronized String getDescription()
+    {
+        if (!descriptionParsed)
+        {
+            descriptionParsed = true;
+            description = parseDescription();
+        }
+
+        return description;
+    }
+
+    /**
+     * Returns a one-line summary of the profile, which parses the header and the description if
+     * they have not been parsed yet.
+     *
+     * @return a formatted string
+     */
+    @Override
+    public String toString()
+    {
+        if (!isValid())
+        {
+            return String.format("ICC Profile [%d bytes, invalid header]", length);
+        }
+
+        int intent = getRenderingIntent();
+        String intentName = (intent >= 0 && intent < INTENT_NAMES.length ? INTENT_NAMES[intent] : "Unknown (" + intent + ")");
+
+        return String.format("ICC Profile [%s], version [%s], class [%s], colour space [%s], intent [%s], %d bytes", getDescription(), getVersion(), getProfileClass(), getColourSpace(), intentName, length);
+    }
+
+    /**
+     * Reads the fields of interest from the 128-byte header, unless this has been done already.
+     */
+    private void parseHeader()
+    {
+        if (headerParsed)
+        {
+            return;
+        }
+
+        headerParsed = true;
+
+        if (isValid())
+        {
+            profileClass = readSignature(12);
+            colourSpace = readSignature(16);
+            renderingIntent = readInt(64) & 0xFFFF;
+            version = String.format("%d.%d", get(8) & 0xFF, (get(9) & 0xF0) >> 4);
+        }
+    }
+
+    /**
+     * Looks up the {@code desc} tag in the tag table and decodes its text.
+     *
+     * @return the description, or null if the tag is absent or malformed
+     */
+    private String parseDescription()
+    {
+        if (!isValid())
+        {
+            return null;
+        }
+
+        long count = readInt(HEADER_LENGTH) & 0xFFFFFFFFL;
+
+        if (count > MAX_TAG_COUNT || HEADER_LENGTH + 4 + count * TAG_ENTRY_LENGTH > length)
+        {
+            return null;
+        }
+
+        for (int i = 0; i < count; i++)
+        {
+            int entry = HEADER_LENGTH + 4 + i * TAG_ENTRY_LENGTH;
+
+            if (readInt(entry) == TAG_DESC)
+            {
+                long offset = readInt(entry + 4) & 0xFFFFFFFFL;
+                long size = readInt(entry + 8) & 0xFFFFFFFFL;
+
+                if (size < 12 || offset + size > length)
+                {
+                    return null;
+                }
+
+                return decodeText((int) offset, (int) size);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Decodes the text held by a {@code textDescriptionType} or {@code multiLocalizedUnicodeType}
+     * element.
+     *
+     * @param offset
+     *        the position of the element within the profile
+     * @param size
+     *        the size of the element
+     * @return the decoded text, or null if the element type is not recognised or malformed
+     */
+    private String decodeText(int offset, int size)
+    {
+        int type = readInt(offset);
+
+        if (type == TYPE_DESC)
+        {
+            long count = readInt(offset + 8) & 0xFFFFFFFFL;
+
+            if (count == 0 || 12 + count > size)
+            {
+                return null;
+            }
+
+            return trimNull(new String(readBytes(offset + 12, (int) count), StandardCharsets.US_ASCII));
+        }
+
+        else if (type == TYPE_MLUC && size >= 28)
+        {
+            long records = readInt(offset + 8) & 0xFFFFFFFFL;
+            long strLength = readInt(offset + 20) & 0xFFFFFFFFL;
+            long strOffset = readInt(offset + 24) & 0xFFFFFFFFL;
+
+            if (records == 0 || strOffset + strLength > size)
+            {
+                return null;
+            }
+
+            return trimNull(new String(readBytes(offset + (int) strOffset, (int) strLength), StandardCharsets.UTF_16BE));
+        }
+
+        return null;
+    }
+
+    /**
+     * Finds the chunk holding the specified position, using a binary search of the chunk starts.
+     *
+     * @param index
+     *        a position within the profile
+     * @return the index of the chunk
+     */
+    private int findChunk(int index)
+    {
+        int lo = 0;
+        int hi = chunks.length - 1;
+
+        while (lo < hi)
+        {
+            int mid = (lo + hi + 1) >>> 1;
+
+            if (starts[mid] <= index)
+            {
+                lo = mid;
+            }
+
+            else
+            {
+                hi = mid - 1;
+            }
+        }
+
+        return lo;
+    }
+
+    /**
+     * Reads a big-endian 32-bit integer, which is the byte order of every ICC profile.
+     *
+     * @param index
+     *        the position of the first byte
+     * @return the integer value
+     */
+    private int readInt(int index)
+    {
+        return ((get(index) & 0xFF) << 24) | ((get(index + 1) & 0xFF) << 16) | ((get(index + 2) & 0xFF) << 8) | (get(index + 3) & 0xFF);
+    }
+
+    /**
+     * Copies a short range of the profile into a new array.
+     *
+     * @param index
+     *        the starting position
+     * @param len
+     *        the number of bytes
+     * @return a new array holding the bytes
+     */
+    private byte[] readBytes(int index, int len)
+    {
+        byte[] data = new byte[len];
+
+        copyTo(index, data, 0, len);
+
+        return data;
+    }
+
+    /**
+     * Reads a four-character signature, dropping any trailing padding spaces.
+     *
+     * @param index
+     *        the position of the signature
+     * @return the signature text
+     */
+    private String readSignature(int index)
+    {
+        return new String(readBytes(index, 4), StandardCharsets.US_ASCII).trim();
+    }
+
+    /**
+     * Removes a null terminator and anything after it.
+     *
+     * @param text
+     *        the decoded text
+     * @return the text up to the first null character
+     */
+    private static String trimNull(String text)
+    {
+        int end = text.indexOf('\0');
+
+        return (end >= 0 ? text.substring(0, end) : text);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,332 @@
+package common;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A seekable binary stream reader that serves primitive reads from a small cache of fixed-size
+ * pages loaded with positional reads via an {@link ImageChannelReader}.
+ *
+ * <p>
+ * Unlike {@link ImageRandomAccessReader}, where every primitive read, bounds check and
+ * {@code peek} results in one or more calls on the underlying file, this reader keeps the current
+ * position in memory and only touches the file when a page that is not yet resident is needed.
+ * Pages are evicted in least-recently-used order once the configured page count is reached. This
+ * suits the access pattern of metadata parsers, which tend to read short fields clustered within
+ * a few kilobytes and jump back and forth between nearby offsets, for example: TIFF IFD entries
+ * and their out-of-line values.
+ * </p>
+ *
+ * <p>
+ * The {@link #mark()}, {@link #reset()} and {@code peek} operations are served from the cache
+ * whenever the requested range is resident. Requests larger than the total cache capacity are read
+ * directly from the file to avoid flushing the cache. The {@code readAt} methods bypass the cache
+ * altogether and go straight to the channel, so they may be called concurrently.
+ * </p>
+ *
+ * <p>
+ * <strong>Thread Safety:</strong> Apart from the {@code readAt} methods, this class is not
+ * thread-safe.
+ * </p>
+ *
+ * @author Trevor Maggs
+ * @version 1.0
+ * @since 16 October 2026
+ */
+public class ImageBufferedReader extends AbstractFileReader
+{
+    public static final int DEFAULT_PAGE_SIZE = 8192;
+    public static final int DEFAULT_PAGE_COUNT = 16;
+    private final Map<Long, byte[]> pageCache;
+    private final ImageChannelReader source;
+    private final long realFileSize;
+    private final int pageSize;
+    private final int maxPages;
+    private long lastPageIndex = -1L;
+    private byte[] lastPage;
+
+    /**
+     * Initialises a read-only reader using {@link ByteOrder#BIG_ENDIAN} and the default page
+     * configuration.
+     *
+     * @param fpath
+     *        the path to the file
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    public ImageBufferedReader(Path fpath) throws IOException
+    {
+        this(fpath, ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Initialises a read-only reader with the specified byte order and the default page
+     * configuration.
+     *
+     * @param fpath
+     *        the path to the file
+     * @param order
+     *        the {@link ByteOrder} for multi-byte interpretation
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    public ImageBufferedReader(Path fpath, ByteOrder order) throws IOException
+    {
+        this(fpath, order, DEFAULT_PAGE_SIZE, DEFAULT_PAGE_COUNT);
+    }
+
+    /**
+     * Primary constructor allowing the page size and the number of cached pages to be specified.
+     *
+     * @param fpath
+     *        the path to the file
+     * @param order
+     *        the {@link ByteOrder} for multi-byte interpretation
+     * @param pageSize
+     *        the number of bytes loaded from the file per page
+     * @param pageCount
+     *        the maximum number of pages kept resident before the least recently used page is
+     *        evicted
+     * @throws IllegalArgumentException
+     *         if either the page size or page count is less than 1
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    public ImageBufferedReader(Path fpath, ByteOrder order, int pageSize, int pageCount) throws IOException
+    {
+        this(open(fpath, order, pageSize, pageCount), order, pageSize, pageCount);
+    }
+
+    /**
+     * Constructs a reader over a file that has already been opened, taking ownership of it. The
+     * arguments must have been validated by the caller. Note that this constructor has
+     * package-private visibility.
+     *
+     * @param source
+     *        the open file, which is closed along with this reader
+     * @param order
+     *        the {@link ByteOrder} for multi-byte interpretation
+     * @param pageSize
+     *        the number of bytes loaded from the file per page
+     * @param pageCount
+     *        the maximum number of pages kept resident
+     */
+    ImageBufferedReader(ImageChannelReader source, ByteOrder order, int pageSize, int pageCount)
+    {
+        super(source.getFilename(), order);
+
+        this.source = source;
+        this.realFileSize = source.length();
+        this.pageSize = pageSize;
+        this.maxPages = pageCount;
+        this.pageCache = new LinkedHashMap<Long, byte[]>(pageCount + 1, 1.0f, true)
+        {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest)
+            {
+                return size() > maxPages;
+            }
+        };
+    }
+
+    /**
+     * Validates the constructor arguments before the file is opened, so that nothing is left open
+     * if they are rejected.
+     *
+     * @param fpath
+     *        the path to the file
+     * @param order
+     *        the {@link ByteOrder} for multi-byte interpretation
+     * @param pageSize
+     *        the number of bytes loaded from the file per page
+     * @param pageCount
+     *        the maximum number of pages kept resident
+     * @return the opened file
+     *
+     * @throws IOException
+     *         if the file cannot be opened
+     */
+    private static ImageChannelReader open(Path fpath, ByteOrder order, int pageSize, int pageCount) throws IOException
+    {
+        if (pageSize < 1 || pageCount < 1)
+        {
+            throw new IllegalArgumentException("Page size [" + pageSize + "] and page count [" + pageCount + "] must be positive");
+        }
+
+        Objects.requireNonNull(order, "Byte order cannot be null");
+
+        return new ImageChannelReader(fpath);
+    }
+
+    /**
+     * Closes the underlying file channel and discards all cached pages.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        pageCache.clear();
+        lastPage = null;
+        lastPageIndex = -1L;
+        source.close();
+    }
+
+    /**
+     * Returns the fixed file length recorded at the time of construction.
+     *
+     * @return the file size in bytes
+     */
+    @Override
+    public long length()
+    {
+        return realFileSize;
+    }
+
+    /**
+     * Reads a sequence of bytes from an absolute offset with a positional read on the channel,
+     * bypassing the page cache.
+     *
+     * @param offset
+     *        the absolute position to start reading from
+     * @param length
+     *        the number of bytes to read
+     * @return a new array containing the read bytes
+     *
+     * @throws IOException
+     *         if the request exceeds the file length or an I/O error occurs
+     */
+    @Override
+    public byte[] readAt(long offset, int length) throws IOException
+    {
+        return source.readAt(offset, length);
+    }
+
+    /**
+     * Fills a region of the destination array with a positional read on the channel, bypassing
+     * the page cache.
+     *
+     * @param offset
+     *        the absolute position to start reading from
+     * @param dst
+     *        the destination array
+     * @param dstPos
+     *        the starting index within the destination array
+     * @param length
+     *        the number of bytes to read
+     *
+     * @throws IOException
+     *         if the request exceeds the file length or an I/O error occurs
+     */
+    @Override
+    public void readAt(long offset, byte[] dst, int dstPos, int length) throws IOException
+    {
+        source.readAt(offset, dst, dstPos, length);
+    }
+
+    /**
+     * Returns the byte from the cached page covering the specified offset.
+     */
+    @Override
+    protected byte byteAt(long offset) throws IOException
+    {
+        return getPage(offset / pageSize)[(int) (offset % pageSize)];
+    }
+
+    /**
+     * Copies a range of bytes beginning at the specified absolute offset into the destination
+     * array, assembling the data from cached pages. Requests larger than the total cache capacity
+     * are read straight from the file so that the working set is not evicted.
+     */
+    @Override
+    protected void copyTo(long offset, byte[] dst, int dstPos, int length) throws IOException
+    {
+        if ((long) length > (long) pageSize * maxPages)
+        {
+            source.readAt(offset, dst, dstPos, length);
+            return;
+        }
+
+        while (length > 0)
+        {
+            byte[] page = getPage(offset / pageSize);
+            int pageOffset = (int) (offset % pageSize);
+            int n = Math.min(length, page.length - pageOffset);
+
+            if (n <= 0)
+            {
+                throw new EOFException("Unexpected end of file at offset [" + offset + "]");
+            }
+
+            System.arraycopy(page, pageOffset, dst, dstPos, n);
+
+            offset += n;
+            dstPos += n;
+            length -= n;
+        }
+    }
+
+    /**
+     * Decodes the value directly from the cached page when it lies entirely within one page,
+     * without any intermediate copy.
+     */
+    @Override
+    protected long valueAt(long offset, int numBytes) throws IOException
+    {
+        int start = (int) (offset % pageSize);
+
+        if (start + numBytes <= pageSize)
+        {
+            return decoder().getValue(getPage(offset / pageSize), start, numBytes);
+        }
+
+        return super.valueAt(offset, numBytes);
+    }
+
+    /**
+     * Returns the cached page with the specified index, loading it from the file if it is not
+     * resident. The most recently used page is remembered so that consecutive reads within the
+     * same page avoid a map lookup.
+     *
+     * @param index
+     *        the zero-based page index
+     * @return the page content, which may be shorter than the page size for the final page
+     *
+     * @throws IOException
+     *         if an I/O error occurs while loading the page
+     */
+    private byte[] getPage(long index) throws IOException
+    {
+        if (index == lastPageIndex)
+        {
+            return lastPage;
+        }
+
+        byte[] page = pageCache.get(index);
+
+        if (page == null)
+        {
+            long start = index * pageSize;
+            int len = (int) Math.min(pageSize, realFileSize - start);
+
+            if (len <= 0)
+            {
+                throw new EOFException("Page [" + index + "] lies beyond the end of file");
+            }
+
+            page = new byte[len];
+            source.readAt(start, page, 0, len);
+            pageCache.put(index, page);
+        }
+
+        lastPageIndex = index;
+        lastPage = page;
+
+        return page;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,366 @@
+package common;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * A thread-safe, positional (pread-style) reader over a single open file.
+ *
+ * <p>
+ * Unlike {@link ImageRandomAccessReader}, this class keeps no file pointer. Every
+ * {@code readAt} method takes an absolute offset and is served by
+ * {@link FileChannel#read(ByteBuffer, long)}, so several threads can share one file handle, for
+ * example: to decode the Exif, GPS and Interop sub-IFDs of one TIFF, or to resolve several
+ * {@code iloc} items of one HEIF file, concurrently.
+ * </p>
+ *
+ * <p>
+ * Code that expects a cursor-style {@link ByteStreamReader} can obtain one through
+ * {@link #newCursor(ByteOrder)}. A cursor is a cheap view holding its own position, byte order,
+ * mark stack and a small read-ahead window, while all file access is delegated back to the shared
+ * channel. Cursors are not thread-safe themselves, so each thread should use its own cursor, but
+ * their {@code readAt} methods bypass the window and may be shared. {@link #open(Path, ByteOrder)}
+ * returns a cursor that owns its file handle. The {@link ImageBufferedReader} returned by
+ * {@link ImageParserFactory} loads its pages through this class as well.
+ * </p>
+ *
+ * <p>
+ * <strong>Note:</strong> if a thread is interrupted while it is blocked in a read, the channel is
+ * closed for every thread sharing it, as specified by {@link java.nio.channels.InterruptibleChannel}.
+ * </p>
+ *
+ * @author Trevor Maggs
+ * @version 1.0
+ * @since 16 October 2026
+ */
+public class ImageChannelReader implements AutoCloseable
+{
+    private static final int CURSOR_WINDOW_SIZE = 4096;
+    private final Path pfile;
+    private final FileChannel channel;
+    private final long realFileSize;
+
+    /**
+     * Opens the specified file for positional reading.
+     *
+     * @param fpath
+     *        the path to the file
+     * @throws IOException
+     *         if the file cannot be opened
+     */
+    public ImageChannelReader(Path fpath) throws IOException
+    {
+        this.pfile = Objects.requireNonNull(fpath, "File path cannot be null");
+        this.channel = FileChannel.open(fpath, StandardOpenOption.READ);
+        this.realFileSize = channel.size();
+    }
+
+    /**
+     * Opens the specified file and returns a cursor over it, which closes the file handle when it
+     * is closed itself. Further cursors sharing the handle cannot be created from it.
+     *
+     * @param fpath
+     *        the path to the file
+     * @param order
+     *        the initial byte order of the cursor
+     * @return a {@link ByteStreamReader} owning the file handle
+     *
+     * @throws IOException
+     *         if the file cannot be opened
+     */
+    public static ByteStreamReader open(Path fpath, ByteOrder order) throws IOException
+    {
+        return new ImageChannelReader(fpath).new Cursor(order, true);
+    }
+
+    /**
+     * Closes the underlying file channel. Any cursors created by this reader become unusable.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        channel.close();
+    }
+
+    /**
+     * Gets the file name, which this reader is based on.
+     *
+     * @return the file encapsulated in a Path resource
+     */
+    public Path getFilename()
+    {
+        return pfile;
+    }
+
+    /**
+     * Returns the fixed file length recorded at the time of opening.
+     *
+     * @return the file size in bytes
+     */
+    public long length()
+    {
+        return realFileSize;
+    }
+
+    /**
+     * Returns the underlying file channel, for example: to map the file without opening it again.
+     * Note that this method has package-private visibility.
+     *
+     * @return the open {@link FileChannel}
+     */
+    FileChannel getChannel()
+    {
+        return channel;
+    }
+
+    /**
+     * Creates a new cursor-style view over this file, starting at position zero.
+     *
+     * @param order
+     *        the initial byte order of the cursor
+     * @return a {@link ByteStreamReader} sharing this reader's file handle
+     */
+    public ByteStreamReader newCursor(ByteOrder order)
+    {
+        return new Cursor(order, false);
+    }
+
+    /**
+     * Fills a region of the destination array with bytes read from an absolute offset.
+     *
+     * @param offset
+     *        the absolute position to start reading from
+     * @param dst
+     *        the destination array
+     * @param dstPos
+     *        the starting index within the destination array
+     * @param length
+     *        the number of bytes to read
+     *
+     * @throws EOFException
+     *         if the request exceeds the file length
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    public void readAt(long offset, byte[] dst, int dstPos, int length) throws IOException
+    {
+        if (length < 0)
+        {
+            throw new IllegalArgumentException("Length cannot be negative");
+        }
+
+        if (offset < 0 || offset + length > realFileSize)
+        {
+            throw new EOFException("Read request [" + offset + "+" + length + "] exceeds file length [" + realFileSize + "]");
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(dst, dstPos, length);
+
+        while (buffer.hasRemaining())
+        {
+            int n = channel.read(buffer, offset + (buffer.position() - dstPos));
+
+            if (n < 0)
+            {
+                throw new EOFException("Unexpected end of file at [" + (offset + buffer.position() - dstPos) + "]");
+            }
+        }
+    }
+
+    /**
+     * Reads a sequence of bytes from an absolute offset.
+     *
+     * @param offset
+     *        the absolute position to start reading from
+     * @param length
+     *        the number of bytes to read
+     * @return a new array containing the read bytes
+     *
+     * @throws IOException
+     *         if the request exceeds the file length or an I/O error occurs
+     */
+    public byte[] readAt(long offset, int length) throws IOException
+    {
+        byte[] data = new byte[length];
+
+        readAt(offset, data, 0, length);
+
+        return data;
+    }
+
+    /**
+     * Reads a single signed byte from an absolute offset.
+     *
+     * @param offset
+     *        the absolute position to read from
+     * @return the signed byte value
+     *
+     * @throws IOException
+     *         if the offset is out of bounds or an I/O error occurs
+     */
+    public byte readByteAt(long offset) throws IOException
+    {
+        return readAt(offset, 1)[0];
+    }
+
+    /**
+     * Reads a 16-bit short value from an absolute offset.
+     *
+     * @param offset
+     *        the absolute position to read from
+     * @param order
+     *        the byte order used to interpret the value
+     * @return the signed short value
+     *
+     * @throws IOException
+     *         if the offset is out of bounds or an I/O error occurs
+     */
+    public short readShortAt(long offset, ByteOrder order) throws IOException
+    {
+        return ByteBuffer.wrap(readAt(offset, 2)).order(order).getShort();
+    }
+
+    /**
+     * Reads a 32-bit integer from an absolute offset.
+     *
+     * @param offset
+     *        the absolute position to read from
+     * @param order
+     *        the byte order used to interpret the value
+     * @return the signed integer value
+     *
+     * @throws IOException
+     *         if the offset is out of bounds or an I/O error occurs
+     */
+    public int readIntegerAt(long offset, ByteOrder order) throws IOException
+    {
+        return ByteBuffer.wrap(readAt(offset, 4)).order(order).getInt();
+    }
+
+    /**
+     * Reads a 64-bit long from an absolute offset.
+     *
+     * @param offset
+     *        the absolute position to read from
+     * @param order
+     *        the byte order used to interpret the value
+     * @return the signed long value
+     *
+     * @throws IOException
+     *         if the offset is out of bounds or an I/O error occurs
+     */
+    public long readLongAt(long offset, ByteOrder order) throws IOException
+    {
+        return ByteBuffer.wrap(readAt(offset, 8)).order(order).getLong();
+    }
+
+    /**
+     * A cursor-style view over the enclosing reader. The cursor buffers a small window of the
+     * file so that consecutive primitive reads do not each issue a system call.
+     */
+    private final class Cursor extends AbstractFileReader
+    {
+        private final byte[] window = new byte[CURSOR_WINDOW_SIZE];
+        private final boolean owner;
+        private long windowStart = -1L;
+        private int windowLength;
+
+        private Cursor(ByteOrder order, boolean owner)
+        {
+            super(pfile, order);
+            this.owner = owner;
+        }
+
+        /**
+         * Closing a cursor does not release the shared file handle, which remains owned by the
+         * enclosing {@link ImageChannelReader}, unless the cursor was created by
+         * {@link ImageChannelReader#open(Path, ByteOrder)}.
+         */
+        @Override
+        public void close() throws IOException
+        {
+            windowStart = -1L;
+
+            if (owner)
+            {
+                ImageChannelReader.this.close();
+            }
+        }
+
+        @Override
+        public long length()
+        {
+            return realFileSize;
+        }
+
+        @Override
+        public byte[] readAt(long offset, int length) throws IOException
+        {
+            return ImageChannelReader.this.readAt(offset, length);
+        }
+
+        @Override
+        public void readAt(long offset, byte[] dst, int dstPos, int length) throws IOException
+        {
+            ImageChannelReader.this.readAt(offset, dst, dstPos, length);
+        }
+
+        @Override
+        protected byte byteAt(long offset) throws IOException
+        {
+            return window[fill(offset, 1)];
+        }
+
+        @Override
+        protected void copyTo(long offset, byte[] dst, int dstPos, int length) throws IOException
+        {
+            if (length <= CURSOR_WINDOW_SIZE)
+            {
+                System.arraycopy(window, fill(offset, length), dst, dstPos, length);
+            }
+
+            else
+            {
+                ImageChannelReader.this.readAt(offset, dst, dstPos, length);
+            }
+        }
+
+        @Override
+        protected long valueAt(long offset, int numBytes) throws IOException
+        {
+            return decoder().getValue(window, fill(offset, numBytes), numBytes);
+        }
+
+        /**
+         * Ensures that the window covers the specified range, refilling it from the shared channel
+         * if necessary. The range must lie within the file and not exceed the window size.
+         *
+         * @param offset
+         *        the absolute start of the range
+         * @param length
+         *        the number of bytes required
+         * @return the index within the window where the range starts
+         *
+         * @throws IOException
+         *         if an I/O error occurs
+         */
+        private int fill(long offset, int length) throws IOException
+        {
+            if (windowStart < 0 || offset < windowStart || offset + length > windowStart + windowLength)
+            {
+                windowStart = -1L;
+                windowLength = (int) Math.min(CURSOR_WINDOW_SIZE, realFileSize - offset);
+                ImageChannelReader.this.readAt(offset, window, 0, windowLength);
+                windowStart = offset;
+            }
+
+            return (int) (offset - windowStart);
+        }
+    }
+}
\ No newline at end of file
@@ -1,8 +1,7 @@
 package common;
 
-import java.io.BufferedInputStream;
 import java.io.ByteArrayOutputStream;
-import java.io.DataInputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteOrder;
@@ -10,6 +9,8 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Objects;
 
 /**
@@ -23,44 +24,97 @@ import java.util.Objects;
  * </p>
  *
  * <p>
+ * Since the underlying stream is not seekable, the most recently read bytes are retained in a
+ * bounded look-back window. Within that window, {@link #mark()}, {@link #reset()}, the
+ * {@code peek} methods, as well as backward {@link #seek(long)} and {@link #skip(long)} calls, are
+ * fully supported. Any attempt to revisit data that has already left the window fails with an
+ * {@link IOException}. This is sufficient for the forward-only parsing of JPEG, PNG and WebP
+ * files, allowing metadata to be extracted from upload streams, pipes or zip entries without first
+ * spooling them to disk.
+ * </p>
+ *
+ * <p>
  * The byte order can be changed at any time via {@link #setByteOrder(ByteOrder)}.
  * </p>
  *
  * @author Trevor Maggs
- * @version 1.0
+ * @version 1.1
  * @since 13 August 2025
  */
 public class ImageFileInputStream implements ByteStreamReader, AutoCloseable
 {
-    private final DataInputStream stream;
+    public static final int DEFAULT_WINDOW_SIZE = 64 * 1024;
+    private final InputStream stream;
+    private final Deque<Long> positionStack = new ArrayDeque<>();
+    private final int windowSize;
+    private final byte[] buffer;
+    private long bufferStart;
+    private int bufferLength;
+    private long streamLength;
     private ByteOrder byteOrder;
+    private EndianDecoder decoder;
     private long streamPosition;
     private Path pfile;
 
     /**
-     * Constructs a reader for the specified input stream with byte order provided.
+     * This is the primary constructor, wrapping the specified input stream with a look-back window
+     * of the given size.
      *
      * @param fin
      *        the input stream to wrap. Must not be null
      * @param order
      *        the byte order to use when interpreting multi-byte values
+     * @param windowSize
+     *        the number of already-read bytes that remain reachable by {@code mark/reset},
+     *        {@code peek} and backward seeks. It also limits how far ahead {@code peek} may look
+     * @param streamLength
+     *        the total length of the stream if known in advance, for example: from a
+     *        {@code Content-Length} header or {@code ZipEntry.getSize()}, otherwise -1
      *
      * @throws NullPointerException
      *         if either input stream or byte order is null
+     * @throws IllegalArgumentException
+     *         if the window size is not positive
      */
-    public ImageFileInputStream(InputStream fin, ByteOrder order)
+    public ImageFileInputStream(InputStream fin, ByteOrder order, int windowSize, long streamLength)
     {
         if (fin == null)
         {
             throw new NullPointerException("InputStream cannot be null");
         }
 
+        if (windowSize <= 0)
+        {
+            throw new IllegalArgumentException("Window size must be positive [" + windowSize + "]");
+        }
+
         /* Note: NullPointerException may be thrown */
         this.byteOrder = Objects.requireNonNull(order, "Byte order cannot be null");
-        this.stream = new DataInputStream(new BufferedInputStream(fin));
+        this.decoder = EndianDecoder.of(order);
+        this.stream = fin;
+        this.windowSize = windowSize;
+        this.buffer = new byte[windowSize * 2];
+        this.streamLength = (streamLength < 0 ? -1L : streamLength);
         this.streamPosition = 0L;
     }
 
+    /**
+     * Constructs a reader for the specified input stream with byte order provided, using the
+     * default look-back window size.
+     *
+     * @param fin
+     *        the input stream to wrap. Must not be null
+     * @param order
+     *        the byte order to use when interpreting multi-byte values
+     *
+     * @throws NullPointerException
+     *         if either input stream or byte order is null
+     */
+    public ImageFileInputStream(InputStream fin, ByteOrder order)
+    {
+        this(fin, order, DEFAULT_WINDOW_SIZE, -1L);
+    }
+
     /**
      * Constructs a reader for the specified input stream with big-endian byte order.
      *
@@ -91,7 +145,7 @@ public class ImageFileInputStream implements ByteStreamReader, AutoCloseable
      */
     public ImageFileInputStream(Path fpath, ByteOrder order) throws IOException
     {
-        this(Files.newInputStream(Objects.requireNonNull(fpath, "File path cannot be null")), order);
+        this(Files.newInputStream(Objects.requireNonNull(fpath, "File path cannot be null")), order, DEFAULT_WINDOW_SIZE, Files.size(fpath));
         this.pfile = fpath;
     }
 
@@ -156,6 +210,7 @@ public class ImageFileInputStream implements ByteStreamReader, AutoCloseable
         }
 
         byteOrder = order;
+        decoder = EndianDecoder.of(order);
     }
 
     /**
@@ -169,11 +224,27 @@ public class ImageFileInputStream implements ByteStreamReader, AutoCloseable
         return byteOrder;
     }
 
+    /**
+     * Returns the total length of the stream. The length is known if it was supplied at
+     * construction time, if the stream was opened from a file, or once the end of the stream has
+     * been reached.
+     *
+     * @return the stream length in bytes, or -1 if it is not yet known
+     */
     @Override
     public long length()
     {
-        // TODO Auto-generated method stub
-        return 0;
+        return streamLength;
+    }
+
+    /**
+     * Returns the size of the look-back window.
+     *
+     * @return the window size in bytes
+     */
+    public int getWindowSize()
+    {
+        return windowSize;
     }
 
     /**
@@ -188,49 +259,83 @@ public class ImageFileInputStream implements ByteStreamReader, AutoCloseable
     }
 
     /**
-     * Skips {@code n} bytes in the stream, guaranteeing that the stream position is advanced by
-     * exactly that amount, unless the end of the stream is reached.
+     * Moves the position by a relative offset. A negative value moves backwards, which succeeds
+     * only while the target is still held by the look-back window. Large forward skips discard the
+     * window and skip the underlying stream directly.
      *
      * @param n
-     *        the number of bytes to skip. Must be non-negative
+     *        the number of bytes to skip (positive to move forward, negative for backward)
+     *
+     * @throws EOFException
+     *         if the stream ends before the target position
      * @throws IOException
-     *         if an I/O error occurs or the stream ends prematurely
+     *         if the target lies behind the look-back window or an I/O error occurs
      */
     @Override
     public void skip(long n) throws IOException
     {
-        if (n < 0)
+        long target = streamPosition + n;
+
+        if (target < 0)
+        {
+            throw new IllegalArgumentException("Position cannot be negative [" + target + "]");
+        }
+
+        if (target < bufferStart)
+        {
+            throw new IOException("Position [" + target + "] is no longer within the look-back window starting at [" + bufferStart + "]");
+        }
+
+        if (streamLength >= 0 && target > streamLength)
         {
-            throw new IllegalArgumentException("Number of bytes to skip cannot be negative");
+            throw new EOFException("Skip target [" + target + "] exceeds stream length [" + streamLength + "]");
         }
 
-        long bytesSkipped = 0;
-        byte[] buffer = new byte[1024];
+        long bufferEnd = bufferStart + bufferLength;
 
-        while (bytesSkipped < n)
+        if (target > bufferEnd && target - streamPosition > windowSize)
         {
-            int len = (int) Math.min(n - bytesSkipped, buffer.length);
-            int result = stream.read(buffer, 0, len);
+            long remaining = target - bufferEnd;
 
-            if (result == -1) // EOF
+            while (remaining > 0)
             {
-                throw new IOException("Premature end of stream encountered while skipping [" + n + "] bytes");
+                long skipped = stream.skip(remaining);
+
+                if (skipped <= 0)
+                {
+                    if (stream.read() == -1)
+                    {
+                        streamLength = target - remaining;
+                        throw new EOFException("Premature end of stream encountered while skipping [" + n + "] bytes");
+                    }
+
+                    skipped = 1;
+                }
+
+                remaining -= skipped;
             }
 
-            bytesSkipped += result;
+            bufferStart = target;
+            bufferLength = 0;
         }
 
-        streamPosition += n;
+        else
+        {
+            fill(target);
+        }
+
+        streamPosition = target;
     }
 
     /**
-     * Seeks to a specific position in the stream.
+     * Seeks to a specific position in the stream. Backward seeks are permitted only within the
+     * look-back window.
      *
      * @param n
      *        the position to seek to
      *
      * @throws IOException
-     *         if an I/O error occurs, or if the stream does not support seeking
+     *         if an I/O error occurs, or if the position has left the look-back window
      */
     @Override
     public void seek(long n) throws IOException
@@ -240,43 +345,83 @@ public class ImageFileInputStream implements ByteStreamReader, AutoCloseable
             throw new IllegalArgumentException("Position cannot be negative");
         }
 
-        if (n == streamPosition)
-        {
-            return;
-        }
-
-        else if (n > streamPosition)
-        {
-            skip(n - streamPosition);
-        }
+        skip(n - streamPosition);
     }
 
+    /**
+     * Pushes the current position onto the internal mark stack. A subsequent {@link #reset()}
+     * succeeds as long as no more than {@link #getWindowSize()} bytes have been consumed since.
+     */
     @Override
-    public void mark() throws IOException
+    public void mark()
     {
-        // TODO Auto-generated method stub
-
+        positionStack.push(streamPosition);
     }
 
+    /**
+     * Returns to the position recorded by the most recent {@link #mark()}.
+     *
+     * @throws IllegalStateException
+     *         if the mark stack is empty
+     * @throws IOException
+     *         if the marked position has already left the look-back window
+     */
     @Override
     public void reset() throws IOException
     {
-        // TODO Auto-generated method stub
+        if (positionStack.isEmpty())
+        {
+            throw new IllegalStateException("Mark stack is empty");
+        }
+
+        long markPosition = positionStack.pop();
+
+        if (markPosition < bufferStart)
+        {
+            throw new IOException("Marked position [" + markPosition + "] is no longer within the look-back window starting at [" + bufferStart + "]");
+        }
 
+        streamPosition = markPosition;
     }
 
+    /**
+     * Reads a single byte at an absolute offset without advancing the current position.
+     *
+     * @param offset
+     *        the absolute position to read from
+     * @return the signed byte value
+     *
+     * @throws IOException
+     *         if the offset is outside the look-back window, or too far ahead of the current
+     *         position, or beyond the end of the stream
+     */
     @Override
     public byte peek(long offset) throws IOException
     {
-        // TODO Auto-generated method stub
-        return 0;
+        return buffer[locate(offset, 1)];
     }
 
+    /**
+     * Reads a sequence of bytes at an absolute offset without moving the current position.
+     *
+     * @param offset
+     *        the absolute position to start reading from
+     * @param length
+     *        the number of bytes to read
+     * @return a new array containing the read data
+     *
+     * @throws IOException
+     *         if the range is outside the look-back window, or too far ahead of the current
+     *         position, or beyond the end of the stream
+     */
     @Override
     public byte[] peek(long offset, int length) throws IOException
     {
-        // TODO Auto-generated method stub
-        return null;
+        byte[] data = new byte[length];
+
+        System.arraycopy(buffer, locate(offset, length), data, 0, length);
+
+        return data;
     }
 
     /**
@@ -290,7 +435,9 @@ public class ImageFileInputStream implements ByteStreamReader, AutoCloseable
     @Override
     public byte readByte() throws IOException
     {
-        byte b = stream.readByte();
+        fill(streamPosition + 1);
+
+        byte b = buffer[(int) (streamPosition - bufferStart)];
 
         streamPosition++;
 
@@ -298,7 +445,9 @@ public class ImageFileInputStream implements ByteStreamReader, AutoCloseable
     }
 
     /**
-     * Reads a sequence of bytes from the stream.
+     * Reads a sequence of bytes from the stream. Requests larger than the look-back window are
+     * read directly from the underlying stream, and only their trailing portion is retained in the
+     * window.
      *
      * @param length
      *        The number of bytes to read.
@@ -309,14 +458,76 @@ public class ImageFileInputStream implements ByteStreamReader, AutoCloseable
     @Override
     public byte[] readBytes(int length) throws IOException
     {
+        if (length < 0)
+        {
+            throw new IllegalArgumentException("Length cannot be negative");
+        }
+
         byte[] bytes = new byte[length];
 
-        stream.readFully(bytes);
-        streamPosition += length;
+        readBytes(bytes, 0, length);
 
         return bytes;
     }
 
+    /**
+     * Reads a sequence of bytes from the stream into an existing array. Requests larger than the
+     * look-back window are read directly into the destination array, and only their trailing
+     * portion is retained in the window.
+     *
+     * @param dst
+     *        The destination array.
+     * @param offset
+     *        The starting index within the destination array.
+     * @param length
+     *        The number of bytes to read.
+     * @throws IOException
+     *         if an I/O error occurs or the stream ends prematurely.
+     */
+    @Override
+    public void readBytes(byte[] dst, int offset, int length) throws IOException
+    {
+        if (length < 0)
+        {
+            throw new IllegalArgumentException("Length cannot be negative");
+        }
+
+        if (length <= windowSize || streamPosition + length <= bufferStart + bufferLength)
+        {
+            fill(streamPosition + length);
+            System.arraycopy(buffer, (int) (streamPosition - bufferStart), dst, offset, length);
+        }
+
+        else
+        {
+            int buffered = (int) (bufferStart + bufferLength - streamPosition);
+            int total = buffered;
+
+            System.arraycopy(buffer, (int) (streamPosition - bufferStart), dst, offset, buffered);
+
+            while (total < length)
+            {
+                int n = stream.read(dst, offset + total, length - total);
+
+                if (n < 0)
+                {
+                    streamLength = streamPosition + total;
+                    throw new EOFException("Premature end of stream after [" + total + "] of [" + length + "] bytes");
+                }
+
+                total += n;
+            }
+
+            int retained = Math.min(windowSize, length);
+
+            System.arraycopy(dst, offset + length - retained, buffer, 0, retained);
+            bufferStart = streamPosition + length - retained;
+            bufferLength = retained;
+        }
+
+        streamPosition += length;
+    }
+
     /**
      * Reads a single byte and returns it as an unsigned integer (0-255).
      *
@@ -328,11 +539,7 @@ public class ImageFileInputStream implements ByteStreamReader, AutoCloseable
     @Override
     public int readUnsignedByte() throws IOException
     {
-        int b = stream.readUnsignedByte();
-
-        streamPosition++;
-
-        return b;
+        return readByte() & 0xFF;
     }
 
     /**
@@ -346,16 +553,7 @@ public class ImageFileInputStream implements ByteStreamReader, AutoCloseable
     @Override
     public short readShort() throws IOException
     {
-        short value = stream.readShort();
-
-        if (byteOrder == ByteOrder.LITTLE_ENDIAN)
-        {
-            value = Short.reverseBytes(value);
-        }
-
-        streamPosition += 2;
-
-        return value;
+        return (short) readValue(2);
     }
 
     /**
@@ -383,16 +581,7 @@ public class ImageFileInputStream implements ByteStreamReader, AutoCloseable
     @Override
     public int readInteger() throws IOException
     {
-        int value = stream.readInt();
-
-        if (byteOrder == ByteOrder.LITTLE_ENDIAN)
-        {
-            value = Integer.reverseBytes(value);
-        }
-
-        streamPosition += 4;
-
-        return value;
+        return (int) readValue(4);
     }
 
     /**
@@ -412,28 +601,16 @@ public class ImageFileInputStream implements ByteStreamReader, AutoCloseable
 
     /**
      * Reads three bytes and returns an unsigned 24-bit integer.
-     * * @return the unsigned 24-bit integer value
-     * 
+     *
+     * @return the unsigned 24-bit integer value
+     *
      * @throws IOException
      *         if an I/O error occurs
      */
     @Override
     public int readUnsignedInt24() throws IOException
     {
-        int value;
-        byte[] b = readBytes(3);
-
-        if (byteOrder == ByteOrder.LITTLE_ENDIAN)
-        {
-            value = ((b[2] & 0xFF) << 16) | ((b[1] & 0xFF) << 8) | (b[0] & 0xFF);
-        }
-
-        else
-        {
-            value = ((b[0] & 0xFF) << 16) | ((b[1] & 0xFF) << 8) | (b[2] & 0xFF);
-        }
-
-        return value;
+        return (int) readValue(3);
     }
 
     /**
@@ -447,16 +624,7 @@ public class ImageFileInputStream implements ByteStreamReader, AutoCloseable
     @Override
     public long readLong() throws IOException
     {
-        long value = stream.readLong();
-
-        if (byteOrder == ByteOrder.LITTLE_ENDIAN)
-        {
-            value = Long.reverseBytes(value);
-        }
-
-        streamPosition += 8;
-
-        return value;
+        return readValue(8);
     }
 
     /**
@@ -498,23 +666,33 @@ public class ImageFileInputStream implements ByteStreamReader, AutoCloseable
     @Override
     public String readString() throws IOException
     {
-        int b;
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
 
-        while ((b = stream.read()) != -1 && b != 0)
+        while (streamLength < 0 || streamPosition < streamLength)
         {
-            baos.write(b);
-            streamPosition++;
-        }
+            byte b;
 
-        if (b == 0)
-        {
-            // Account for the null terminator itself
-            streamPosition++;
+            try
+            {
+                b = readByte();
+            }
+
+            catch (EOFException exc)
+            {
+                break;
+            }
+
+            if (b == 0)
+            {
+                break;
+            }
+
+            baos.write(b);
         }
 
         return new String(baos.toByteArray(), StandardCharsets.UTF_8);
     }
+
     /**
      * Reads all remaining bytes from the stream into a new array.
      *
@@ -526,15 +704,136 @@ public class ImageFileInputStream implements ByteStreamReader, AutoCloseable
     public byte[] readAllBytes() throws IOException
     {
         int bytesRead;
-        byte[] buffer = new byte[8192];
+        byte[] chunk = new byte[8192];
+        int buffered = (int) (bufferStart + bufferLength - streamPosition);
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
 
-        while ((bytesRead = stream.read(buffer)) != -1)
+        baos.write(buffer, (int) (streamPosition - bufferStart), buffered);
+
+        while ((bytesRead = stream.read(chunk)) != -1)
         {
-            baos.write(buffer, 0, bytesRead);
-            streamPosition += bytesRead;
+            baos.write(chunk, 0, bytesRead);
         }
 
-        return baos.toByteArray();
+        byte[] data = baos.toByteArray();
+
+        streamPosition += data.length;
+        streamLength = streamPosition;
+        bufferStart = streamPosition;
+        bufferLength = 0;
+
+        return data;
+    }
+
+    /**
+     * Validates a range for peeking and ensures it is held by the window.
+     *
+     * @param offset
+     *        the absolute start of the range
+     * @param length
+     *        the number of bytes required
+     * @return the index within the internal buffer where the range starts
+     *
+     * @throws IOException
+     *         if the range cannot be served from the look-back window
+     */
+    private int locate(long offset, int length) throws IOException
+    {
+        if (offset < 0 || length < 0)
+        {
+            throw new IllegalArgumentException("Offset and length cannot be negative");
+        }
+
+        if (offset < bufferStart)
+        {
+            throw new IOException("Offset [" + offset + "] is no longer within the look-back window starting at [" + bufferStart + "]");
+        }
+
+        if (offset + length - streamPosition > windowSize)
+        {
+            throw new IOException("Peek range [" + offset + "+" + length + "] exceeds the look-ahead limit of [" + windowSize + "] bytes");
+        }
+
+        fill(offset + length);
+
+        return (int) (offset - bufferStart);
+    }
+
+    /**
+     * Reads an integral value of up to 8 bytes respecting the current byte order, and advances the
+     * position.
+     *
+     * @param numBytes
+     *        the number of bytes to read
+     * @return the assembled value
+     *
+     * @throws IOException
+     *         if the stream ends prematurely
+     */
+    private long readValue(int numBytes) throws IOException
+    {
+        fill(streamPosition + numBytes);
+
+        int start = (int) (streamPosition - bufferStart);
+        long value = decoder.getValue(buffer, start, numBytes);
+
+        streamPosition += numBytes;
+
+        return value;
+    }
+
+    /**
+     * Ensures that the window holds every byte up to, but excluding, the specified absolute
+     * position, reading more data from the underlying stream if required. The end position must
+     * not be more than {@code windowSize} bytes ahead of the current position.
+     *
+     * <p>
+     * When the internal buffer runs out of room, bytes more than {@code windowSize} behind the
+     * current position are discarded first. Because the buffer is twice the window size, the
+     * compaction cost is amortised across at least {@code windowSize} consumed bytes.
+     * </p>
+     *
+     * @param end
+     *        the exclusive absolute end position that must be available
+     *
+     * @throws EOFException
+     *         if the stream ends before the requested position
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    private void fill(long end) throws IOException
+    {
+        if (end <= bufferStart + bufferLength)
+        {
+            return;
+        }
+
+        if (streamLength >= 0 && end > streamLength)
+        {
+            throw new EOFException(String.format("Requested data up to [%d], but the stream length is only [%d]", end, streamLength));
+        }
+
+        if (end - bufferStart > buffer.length)
+        {
+            long newStart = Math.max(bufferStart, streamPosition - windowSize);
+            int drop = (int) (newStart - bufferStart);
+
+            System.arraycopy(buffer, drop, buffer, 0, bufferLength - drop);
+            bufferStart = newStart;
+            bufferLength -= drop;
+        }
+
+        while (bufferStart + bufferLength < end)
+        {
+            int n = stream.read(buffer, bufferLength, buffer.length - bufferLength);
+
+            if (n < 0)
+            {
+                streamLength = bufferStart + bufferLength;
+                throw new EOFException(String.format("Requested data up to [%d], but the stream ended at [%d]", end, streamLength));
+            }
+
+            bufferLength += n;
+        }
     }
-}
\ No newline at end of file
+}
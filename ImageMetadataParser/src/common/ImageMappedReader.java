@@ -0,0 +1,336 @@
+package common;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * A seekable binary stream reader backed by a read-only memory mapping of the file.
+ *
+ * <p>
+ * The file is mapped through {@link FileChannel#map} in consecutive segments of up to 1 GB each,
+ * so files larger than 2 GB, for example: multi-gigabyte scanned TIFFs or burst HEIC files, can be
+ * read without loading them. Random jumps, such as following IFD chains or {@code iloc} extents,
+ * are served directly by the operating system's page cache instead of issuing a
+ * {@code RandomAccessFile.seek} call each time.
+ * </p>
+ *
+ * <p>
+ * Primitive reads are decoded by the mapped buffers using the reader's current byte order. In
+ * addition to the {@link ByteStreamReader} contract, the {@link #slice(long, int)} and
+ * {@link #readSlice(int)} methods hand out read-only {@link ByteBuffer} views of the mapping
+ * without copying, provided the range does not straddle two segments.
+ * </p>
+ *
+ * <p>
+ * <strong>Note:</strong> Java 8 offers no supported way to unmap a buffer eagerly. Closing this
+ * reader releases the file channel, while the mapping itself is released once the buffers and any
+ * slices handed out are garbage-collected.
+ * </p>
+ *
+ * @author Trevor Maggs
+ * @version 1.0
+ * @since 16 October 2026
+ */
+public class ImageMappedReader extends AbstractFileReader
+{
+    public static final int DEFAULT_SEGMENT_SIZE = 1 << 30;
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final int segmentSize;
+    private final long realFileSize;
+
+    /**
+     * Initialises a read-only mapped reader using {@link ByteOrder#BIG_ENDIAN}.
+     *
+     * @param fpath
+     *        the path to the file
+     * @throws IOException
+     *         if the file cannot be opened or mapped
+     */
+    public ImageMappedReader(Path fpath) throws IOException
+    {
+        this(fpath, ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Initialises a read-only mapped reader with the specified byte order.
+     *
+     * @param fpath
+     *        the path to the file
+     * @param order
+     *        the {@link ByteOrder} for multi-byte interpretation
+     * @throws IOException
+     *         if the file cannot be opened or mapped
+     */
+    public ImageMappedReader(Path fpath, ByteOrder order) throws IOException
+    {
+        this(fpath, order, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Constructs a mapped reader with a specific segment size, for example: to keep each mapping
+     * small where the virtual address space is limited. Reads spanning two segments are assembled
+     * from both.
+     *
+     * @param fpath
+     *        the path to the file
+     * @param order
+     *        the {@link ByteOrder} for multi-byte interpretation
+     * @param segmentSize
+     *        the maximum number of bytes covered by each mapped segment
+     * @throws IllegalArgumentException
+     *         if the segment size is less than 8
+     * @throws IOException
+     *         if the file cannot be opened or mapped
+     */
+    public ImageMappedReader(Path fpath, ByteOrder order, int segmentSize) throws IOException
+    {
+        this(open(fpath, order, segmentSize), order, segmentSize);
+    }
+
+    /**
+     * Maps a file that has already been opened, taking ownership of it, so that the file does not
+     * need to be opened again once its size is known. The file is closed if it cannot be mapped.
+     * Note that this constructor has package-private visibility.
+     *
+     * @param source
+     *        the open file, which is closed along with this reader
+     * @param order
+     *        the {@link ByteOrder} for multi-byte interpretation
+     * @param segmentSize
+     *        the maximum number of bytes covered by each mapped segment
+     * @throws IOException
+     *         if the file cannot be mapped
+     */
+    ImageMappedReader(ImageChannelReader source, ByteOrder order, int segmentSize) throws IOException
+    {
+        super(source.getFilename(), order);
+
+        this.segmentSize = segmentSize;
+        this.channel = source.getChannel();
+
+        try
+        {
+            this.realFileSize = channel.size();
+
+            int count = (int) ((realFileSize + segmentSize - 1) / segmentSize);
+
+            this.segments = new MappedByteBuffer[count];
+
+            for (int i = 0; i < count; i++)
+            {
+                long start = (long) i * segmentSize;
+                long len = Math.min(segmentSize, realFileSize - start);
+
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, len);
+                segments[i].order(order);
+            }
+        }
+
+        catch (IOException | RuntimeException exc)
+        {
+            channel.close();
+            throw exc;
+        }
+    }
+
+    /**
+     * Validates the constructor arguments before the file is opened, so that nothing is left open
+     * if they are rejected.
+     *
+     * @param fpath
+     *        the path to the file
+     * @param order
+     *        the {@link ByteOrder} for multi-byte interpretation
+     * @param segmentSize
+     *        the maximum number of bytes covered by each mapped segment
+     * @return the opened file
+     *
+     * @throws IOException
+     *         if the file cannot be opened
+     */
+    private static ImageChannelReader open(Path fpath, ByteOrder order, int segmentSize) throws IOException
+    {
+        if (segmentSize < 8)
+        {
+            throw new IllegalArgumentException("Segment size [" + segmentSize + "] is too small");
+        }
+
+        Objects.requireNonNull(order, "Byte order cannot be null");
+
+        return new ImageChannelReader(fpath);
+    }
+
+    /**
+     * Closes the underlying file channel.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        channel.close();
+    }
+
+    /**
+     * Updates the byte order for subsequent multi-byte read operations.
+     *
+     * @param order
+     *        the new byte order
+     */
+    @Override
+    public void setByteOrder(ByteOrder order)
+    {
+        super.setByteOrder(order);
+
+        for (MappedByteBuffer seg : segments)
+        {
+            seg.order(order);
+        }
+    }
+
+    /**
+     * Returns the fixed file length recorded at the time of mapping.
+     *
+     * @return the file size in bytes
+     */
+    @Override
+    public long length()
+    {
+        return realFileSize;
+    }
+
+    /**
+     * Returns a read-only view of the specified range without moving the current position. The
+     * view shares the mapped memory and no bytes are copied, unless the range straddles two
+     * mapped segments, in which case a read-only copy is returned instead.
+     *
+     * @param offset
+     *        the absolute position where the view starts
+     * @param length
+     *        the number of bytes covered by the view
+     * @return a read-only {@link ByteBuffer} positioned at zero, using the current byte order
+     *
+     * @throws EOFException
+     *         if the request exceeds the file length
+     */
+    public ByteBuffer slice(long offset, int length) throws IOException
+    {
+        checkRange(offset, length);
+
+        int index = (int) (offset / segmentSize);
+        int start = (int) (offset % segmentSize);
+        ByteBuffer view;
+
+        if (length == 0)
+        {
+            view = ByteBuffer.allocate(0);
+        }
+
+        else if (start + length <= segments[index].capacity())
+        {
+            ByteBuffer dup = segments[index].duplicate();
+
+            ((Buffer) dup).limit(start + length);
+            ((Buffer) dup).position(start);
+            view = dup.slice();
+        }
+
+        else
+        {
+            byte[] data = new byte[length];
+
+            copyTo(offset, data, 0, length);
+            view = ByteBuffer.wrap(data);
+        }
+
+        return view.asReadOnlyBuffer().order(getByteOrder());
+    }
+
+    /**
+     * Returns a read-only view of the next {@code length} bytes and advances the position past
+     * them.
+     *
+     * @param length
+     *        the number of bytes covered by the view
+     * @return a read-only {@link ByteBuffer} positioned at zero
+     *
+     * @throws EOFException
+     *         if insufficient bytes remain
+     * @see #slice(long, int)
+     */
+    public ByteBuffer readSlice(int length) throws IOException
+    {
+        ByteBuffer view = slice(getCurrentPosition(), length);
+
+        seek(getCurrentPosition() + length);
+
+        return view;
+    }
+
+    /**
+     * Returns the byte at the specified offset straight from the mapped segment covering it.
+     */
+    @Override
+    protected byte byteAt(long offset)
+    {
+        return segments[(int) (offset / segmentSize)].get((int) (offset % segmentSize));
+    }
+
+    /**
+     * Copies bytes from the mapping into the destination array, crossing segment boundaries where
+     * necessary. Each call works on its own duplicate of the mapped segments, so concurrent calls
+     * are safe.
+     */
+    @Override
+    protected void copyTo(long offset, byte[] dst, int dstPos, int length)
+    {
+        while (length > 0)
+        {
+            ByteBuffer dup = segments[(int) (offset / segmentSize)].duplicate();
+            int start = (int) (offset % segmentSize);
+            int n = Math.min(length, dup.capacity() - start);
+
+            ((Buffer) dup).position(start);
+            dup.get(dst, dstPos, n);
+
+            offset += n;
+            dstPos += n;
+            length -= n;
+        }
+    }
+
+    /**
+     * Decodes 16, 32 and 64-bit values with the absolute getters of the mapped segment, which
+     * honour the current byte order. Values of other widths, or straddling two segments, are
+     * assembled from a copy instead.
+     */
+    @Override
+    protected long valueAt(long offset, int numBytes) throws IOException
+    {
+        MappedByteBuffer seg = segments[(int) (offset / segmentSize)];
+        int index = (int) (offset % segmentSize);
+
+        if (index + numBytes <= seg.capacity())
+        {
+            switch (numBytes)
+            {
+                case 2:
+                    return seg.getShort(index) & 0xFFFFL;
+                case 4:
+                    return seg.getInt(index) & 0xFFFFFFFFL;
+                case 8:
+                    return seg.getLong(index);
+                default:
+                    break;
+            }
+        }
+
+        return super.valueAt(offset, numBytes);
+    }
+}
\ No newline at end of file
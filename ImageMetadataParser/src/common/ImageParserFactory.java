@@ -1,7 +1,11 @@
 package common;
 
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteOrder;
 import java.nio.file.Path;
+import java.util.Objects;
 import heif.HeifParser;
 import jpg.JpgParser;
 import png.PngParser;
@@ -19,7 +23,7 @@ import webp.WebpParser;
  * <ul>
  * <li>JPEG (JPG)</li>
  * <li>PNG</li>
- * <li>TIFF</li>
+ * <li>TIFF, including the raw camera formats built on it, such as DNG, CR2, NEF and ARW</li>
  * <li>HEIC (High Efficiency Image Format)</li>
  * <li>WebP</li>
  * </ul>
@@ -29,12 +33,24 @@ import webp.WebpParser;
  * instantiation of the correct parser implementation.
  * </p>
  *
+ * <p>
+ * Besides files, JPEG, PNG and WebP images can also be parsed directly from an
+ * {@link InputStream} via {@link #getParser(InputStream)}, without spooling them to disk first.
+ * </p>
+ *
  * @author Trevor Maggs
  * @version 1.0
  * @since 13 August 2025
  */
 public final class ImageParserFactory
 {
+    /**
+     * Files at or above this size are read through a memory mapping instead of the page-cached
+     * reader, since their directory chains and item extents tend to be scattered across the file.
+     */
+    public static final long MAPPED_READER_THRESHOLD = 64L * 1024 * 1024;
+    private static volatile BufferPool defaultBufferPool = UnpooledBufferPool.INSTANCE;
+
     /**
      * Prevents direct instantiation.
      *
@@ -46,35 +62,206 @@ public final class ImageParserFactory
         throw new UnsupportedOperationException("Instantiation not allowed");
     }
 
+    /**
+     * Sets the buffer pool assigned to every parser created from now on, for example: a shared
+     * {@link SizeClassedBufferPool} for high-throughput batch processing. Each parser may still
+     * override this via {@link AbstractImageParser#setBufferPool(BufferPool)}.
+     *
+     * @param pool
+     *        the default buffer pool
+     *
+     * @throws NullPointerException
+     *         if {@code pool} is null
+     */
+    public static void setDefaultBufferPool(BufferPool pool)
+    {
+        if (pool == null)
+        {
+            throw new NullPointerException("Buffer pool cannot be null");
+        }
+
+        defaultBufferPool = pool;
+    }
+
+    /**
+     * Returns the buffer pool assigned to newly created parsers. Unless changed, this is
+     * {@link UnpooledBufferPool#INSTANCE}, which allocates a new array per payload.
+     *
+     * @return the default {@link BufferPool}
+     */
+    public static BufferPool getDefaultBufferPool()
+    {
+        return defaultBufferPool;
+    }
+
     /**
      * Creates a parser instance for the specified image file by detecting its format.
      *
+     * <p>
+     * The file is opened only once. Its signature is sniffed from the block prefetched by an
+     * {@link ImagePrefetchReader}, and that same reader, with the leading bytes already in memory,
+     * is handed to the returned parser. Most parsers close it once
+     * {@link AbstractImageParser#readMetadata()} completes, whereas a {@link TifParser} keeps it
+     * open to serve tag values on demand, so the parser must always be closed by the caller.
+     * No separate existence or file-type checks are made, since a missing file or a directory
+     * already fails to open.
+     * </p>
+     *
      * @param fpath
      *        the file path of the image to be parsed
      *
      * @return a concrete implementation of {@link AbstractImageParser}
      *
      * @throws IOException
-     *         if an I/O error occurs while reading the file signature
+     *         if the file cannot be opened or an I/O error occurs while reading the file signature
      * @throws UnsupportedOperationException
      *         if the format is unsupported
      */
     public static AbstractImageParser getParser(Path fpath) throws IOException
     {
-        switch (DigitalSignature.detectFormat(fpath))
+        ByteStreamReader reader = createPrefetchReader(fpath, ByteOrder.BIG_ENDIAN);
+
+        try
+        {
+            int len = (int) Math.min(reader.length(), DigitalSignature.getHeaderLength());
+
+            switch (DigitalSignature.detectFormat(reader.peek(0, len)))
+            {
+                case JPG:
+                    return new JpgParser(reader);
+                case TIF:
+                    return new TifParser(reader);
+                case PNG:
+                    return new PngParser(reader);
+                case HEIF:
+                    return new HeifParser(reader);
+                case WEBP:
+                    return new WebpParser(reader);
+                default:
+                    throw new UnsupportedOperationException("Unsupported image format detected [" + fpath.getFileName() + "]");
+            }
+        }
+
+        catch (IOException | RuntimeException exc)
+        {
+            reader.close();
+            throw exc;
+        }
+    }
+
+    /**
+     * Creates a parser instance that reads from a non-seekable stream, detecting the format from
+     * the leading bytes of the stream.
+     *
+     * <p>
+     * Only formats that can be decoded in a single forward pass are supported, namely JPEG, PNG,
+     * WebP and TIFF. TIFF directories are read in ascending offset order, so values stored before
+     * their directory can only be recovered while they remain within the look-back window of the
+     * stream. HEIF files store their metadata at arbitrary offsets and therefore require a seekable
+     * file.
+     * </p>
+     *
+     * @param in
+     *        the stream positioned at the start of the image data. It is closed along with the
+     *        returned parser, which the caller is responsible for closing, or earlier, once the
+     *        metadata has been read, for formats other than TIFF
+     *
+     * @return a concrete implementation of {@link AbstractImageParser}
+     *
+     * @throws IOException
+     *         if an I/O error occurs while reading the file signature
+     * @throws UnsupportedOperationException
+     *         if the format is unsupported or requires random access
+     */
+    public static AbstractImageParser getParser(InputStream in) throws IOException
+    {
+        ImageFileInputStream stream = new ImageFileInputStream(in);
+        byte[] header;
+
+        try
+        {
+            header = stream.peek(0, DigitalSignature.getHeaderLength());
+        }
+
+        catch (EOFException exc)
+        {
+            // The whole stream is shorter than the signature buffer, so its length is now known
+            header = stream.peek(0, (int) stream.length());
+        }
+
+        DigitalSignature format = DigitalSignature.detectFormat(header);
+
+        switch (format)
         {
             case JPG:
-                return new JpgParser(fpath);
-            case TIF:
-                return new TifParser(fpath);
+                return new JpgParser(stream);
             case PNG:
-                return new PngParser(fpath);
-            case HEIF:
-                return new HeifParser(fpath);
+                return new PngParser(stream);
             case WEBP:
-                return new WebpParser(fpath);
+                return new WebpParser(stream);
+            case TIF:
+                return new TifParser(stream);
+            case HEIF:
+                throw new UnsupportedOperationException("Image format [" + format + "] requires random access and cannot be parsed from a stream");
             default:
-                throw new UnsupportedOperationException("Unsupported image format detected [" + fpath.getFileName() + "]");
+                throw new UnsupportedOperationException("Unsupported image format detected in stream");
         }
     }
+
+    /**
+     * Opens a reader that loads the leading block of the specified file with a single read and
+     * parses from memory when the metadata fits in it, which is typical of JPEG, PNG, WebP and HEIC
+     * files. Reads beyond the prefetched window fall back to a reader from
+     * {@link #createReader(Path, ByteOrder)}.
+     *
+     * @param fpath
+     *        the file path of the image to be read
+     * @param order
+     *        the initial byte order of the reader
+     *
+     * @return an open {@link ImagePrefetchReader}, which the caller is responsible for closing
+     *
+     * @throws IOException
+     *         if the file cannot be opened or read
+     */
+    public static ByteStreamReader createPrefetchReader(Path fpath, ByteOrder order) throws IOException
+    {
+        return new ImagePrefetchReader(fpath, order);
+    }
+
+    /**
+     * Opens a reader suited to the size of the specified file. Files smaller than
+     * {@link #MAPPED_READER_THRESHOLD} are served by an {@link ImageBufferedReader}, which caches
+     * pages loaded with positional reads on the file channel, whereas larger files, for example:
+     * multi-page scanned TIFFs or burst HEIC sequences, are memory-mapped via
+     * {@link ImageMappedReader}.
+     *
+     * <p>
+     * The file is opened only once. Its size is taken from the open file handle rather than a
+     * separate file system query, and the chosen reader takes over that same handle.
+     * </p>
+     *
+     * @param fpath
+     *        the file path of the image to be read
+     * @param order
+     *        the initial byte order of the reader
+     *
+     * @return an open {@link ByteStreamReader}, which the caller is responsible for closing
+     *
+     * @throws IOException
+     *         if the file cannot be opened or mapped
+     */
+    public static ByteStreamReader createReader(Path fpath, ByteOrder order) throws IOException
+    {
+        Objects.requireNonNull(order, "Byte order cannot be null");
+
+        ImageChannelReader source = new ImageChannelReader(fpath);
+
+        if (source.length() >= MAPPED_READER_THRESHOLD)
+        {
+            return new ImageMappedReader(source, order, ImageMappedReader.DEFAULT_SEGMENT_SIZE);
+        }
+
+        return new ImageBufferedReader(source, order, ImageBufferedReader.DEFAULT_PAGE_SIZE, ImageBufferedReader.DEFAULT_PAGE_COUNT);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,298 @@
+package common;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * A seekable binary stream reader that loads the leading block of a file with a single read and
+ * serves subsequent reads from memory, in the same way as {@link SequentialByteArrayReader}.
+ *
+ * <p>
+ * In JPEG, PNG, WebP and most HEIC files, all metadata sits in the first few tens of kilobytes,
+ * namely the APP segments before {@code SOS}, the chunks before {@code IDAT}, the {@code VP8X},
+ * {@code EXIF} and {@code XMP} chunks, or the {@code ftyp} and {@code meta} boxes. Reading this
+ * prefix in one go turns a typical parse into one or two file reads.
+ * </p>
+ *
+ * <p>
+ * The prefix window adapts to the file. Whenever a read starts inside the window and runs past its
+ * end, for example: a segment or box that straddles the boundary, the window is doubled until it
+ * covers the request, and only the missing tail is read from the file. Growth stops at the
+ * configured maximum size. Reads that start beyond the window, or that would grow it past the
+ * maximum, fall back to a reader obtained from {@link ImageParserFactory#createReader}, which is
+ * opened on first use only. This keeps the reader correct for any access pattern, including the
+ * scattered offsets of TIFF directories.
+ * </p>
+ *
+ * <p>
+ * <strong>Thread Safety:</strong> This class is not thread-safe.
+ * </p>
+ *
+ * @author Trevor Maggs
+ * @version 1.0
+ * @since 16 October 2026
+ */
+public class ImagePrefetchReader extends AbstractFileReader
+{
+    public static final int DEFAULT_PREFETCH_SIZE = 64 * 1024;
+    public static final int DEFAULT_MAX_PREFETCH_SIZE = 1024 * 1024;
+    private final RandomAccessFile raf;
+    private final long realFileSize;
+    private final int initialSize;
+    private final int maxSize;
+    private ByteStreamReader fallback;
+    private byte[] window;
+
+    /**
+     * Initialises a prefetching reader using {@link ByteOrder#BIG_ENDIAN} and the default window
+     * sizes.
+     *
+     * @param fpath
+     *        the path to the file
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    public ImagePrefetchReader(Path fpath) throws IOException
+    {
+        this(fpath, ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Initialises a prefetching reader with the specified byte order and the default window sizes.
+     *
+     * @param fpath
+     *        the path to the file
+     * @param order
+     *        the {@link ByteOrder} for multi-byte interpretation
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    public ImagePrefetchReader(Path fpath, ByteOrder order) throws IOException
+    {
+        this(fpath, order, DEFAULT_PREFETCH_SIZE, DEFAULT_MAX_PREFETCH_SIZE);
+    }
+
+    /**
+     * Primary constructor allowing the initial and the maximum window sizes to be specified. The
+     * initial block is read from the file before this constructor returns.
+     *
+     * @param fpath
+     *        the path to the file
+     * @param order
+     *        the {@link ByteOrder} for multi-byte interpretation
+     * @param initialSize
+     *        the number of leading bytes to read up-front
+     * @param maxSize
+     *        the size beyond which the window is no longer extended
+     * @throws IllegalArgumentException
+     *         if the initial size is less than 1 or exceeds the maximum size
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    public ImagePrefetchReader(Path fpath, ByteOrder order, int initialSize, int maxSize) throws IOException
+    {
+        super(fpath, order);
+
+        if (initialSize < 1 || initialSize > maxSize)
+        {
+            throw new IllegalArgumentException("Initial size [" + initialSize + "] must be positive and no larger than maximum size [" + maxSize + "]");
+        }
+
+        this.initialSize = initialSize;
+        this.maxSize = maxSize;
+        this.raf = new RandomAccessFile(fpath.toFile(), "r");
+
+        try
+        {
+            this.realFileSize = raf.length();
+            this.window = new byte[(int) Math.min(initialSize, realFileSize)];
+
+            raf.readFully(window);
+        }
+
+        catch (IOException | RuntimeException exc)
+        {
+            raf.close();
+            throw exc;
+        }
+    }
+
+    /**
+     * Closes the underlying RandomAccessFile resource, as well as the fallback reader if it has
+     * been opened.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            if (fallback != null)
+            {
+                fallback.close();
+            }
+        }
+
+        finally
+        {
+            raf.close();
+        }
+    }
+
+    /**
+     * Returns the fixed file length recorded at the time of construction.
+     *
+     * @return the file size in bytes
+     */
+    @Override
+    public long length()
+    {
+        return realFileSize;
+    }
+
+    /**
+     * Returns the number of leading bytes currently held in memory.
+     *
+     * @return the window size in bytes
+     */
+    public int getWindowSize()
+    {
+        return window.length;
+    }
+
+    /**
+     * Indicates whether any read has had to fall back to the file beyond the prefetched window.
+     *
+     * @return true if the fallback reader has been opened
+     */
+    public boolean hasFallenBack()
+    {
+        return (fallback != null);
+    }
+
+    /**
+     * Ensures that the specified range is held in the window, doubling the window if the range
+     * starts inside it but runs past its end. Only the bytes beyond the current window are read
+     * from the file.
+     *
+     * @param offset
+     *        the absolute file position of the range
+     * @param length
+     *        the number of bytes in the range
+     * @return true if the range is now in memory, or false if it must be read via the fallback
+     *         reader
+     *
+     * @throws IOException
+     *         if an I/O error occurs while extending the window
+     */
+    private boolean buffer(long offset, int length) throws IOException
+    {
+        long end = offset + length;
+
+        if (end <= window.length)
+        {
+            return true;
+        }
+
+        if (offset > window.length || end > maxSize)
+        {
+            return false;
+        }
+
+        long size = Math.max(window.length, initialSize);
+
+        while (size < end)
+        {
+            size <<= 1;
+        }
+
+        int oldSize = window.length;
+        int newSize = (int) Math.min(Math.min(size, maxSize), realFileSize);
+        byte[] grown = Arrays.copyOf(window, newSize);
+
+        raf.seek(oldSize);
+        raf.readFully(grown, oldSize, newSize - oldSize);
+        window = grown;
+
+        return true;
+    }
+
+    /**
+     * Returns the reader used for ranges outside the window, opening it on first use.
+     *
+     * @return the fallback reader
+     *
+     * @throws IOException
+     *         if the file cannot be opened
+     */
+    private ByteStreamReader fallback() throws IOException
+    {
+        if (fallback == null)
+        {
+            fallback = ImageParserFactory.createReader(getFilename(), getByteOrder());
+        }
+
+        return fallback;
+    }
+
+    /**
+     * Returns the byte from the window if it can be buffered, otherwise via the fallback reader.
+     */
+    @Override
+    protected byte byteAt(long offset) throws IOException
+    {
+        if (buffer(offset, 1))
+        {
+            return window[(int) offset];
+        }
+
+        return fallback().peek(offset);
+    }
+
+    /**
+     * Copies the part of the range held in the window from memory, and reads any remainder via
+     * the fallback reader with a positional read.
+     */
+    @Override
+    protected void copyTo(long offset, byte[] dst, int dstPos, int length) throws IOException
+    {
+        int head = 0;
+
+        if (buffer(offset, length))
+        {
+            head = length;
+        }
+
+        else if (offset < window.length)
+        {
+            head = window.length - (int) offset;
+        }
+
+        if (head > 0)
+        {
+            System.arraycopy(window, (int) offset, dst, dstPos, head);
+        }
+
+        if (head < length)
+        {
+            fallback().readAt(offset + head, dst, dstPos + head, length - head);
+        }
+    }
+
+    /**
+     * Decodes the value directly from the window when it can be buffered, without any
+     * intermediate copy.
+     */
+    @Override
+    protected long valueAt(long offset, int numBytes) throws IOException
+    {
+        if (buffer(offset, numBytes))
+        {
+            return decoder().getValue(window, (int) offset, numBytes);
+        }
+
+        return super.valueAt(offset, numBytes);
+    }
+}
\ No newline at end of file
@@ -33,6 +33,8 @@ public class ImageRandomAccessReader implements ByteStreamReader
     protected final long realFileSize;
     protected ByteOrder byteOrder;
     protected final String mode;
+    private final byte[] scratch = new byte[8];
+    private EndianDecoder decoder;
 
     /**
      * Initialises a read-only reader with the specified byte order.
@@ -81,6 +83,7 @@ public class ImageRandomAccessReader implements ByteStreamReader
         this.raf = new RandomAccessFile(fpath.toFile(), mode);
         this.mode = mode;
         this.byteOrder = Objects.requireNonNull(order, "Byte order cannot be null");
+        this.decoder = EndianDecoder.of(order);
         this.realFileSize = raf.length();
     }
 
@@ -114,6 +117,7 @@ public class ImageRandomAccessReader implements ByteStreamReader
     public void setByteOrder(ByteOrder order)
     {
         this.byteOrder = Objects.requireNonNull(order, "Byte order cannot be null");
+        this.decoder = EndianDecoder.of(order);
     }
 
     /**
@@ -371,10 +375,9 @@ public class ImageRandomAccessReader implements ByteStreamReader
     @Override
     public short readShort() throws IOException
     {
-        checkBounds(2);
-        short value = raf.readShort();
+        fillScratch(2);
 
-        return (byteOrder == ByteOrder.LITTLE_ENDIAN) ? Short.reverseBytes(value) : value;
+        return decoder.getShort(scratch, 0);
     }
 
     /**
@@ -402,10 +405,9 @@ public class ImageRandomAccessReader implements ByteStreamReader
     @Override
     public int readInteger() throws IOException
     {
-        checkBounds(4);
-        int value = raf.readInt();
+        fillScratch(4);
 
-        return (byteOrder == ByteOrder.LITTLE_ENDIAN) ? Integer.reverseBytes(value) : value;
+        return decoder.getInteger(scratch, 0);
     }
 
     /**
@@ -433,17 +435,9 @@ public class ImageRandomAccessReader implements ByteStreamReader
     @Override
     public int readUnsignedInt24() throws IOException
     {
-        byte[] b = readBytes(3);
+        fillScratch(3);
 
-        if (byteOrder == ByteOrder.LITTLE_ENDIAN)
-        {
-            return ((b[2] & 0xFF) << 16) | ((b[1] & 0xFF) << 8) | (b[0] & 0xFF);
-        }
-
-        else
-        {
-            return ((b[0] & 0xFF) << 16) | ((b[1] & 0xFF) << 8) | (b[2] & 0xFF);
-        }
+        return (int) decoder.getValue(scratch, 0, 3);
     }
 
     /**
@@ -457,10 +451,9 @@ public class ImageRandomAccessReader implements ByteStreamReader
     @Override
     public long readLong() throws IOException
     {
-        checkBounds(8);
-        long value = raf.readLong();
+        fillScratch(8);
 
-        return (byteOrder == ByteOrder.LITTLE_ENDIAN) ? Long.reverseBytes(value) : value;
+        return decoder.getLong(scratch, 0);
     }
 
     /**
@@ -619,4 +612,20 @@ public class ImageRandomAccessReader implements ByteStreamReader
             throw new EOFException(String.format("Requested %d bytes, but only %d remain.", byteLen, realFileSize - getCurrentPosition()));
         }
     }
+
+    /**
+     * Reads the specified number of bytes into the scratch array with a single call, so that a
+     * multi-byte value is not fetched from the file one byte at a time.
+     *
+     * @param numBytes
+     *        the number of bytes to read, up to 8
+     *
+     * @throws IOException
+     *         if an I/O error occurs or insufficient bytes remain
+     */
+    private void fillScratch(int numBytes) throws IOException
+    {
+        checkBounds(numBytes);
+        raf.readFully(scratch, 0, numBytes);
+    }
 }
\ No newline at end of file
@@ -4,6 +4,9 @@ import java.io.IOException;
 import java.nio.ByteOrder;
 import java.nio.charset.Charset;
 import java.nio.file.Path;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
 
 /**
  * A seekable binary stream writer backed by {@link java.io.RandomAccessFile}.
@@ -15,12 +18,24 @@ import java.nio.file.Path;
  * metadata patching where only specific segments of an image file need to be updated.
  * </p>
  *
+ * <p>
+ * Writes can optionally be batched. Between {@link #beginBatch()} and {@link #commitBatch(boolean)},
+ * every write is queued in memory at the current position instead of reaching the file, and
+ * overlapping or adjacent ranges are merged as they arrive, with later writes taking precedence.
+ * On commit, the merged ranges are written in ascending offset order, turning many scattered
+ * small writes into a few sequential ones. Reads made while a batch is open see the file as it was
+ * before the batch began. A batch must be committed explicitly: one still open when the writer is
+ * closed, for example: because an exception was thrown while it was being filled, is discarded.
+ * </p>
+ *
  * @author Trevor Maggs
  * @version 1.1
  * @since 3 February 2026
  */
 public class ImageRandomAccessWriter extends ImageRandomAccessReader
 {
+    private NavigableMap<Long, byte[]> pending;
+
     /**
      * Instantiates a writer with a specific byte order.
      *
@@ -51,6 +66,24 @@ public class ImageRandomAccessWriter extends ImageRandomAccessReader
         this(fpath, ByteOrder.BIG_ENDIAN);
     }
 
+    /**
+     * Discards any writes queued by a batch that has not been committed, leaving the file as it was
+     * before the batch began, and then closes the underlying file.
+     *
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if (isBatching())
+        {
+            discardBatch();
+        }
+
+        super.close();
+    }
+
     /**
      * Checks if the current access mode prevents writing.
      *
@@ -61,6 +94,97 @@ public class ImageRandomAccessWriter extends ImageRandomAccessReader
         return mode == null || !mode.contains("w");
     }
 
+    /**
+     * Starts queuing writes in memory until {@link #commitBatch(boolean)} or
+     * {@link #discardBatch()} is called.
+     *
+     * @throws IllegalStateException
+     *         if a batch is already open
+     */
+    public void beginBatch()
+    {
+        if (isBatching())
+        {
+            throw new IllegalStateException("A write batch is already open for [" + getFilename() + "]");
+        }
+
+        pending = new TreeMap<>();
+    }
+
+    /**
+     * Checks whether writes are currently being queued.
+     *
+     * @return {@code true} if a batch is open
+     */
+    public boolean isBatching()
+    {
+        return pending != null;
+    }
+
+    /**
+     * Writes the queued ranges to the file in ascending offset order and closes the batch. The file
+     * pointer is left where it was before the commit.
+     *
+     * @param force
+     *        true to flush the written content to the storage device once all ranges are applied
+     *
+     * @throws IllegalStateException
+     *         if no batch is open
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    public void commitBatch(boolean force) throws IOException
+    {
+        if (!isBatching())
+        {
+            throw new IllegalStateException("No write batch is open for [" + getFilename() + "]");
+        }
+
+        NavigableMap<Long, byte[]> ranges = pending;
+        long position = raf.getFilePointer();
+
+        pending = null;
+
+        try
+        {
+            for (Map.Entry<Long, byte[]> range : ranges.entrySet())
+            {
+                raf.seek(range.getKey());
+                raf.write(range.getValue());
+            }
+
+            if (force)
+            {
+                force();
+            }
+        }
+
+        finally
+        {
+            raf.seek(position);
+        }
+    }
+
+    /**
+     * Drops all queued writes without touching the file and closes the batch.
+     */
+    public void discardBatch()
+    {
+        pending = null;
+    }
+
+    /**
+     * Flushes any content written so far to the storage device. Writes still queued in an open
+     * batch are not included.
+     *
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    public void force() throws IOException
+    {
+        raf.getChannel().force(false);
+    }
+
     /**
      * Writes a single signed byte at the current position.
      *
@@ -72,12 +196,7 @@ public class ImageRandomAccessWriter extends ImageRandomAccessReader
      */
     public void writeByte(byte v) throws IOException
     {
-        if (isReadOnly())
-        {
-            throw new IOException("Read-only mode");
-        }
-
-        raf.writeByte(v);
+        write(new byte[]{v}, 0, 1);
     }
 
     /**
@@ -91,12 +210,7 @@ public class ImageRandomAccessWriter extends ImageRandomAccessReader
      */
     public void writeUnsignedByte(int v) throws IOException
     {
-        if (isReadOnly())
-        {
-            throw new IOException("Read-only mode");
-        }
-
-        raf.write(v & 0xFF);
+        write(new byte[]{(byte) v}, 0, 1);
     }
 
     /**
@@ -110,20 +224,20 @@ public class ImageRandomAccessWriter extends ImageRandomAccessReader
      */
     public void writeBytes(byte[] bytes) throws IOException
     {
-        if (isReadOnly())
+        if (bytes != null)
         {
-            throw new IOException("Read-only mode");
+            write(bytes, 0, bytes.length);
         }
 
-        if (bytes != null)
+        else if (isReadOnly())
         {
-            raf.write(bytes);
+            throw new IOException("Read-only mode");
         }
     }
 
     /**
      * Writes an array of bytes, ensuring the file pointer advances by exactly the specified length.
-     * 
+     *
      * <p>
      * If the input array is shorter than {@code length}, it is padded with trailing zeros (0x00).
      * If the input array is longer than {@code length}, only the first {@code length} bytes are
@@ -139,24 +253,28 @@ public class ImageRandomAccessWriter extends ImageRandomAccessReader
      */
     public void writeBytes(byte[] bytes, int length) throws IOException
     {
-        if (isReadOnly())
+        if (length < 0)
         {
-            throw new IOException("Read-only mode");
+            throw new IllegalArgumentException("Length cannot be negative");
         }
 
         int bytesToWrite = (bytes == null) ? 0 : bytes.length;
 
-        if (bytesToWrite > 0)
+        if (bytesToWrite >= length)
         {
-            raf.write(bytes, 0, Math.min(bytesToWrite, length));
+            write(bytes, 0, length);
         }
 
-        if (bytesToWrite < length)
+        else
         {
-            for (int i = 0; i < (length - bytesToWrite); i++)
+            byte[] padded = new byte[length];
+
+            if (bytesToWrite > 0)
             {
-                raf.write(0x00);
+                System.arraycopy(bytes, 0, padded, 0, bytesToWrite);
             }
+
+            write(padded, 0, length);
         }
     }
 
@@ -171,17 +289,7 @@ public class ImageRandomAccessWriter extends ImageRandomAccessReader
      */
     public void writeInteger(int value) throws IOException
     {
-        if (isReadOnly())
-        {
-            throw new IOException("Read-only mode");
-        }
-
-        if (byteOrder == ByteOrder.LITTLE_ENDIAN)
-        {
-            value = Integer.reverseBytes(value);
-        }
-
-        raf.writeInt(value);
+        writeValue(value, 4);
     }
 
     /**
@@ -195,68 +303,151 @@ public class ImageRandomAccessWriter extends ImageRandomAccessReader
      */
     public void writeShort(short value) throws IOException
     {
-        if (isReadOnly())
+        writeValue(value, 2);
+    }
+
+    /**
+     * Writes a 24-bit integer respecting the current byte order.
+     *
+     * @param value
+     *        the integer to write (only the lower 24 bits are used)
+     *
+     * @throws IOException
+     *         if the stream is read-only or an I/O error occurs
+     */
+    public void writeUnsignedInteger24(int value) throws IOException
+    {
+        writeValue(value, 3);
+    }
+
+    /**
+     * Writes a string followed by a null terminator (0x00).
+     *
+     * @param s
+     *        the string to write
+     * @param charset
+     *        the character set to use for encoding
+     *
+     * @throws IOException
+     *         if the stream is read-only or an I/O error occurs
+     */
+    public void writeNullTerminatedString(String s, Charset charset) throws IOException
+    {
+        if (s != null)
         {
-            throw new IOException("Read-only mode");
+            writeBytes(s.getBytes(charset));
         }
 
-        if (byteOrder == ByteOrder.LITTLE_ENDIAN)
+        writeByte((byte) 0x00);
+    }
+
+    /**
+     * Encodes the low-order bytes of an integral value in the current byte order and writes them
+     * at the current position.
+     *
+     * @param value
+     *        the value to write
+     * @param numBytes
+     *        the number of bytes to write, up to 8
+     *
+     * @throws IOException
+     *         if the stream is read-only or an I/O error occurs
+     */
+    private void writeValue(long value, int numBytes) throws IOException
+    {
+        byte[] b = new byte[numBytes];
+
+        for (int i = 0; i < numBytes; i++)
         {
-            value = Short.reverseBytes(value);
+            int shift = (byteOrder == ByteOrder.BIG_ENDIAN ? numBytes - 1 - i : i) * 8;
+
+            b[i] = (byte) (value >> shift);
         }
 
-        raf.writeShort(value);
+        write(b, 0, numBytes);
     }
 
     /**
-     * Writes a 24-bit integer respecting the current byte order.
+     * Writes a range of bytes at the current position and advances the pointer past it. If a batch
+     * is open, the bytes are queued instead of being written to the file.
      *
-     * @param value
-     *        the integer to write (only the lower 24 bits are used)
+     * @param src
+     *        the source array
+     * @param offset
+     *        the index of the first byte to write
+     * @param length
+     *        the number of bytes to write
      *
      * @throws IOException
      *         if the stream is read-only or an I/O error occurs
      */
-    public void writeUnsignedInteger24(int value) throws IOException
+    private void write(byte[] src, int offset, int length) throws IOException
     {
         if (isReadOnly())
         {
             throw new IOException("Read-only mode");
         }
 
-        if (byteOrder == ByteOrder.LITTLE_ENDIAN)
+        if (isBatching())
         {
-            raf.write(value & 0xFF);
-            raf.write((value >> 8) & 0xFF);
-            raf.write((value >> 16) & 0xFF);
+            long position = raf.getFilePointer();
+
+            queue(position, src, offset, length);
+            raf.seek(position + length);
         }
 
         else
         {
-            raf.write((value >> 16) & 0xFF);
-            raf.write((value >> 8) & 0xFF);
-            raf.write(value & 0xFF);
+            raf.write(src, offset, length);
         }
     }
 
     /**
-     * Writes a string followed by a null terminator (0x00).
-     *
-     * @param s
-     *        the string to write
-     * @param charset
-     *        the character set to use for encoding
+     * Adds a range to the batch, merging it with every queued range it overlaps or touches, so that
+     * the batch always holds disjoint, non-adjacent ranges. Where ranges overlap, the new bytes
+     * replace the queued ones.
      *
-     * @throws IOException
-     *         if the stream is read-only or an I/O error occurs
+     * @param position
+     *        the absolute file offset of the range
+     * @param src
+     *        the source array
+     * @param offset
+     *        the index of the first byte in the source array
+     * @param length
+     *        the number of bytes in the range
      */
-    public void writeNullTerminatedString(String s, Charset charset) throws IOException
+    private void queue(long position, byte[] src, int offset, int length)
     {
-        if (s != null)
+        if (length == 0)
         {
-            writeBytes(s.getBytes(charset));
+            return;
+        }
+
+        long start = position;
+        long end = position + length;
+        Map.Entry<Long, byte[]> before = pending.floorEntry(start);
+
+        if (before != null && before.getKey() + before.getValue().length >= start)
+        {
+            start = before.getKey();
+        }
+
+        NavigableMap<Long, byte[]> touched = pending.subMap(start, true, end, true);
+
+        for (Map.Entry<Long, byte[]> range : touched.entrySet())
+        {
+            end = Math.max(end, range.getKey() + range.getValue().length);
+        }
+
+        byte[] merged = new byte[(int) (end - start)];
+
+        for (Map.Entry<Long, byte[]> range : touched.entrySet())
+        {
+            System.arraycopy(range.getValue(), 0, merged, (int) (range.getKey() - start), range.getValue().length);
         }
 
-        raf.write(0x00);
+        System.arraycopy(src, offset, merged, (int) (position - start), length);
+        touched.clear();
+        pending.put(start, merged);
     }
-}
\ No newline at end of file
+}
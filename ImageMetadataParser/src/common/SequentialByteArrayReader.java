@@ -17,41 +17,74 @@ import java.util.Objects;
  * </p>
  *
  * @author Trevor Maggs
- * @version 1.2
+ * @version 1.3
  * @since 12 December 2025
  */
 public class SequentialByteArrayReader implements ByteStreamReader
 {
     private final byte[] buffer;
     private final int baseIndex;
+    private final int endIndex;
     private final Deque<Long> markPositionStack;
     private long bufferIndex;
     private ByteOrder byteOrder;
+    private EndianDecoder decoder;
     private final Path pfile;
 
     /**
-     * This is the primary constructor to load a reader for the given byte array, starting from the
-     * specified offset in specified byte order.
+     * This is the primary constructor to load a reader for a window of the given byte array,
+     * starting from the specified offset in specified byte order. The array is not copied.
      *
      * @param buf
      *        the source byte array
      * @param startIndex
      *        the starting index/position from which to begin reading
+     * @param length
+     *        the number of readable bytes in the window
      * @param order
      *        the byte order to use
      * @param pfile
      *        the path to the file
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the window lies outside the array
      */
-    public SequentialByteArrayReader(byte[] buf, int startIndex, ByteOrder order, Path pfile)
+    public SequentialByteArrayReader(byte[] buf, int startIndex, int length, ByteOrder order, Path pfile)
     {
         this.buffer = Objects.requireNonNull(buf, "Input buffer cannot be null");
+
+        if (startIndex < 0 || length < 0 || startIndex > buf.length - length)
+        {
+            throw new IndexOutOfBoundsException("Window [" + startIndex + "+" + length + "] out of bounds for array length [" + buf.length + "]");
+        }
+
         this.pfile = (pfile != null ? pfile : Paths.get(""));
         this.baseIndex = startIndex;
+        this.endIndex = startIndex + length;
         this.byteOrder = order;
+        this.decoder = EndianDecoder.of(order);
         this.bufferIndex = 0;
         this.markPositionStack = new ArrayDeque<>();
     }
 
+    /**
+     * Constructs a reader for the given byte array, starting from the specified offset in specified
+     * byte order. The readable window extends to the end of the array.
+     *
+     * @param buf
+     *        the source byte array
+     * @param startIndex
+     *        the starting index/position from which to begin reading
+     * @param order
+     *        the byte order to use
+     * @param pfile
+     *        the path to the file
+     */
+    public SequentialByteArrayReader(byte[] buf, int startIndex, ByteOrder order, Path pfile)
+    {
+        this(buf, startIndex, Objects.requireNonNull(buf, "Input buffer cannot be null").length - startIndex, order, pfile);
+    }
+
     /**
      * Constructs a reader for the given byte array with big-endian byte order.
      *
@@ -121,6 +154,7 @@ public class SequentialByteArrayReader implements ByteStreamReader
     public void setByteOrder(ByteOrder order)
     {
         byteOrder = Objects.requireNonNull(order, "Byte order cannot be null");
+        decoder = EndianDecoder.of(order);
     }
 
     /**
@@ -136,15 +170,14 @@ public class SequentialByteArrayReader implements ByteStreamReader
     }
 
     /**
-     * Returns the length of the readable portion of the byte array (buffer length minus
-     * baseIndex).
+     * Returns the length of the readable window of the byte array.
      *
      * @return the readable array length
      */
     @Override
     public long length()
     {
-        return buffer.length - baseIndex;
+        return endIndex - baseIndex;
     }
 
     /**
@@ -298,6 +331,71 @@ public class SequentialByteArrayReader implements ByteStreamReader
         return bytes;
     }
 
+    /**
+     * Copies a sequence of bytes from the current position into an existing array and advances
+     * the reader.
+     *
+     * @param dst
+     *        the destination array
+     * @param offset
+     *        the starting index within the destination array
+     * @param length
+     *        the number of bytes to read
+     */
+    @Override
+    public void readBytes(byte[] dst, int offset, int length)
+    {
+        if (!hasRemaining(length))
+        {
+            throw new IndexOutOfBoundsException("Cannot read [" + length + "] bytes. Only [" + remaining() + "] remaining");
+        }
+
+        validateByteIndex(bufferIndex, length);
+        System.arraycopy(buffer, baseIndex + (int) bufferIndex, dst, offset, length);
+
+        bufferIndex += length;
+    }
+
+    /**
+     * Returns a read-only view of a region at the specified offset without advancing the current
+     * bufferIndex. No bytes are copied.
+     *
+     * @param offset
+     *        the position from the start of this reader's window
+     * @param length
+     *        the number of bytes covered by the view
+     * @return a {@link ByteSlice} sharing this reader's backing array
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the request exceeds the reader's length
+     */
+    public ByteSlice peekSlice(long offset, int length)
+    {
+        validateByteIndex(offset, length);
+
+        return ByteSlice.wrap(buffer, baseIndex + (int) offset, length);
+    }
+
+    /**
+     * Returns a read-only view of the next {@code length} bytes and advances the reader past them.
+     * No bytes are copied.
+     *
+     * @param length
+     *        the number of bytes covered by the view
+     * @return a {@link ByteSlice} sharing this reader's backing array
+     *
+     * @throws IndexOutOfBoundsException
+     *         if insufficient bytes remain
+     */
+    public ByteSlice readSlice(int length)
+    {
+        ByteSlice slice = peekSlice(bufferIndex, length);
+
+        bufferIndex += length;
+
+        return slice;
+    }
+
     /**
      * Reads an unsigned 8-bit integer from the current position and advances the reader.
      *
@@ -569,24 +667,8 @@ public class SequentialByteArrayReader implements ByteStreamReader
             throw new IndexOutOfBoundsException("Insufficient bytes remaining");
         }
 
-        long value = 0;
         int start = baseIndex + (int) bufferIndex;
-
-        if (byteOrder == ByteOrder.BIG_ENDIAN)
-        {
-            for (int i = 0; i < numBytes; i++)
-            {
-                value = (value << 8) | (buffer[start + i] & 0xFF);
-            }
-        }
-
-        else
-        {
-            for (int i = 0; i < numBytes; i++)
-            {
-                value |= ((long) (buffer[start + i] & 0xFF)) << (i * 8);
-            }
-        }
+        long value = decoder.getValue(buffer, start, numBytes);
 
         bufferIndex += numBytes;
 
@@ -631,6 +713,6 @@ public class SequentialByteArrayReader implements ByteStreamReader
 
         int absoluteStart = baseIndex + (int) bufferIndex;
 
-        return new SequentialByteArrayReader(buffer, absoluteStart, byteOrder, this.pfile);
+        return new SequentialByteArrayReader(buffer, absoluteStart, length, byteOrder, this.pfile);
     }
 }
\ No newline at end of file
@@ -0,0 +1,249 @@
+package common;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe {@link BufferPool} that recycles buffers in power-of-two size classes.
+ *
+ * <p>
+ * A request is rounded up to the next size class, starting at {@value #MIN_BUFFER_SIZE} bytes, and
+ * served from the free list of that class when possible. Requests larger than the maximum buffer
+ * size are allocated exactly and never retained. The total number of bytes held for reuse is
+ * capped, so a burst of large payloads cannot pin an unbounded amount of memory.
+ * </p>
+ *
+ * <p>
+ * Optionally, each thread may keep a small private cache per size class in front of the shared
+ * free lists. This avoids lock contention when many worker threads parse images concurrently, at
+ * the cost of buffers being retained per thread until that thread dies.
+ * </p>
+ *
+ * @author Trevor Maggs
+ * @version 1.0
+ * @since 16 October 2026
+ */
+public final class SizeClassedBufferPool implements BufferPool
+{
+    public static final int MIN_BUFFER_SIZE = 256;
+    public static final int DEFAULT_MAX_BUFFER_SIZE = 1024 * 1024;
+    public static final long DEFAULT_MAX_RETAINED_BYTES = 16L * 1024 * 1024;
+    private static final int MIN_SHIFT = 8;
+    private static final int THREAD_CACHE_DEPTH = 4;
+    private final List<ArrayDeque<byte[]>> freeLists;
+    private final ThreadLocal<List<ArrayDeque<byte[]>>> threadCaches;
+    private final int maxBufferSize;
+    private final long maxRetainedBytes;
+    private final AtomicLong bytesRetained = new AtomicLong();
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder releases = new LongAdder();
+
+    /**
+     * Constructs a pool with the default limits and no per-thread caches.
+     */
+    public SizeClassedBufferPool()
+    {
+        this(DEFAULT_MAX_BUFFER_SIZE, DEFAULT_MAX_RETAINED_BYTES, false);
+    }
+
+    /**
+     * Constructs a pool with the specified limits.
+     *
+     * @param maxBufferSize
+     *        the largest buffer size that is pooled, rounded up to a power of two
+     * @param maxRetainedBytes
+     *        the maximum number of bytes held for reuse across all size classes and threads
+     * @param perThreadCaches
+     *        true to keep a small private cache per thread in front of the shared free lists
+     *
+     * @throws IllegalArgumentException
+     *         if either limit is not positive
+     */
+    @SuppressWarnings("unchecked")
+    public SizeClassedBufferPool(int maxBufferSize, long maxRetainedBytes, boolean perThreadCaches)
+    {
+        if (maxBufferSize < 1 || maxBufferSize > (1 << 30) || maxRetainedBytes < 1)
+        {
+            throw new IllegalArgumentException("Invalid pool limits [" + maxBufferSize + ", " + maxRetainedBytes + "]");
+        }
+
+        int classCount = classIndex(maxBufferSize) + 1;
+
+        this.maxBufferSize = classSize(classCount - 1);
+        this.maxRetainedBytes = maxRetainedBytes;
+        this.freeLists = new ArrayList<>(classCount);
+
+        for (int i = 0; i < classCount; i++)
+        {
+            freeLists.add(new ArrayDeque<byte[]>());
+        }
+
+        if (perThreadCaches)
+        {
+            this.threadCaches = ThreadLocal.withInitial(() ->
+            {
+                List<ArrayDeque<byte[]>> caches = new ArrayList<>(classCount);
+
+                for (int i = 0; i < classCount; i++)
+                {
+                    caches.add(new ArrayDeque<byte[]>(THREAD_CACHE_DEPTH));
+                }
+
+                return caches;
+            });
+        }
+
+        else
+        {
+            this.threadCaches = null;
+        }
+    }
+
+    /**
+     * Obtains a buffer from the free list of the matching size class, or allocates a new one if
+     * the free list is empty.
+     *
+     * @param minLength
+     *        the minimum number of bytes required
+     * @return a buffer whose length is the size class covering {@code minLength}, or exactly
+     *         {@code minLength} if it exceeds the maximum buffer size
+     */
+    @Override
+    public byte[] acquire(int minLength)
+    {
+        if (minLength < 0)
+        {
+            throw new IllegalArgumentException("Buffer length [" + minLength + "] cannot be negative");
+        }
+
+        acquisitions.increment();
+
+        if (minLength > maxBufferSize)
+        {
+            return new byte[minLength];
+        }
+
+        int index = classIndex(minLength);
+        byte[] buffer = null;
+
+        if (threadCaches != null)
+        {
+            buffer = threadCaches.get().get(index).pollFirst();
+        }
+
+        if (buffer == null)
+        {
+            ArrayDeque<byte[]> list = freeLists.get(index);
+
+            synchronized (list)
+            {
+                buffer = list.pollFirst();
+            }
+        }
+
+        if (buffer == null)
+        {
+            return new byte[classSize(index)];
+        }
+
+        hits.increment();
+        bytesRetained.addAndGet(-buffer.length);
+
+        return buffer;
+    }
+
+    /**
+     * Returns a buffer to the free list of its size class. Buffers whose length is not a size
+     * class of this pool, or that would exceed the retention limit, are discarded.
+     *
+     * @param buffer
+     *        the buffer to release
+     */
+    @Override
+    public void release(byte[] buffer)
+    {
+        if (buffer == null)
+        {
+            return;
+        }
+
+        releases.increment();
+
+        int len = buffer.length;
+
+        if (len < MIN_BUFFER_SIZE || len > maxBufferSize || Integer.bitCount(len) != 1)
+        {
+            return;
+        }
+
+        if (bytesRetained.addAndGet(len) > maxRetainedBytes)
+        {
+            bytesRetained.addAndGet(-len);
+            return;
+        }
+
+        int index = classIndex(len);
+
+        if (threadCaches != null)
+        {
+            ArrayDeque<byte[]> cache = threadCaches.get().get(index);
+
+            if (cache.size() < THREAD_CACHE_DEPTH)
+            {
+                cache.offerFirst(buffer);
+                return;
+            }
+        }
+
+        ArrayDeque<byte[]> list = freeLists.get(index);
+
+        synchronized (list)
+        {
+            list.offerFirst(buffer);
+        }
+    }
+
+    /**
+     * Returns a snapshot of the usage counters of this pool.
+     *
+     * @return the current {@link BufferPoolStatistics}
+     */
+    @Override
+    public BufferPoolStatistics getStatistics()
+    {
+        return new BufferPoolStatistics(acquisitions.sum(), hits.sum(), releases.sum(), bytesRetained.get());
+    }
+
+    /**
+     * Returns the index of the smallest size class that can hold the specified number of bytes.
+     *
+     * @param length
+     *        the number of bytes
+     * @return the zero-based size class index
+     */
+    private static int classIndex(int length)
+    {
+        if (length <= MIN_BUFFER_SIZE)
+        {
+            return 0;
+        }
+
+        return (32 - Integer.numberOfLeadingZeros(length - 1)) - MIN_SHIFT;
+    }
+
+    /**
+     * Returns the buffer size of the specified size class.
+     *
+     * @param index
+     *        the zero-based size class index
+     * @return the buffer size in bytes
+     */
+    private static int classSize(int index)
+    {
+        return 1 << (index + MIN_SHIFT);
+    }
+}
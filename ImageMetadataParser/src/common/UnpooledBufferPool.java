@@ -0,0 +1,76 @@
+package common;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link BufferPool} that does not recycle anything. Each request is served by a new array of
+ * exactly the requested length, and released buffers are left to the garbage collector.
+ *
+ * <p>
+ * This is the default pool used by the parsers, which preserves the behaviour of allocating a
+ * fresh array per payload, while still counting the requests.
+ * </p>
+ *
+ * @author Trevor Maggs
+ * @version 1.0
+ * @since 16 October 2026
+ */
+public final class UnpooledBufferPool implements BufferPool
+{
+    public static final UnpooledBufferPool INSTANCE = new UnpooledBufferPool();
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder releases = new LongAdder();
+
+    /**
+     * Prevents direct instantiation, use {@link #INSTANCE} instead.
+     */
+    private UnpooledBufferPool()
+    {
+    }
+
+    /**
+     * Allocates a new array of exactly the requested length.
+     *
+     * @param minLength
+     *        the number of bytes required
+     * @return a new array
+     */
+    @Override
+    public byte[] acquire(int minLength)
+    {
+        if (minLength < 0)
+        {
+            throw new IllegalArgumentException("Buffer length [" + minLength + "] cannot be negative");
+        }
+
+        acquisitions.increment();
+
+        return new byte[minLength];
+    }
+
+    /**
+     * Counts the release, but otherwise discards the buffer.
+     *
+     * @param buffer
+     *        the buffer to release
+     */
+    @Override
+    public void release(byte[] buffer)
+    {
+        if (buffer != null)
+        {
+            releases.increment();
+        }
+    }
+
+    /**
+     * Returns the usage counters. The hit count and retained bytes are always zero.
+     *
+     * @return the current {@link BufferPoolStatistics}
+     */
+    @Override
+    public BufferPoolStatistics getStatistics()
+    {
+        return new BufferPoolStatistics(acquisitions.sum(), 0L, releases.sum(), 0L);
+    }
+}
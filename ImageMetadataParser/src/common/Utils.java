@@ -137,27 +137,41 @@ public final class Utils
      */
     public static int calculateShiftTiffHeader(byte[] payload)
     {
-        if (payload != null && payload.length >= 4)
+        return (payload != null ? calculateShiftTiffHeader(ByteSlice.wrap(payload)) : -1);
+    }
+
+    /**
+     * Scans a view of a byte payload to identify the starting index of the TIFF Magic Bytes (Byte
+     * Order Marks).
+     *
+     * @param payload
+     *        the view to be scanned
+     * @return the zero-based index relative to the start of the view, or -1 if no signature is
+     *         detected
+     */
+    public static int calculateShiftTiffHeader(ByteSlice payload)
+    {
+        if (payload != null && payload.length() >= 4)
         {
             /*
              * Per ISO/IEC 23008-12, Exif items may have a preamble or offset bytes.
              * Scan for the II (0x4949) or MM (0x4D4D) magic bytes.
              */
-            for (int i = 0; i <= payload.length - 4; i++)
+            for (int i = 0; i <= payload.length() - 4; i++)
             {
                 // Little Endian (II)
-                if (payload[i] == 0x49 && payload[i + 1] == 0x49)
+                if (payload.get(i) == 0x49 && payload.get(i + 1) == 0x49)
                 {
-                    if (payload[i + 2] == 0x2A || payload[i + 2] == 0x2B)
+                    if (payload.get(i + 2) == 0x2A || payload.get(i + 2) == 0x2B)
                     {
                         return i;
                     }
                 }
 
                 // Big Endian (MM)
-                if (payload[i] == 0x4D && payload[i + 1] == 0x4D)
+                if (payload.get(i) == 0x4D && payload.get(i + 1) == 0x4D)
                 {
-                    if (payload[i + 3] == 0x2A || payload[i + 3] == 0x2B)
+                    if (payload.get(i + 3) == 0x2A || payload.get(i + 3) == 0x2B)
                     {
                         return i;
                     }
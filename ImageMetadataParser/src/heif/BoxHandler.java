@@ -1,21 +1,22 @@
 package heif;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.ByteOrder;
 import java.nio.file.Path;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Deque;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import common.BufferPool;
+import common.ByteSlice;
 import common.ByteStreamReader;
 import common.ImageHandler;
-import common.ImageRandomAccessReader;
+import common.ImageParserFactory;
+import common.UnpooledBufferPool;
 import common.Utils;
 import heif.boxes.Box;
 import heif.boxes.DataInformationBox;
@@ -63,6 +64,7 @@ public class BoxHandler implements ImageHandler, AutoCloseable, Iterable<Box>
     private final Map<HeifBoxType, List<Box>> heifBoxMap = new LinkedHashMap<>();
     private final List<Box> rootBoxes = new ArrayList<>();
     private final ByteStreamReader reader;
+    private final BufferPool bufferPool;
     public static final ByteOrder HEIF_BYTE_ORDER = ByteOrder.BIG_ENDIAN;
 
     public enum MetadataType
@@ -88,7 +90,39 @@ public class BoxHandler implements ImageHandler, AutoCloseable, Iterable<Box>
      */
     public BoxHandler(Path fpath) throws IOException
     {
-        this.reader = new ImageRandomAccessReader(fpath, HEIF_BYTE_ORDER);
+        this.reader = ImageParserFactory.createReader(fpath, HEIF_BYTE_ORDER);
+        this.bufferPool = UnpooledBufferPool.INSTANCE;
+    }
+
+    /**
+     * Constructs a {@code BoxHandler} over a reader that is already open, for example: one handed
+     * over by {@link HeifParser} after the file signature has been verified. The handler takes
+     * ownership of the reader and closes it in {@link #close()}.
+     *
+     * @param reader
+     *        the reader positioned at the start of the HEIF container
+     */
+    public BoxHandler(ByteStreamReader reader)
+    {
+        this(reader, UnpooledBufferPool.INSTANCE);
+    }
+
+    /**
+     * Constructs a {@code BoxHandler} over a reader that is already open, assembling item payloads
+     * in buffers drawn from the specified pool. The buffer backing the view returned by
+     * {@link #getExifData()} remains leased from the pool, whereas the buffers of all other items
+     * are handed back once their contents have been copied out.
+     *
+     * @param reader
+     *        the reader positioned at the start of the HEIF container
+     * @param pool
+     *        the pool from which payload buffers are drawn
+     */
+    public BoxHandler(ByteStreamReader reader, BufferPool pool)
+    {
+        this.reader = reader;
+        this.reader.setByteOrder(HEIF_BYTE_ORDER);
+        this.bufferPool = pool;
     }
 
     /**
@@ -226,31 +260,42 @@ public class BoxHandler implements ImageHandler, AutoCloseable, Iterable<Box>
      * 23008-12:2017 Annex A</b>.</li>
      * </ol>
      *
-     * @return an {@link Optional} containing the TIFF-compatible Exif block (starting at the Byte
-     *         Order Mark), or {@link Optional#empty()} if no valid Exif is found
+     * <p>
+     * The payload is assembled in memory once, and the returned value is a read-only view into it
+     * rather than a trimmed copy.
+     * </p>
+     *
+     * @return an {@link Optional} containing a view of the TIFF-compatible Exif block (starting at
+     *         the Byte Order Mark), or {@link Optional#empty()} if no valid Exif is found
      * 
      * @throws IOException
      *         if the payload cannot be computed due to an I/O error
      */
-    public Optional<byte[]> getExifData() throws IOException
+    public Optional<ByteSlice> getExifData() throws IOException
     {
         int exifId = findMetadataID(MetadataType.EXIF);
 
         if (exifId > 0)
         {
-            byte[] payload = getRawBytes(exifId);
+            ItemData item = getRawBytes(exifId);
 
-            if (payload != null && payload.length >= 4)
+            if (item != null)
             {
-                byte[] strippedData = JpgParser.stripExifPreamble(payload);
+                if (item.view.length() >= 4)
+                {
+                    ByteSlice strippedData = JpgParser.stripExifPreamble(item.view);
 
-                // Scan the RAW payload directly to find the start of the TIFF block
-                int offset = Utils.calculateShiftTiffHeader(strippedData);
+                    // Scan the RAW payload directly to find the start of the TIFF block
+                    int offset = Utils.calculateShiftTiffHeader(strippedData);
 
-                if (offset != -1)
-                {
-                    return Optional.of(Arrays.copyOfRange(strippedData, offset, strippedData.length));
+                    if (offset != -1)
+                    {
+                        // The buffer stays leased, since the caller holds a view of it
+                        return Optional.of(strippedData.slice(offset));
+                    }
                 }
+
+                bufferPool.release(item.buffer);
             }
         }
 
@@ -272,10 +317,8 @@ public class BoxHandler implements ImageHandler, AutoCloseable, Iterable<Box>
 
         if (xmpId > 0)
         {
-            byte[] payload = getRawBytes(xmpId);
-
             // XMP is typically raw UTF-8 XML without the 4-byte HEIF header used by Exif
-            return Optional.of(payload);
+            return Optional.ofNullable(detach(getRawBytes(xmpId)));
         }
 
         return Optional.empty();
@@ -303,7 +346,7 @@ public class BoxHandler implements ImageHandler, AutoCloseable, Iterable<Box>
 
             if (!thumbIds.isEmpty())
             {
-                return Optional.ofNullable(getRawBytes(thumbIds.get(0)));
+                return Optional.ofNullable(detach(getRawBytes(thumbIds.get(0))));
             }
         }
 
@@ -433,7 +476,15 @@ public class BoxHandler implements ImageHandler, AutoCloseable, Iterable<Box>
                      * Important part: Determine the internal shift. For Exif,
                      * we have the TIFF header. For XMP, it's 0.
                      */
-                    shift = Utils.calculateShiftTiffHeader(getRawBytes(itemID));
+                    ItemData item = getRawBytes(itemID);
+
+                    if (item == null)
+                    {
+                        return -1;
+                    }
+
+                    shift = Utils.calculateShiftTiffHeader(item.view);
+                    bufferPool.release(item.buffer);
 
                     if (shift == -1)
                     {
@@ -618,15 +669,21 @@ public class BoxHandler implements ImageHandler, AutoCloseable, Iterable<Box>
     /**
      * Extracts raw bytes from fragmented data extents belonging to the specified Item ID. This also
      * supports both Construction Method 0 (Offset) and Construction Method 1 (IDAT) automatically.
+     *
+     * <p>
+     * The total item length is computed up-front, so that all extents are copied straight into a
+     * single buffer drawn from the pool. The caller is responsible for releasing the buffer.
+     * </p>
      * 
      * @param itemID
      *        the ID of the item (Exif or XMP)
-     * @return a byte array containing the raw data identified with the specified ID
+     * @return the pooled buffer and a view of the raw data identified with the specified ID, or
+     *         null if the item is not located
      * 
      * @throws IOException
      *         if an I/O error occurs
      */
-    private byte[] getRawBytes(int itemID) throws IOException
+    private ItemData getRawBytes(int itemID) throws IOException
     {
         ItemLocationBox iloc = getILOC();
 
@@ -636,21 +693,65 @@ public class BoxHandler implements ImageHandler, AutoCloseable, Iterable<Box>
 
             if (entry != null)
             {
-                try (ByteArrayOutputStream baos = new ByteArrayOutputStream())
+                long total = 0;
+
+                for (ExtentData extent : entry.getExtents())
+                {
+                    total += extent.getExtentLength();
+                }
+
+                if (total > Integer.MAX_VALUE)
+                {
+                    throw new IOException("Item [" + itemID + "] is too large to be read into memory [" + total + " bytes]");
+                }
+
+                byte[] buffer = bufferPool.acquire((int) total);
+                int pos = 0;
+
+                try
                 {
                     for (ExtentData extent : entry.getExtents())
                     {
-                        baos.write(readExtent(entry.getConstructionMethod(), extent));
+                        pos += readExtent(entry.getConstructionMethod(), extent, buffer, pos);
                     }
+                }
 
-                    return baos.toByteArray();
+                catch (IOException | RuntimeException exc)
+                {
+                    bufferPool.release(buffer);
+                    throw exc;
                 }
+
+                return new ItemData(buffer, ByteSlice.wrap(buffer, 0, pos));
             }
         }
 
         return null;
     }
 
+    /**
+     * Copies the contents of an item into an array of the exact length and hands the pooled buffer
+     * back.
+     *
+     * @param item
+     *        the item obtained from {@link #getRawBytes(int)}, may be null
+     * @return the item contents, or null if the item is null
+     */
+    private byte[] detach(ItemData item)
+    {
+        if (item == null)
+        {
+            return null;
+        }
+
+        byte[] data = new byte[item.view.length()];
+
+        item.view.copyTo(data, 0);
+        bufferPool.release(item.buffer);
+
+        return data;
+    }
+
     /**
      * Reads a specific extent of data from the underlying data source based on the item's specified
      * construction method.
@@ -670,13 +771,17 @@ public class BoxHandler implements ImageHandler, AutoCloseable, Iterable<Box>
      *        the identifier (0 or 1) indicating how to interpret the extent offset
      * @param extent
      *        the {@link ExtentData} containing the specific length and offset for this fragment
-     * @return a byte array containing the raw data for the specified extent
+     * @param dst
+     *        the buffer receiving the raw data for the specified extent
+     * @param dstPos
+     *        the starting index within the buffer
+     * @return the number of bytes copied
      * 
      * @throws IOException
      *         if Method 1 is specified but no {@code idat} box exists, or if the requested range is
      *         out of bounds (corrupt {@code iloc} table)
      */
-    private byte[] readExtent(int constructionMethod, ExtentData extent) throws IOException
+    private int readExtent(int constructionMethod, ExtentData extent, byte[] dst, int dstPos) throws IOException
     {
         int length = (int) extent.getExtentLength();
         long offset = extent.getExtentOffset();
@@ -697,11 +802,7 @@ public class BoxHandler implements ImageHandler, AutoCloseable, Iterable<Box>
                 throw new IOException(String.format("IDAT access out of bounds [offset: %d, length: %d], but IDAT size is [%d]", offset, length, fullData.length));
             }
 
-            byte[] data = new byte[length];
-
-            System.arraycopy(fullData, (int) offset, data, 0, length);
-
-            return data;
+            System.arraycopy(fullData, (int) offset, dst, dstPos, length);
         }
 
         else
@@ -714,8 +815,10 @@ public class BoxHandler implements ImageHandler, AutoCloseable, Iterable<Box>
                 throw new IOException("Extent points beyond the end of the file structure");
             }
 
-            return reader.peek(absolteOffset, length);
+            reader.readAt(absolteOffset, dst, dstPos, length);
         }
+
+        return length;
     }
 
     /**
@@ -777,4 +880,19 @@ public class BoxHandler implements ImageHandler, AutoCloseable, Iterable<Box>
 
         return null;
     }
+
+    /**
+     * Pairs a buffer drawn from the pool with a view of the item bytes it holds.
+     */
+    private static final class ItemData
+    {
+        private final byte[] buffer;
+        private final ByteSlice view;
+
+        private ItemData(byte[] buffer, ByteSlice view)
+        {
+            this.buffer = buffer;
+            this.view = view;
+        }
+    }
 }
\ No newline at end of file
@@ -12,6 +12,7 @@ import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import common.ByteSlice;
 import common.ImageRandomAccessWriter;
 import common.Utils;
 import heif.BoxHandler.MetadataType;
@@ -99,8 +100,10 @@ public final class HeifDatePatcher
             {
                 try (ImageRandomAccessWriter writer = new ImageRandomAccessWriter(imagePath, BoxHandler.HEIF_BYTE_ORDER))
                 {
+                    writer.beginBatch();
                     processExifSegment(handler, writer, zdt);
                     processXmpSegment(handler, writer, zdt, xmpDump);
+                    writer.commitBatch(false);
                 }
             }
         }
@@ -126,7 +129,7 @@ public final class HeifDatePatcher
      */
     private static void processExifSegment(BoxHandler handler, ImageRandomAccessWriter raf, ZonedDateTime zdt) throws IOException
     {
-        Optional<byte[]> exifData = handler.getExifData();
+        Optional<ByteSlice> exifData = handler.getExifData();
         int exifId = handler.findMetadataID(MetadataType.EXIF);
 
         if (exifId != -1 && exifData.isPresent())
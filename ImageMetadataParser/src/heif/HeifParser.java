@@ -6,7 +6,11 @@ import java.nio.file.Paths;
 import java.util.Optional;
 import com.adobe.internal.xmp.XMPException;
 import common.AbstractImageParser;
+import common.ByteSlice;
+import common.ByteStreamReader;
 import common.DigitalSignature;
+import common.ImageFileInputStream;
+import common.ImageParserFactory;
 import common.Metadata;
 import common.MetadataConstants;
 import common.Utils;
@@ -60,7 +64,33 @@ public class HeifParser extends AbstractImageParser
     public HeifParser(Path fpath) throws IOException
     {
         super(fpath);
+        checkFileExtension();
+    }
 
+    /**
+     * Constructs a new instance over a reader that is already open, for example: an
+     * {@link ImageFileInputStream} over a non-seekable upload stream, pipe or zip entry, or the
+     * file reader used by {@link ImageParserFactory} to detect the format. The reader is consumed
+     * and closed by {@link #readMetadata()}.
+     *
+     * @param reader
+     *        the reader positioned at the start of the HEIC/HEIF data
+     */
+    public HeifParser(ByteStreamReader reader)
+    {
+        super(reader);
+
+        if (!isStreamSource())
+        {
+            checkFileExtension();
+        }
+    }
+
+    /**
+     * Logs a warning if the file extension does not match the detected HEIC/HEIF format.
+     */
+    private void checkFileExtension()
+    {
         String ext = Utils.getFileExtension(getImageFile());
 
         if (!ext.equalsIgnoreCase("heic") && !ext.equalsIgnoreCase("heif") && !ext.equalsIgnoreCase("hif"))
@@ -90,14 +120,16 @@ public class HeifParser extends AbstractImageParser
     {
         metadata = new TifMetadata();
 
-        try (BoxHandler handler = new BoxHandler(getImageFile()))
+        try (BoxHandler handler = new BoxHandler(openReader(BoxHandler.HEIF_BYTE_ORDER), getTrackedBufferPool()))
         {
             if (handler.parseMetadata())
             {
-                Optional<byte[]> exif = handler.getExifData();
+                Optional<ByteSlice> exif = handler.getExifData();
 
                 if (exif.isPresent())
                 {
+                    // The metadata is parsed in place, so the buffer is never returned to the pool
+                    handOverBuffer(exif.get());
                     metadata = TifParser.parseTiffMetadataFromBytes(exif.get());
                 }
 
@@ -2,7 +2,10 @@ package heif.boxes;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import common.ByteSlice;
 import common.ByteStreamReader;
+import common.IccProfile;
 import common.Utils;
 import logger.LogFactory;
 
@@ -15,9 +18,9 @@ import logger.LogFactory;
  *
  * <p>
  * <strong>API Note:</strong>This implementation handles {@code nclx} colour types fully. For
- * {@code rICC} and {@code prof} types, the ICC profile data is ignored as its parsing is beyond the
- * current scope of this box. Further testing is needed for edge cases and compatibility if
- * required.
+ * {@code rICC} and {@code prof} types, only the location of the ICC profile data is recorded and the
+ * data is skipped. It can be read on demand via {@link #readIccProfile(ByteStreamReader)}. Further
+ * testing is needed for edge cases and compatibility if required.
  * </p>
  *
  * @author Trevor Maggs
@@ -35,7 +38,8 @@ public class ColourInformationBox extends Box
     private int transferCharacteristics;
     private int matrixCoefficients;
     private boolean isFullRangeFlag;
-    private byte[] iccProfileData;
+    private long iccProfileOffset;
+    private int iccProfileLength;
 
     /**
      * Constructs a {@code ColourInformationBox} from a parent Box and a byte reader. This
@@ -83,11 +87,13 @@ public class ColourInformationBox extends Box
         {
             /*
              * Both restricted ICC profile ('rICC') and unrestricted ICC profile ('prof') are
-             * currently not in scope for parsing, therefore we just read them silently and safely.
+             * currently not in scope for parsing, therefore only their location is recorded.
              */
             if (remainingBytes > 0)
             {
-                this.iccProfileData = reader.readBytes((int) remainingBytes);
+                this.iccProfileOffset = reader.getCurrentPosition();
+                this.iccProfileLength = (int) remainingBytes;
+                reader.skip(remainingBytes);
             }
         }
 
@@ -159,13 +165,44 @@ public class ColourInformationBox extends Box
     }
 
     /**
-     * Returns the full bytes of ICC profile data as an array.
+     * Returns the file offset of the ICC profile data for {@code rICC} and {@code prof} colour
+     * types.
      *
-     * @return the array of bytes
+     * @return the offset, or 0 if there is no ICC profile
      */
-    public byte[] getIccProfile()
+    public long getIccProfileOffset()
     {
-        return (iccProfileData != null) ? iccProfileData.clone() : new byte[0];
+        return iccProfileOffset;
+    }
+
+    /**
+     * Returns the length of the ICC profile data for {@code rICC} and {@code prof} colour types.
+     *
+     * @return the length in bytes, or 0 if there is no ICC profile
+     */
+    public int getIccProfileLength()
+    {
+        return iccProfileLength;
+    }
+
+    /**
+     * Reads the ICC profile data from its recorded location, without moving the reader.
+     *
+     * @param reader
+     *        a reader over the same HEIF file this box was parsed from
+     * @return the {@link IccProfile}, or null if this box holds no ICC profile
+     *
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    public IccProfile readIccProfile(ByteStreamReader reader) throws IOException
+    {
+        if (iccProfileLength == 0)
+        {
+            return null;
+        }
+
+        return new IccProfile(Collections.singletonList(ByteSlice.wrap(reader.readAt(iccProfileOffset, iccProfileLength))));
     }
 
     /**
@@ -191,7 +228,7 @@ public class ColourInformationBox extends Box
 
         else if (TYPE_RICC.equals(colourType) || TYPE_PROF.equals(colourType))
         {
-            sb.append(" (ICC Profile data skipped)");
+            sb.append(String.format(" (ICC Profile data [%d bytes] at [0x%X] skipped)", iccProfileLength, iccProfileOffset));
         }
 
         else
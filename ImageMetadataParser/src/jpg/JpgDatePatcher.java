@@ -38,6 +38,12 @@ import tif.tagspecs.Taggable;
  * <li><b>XMP ISO 8601:</b> XML-based date strings with or without timezone offsets</li>
  * </ul>
  *
+ * <p>
+ * The EXIF and XMP segments are located through a {@link JpgSegmentIndex}. An index built while
+ * the file was parsed, for example: during the scan phase of a batch run, can be supplied to avoid
+ * walking the markers a second time. Otherwise, the markers are walked once to build it.
+ * </p>
+ *
  * @author Trevor Maggs
  * @version 1.5
  */
@@ -90,57 +96,92 @@ public final class JpgDatePatcher
      *         if the file cannot be read, parsed, or written to
      */
     public static void patchAllDates(Path imagePath, FileTime newDate, boolean xmpDump) throws IOException
+    {
+        patchAllDates(imagePath, newDate, xmpDump, null);
+    }
+
+    /**
+     * Patches all identified metadata dates within the JPEG file at the specified path, using a
+     * segment index built earlier, for example: by {@link JpgParser#getSegmentIndex()}, to seek
+     * straight to the EXIF and XMP payloads.
+     *
+     * @param imagePath
+     *        the {@link Path} to the JPG to be patched
+     * @param newDate
+     *        the new timestamp to apply to all metadata fields
+     * @param index
+     *        the {@link JpgSegmentIndex} of the file. If it is null or no longer matches the file,
+     *        the markers are walked instead
+     *
+     * @throws IOException
+     *         if the file cannot be read, parsed, or written to
+     */
+    public static void patchAllDates(Path imagePath, FileTime newDate, JpgSegmentIndex index) throws IOException
+    {
+        patchAllDates(imagePath, newDate, false, index);
+    }
+
+    /**
+     * Patches all identified metadata dates within the JPEG file at the specified path, using a
+     * segment index built earlier to seek straight to the EXIF and XMP payloads.
+     *
+     * @param imagePath
+     *        the {@link Path} to the JPG to be patched
+     * @param newDate
+     *        the new timestamp to apply to all metadata fields
+     * @param xmpDump
+     *        indicates whether to dump XMP data into an XML-formatted file for debugging. If true,
+     *        a file is created based on the image name
+     * @param index
+     *        the {@link JpgSegmentIndex} of the file. If it is null or no longer matches the file,
+     *        the markers are walked instead
+     *
+     * @throws IOException
+     *         if the file cannot be read, parsed, or written to
+     */
+    public static void patchAllDates(Path imagePath, FileTime newDate, boolean xmpDump, JpgSegmentIndex index) throws IOException
     {
         ZonedDateTime zdt = newDate.toInstant().atZone(ZoneId.systemDefault());
 
         try (ImageRandomAccessWriter writer = new ImageRandomAccessWriter(imagePath, ByteOrder.BIG_ENDIAN))
         {
-            while (writer.getCurrentPosition() < writer.length())
+            writer.beginBatch();
+
+            if (index == null || !index.isValidFor(writer))
             {
-                JpgSegmentConstants segment = JpgParser.fetchNextSegment(writer);
+                if (index != null)
+                {
+                    LOGGER.warn("Segment index does not match file [" + imagePath + "]. Markers are walked instead");
+                }
+
+                index = JpgSegmentIndex.scan(writer);
+            }
 
-                if (segment == null || segment == JpgSegmentConstants.END_OF_IMAGE || segment == JpgSegmentConstants.START_OF_STREAM)
+            for (JpgSegmentIndex.Segment segment : index.getSegments())
+            {
+                if (segment.getType() == JpgSegmentIndex.SegmentType.EXIF)
                 {
-                    break;
+                    writer.seek(segment.getPayloadOffset() + JpgParser.EXIF_IDENTIFIER.length);
+                    processExifSegment(writer, segment.getLength() - JpgParser.EXIF_IDENTIFIER.length, zdt);
                 }
 
-                if (segment.hasLengthField())
+                else if (segment.getType() == JpgSegmentIndex.SegmentType.XMP)
                 {
-                    int length = writer.readUnsignedShort() - 2;
+                    long xmpStart = segment.getPayloadOffset() + JpgParser.XMP_IDENTIFIER.length;
+                    int xmpLength = segment.getLength() - JpgParser.XMP_IDENTIFIER.length;
 
-                    if (length > 0)
+                    // Optional diagnostic dump of XMP payload to an external XML file
+                    if (xmpDump)
                     {
-                        long payloadStart = writer.getCurrentPosition();
-
-                        if (segment == JpgSegmentConstants.APP1_SEGMENT)
-                        {
-                            byte[] header = writer.peek(payloadStart, Math.min(length, JpgParser.XMP_IDENTIFIER.length));
-
-                            if (header.length >= JpgParser.EXIF_IDENTIFIER.length && Arrays.equals(Arrays.copyOf(header, JpgParser.EXIF_IDENTIFIER.length), JpgParser.EXIF_IDENTIFIER))
-                            {
-                                writer.skip(JpgParser.EXIF_IDENTIFIER.length);
-                                processExifSegment(writer, length - JpgParser.EXIF_IDENTIFIER.length, zdt);
-                            }
-
-                            else if (header.length >= JpgParser.XMP_IDENTIFIER.length && Arrays.equals(Arrays.copyOf(header, JpgParser.XMP_IDENTIFIER.length), JpgParser.XMP_IDENTIFIER))
-                            {
-                                int xmpLength = length - JpgParser.XMP_IDENTIFIER.length;
-
-                                // Optional diagnostic dump of XMP payload to an external XML file
-                                if (xmpDump)
-                                {
-                                    Utils.printFastDumpXML(imagePath, writer.peek(payloadStart + JpgParser.XMP_IDENTIFIER.length, xmpLength));
-                                }
-
-                                writer.skip(JpgParser.XMP_IDENTIFIER.length);
-                                processXmpSegment(writer, xmpLength, zdt);
-                            }
-                        }
-
-                        writer.seek(payloadStart + length);
+                        Utils.printFastDumpXML(imagePath, writer.peek(xmpStart, xmpLength));
                     }
+
+                    writer.seek(xmpStart);
+                    processXmpSegment(writer, xmpLength, zdt);
                 }
             }
+
+            writer.commitBatch(false);
         }
     }
 
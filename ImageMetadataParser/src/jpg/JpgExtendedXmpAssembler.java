@@ -0,0 +1,221 @@
+package jpg;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import common.ByteStreamReader;
+import logger.LogFactory;
+
+/**
+ * Reassembles Extended XMP packets, as defined in Part 3 of the XMP specification, from the APP1
+ * segments identified by {@code http://ns.adobe.com/xmp/extension/}.
+ *
+ * <p>
+ * Since a JPEG segment cannot exceed 64 KB, a large XMP packet is split into a main packet, stored
+ * as standard XMP, and an extended packet, divided into chunks. Each chunk carries the GUID of the
+ * extended packet, which is the MD5 digest of its full content, the full length of the packet and
+ * the offset of the chunk within it. The main packet names the extended packet to use via its
+ * {@code xmpNote:HasExtendedXMP} property.
+ * </p>
+ *
+ * <p>
+ * A buffer of the declared full length is allocated once per GUID, and each chunk is read from the
+ * stream directly into it at its declared offset, so chunks may arrive in any order and no
+ * intermediate copies are made. The byte ranges covered so far are tracked, so that a chunk
+ * overlapping an earlier one is rejected, and a packet is only complete once every byte has been
+ * received. Note that this class has package-private visibility.
+ * </p>
+ *
+ * @author Trevor Maggs
+ * @version 1.0
+ * @since 16 October 2026
+ */
+final class JpgExtendedXmpAssembler
+{
+    private static final LogFactory LOGGER = LogFactory.getLogger(JpgExtendedXmpAssembler.class);
+    private static final int GUID_LENGTH = 32;
+    private static final int CHUNK_HEADER_LENGTH = GUID_LENGTH + 8;
+    private static final long MAX_TOTAL_LENGTH = 64L * 1024 * 1024;
+    private static final Pattern HAS_EXTENDED_XMP = Pattern.compile("HasExtendedXMP\\s*(?:=\\s*[\"']|>)\\s*([0-9A-Fa-f]{32})");
+    private final Map<String, Packet> packets = new LinkedHashMap<>();
+    private long allocated;
+
+    /**
+     * An extended packet under assembly.
+     */
+    private static final class Packet
+    {
+        private final byte[] data;
+        private final BitSet covered;
+        private long received;
+        private int chunkCount;
+
+        private Packet(int fullLength)
+        {
+            this.data = new byte[fullLength];
+            this.covered = new BitSet(fullLength);
+        }
+
+        private boolean overlaps(int offset, int length)
+        {
+            int next = covered.nextSetBit(offset);
+
+            return (next >= 0 && next < offset + length);
+        }
+
+        private boolean isComplete()
+        {
+            return covered.nextClearBit(0) >= data.length;
+        }
+    }
+
+    /**
+     * Reads one Extended XMP chunk into the buffer of its packet. Chunks that are malformed,
+     * inconsistent with earlier chunks of the same packet, or overlap bytes already received are
+     * skipped. In every case, the reader is left at the end of the payload. Note that this method
+     * has package-private visibility.
+     *
+     * @param reader
+     *        the reader positioned at the start of the APP1 payload, at the identifier
+     * @param length
+     *        the length of the APP1 payload, including the identifier
+     *
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    void accept(ByteStreamReader reader, int length) throws IOException
+    {
+        int headerLength = JpgParser.XMP_EXTENSION_IDENTIFIER.length + CHUNK_HEADER_LENGTH;
+
+        if (length < headerLength)
+        {
+            LOGGER.warn(String.format("Extended XMP segment too short to contain a chunk header. Length [%d]", length));
+            reader.skip(length);
+            return;
+        }
+
+        reader.skip(JpgParser.XMP_EXTENSION_IDENTIFIER.length);
+
+        String guid = new String(reader.readBytes(GUID_LENGTH), StandardCharsets.US_ASCII).toUpperCase();
+        long fullLength = reader.readUnsignedInteger();
+        long offset = reader.readUnsignedInteger();
+        int chunkLength = length - headerLength;
+        Packet packet = packets.get(guid);
+
+        if (fullLength == 0 || offset + chunkLength > fullLength)
+        {
+            LOGGER.warn(String.format("Extended XMP chunk at offset [%d] exceeds the declared length [%d]. Chunk ignored", offset, fullLength));
+            reader.skip(chunkLength);
+            return;
+        }
+
+        if (packet == null)
+        {
+            if (allocated + fullLength > MAX_TOTAL_LENGTH)
+            {
+                LOGGER.warn(String.format("Extended XMP packet [%s] of [%d] bytes exceeds the size limit. Chunk ignored", guid, fullLength));
+                reader.skip(chunkLength);
+                return;
+            }
+
+            packet = new Packet((int) fullLength);
+            packets.put(guid, packet);
+            allocated += fullLength;
+        }
+
+        else if (packet.data.length != fullLength)
+        {
+            LOGGER.warn(String.format("Extended XMP chunk declares length [%d] but packet [%s] has [%d]. Chunk ignored", fullLength, guid, packet.data.length));
+            reader.skip(chunkLength);
+            return;
+        }
+
+        if (packet.overlaps((int) offset, chunkLength))
+        {
+            LOGGER.warn(String.format("Extended XMP chunk at offset [%d] overlaps data already received in packet [%s]. Chunk ignored", offset, guid));
+            reader.skip(chunkLength);
+            return;
+        }
+
+        reader.readBytes(packet.data, (int) offset, chunkLength);
+        packet.covered.set((int) offset, (int) offset + chunkLength);
+        packet.received += chunkLength;
+        packet.chunkCount++;
+
+        LOGGER.debug(String.format("Extended XMP chunk read. GUID [%s], offset [%d], length [%d]", guid, offset, chunkLength));
+    }
+
+    /**
+     * Returns whether any Extended XMP chunk has been accepted. Note that this method has
+     * package-private visibility.
+     *
+     * @return true if at least one packet is under assembly
+     */
+    boolean hasChunks()
+    {
+        return !packets.isEmpty();
+    }
+
+    /**
+     * Returns the extended packet named by the {@code xmpNote:HasExtendedXMP} property of the main
+     * packet, provided all of its chunks have been read. Packets not named by the main packet are
+     * ignored, as the specification requires. Note that this method has package-private visibility.
+     *
+     * @param mainXmp
+     *        the main XMP packet, or null if there is none
+     * @return the assembled extended packet, or null if it is absent or incomplete
+     */
+    byte[] assemble(byte[] mainXmp)
+    {
+        if (packets.isEmpty())
+        {
+            return null;
+        }
+
+        String guid = (mainXmp == null ? null : findDeclaredGuid(mainXmp));
+
+        if (guid == null)
+        {
+            LOGGER.warn(String.format("Extended XMP found in [%d] packet(s), but the main XMP packet does not declare one. Ignored", packets.size()));
+            return null;
+        }
+
+        Packet packet = packets.get(guid);
+
+        if (packet == null)
+        {
+            LOGGER.warn(String.format("Extended XMP packet [%s] declared by the main XMP packet was not found", guid));
+            return null;
+        }
+
+        if (!packet.isComplete())
+        {
+            LOGGER.warn(String.format("Extended XMP packet [%s] is incomplete. Received [%d] of [%d] bytes", guid, packet.received, packet.data.length));
+            return null;
+        }
+
+        LOGGER.debug(String.format("Successfully reassembled Extended XMP packet [%s] from [%d] chunk(s)", guid, packet.chunkCount));
+
+        return packet.data;
+    }
+
+    /**
+     * Finds the GUID declared by the {@code xmpNote:HasExtendedXMP} property, which may be written
+     * either as an attribute or as an element.
+     *
+     * @param mainXmp
+     *        the main XMP packet
+     * @return the GUID in upper case, or null if it is not declared
+     */
+    private static String findDeclaredGuid(byte[] mainXmp)
+    {
+        // ISO-8859-1 maps every byte to one character, which is enough to find an ASCII property
+        Matcher matcher = HAS_EXTENDED_XMP.matcher(new String(mainXmp, StandardCharsets.ISO_8859_1));
+
+        return (matcher.find() ? matcher.group(1).toUpperCase() : null);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,215 @@
+package jpg;
+
+import java.io.EOFException;
+import java.io.IOException;
+import common.ByteStreamReader;
+import common.ImageFileInputStream;
+import logger.LogFactory;
+
+/**
+ * Locates the next JPEG marker by scanning blocks of bytes, rather than reading the data one byte
+ * at a time.
+ *
+ * <p>
+ * A marker is a {@code 0xFF} byte followed by a flag that is neither zero, which denotes a stuffed
+ * {@code 0xFF} data byte, nor one of the restart markers {@code RST0} to {@code RST7}, both of which
+ * occur within entropy-coded data. Any number of {@code 0xFF} fill bytes may precede the flag.
+ * </p>
+ *
+ * <p>
+ * Each window is peeked without moving the reader and searched in memory, so junk or padding
+ * between segments, or a stretch of entropy-coded data, costs one read per window instead of one
+ * per byte. The first window is kept small, since a well-formed file is normally positioned right
+ * at the next marker. Note that this class has package-private visibility.
+ * </p>
+ *
+ * @author Trevor Maggs
+ * @version 1.0
+ * @since 16 October 2026
+ */
+final class JpgMarkerFinder
+{
+    private static final LogFactory LOGGER = LogFactory.getLogger(JpgMarkerFinder.class);
+    private static final int FIRST_WINDOW = 16;
+    private static final int SCAN_WINDOW = 4096;
+    private static final int PADDING_LIMIT = 64;
+    private static final int NOT_FOUND = -1;
+    private static final int CORRUPT = -2;
+
+    /**
+     * Prevents instantiation, since this class only offers static methods.
+     */
+    private JpgMarkerFinder()
+    {
+    }
+
+    /**
+     * Advances the reader past the next marker and its flag. Note that this method has
+     * package-private visibility.
+     *
+     * @param reader
+     *        the reader, positioned at the current read cursor
+     * @return the flag of the marker, or -1 if the data ends first or excessive padding suggests
+     *         corruption
+     *
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    static int nextMarker(ByteStreamReader reader) throws IOException
+    {
+        int window = FIRST_WINDOW;
+
+        while (true)
+        {
+            byte[] buf = peekWindow(reader, window);
+
+            if (buf == null)
+            {
+                return -1;
+            }
+
+            int found = indexOfMarker(buf);
+
+            if (found == CORRUPT)
+            {
+                LOGGER.warn("Excessive 0xFF padding bytes detected, possible file corruption");
+                return -1;
+            }
+
+            else if (found >= 0)
+            {
+                reader.skip(found + 1);
+
+                return buf[found] & 0xFF;
+            }
+
+            long len = reader.length();
+            boolean lastWindow = (len >= 0 && reader.getCurrentPosition() + buf.length >= len);
+            int consumed = buf.length;
+
+            /* A trailing run of 0xFF bytes may continue into the next window */
+            while (consumed > 0 && buf[consumed - 1] == (byte) 0xFF)
+            {
+                consumed--;
+            }
+
+            if (lastWindow)
+            {
+                return -1;
+            }
+
+            if (consumed == 0 && window == SCAN_WINDOW)
+            {
+                LOGGER.warn("Excessive 0xFF padding bytes detected, possible file corruption");
+                return -1;
+            }
+
+            reader.skip(consumed);
+            window = SCAN_WINDOW;
+        }
+    }
+
+    /**
+     * Searches a window for a {@code 0xFF} byte followed by a valid flag, skipping fill bytes,
+     * stuffed zero bytes and restart markers.
+     *
+     * @param buf
+     *        the window to search
+     * @return the position of the flag within the window, {@code NOT_FOUND} if the window holds no
+     *         complete marker, or {@code CORRUPT} if the padding before a flag is excessive
+     */
+    private static int indexOfMarker(byte[] buf)
+    {
+        int i = 0;
+
+        while (i < buf.length - 1)
+        {
+            if (buf[i] != (byte) 0xFF)
+            {
+                i++;
+                continue;
+            }
+
+            int j = i + 1;
+
+            while (j < buf.length && buf[j] == (byte) 0xFF)
+            {
+                j++;
+            }
+
+            if (j - i - 1 > PADDING_LIMIT)
+            {
+                return CORRUPT;
+            }
+
+            if (j == buf.length)
+            {
+                return NOT_FOUND;
+            }
+
+            int flag = buf[j] & 0xFF;
+
+            if (flag != 0x00 && (flag < JpgSegmentConstants.RST0.getFlag() || flag > JpgSegmentConstants.RST7.getFlag()))
+            {
+                return j;
+            }
+
+            i = j + 1;
+        }
+
+        return NOT_FOUND;
+    }
+
+    /**
+     * Peeks a window of bytes at the current position, which is shorter than requested if the data
+     * ends within it. The window of a stream is limited to its look-ahead limit.
+     *
+     * @param reader
+     *        the reader to peek from
+     * @param window
+     *        the number of bytes requested
+     * @return the bytes, or null if fewer than two bytes remain
+     *
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    private static byte[] peekWindow(ByteStreamReader reader, int window) throws IOException
+    {
+        long pos = reader.getCurrentPosition();
+        long len = reader.length();
+        int n = window;
+
+        if (reader instanceof ImageFileInputStream)
+        {
+            n = Math.min(n, ((ImageFileInputStream) reader).getWindowSize());
+        }
+
+        if (len >= 0)
+        {
+            n = (int) Math.min(n, len - pos);
+        }
+
+        if (n < 2)
+        {
+            return null;
+        }
+
+        try
+        {
+            return reader.peek(pos, n);
+        }
+
+        catch (EOFException exc)
+        {
+            // A stream of unknown length has ended within the window, so its length is now known
+            len = reader.length();
+
+            if (len < 0 || len - pos < 2)
+            {
+                return null;
+            }
+
+            return reader.peek(pos, (int) (len - pos));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,504 @@
+package jpg;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import common.ByteSlice;
+import common.ByteValueConverter;
+import logger.LogFactory;
+import tif.DirectoryIFD;
+import tif.DirectoryIdentifier;
+import tif.TifMetadata;
+import tif.TifParser;
+import tif.tagspecs.TagIFD_MPF;
+
+/**
+ * The Multi-Picture Format (MPF) index of a JPEG file, as defined by CIPA DC-007, listing the
+ * images stored one after another within the file, for example: a large preview, a depth or gain
+ * map, or the second view of a stereo pair.
+ *
+ * <p>
+ * The index is read from the {@code MPF} APP2 segment of the primary image, whose payload holds a
+ * TIFF structure. Its MP Index IFD is parsed by {@link TifParser}, and each 16-byte record of the
+ * {@code MPEntry} tag is turned into an {@link ImageRegion}, giving the absolute file offset, the
+ * length and the type of one image. Offsets in the records are relative to the TIFF header within
+ * the segment, except for the primary image, which always starts at the beginning of the file.
+ * </p>
+ *
+ * <p>
+ * No image data is read. A region can be copied straight to a file or socket with
+ * {@link ImageRegion#transferTo(FileChannel, WritableByteChannel)}, which lets the operating system
+ * move the bytes without bringing them into the Java heap.
+ * </p>
+ *
+ * @author Trevor Maggs
+ * @version 1.0
+ * @since 16 October 2026
+ */
+public final class JpgMpfIndex
+{
+    private static final LogFactory LOGGER = LogFactory.getLogger(JpgMpfIndex.class);
+    private static final int ENTRY_LENGTH = 16;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    private final String version;
+    private final List<ImageRegion> regions;
+
+    /**
+     * Identifies the kind of image from the type code held in the lower 24 bits of its individual
+     * image attribute.
+     */
+    public enum ImageType
+    {
+        BASELINE_PRIMARY(0x030000, "Baseline MP Primary Image"),
+        LARGE_THUMBNAIL_VGA(0x010001, "Large Thumbnail (VGA Equivalent)"),
+        LARGE_THUMBNAIL_FULL_HD(0x010002, "Large Thumbnail (Full HD Equivalent)"),
+        MULTI_FRAME_PANORAMA(0x020001, "Multi-Frame Image (Panorama)"),
+        MULTI_FRAME_DISPARITY(0x020002, "Multi-Frame Image (Disparity)"),
+        MULTI_FRAME_MULTI_ANGLE(0x020003, "Multi-Frame Image (Multi-Angle)"),
+        UNDEFINED(0x000000, "Undefined");
+
+        private final int code;
+        private final String description;
+
+        private ImageType(int code, String description)
+        {
+            this.code = code;
+            this.description = description;
+        }
+
+        /**
+         * @return the 24-bit type code
+         */
+        public int getCode()
+        {
+            return code;
+        }
+
+        /**
+         * @return a human-readable description of the type
+         */
+        public String getDescription()
+        {
+            return description;
+        }
+
+        /**
+         * Finds the type matching the specified code.
+         *
+         * @param code
+         *        the 24-bit type code
+         * @return the matching type, or {@link #UNDEFINED} if the code is not recognised
+         */
+        public static ImageType fromCode(int code)
+        {
+            for (ImageType type : values())
+            {
+                if (type.code == code)
+                {
+                    return type;
+                }
+            }
+
+            return UNDEFINED;
+        }
+    }
+
+    /**
+     * The location and type of one image listed in the index.
+     */
+    public static final class ImageRegion
+    {
+        private final int number;
+        private final int attribute;
+        private final long offset;
+        private final long length;
+        private final int dependentImage1;
+        private final int dependentImage2;
+
+        private ImageRegion(int number, int attribute, long offset, long length, int dependentImage1, int dependentImage2)
+        {
+            this.number = number;
+            this.attribute = attribute;
+            this.offset = offset;
+            this.length = length;
+            this.dependentImage1 = dependentImage1;
+            this.dependentImage2 = dependentImage2;
+        }
+
+        /**
+         * @return the position of the image in the index, starting at 1 for the primary image
+         */
+        public int getNumber()
+        {
+            return number;
+        }
+
+        /**
+         * @return the type of the image
+         */
+        public ImageType getType()
+        {
+            return ImageType.fromCode(attribute & 0xFFFFFF);
+        }
+
+        /**
+         * @return the raw 32-bit individual image attribute, including the flags in the upper byte
+         */
+        public int getAttribute()
+        {
+            return attribute;
+        }
+
+        /**
+         * @return true if the image is flagged as the representative image of the file
+         */
+        public boolean isRepresentative()
+        {
+            return (attribute & 0x20000000) != 0;
+        }
+
+        /**
+         * @return the absolute file offset of the image, which points at its SOI marker
+         */
+        public long getOffset()
+        {
+            return offset;
+        }
+
+        /**
+         * @return the length of the image in bytes
+         */
+        public long getLength()
+        {
+            return length;
+        }
+
+        /**
+         * @return the entry number of the first dependent image, or 0 if there is none
+         */
+        public int getDependentImage1()
+        {
+            return dependentImage1;
+        }
+
+        /**
+         * @return the entry number of the second dependent image, or 0 if there is none
+         */
+        public int getDependentImage2()
+        {
+            return dependentImage2;
+        }
+
+        /**
+         * Copies the bytes of this image from the specified channel to the target, without loading
+         * them into memory. The position of the source channel is not changed.
+         *
+         * <p>
+         * If the channels stop making progress before the image has been copied, for example:
+         * because the target is non-blocking, the rest is copied through a small heap buffer
+         * instead, with positional reads from the source.
+         * </p>
+         *
+         * @param source
+         *        a channel open for reading on the file the index was read from
+         * @param target
+         *        the channel to write to
+         * @return the number of bytes transferred
+         *
+         * @throws IOException
+         *         if an I/O error occurs, the file ends before the image does, or the target
+         *         accepts no more bytes
+         */
+        public long transferTo(FileChannel source, WritableByteChannel target) throws IOException
+        {
+            long done = 0;
+
+            while (done < length)
+            {
+                long n = source.transferTo(offset + done, length - done, target);
+
+                if (n <= 0)
+                {
+                    if (offset + done >= source.size())
+                    {
+                        throw new EOFException(String.format("Image [%d] at offset [%d] extends past the end of the file", number, offset));
+                    }
+
+                    return done + copyBuffered(source, target, offset + done, length - done);
+                }
+
+                done += n;
+            }
+
+            return done;
+        }
+
+        /**
+         * Copies a range of the source channel to the target through a heap buffer. This is the
+         * fallback used when {@link FileChannel#transferTo(long, long, WritableByteChannel)}
+         * returns without transferring anything.
+         *
+         * @param source
+         *        the channel to read from
+         * @param target
+         *        the channel to write to
+         * @param position
+         *        the absolute position of the first byte to copy
+         * @param count
+         *        the number of bytes to copy
+         * @return the number of bytes copied
+         *
+         * @throws IOException
+         *         if an I/O error occurs, the file ends early, or the target accepts no bytes
+         */
+        private long copyBuffered(FileChannel source, WritableByteChannel target, long position, long count) throws IOException
+        {
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(COPY_BUFFER_SIZE, count));
+            long copied = 0;
+
+            while (copied < count)
+            {
+                ((Buffer) buffer).clear();
+                ((Buffer) buffer).limit((int) Math.min(buffer.capacity(), count - copied));
+
+                if (source.read(buffer, position + copied) < 0)
+                {
+                    throw new EOFException(String.format("Image [%d] at offset [%d] extends past the end of the file", number, offset));
+                }
+
+                ((Buffer) buffer).flip();
+
+                while (buffer.hasRemaining())
+                {
+                    int n = target.write(buffer);
+
+                    if (n <= 0)
+                    {
+                        throw new IOException(String.format("Target channel accepted no bytes of image [%d] after [%d] of [%d] bytes", number, length - count + copied, length));
+                    }
+
+                    copied += n;
+                }
+            }
+
+            return copied;
+        }
+
+        /**
+         * Copies the bytes of this image from the specified file to the target, without loading
+         * them into memory.
+         *
+         * @param file
+         *        the file the index was read from
+         * @param target
+         *        the channel to write to
+         * @return the number of bytes transferred
+         *
+         * @throws IOException
+         *         if an I/O error occurs, or the file ends before the image does
+         */
+        public long transferTo(Path file, WritableByteChannel target) throws IOException
+        {
+            try (FileChannel source = FileChannel.open(file, StandardOpenOption.READ))
+            {
+                return transferTo(source, target);
+            }
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("Image [%d]: %s at [0x%X], length [%d]", number, getType().getDescription(), offset, length);
+        }
+    }
+
+    /**
+     * Constructs the index from its parsed regions.
+     *
+     * @param version
+     *        the MPF version, for example: {@code 0100}
+     * @param regions
+     *        the image regions in index order
+     */
+    private JpgMpfIndex(String version, List<ImageRegion> regions)
+    {
+        this.version = version;
+        this.regions = Collections.unmodifiableList(regions);
+    }
+
+    /**
+     * Parses the MP Index IFD from the payload of an {@code MPF} APP2 segment. Records that point
+     * outside the file are logged and dropped. Note that this method has package-private
+     * visibility.
+     *
+     * @param tiff
+     *        the payload past the {@code MPF\0} identifier, starting at the TIFF header
+     * @param tiffOffset
+     *        the absolute file offset of the TIFF header, to which the image offsets are relative
+     * @param fileLength
+     *        the length of the file, or -1 if it is not known
+     * @return the index, or null if the payload holds no usable MP Index IFD
+     */
+    static JpgMpfIndex parse(ByteSlice tiff, long tiffOffset, long fileLength)
+    {
+        TifMetadata metadata = TifParser.parseTiffMetadataFromBytes(tiff);
+        DirectoryIFD ifd = metadata.getDirectory(DirectoryIdentifier.IFD_DIRECTORY_IFD0);
+
+        if (ifd == null || !ifd.hasTag(TagIFD_MPF.MPF_MP_ENTRY))
+        {
+            LOGGER.warn("MPF segment has no MP Index IFD with an MP Entry tag");
+            return null;
+        }
+
+        ByteOrder order = metadata.getByteOrder();
+        byte[] entries = ifd.getRawByteArray(TagIFD_MPF.MPF_MP_ENTRY);
+        int count = entries.length / ENTRY_LENGTH;
+        List<ImageRegion> regions = new ArrayList<>(count);
+
+        if (ifd.hasTag(TagIFD_MPF.MPF_NUMBER_OF_IMAGES))
+        {
+            try
+            {
+                long declared = ifd.getLongValue(TagIFD_MPF.MPF_NUMBER_OF_IMAGES);
+
+                if (declared != count)
+                {
+                    LOGGER.warn(String.format("MPF declares [%d] images, but its MP Entry tag holds [%d]", declared, count));
+                }
+            }
+
+            catch (IllegalArgumentException exc)
+            {
+                LOGGER.warn("MPF Number Of Images tag is malformed [" + exc.getMessage() + "]");
+            }
+        }
+
+        for (int i = 0; i < count; i++)
+        {
+            int pos = i * ENTRY_LENGTH;
+            int attribute = ByteValueConverter.toInteger(entries, pos, order);
+            long length = ByteValueConverter.toUnsignedInteger(entries, pos + 4, order);
+            long relative = ByteValueConverter.toUnsignedInteger(entries, pos + 8, order);
+            int dependent1 = ByteValueConverter.toUnsignedShort(entries, pos + 12, order);
+            int dependent2 = ByteValueConverter.toUnsignedShort(entries, pos + 14, order);
+
+            // The primary image is recorded with a zero offset, since it starts the file
+            long offset = (i == 0 ? 0 : tiffOffset + relative);
+
+            if (length == 0 || (i > 0 && relative == 0) || (fileLength >= 0 && offset + length > fileLength))
+            {
+                LOGGER.warn(String.format("MPF image [%d] at offset [%d] with length [%d] lies outside the file. Image ignored", i + 1, offset, length));
+                continue;
+            }
+
+            regions.add(new ImageRegion(i + 1, attribute, offset, length, dependent1, dependent2));
+        }
+
+        String version = (ifd.hasTag(TagIFD_MPF.MPF_VERSION) ? new String(ifd.getRawByteArray(TagIFD_MPF.MPF_VERSION), StandardCharsets.US_ASCII) : "");
+
+        LOGGER.debug(String.format("MPF index version [%s] with [%d] image(s) found", version, regions.size()));
+
+        return new JpgMpfIndex(version, regions);
+    }
+
+    /**
+     * @return the MPF version, for example: {@code 0100}, or an empty string if it is absent
+     */
+    public String getVersion()
+    {
+        return version;
+    }
+
+    /**
+     * Returns the images listed in the index, in index order, starting with the primary image.
+     *
+     * @return an unmodifiable list of regions
+     */
+    public List<ImageRegion> getRegions()
+    {
+        return regions;
+    }
+
+    /**
+     * Returns the images of the specified type, in index order.
+     *
+     * @param type
+     *        the image type to look for
+     * @return a list of matching regions, which is empty if there are none
+     */
+    public List<ImageRegion> getRegions(ImageType type)
+    {
+        List<ImageRegion> list = new ArrayList<>();
+
+        for (ImageRegion region : regions)
+        {
+            if (region.getType() == type)
+            {
+                list.add(region);
+            }
+        }
+
+        return list;
+    }
+
+    /**
+     * Returns the largest of the large thumbnails, which is the cheapest source for a preview when
+     * one is present.
+     *
+     * @return the region of the largest thumbnail, or null if there is none
+     */
+    public ImageRegion getLargestThumbnail()
+    {
+        ImageRegion best = null;
+
+        for (ImageRegion region : regions)
+        {
+            ImageType type = region.getType();
+
+            if ((type == ImageType.LARGE_THUMBNAIL_VGA || type == ImageType.LARGE_THUMBNAIL_FULL_HD) && (best == null || region.getLength() > best.getLength()))
+            {
+                best = region;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * @return the number of images listed in the index
+     */
+    public int size()
+    {
+        return regions.size();
+    }
+
+    /**
+     * Returns a multi-line summary of the index, one line per image.
+     *
+     * @return a formatted string
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append(String.format("MPF Version [%s], images [%d]", version, regions.size())).append(System.lineSeparator());
+
+        for (ImageRegion region : regions)
+        {
+            sb.append("  ").append(region).append(System.lineSeparator());
+        }
+
+        return sb.toString();
+    }
+}
\ No newline at end of file
@@ -1,21 +1,27 @@
 package jpg;
 
-import java.io.ByteArrayOutputStream;
-import java.io.EOFException;
 import java.io.IOException;
 import java.nio.ByteOrder;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import com.adobe.internal.xmp.XMPException;
 import common.AbstractImageParser;
+import common.BufferPool;
+import common.ByteSlice;
+import common.ByteStreamReader;
 import common.DigitalSignature;
-import common.ImageRandomAccessReader;
+import common.IccProfile;
+import common.ImageFileInputStream;
+import common.ImageParserFactory;
 import common.Metadata;
 import common.MetadataConstants;
 import common.Utils;
@@ -24,6 +30,7 @@ import tif.DirectoryIFD;
 import tif.TifMetadata;
 import tif.TifParser;
 import xmp.XmpDirectory;
+import xmp.XmpDirectory.XmpRecord;
 import xmp.XmpHandler;
 
 /**
@@ -37,11 +44,33 @@ import xmp.XmpHandler;
  * </p>
  *
  * <p>
- * For ICC profiles, the parser now collects and concatenates all APP2 segments that contain the
- * {@code ICC_PROFILE} identifier, following the concatenation rules defined in the ICC
- * specification. Similarly, for {@code XMP} data, it concatenates all APP1 segments with the
- * {@code http://ns.adobe.com/xap/1.0/} identifier to form a single XMP data block through segment
- * concatenation, supporting the Extended XMP (multi-segment) specification.
+ * For ICC profiles, the parser records the location of every APP2 segment that contains the
+ * {@code ICC_PROFILE} identifier, ordered by the sequence numbers defined in the ICC specification.
+ * The profile data itself is only fetched when {@link #getIccProfile()} is first called, and is
+ * then presented as one {@link IccProfile} view over the chunks, without concatenating them.
+ * Similarly, for {@code XMP} data, it concatenates all APP1 segments with the
+ * {@code http://ns.adobe.com/xap/1.0/} identifier to form the main XMP packet.
+ * </p>
+ *
+ * <p>
+ * Extended XMP, stored in APP1 segments with the {@code http://ns.adobe.com/xmp/extension/}
+ * identifier, is reassembled by GUID into a single buffer, sized from the declared packet length,
+ * with each chunk placed at its declared offset. Its properties are merged with those of the main
+ * packet. Where only the main packet is needed, {@link #setSkipExtendedXmp(boolean)} skips these
+ * segments without reading them.
+ * </p>
+ *
+ * <p>
+ * If the file is a Multi-Picture Format (MPF) container, the MP Index IFD in its {@code MPF} APP2
+ * segment is parsed into a {@link JpgMpfIndex}, available from {@link #getMpfIndex()}, which
+ * locates the embedded images, for example: a large preview, without reading them.
+ * </p>
+ *
+ * <p>
+ * While walking the markers, the parser records a {@link JpgSegmentIndex} of the segments it has
+ * passed, available from {@link #getSegmentIndex()}. An index built earlier for the same file can
+ * be supplied via {@link #setSegmentIndex(JpgSegmentIndex)}, in which case only the indexed
+ * metadata segments are read.
  * </p>
  *
  * @author Trevor Maggs
@@ -51,31 +80,54 @@ import xmp.XmpHandler;
 public class JpgParser extends AbstractImageParser
 {
     private static final LogFactory LOGGER = LogFactory.getLogger(JpgParser.class);
-    private static final int PADDING_LIMIT = 64;
     public static final byte[] EXIF_IDENTIFIER = "Exif\0\0".getBytes(StandardCharsets.UTF_8);
     public static final byte[] ICC_IDENTIFIER = "ICC_PROFILE\0".getBytes(StandardCharsets.UTF_8);
+    public static final byte[] MPF_IDENTIFIER = "MPF\0".getBytes(StandardCharsets.UTF_8);
     public static final byte[] XMP_IDENTIFIER = "http://ns.adobe.com/xap/1.0/\0".getBytes(StandardCharsets.UTF_8);
+    public static final byte[] XMP_EXTENSION_IDENTIFIER = "http://ns.adobe.com/xmp/extension/\0".getBytes(StandardCharsets.UTF_8);
     private TifMetadata metadata;
     private JpgSegmentData segmentData;
+    private JpgSegmentIndex segmentIndex;
+    private boolean skipExtendedXmp;
+    private IccProfile iccProfile;
+    private JpgMpfIndex mpfIndex;
+    private FileTime sourceModifiedTime;
+    private long sourceLength = -1L;
 
     /**
      * A simple immutable data carrier for the raw byte arrays of the different metadata segments
-     * found in a JPEG file. This class encapsulates the raw EXIF, ICC, and XMP data payloads.
+     * found in a JPEG file. This class encapsulates the raw EXIF, ICC, and XMP data payloads,
+     * including any Extended XMP packet. The EXIF payload is kept as a view into the APP1 segment it
+     * was read from, while the ICC profile is kept as the list of its chunk locations.
      */
     private static class JpgSegmentData
     {
-        private final byte[] exif;
+        private final ByteSlice exif;
         private final byte[] xmp;
-        private final byte[] icc;
+        private final byte[] extendedXmp;
+        private final List<IccChunk> icc;
+        private final int iccLength;
 
-        private JpgSegmentData(byte[] exif, byte[] xmp, byte[] icc)
+        private JpgSegmentData(ByteSlice exif, byte[] xmp, byte[] extendedXmp, List<IccChunk> icc)
         {
+            int total = 0;
+
+            if (icc != null)
+            {
+                for (IccChunk chunk : icc)
+                {
+                    total += chunk.dataLength;
+                }
+            }
+
             this.exif = exif;
             this.xmp = xmp;
+            this.extendedXmp = extendedXmp;
             this.icc = icc;
+            this.iccLength = total;
         }
 
-        private Optional<byte[]> getExif()
+        private Optional<ByteSlice> getExif()
         {
             return Optional.ofNullable(exif);
         }
@@ -85,16 +137,43 @@ public class JpgParser extends AbstractImageParser
             return Optional.ofNullable(xmp);
         }
 
-        private Optional<byte[]> getIcc()
+        private Optional<byte[]> getExtendedXmp()
+        {
+            return Optional.ofNullable(extendedXmp);
+        }
+
+        private Optional<List<IccChunk>> getIcc()
         {
             return Optional.ofNullable(icc);
         }
 
         private boolean hasMetadata()
         {
-            return ((exif != null && exif.length > 0) ||
+            return ((exif != null && exif.length() > 0) ||
                     (xmp != null && xmp.length > 0) ||
-                    (icc != null && icc.length > 0));
+                    (icc != null && iccLength > 0));
+        }
+    }
+
+    /**
+     * The location of one chunk of an ICC profile within the file, taken from the header of its
+     * APP2 segment. The data is only held when the source cannot be revisited, namely a stream.
+     */
+    private static class IccChunk
+    {
+        private final int sequence;
+        private final int count;
+        private final long dataOffset;
+        private final int dataLength;
+        private final ByteSlice data;
+
+        private IccChunk(int sequence, int count, long dataOffset, int dataLength, ByteSlice data)
+        {
+            this.sequence = sequence;
+            this.count = count;
+            this.dataOffset = dataOffset;
+            this.dataLength = dataLength;
+            this.data = data;
         }
     }
 
@@ -124,7 +203,33 @@ public class JpgParser extends AbstractImageParser
     public JpgParser(Path fpath) throws IOException
     {
         super(fpath);
+        checkFileExtension();
+    }
 
+    /**
+     * Constructs a new instance over a reader that is already open, for example: an
+     * {@link ImageFileInputStream} over a non-seekable upload stream, pipe or zip entry, or the
+     * file reader used by {@link ImageParserFactory} to detect the format. The reader is consumed
+     * and closed by {@link #readMetadata()}.
+     *
+     * @param reader
+     *        the reader positioned at the start of the JPG data
+     */
+    public JpgParser(ByteStreamReader reader)
+    {
+        super(reader);
+
+        if (!isStreamSource())
+        {
+            checkFileExtension();
+        }
+    }
+
+    /**
+     * Logs a warning if the file extension does not match the detected JPG format.
+     */
+    private void checkFileExtension()
+    {
         String ext = Utils.getFileExtension(getImageFile());
 
         if (!ext.equalsIgnoreCase("jpg") && !ext.equalsIgnoreCase("jpeg"))
@@ -135,10 +240,145 @@ public class JpgParser extends AbstractImageParser
     }
 
     /**
-     * Reads the JPG image file to extract all supported raw metadata segments, specifically for
-     * multi-segment ICC profiles (concatenated via sequence markers) and XMP data blocks, if
-     * present), and uses the extracted data to initialise the necessary metadata object for later
-     * data retrieval.
+     * Supplies a segment index built by an earlier parse of the same file, for example: during the
+     * scan phase of a batch run, so that {@link #readMetadata()} seeks straight to the EXIF, XMP
+     * and ICC segments instead of walking every marker. If the index no longer matches the file,
+     * the markers are walked as usual.
+     *
+     * @param index
+     *        the {@link JpgSegmentIndex} of the file
+     *
+     * @throws NullPointerException
+     *         if the index is null
+     */
+    public void setSegmentIndex(JpgSegmentIndex index)
+    {
+        this.segmentIndex = Objects.requireNonNull(index, "Segment index cannot be null");
+    }
+
+    /**
+     * Sets whether Extended XMP segments are skipped by {@link #readMetadata()}, for example: when
+     * only the dates or other properties of the main XMP packet are needed. Extended XMP often
+     * holds large payloads, such as editing history, Camera Raw settings or depth maps, which are
+     * then neither read nor parsed. By default, Extended XMP is read.
+     *
+     * @param skip
+     *        true to skip Extended XMP segments
+     */
+    public void setSkipExtendedXmp(boolean skip)
+    {
+        this.skipExtendedXmp = skip;
+    }
+
+    /**
+     * Returns the embedded ICC profile as a view over its chunks. For a stream, the chunks were
+     * read during the parse into pooled buffers, which are handed over to the profile.
+     *
+     * <p>
+     * For a file, the chunks are read on the first call only, from the locations recorded by
+     * {@link #readMetadata()}, and the result is retained. Their payloads are copied into a single
+     * array, with one positional read per chunk, so the view does not depend on a reader that
+     * stays open. Before the chunks are read, the modification time and length of the file are
+     * compared with those seen by {@link #readMetadata()}.
+     * </p>
+     *
+     * @return an {@link Optional} containing the {@link IccProfile}, or {@link Optional#empty()} if
+     *         the file has no valid profile or the metadata has not been read yet
+     *
+     * @throws IOException
+     *         if the file cannot be read, or has changed since its metadata was read
+     */
+    public synchronized Optional<IccProfile> getIccProfile() throws IOException
+    {
+        if (iccProfile == null && segmentData != null && segmentData.getIcc().isPresent())
+        {
+            List<IccChunk> chunks = segmentData.getIcc().get();
+            List<ByteSlice> slices = new ArrayList<>(chunks.size());
+
+            if (chunks.get(0).data != null)
+            {
+                for (IccChunk chunk : chunks)
+                {
+                    slices.add(chunk.data);
+                }
+            }
+
+            else
+            {
+                if (!Files.getLastModifiedTime(getImageFile()).equals(sourceModifiedTime))
+                {
+                    throw new IOException("File [" + getImageFile() + "] has been modified since its metadata was read");
+                }
+
+                try (ByteStreamReader reader = ImageParserFactory.createReader(getImageFile(), ByteOrder.BIG_ENDIAN))
+                {
+                    if (reader.length() != sourceLength)
+                    {
+                        throw new IOException("File [" + getImageFile() + "] has changed since its metadata was read");
+                    }
+
+                    int total = 0;
+                    int pos = 0;
+
+                    for (IccChunk chunk : chunks)
+                    {
+                        total += chunk.dataLength;
+                    }
+
+                    byte[] data = new byte[total];
+
+                    for (IccChunk chunk : chunks)
+                    {
+                        reader.readAt(chunk.dataOffset, data, pos, chunk.dataLength);
+                        slices.add(ByteSlice.wrap(data, pos, chunk.dataLength));
+                        pos += chunk.dataLength;
+                    }
+                }
+            }
+
+            iccProfile = new IccProfile(slices);
+        }
+
+        return Optional.ofNullable(iccProfile);
+    }
+
+    /**
+     * Returns the Multi-Picture Format index of the file, which locates the embedded images, such
+     * as large previews or depth maps, so that they can be copied out without decoding the primary
+     * image.
+     *
+     * @return an {@link Optional} containing the {@link JpgMpfIndex}, or {@link Optional#empty()}
+     *         if the file has no MPF segment or the metadata has not been read yet
+     */
+    public Optional<JpgMpfIndex> getMpfIndex()
+    {
+        return Optional.ofNullable(mpfIndex);
+    }
+
+    /**
+     * Returns the index of the segments found by {@link #readMetadata()}, which can be passed to a
+     * later job on the same file, for example: {@link JpgDatePatcher}.
+     *
+     * @return the {@link JpgSegmentIndex}, or an empty index if the metadata has not been read yet
+     */
+    public JpgSegmentIndex getSegmentIndex()
+    {
+        if (segmentIndex == null)
+        {
+            LOGGER.warn("No segment index has been built yet");
+
+            return JpgSegmentIndex.EMPTY;
+        }
+
+        return segmentIndex;
+    }
+
+    /**
+     * Reads the JPG image file to extract all supported raw metadata segments, specifically EXIF
+     * and XMP data blocks, if present, and uses the extracted data to initialise the necessary
+     * metadata object for later data retrieval. The chunks of a multi-segment ICC profile are only
+     * located, ordered by their sequence markers, and are read by {@link #getIccProfile()}. For
+     * this purpose, the length and modification time of the file are recorded as well.
      *
      * @return true if at least one supported metadata segment (EXIF, XMP, or ICC) was found and
      *         extracted
@@ -149,8 +389,14 @@ public class JpgParser extends AbstractImageParser
     @Override
     public boolean readMetadata() throws IOException
     {
-        try (ImageRandomAccessReader reader = new ImageRandomAccessReader(getImageFile()))
+        if (!isStreamSource() && getImageFile() != null)
         {
+            sourceModifiedTime = Files.getLastModifiedTime(getImageFile());
+        }
+
+        try (ByteStreamReader reader = openReader(ByteOrder.BIG_ENDIAN))
+        {
+            sourceLength = reader.length();
             segmentData = readMetadataSegments(reader);
         }
 
@@ -160,7 +406,8 @@ public class JpgParser extends AbstractImageParser
     /**
      * Retrieves the extracted Exif metadata from the JPG image file, or a fallback if unavailable.
      * If XMP data is present, it will also be extracted to initialise the necessary metadata
-     * object for later data retrieval.
+     * object for later data retrieval, with the properties of any Extended XMP packet merged into
+     * it.
      *
      * <p>
      * If the metadata has not yet been parsed and raw EXIF segment data is present, this method
@@ -199,20 +446,71 @@ public class JpgParser extends AbstractImageParser
 
         if (segmentData.getXmp().isPresent())
         {
+            XmpDirectory xmpDir = null;
+
             try
             {
-                XmpDirectory xmpDir = XmpHandler.addXmpDirectory(segmentData.getXmp().get());
-                metadata.addXmpDirectory(xmpDir);
+                xmpDir = XmpHandler.addXmpDirectory(segmentData.getXmp().get());
             }
 
             catch (XMPException exc)
             {
                 LOGGER.error("Unable to parse XMP payload in file [" + getImageFile() + "] due to an error", exc);
             }
+
+            if (segmentData.getExtendedXmp().isPresent())
+            {
+                xmpDir = mergeExtendedXmp(xmpDir, segmentData.getExtendedXmp().get());
+            }
+
+            if (xmpDir != null)
+            {
+                metadata.addXmpDirectory(xmpDir);
+            }
         }
 
         return metadata;
     }
+
+    /**
+     * Parses the Extended XMP packet and adds its properties to the directory of the main packet.
+     *
+     * @param xmpDir
+     *        the directory of the main packet, or null if it could not be parsed
+     * @param extendedXmp
+     *        the reassembled Extended XMP packet
+     * @return the merged directory, or null if neither packet yielded any properties
+     */
+    private XmpDirectory mergeExtendedXmp(XmpDirectory xmpDir, byte[] extendedXmp)
+    {
+        try
+        {
+            XmpDirectory extendedDir = XmpHandler.addXmpDirectory(extendedXmp);
+
+            if (extendedDir == null)
+            {
+                return xmpDir;
+            }
+
+            else if (xmpDir == null)
+            {
+                return extendedDir;
+            }
+
+            for (XmpRecord record : extendedDir)
+            {
+                xmpDir.add(record);
+            }
+        }
+
+        catch (XMPException exc)
+        {
+            LOGGER.error("Unable to parse Extended XMP payload in file [" + getImageFile() + "] due to an error", exc);
+        }
+
+        return xmpDir;
+    }
+
     /**
      * Returns the detected {@code JPG} format.
      *
@@ -273,8 +571,8 @@ public class JpgParser extends AbstractImageParser
 
                 if (segmentData.getIcc().isPresent())
                 {
-                    sb.append("Parser has concatenated all ICC segments, ");
-                    sb.append(String.format("totalling [%d] bytes of ICC Data.", segmentData.getIcc().get().length)).append(System.lineSeparator());
+                    sb.append("Parser has located all ICC segments, ");
+                    sb.append(String.format("totalling [%d] bytes of ICC Data.", segmentData.iccLength)).append(System.lineSeparator());
                 }
 
                 else
@@ -283,6 +581,12 @@ public class JpgParser extends AbstractImageParser
                 }
 
                 sb.append(MetadataConstants.DIVIDER).append(System.lineSeparator());
+
+                if (mpfIndex != null)
+                {
+                    sb.append(mpfIndex);
+                    sb.append(MetadataConstants.DIVIDER).append(System.lineSeparator());
+                }
             }
         }
 
@@ -310,96 +614,80 @@ public class JpgParser extends AbstractImageParser
      */
     public static byte[] stripExifPreamble(byte[] data)
     {
-        if (data.length >= JpgParser.EXIF_IDENTIFIER.length && Arrays.equals(Arrays.copyOf(data, JpgParser.EXIF_IDENTIFIER.length), JpgParser.EXIF_IDENTIFIER))
+        ByteSlice tiff = stripExifPreamble(ByteSlice.wrap(data));
+
+        // Without a signature, the payload is returned as is
+        return (tiff.hasWholeArray() ? tiff.unsafeArray() : tiff.toByteArray());
+    }
+
+    /**
+     * Removes the 6-byte {@code Exif\0\0} signature/header from a view of the payload. No bytes
+     * are copied, the returned view simply starts after the signature.
+     *
+     * @param data
+     *        a view of the raw EXIF chunk payload
+     * @return a view starting at the TIFF header, or the original view if no signature is present
+     */
+    public static ByteSlice stripExifPreamble(ByteSlice data)
+    {
+        if (data.startsWith(JpgParser.EXIF_IDENTIFIER))
         {
-            return Arrays.copyOfRange(data, JpgParser.EXIF_IDENTIFIER.length, data.length);
+            return data.slice(JpgParser.EXIF_IDENTIFIER.length);
         }
 
         return data;
     }
 
     /**
-     * Reads the next JPEG segment marker from the input stream. Note that this method has
-     * package-private visibility.
+     * Reads the next JPEG segment marker from the input stream.
      *
      * <p>
      * Markers are identified by a {@code 0xFF} byte followed by a non-zero flag. As per the
      * specification, any number of {@code 0xFF} fill bytes may precede the actual flag, this method
-     * safely discards such padding.
+     * safely discards such padding. Stuffed zero bytes and restart markers, which only occur within
+     * entropy-coded data, are skipped as well.
+     * </p>
+     *
+     * <p>
+     * Any junk preceding the marker is searched in blocks by {@link JpgMarkerFinder}, instead of
+     * being read one byte at a time.
      * </p>
      *
      * @param reader
      *        the input stream of the JPEG file, positioned at the current read cursor
-     * @return a {@link JpgSegmentConstants} representing the detected marker, or {@code null} if an
-     *         {@link EOFException} occurs or excessive padding suggests corruption
+     * @return a {@link JpgSegmentConstants} representing the detected marker, or {@code null} if the
+     *         end of the data is reached or excessive padding suggests corruption
      *
      * @throws IOException
      *         if an I/O error occurs while reading from the stream
      */
-    public static JpgSegmentConstants fetchNextSegment(ImageRandomAccessReader reader) throws IOException
+    public static JpgSegmentConstants fetchNextSegment(ByteStreamReader reader) throws IOException
     {
-        try
-        {
-            int fillCount = 0;
-
-            while (true)
-            {
-                int marker;
-                int flag;
-
-                marker = reader.readUnsignedByte();
-
-                if (marker != 0xFF)
-                {
-                    // resync to marker
-                    continue;
-                }
-
-                flag = reader.readUnsignedByte();
-
-                /*
-                 * In some cases, JPEG allows multiple 0xFF bytes (fill or padding bytes) before the
-                 * actual segment flag. These are not part of any segment and should be skipped to
-                 * find the next true segment type. A warning is logged and parsing is terminated if
-                 * an excessive number of consecutive 0xFF fill bytes are found, as this may
-                 * indicate a malformed or corrupted file.
-                 */
-                while (flag == 0xFF)
-                {
-                    fillCount++;
-
-                    // Arbitrary limit to prevent an infinite loop
-                    if (fillCount > PADDING_LIMIT)
-                    {
-                        LOGGER.warn("Excessive 0xFF padding bytes detected, possible file corruption");
-                        return null;
-                    }
-
-                    flag = reader.readUnsignedByte();
-
-                }
+        int flag = JpgMarkerFinder.nextMarker(reader);
 
-                if (LOGGER.isDebugEnabled())
-                {
-                    if (!(flag >= JpgSegmentConstants.RST0.getFlag() && flag <= JpgSegmentConstants.RST7.getFlag()) && flag != JpgSegmentConstants.UNKNOWN.getFlag())
-                    {
-                        LOGGER.debug(String.format("Segment flag [%s] detected", JpgSegmentConstants.fromBytes(marker, flag)));
-                    }
-                }
-
-                return JpgSegmentConstants.fromBytes(marker, flag);
-            }
+        if (flag < 0)
+        {
+            return null;
         }
 
-        catch (EOFException eof)
+        JpgSegmentConstants segment = JpgSegmentConstants.fromBytes(0xFF, flag);
+
+        if (LOGGER.isDebugEnabled() && segment != JpgSegmentConstants.UNKNOWN)
         {
-            return null;
+            LOGGER.debug(String.format("Segment flag [%s] detected", segment));
         }
+
+        return segment;
     }
 
     /**
      * Reads all supported metadata segments, including EXIF, ICC and XMP, if present, from the JPEG
-     * file stream.
+     * file stream, recording every segment passed in the segment index.
+     *
+     * <p>
+     * If a valid index has been supplied beforehand, the indexed metadata segments are read
+     * directly in file order, and the markers in between are not walked.
+     * </p>
      *
      * @param reader
      *        the input JPEG stream
@@ -408,90 +696,269 @@ public class JpgParser extends AbstractImageParser
      * @throws IOException
      *         if an I/O error occurs
      */
-    private JpgSegmentData readMetadataSegments(ImageRandomAccessReader reader) throws IOException
+    private JpgSegmentData readMetadataSegments(ByteStreamReader reader) throws IOException
     {
-        byte[] exifSegment = null;
-        List<byte[]> iccSegments = new ArrayList<>();
-        List<byte[]> xmpSegments = new ArrayList<>();
+        BufferPool pool = getTrackedBufferPool();
+        List<byte[]> reassembled = new ArrayList<>();
+        ByteSlice exifSegment = null;
+        List<IccChunk> iccChunks = new ArrayList<>();
+        List<ByteSlice> xmpSegments = new ArrayList<>();
+        JpgExtendedXmpAssembler extendedXmp = new JpgExtendedXmpAssembler();
+        List<JpgSegmentIndex.Segment> indexed = new ArrayList<>();
+        Iterator<JpgSegmentIndex.Segment> planned = null;
+
+        if (segmentIndex != null && segmentIndex.isValidFor(reader))
+        {
+            planned = segmentIndex.getSegments().iterator();
+            LOGGER.debug("Reading metadata segments from the supplied segment index");
+        }
 
-        while (reader.getCurrentPosition() < reader.length())
+        // A negative length means the source is a stream whose total length is not yet known
+        while (planned != null || reader.length() < 0 || reader.getCurrentPosition() < reader.length())
         {
-            JpgSegmentConstants segment = fetchNextSegment(reader);
+            JpgSegmentConstants segment;
+            long offset;
+            int length;
 
-            // SOS (Start of Scan) marks the beginning of the compressed image data.
-            // Usually, no metadata exists after this point except the EOI marker.
-            if (segment == null || segment == JpgSegmentConstants.END_OF_IMAGE || (segment == JpgSegmentConstants.START_OF_STREAM))
+            if (planned != null)
             {
-                break;
+                if (!planned.hasNext())
+                {
+                    break;
+                }
+
+                JpgSegmentIndex.Segment seg = planned.next();
+
+                if (seg.getType() == JpgSegmentIndex.SegmentType.OTHER || (skipExtendedXmp && seg.getType() == JpgSegmentIndex.SegmentType.EXTENDED_XMP))
+                {
+                    continue;
+                }
+
+                segment = seg.getMarker();
+                offset = seg.getOffset();
+                length = seg.getLength();
+                reader.seek(seg.getPayloadOffset());
             }
 
-            if (segment.hasLengthField())
+            else
             {
-                int length = reader.readUnsignedShort() - 2;
+                segment = fetchNextSegment(reader);
 
-                // Length must be between 2 and 65535 bytes (unsigned short)
-                if (length <= 0)
+                // SOS (Start of Scan) marks the beginning of the compressed image data.
+                // Usually, no metadata exists after this point except the EOI marker.
+                if (segment == null || segment == JpgSegmentConstants.END_OF_IMAGE || (segment == JpgSegmentConstants.START_OF_STREAM))
+                {
+                    break;
+                }
+
+                if (!segment.hasLengthField())
                 {
                     continue;
                 }
 
+                offset = reader.getCurrentPosition() - 2;
+                length = reader.readUnsignedShort() - 2;
+            }
+
+            // Length must be between 2 and 65535 bytes (unsigned short)
+            if (length > 0)
+            {
                 // Decision point: Read or Skip?
-                if (segment == JpgSegmentConstants.APP1_SEGMENT || segment == JpgSegmentConstants.APP2_SEGMENT)
+                if (segment == JpgSegmentConstants.APP1_SEGMENT && hasIdentifier(reader, length, XMP_EXTENSION_IDENTIFIER))
+                {
+                    indexed.add(new JpgSegmentIndex.Segment(segment, offset, length, JpgSegmentIndex.SegmentType.EXTENDED_XMP));
+
+                    if (skipExtendedXmp)
+                    {
+                        LOGGER.debug(String.format("Extended XMP APP1 segment skipped. Length [%d]", length));
+                        reader.skip(length);
+                    }
+
+                    else
+                    {
+                        // Chunks are read straight into the reassembly buffer, not into a pooled one
+                        extendedXmp.accept(reader, length);
+                    }
+                }
+
+                else if (segment == JpgSegmentConstants.APP2_SEGMENT && hasIdentifier(reader, length, ICC_IDENTIFIER))
+                {
+                    indexed.add(new JpgSegmentIndex.Segment(segment, offset, length, JpgSegmentIndex.SegmentType.ICC));
+                    iccChunks.add(readIccChunk(reader, length, pool));
+                }
+
+                else if (segment == JpgSegmentConstants.APP1_SEGMENT || segment == JpgSegmentConstants.APP2_SEGMENT)
                 {
-                    byte[] payload = reader.readBytes(length);
+                    // The segment is read into a pooled buffer once, subsequent stages work on views of it
+                    byte[] buffer = pool.acquire(length);
+
+                    reader.readBytes(buffer, 0, length);
+
+                    ByteSlice payload = ByteSlice.wrap(buffer, 0, length);
+
+                    indexed.add(new JpgSegmentIndex.Segment(segment, offset, length, JpgSegmentIndex.classify(segment, payload)));
 
                     if (segment == JpgSegmentConstants.APP1_SEGMENT)
                     {
                         // Only one EXIF segment is allowed
                         if (exifSegment == null)
                         {
-                            byte[] strippedPayload = JpgParser.stripExifPreamble(payload);
+                            ByteSlice strippedPayload = JpgParser.stripExifPreamble(payload);
 
-                            if (strippedPayload.length < payload.length)
+                            if (strippedPayload.length() < payload.length())
                             {
                                 exifSegment = strippedPayload;
-                                LOGGER.debug(String.format("Valid EXIF APP1 segment found. Length [%d]", exifSegment.length));
+                                LOGGER.debug(String.format("Valid EXIF APP1 segment found. Length [%d]", exifSegment.length()));
                                 continue;
                             }
                         }
 
                         // Check for XMP metadata (APP1 segments that are not EXIF might be XMP)
-                        if (payload.length >= XMP_IDENTIFIER.length && Arrays.equals(Arrays.copyOfRange(payload, 0, XMP_IDENTIFIER.length), XMP_IDENTIFIER))
+                        if (payload.startsWith(XMP_IDENTIFIER))
                         {
-                            xmpSegments.add(Arrays.copyOfRange(payload, XMP_IDENTIFIER.length, payload.length));
-                            LOGGER.debug(String.format("Valid XMP APP1 segment found. Length [%d]", payload.length));
+                            xmpSegments.add(payload.slice(XMP_IDENTIFIER.length));
+                            reassembled.add(buffer);
+                            LOGGER.debug(String.format("Valid XMP APP1 segment found. Length [%d]", payload.length()));
                             continue;
                         }
 
-                        LOGGER.debug(String.format("Non-EXIF/XMP APP1 segment skipped. Length [%d]", payload.length));
+                        LOGGER.debug(String.format("Non-EXIF/XMP APP1 segment skipped. Length [%d]", payload.length()));
                     }
 
                     else if (segment == JpgSegmentConstants.APP2_SEGMENT)
                     {
-                        if (payload.length >= ICC_IDENTIFIER.length && Arrays.equals(Arrays.copyOfRange(payload, 0, ICC_IDENTIFIER.length), ICC_IDENTIFIER))
+                        // Only the MPF segment of the primary image precedes the scan data
+                        if (payload.startsWith(MPF_IDENTIFIER) && mpfIndex == null)
                         {
-                            iccSegments.add(payload);
-                            LOGGER.debug(String.format("Valid ICC APP2 segment found. Length [%d]", payload.length));
+                            long tiffOffset = offset + 4 + MPF_IDENTIFIER.length;
+
+                            mpfIndex = JpgMpfIndex.parse(payload.slice(MPF_IDENTIFIER.length), tiffOffset, reader.length());
+                            pool.release(buffer);
                             continue;
                         }
 
-                        LOGGER.debug(String.format("Non-ICC APP2 segment skipped. Length [%d]", payload.length));
+                        LOGGER.debug(String.format("Non-ICC/MPF APP2 segment skipped. Length [%d]", payload.length()));
                     }
 
                     else
                     {
                         LOGGER.debug(String.format("Unhandled segment [0xFF%02X] skipped. Length [%d]", segment.getFlag(), length));
                     }
+
+                    pool.release(buffer);
                 }
 
                 else
                 {
+                    indexed.add(new JpgSegmentIndex.Segment(segment, offset, length, JpgSegmentIndex.SegmentType.OTHER));
                     reader.skip(length);
                 }
             }
         }
 
-        return new JpgSegmentData(exifSegment, reconstructXmpSegments(xmpSegments), reconstructIccSegments(iccSegments));
+        if (planned == null)
+        {
+            segmentIndex = new JpgSegmentIndex(indexed, reader.length());
+        }
+
+        byte[] xmp = reconstructXmpSegments(xmpSegments);
+        JpgSegmentData data = new JpgSegmentData(exifSegment, xmp, extendedXmp.assemble(xmp), collectIccChunks(iccChunks));
+
+        // The parsed data keeps referring to the EXIF buffer, so it is never returned to the pool
+        if (exifSegment != null)
+        {
+            handOverBuffer(exifSegment);
+        }
+
+        // XMP fragments have been copied into their reassembled array
+        for (byte[] buffer : reassembled)
+        {
+            pool.release(buffer);
+        }
+
+        return data;
+    }
+
+    /**
+     * Checks whether the segment payload at the current position begins with the specified
+     * identifier, without moving the reader.
+     *
+     * @param reader
+     *        the reader positioned at the start of the payload
+     * @param length
+     *        the length of the payload
+     * @param identifier
+     *        the identifier to look for
+     * @return true if the payload begins with the identifier
+     *
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    private static boolean hasIdentifier(ByteStreamReader reader, int length, byte[] identifier) throws IOException
+    {
+        if (length < identifier.length)
+        {
+            return false;
+        }
+
+        return ByteSlice.wrap(reader.peek(reader.getCurrentPosition(), identifier.length)).startsWith(identifier);
+    }
+
+    /**
+     * Reads the header of an ICC APP2 segment and records where its chunk of profile data lies.
+     * The data is skipped, unless the source is a stream, which cannot be revisited later, in which
+     * case it is read into a pooled buffer that is handed over to the chunk.
+     *
+     * @param reader
+     *        the reader positioned at the start of the APP2 payload
+     * @param length
+     *        the length of the payload
+     * @param pool
+     *        the pool from which a buffer is drawn for stream sources
+     * @return the chunk, or null if the payload is too short to hold the header
+     *
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    private IccChunk readIccChunk(ByteStreamReader reader, int length, BufferPool pool) throws IOException
+    {
+        /*
+         * The header is 14 bytes: ICC_PROFILE\0 (12 bytes)
+         * + 1 byte sequence number + 1 byte total count
+         */
+        int headerLength = ICC_IDENTIFIER.length + 2;
+
+        if (length < headerLength)
+        {
+            reader.skip(length);
+            return null;
+        }
+
+        reader.skip(ICC_IDENTIFIER.length);
+
+        int sequence = reader.readUnsignedByte();
+        int count = reader.readUnsignedByte();
+        long dataOffset = reader.getCurrentPosition();
+        int dataLength = length - headerLength;
+        ByteSlice data = null;
+
+        if (isStreamSource() || getImageFile() == null)
+        {
+            byte[] buffer = pool.acquire(dataLength);
+
+            reader.readBytes(buffer, 0, dataLength);
+            data = ByteSlice.wrap(buffer, 0, dataLength);
+            handOverBuffer(data);
+        }
+
+        else
+        {
+            reader.skip(dataLength);
+        }
+
+        LOGGER.debug(String.format("Valid ICC APP2 segment found. Length [%d]", length));
+
+        return new IccChunk(sequence, count, dataOffset, dataLength, data);
     }
 
     /**
@@ -504,59 +971,57 @@ public class JpgParser extends AbstractImageParser
      * </p>
      *
      * @param segments
-     *        the list of byte arrays, each representing a raw APP1 segment containing XMP data
+     *        the list of views, each representing the XMP portion of a raw APP1 segment
      *
      * @return the concatenated byte array, or returns null if no segments are available
      */
-    private byte[] reconstructXmpSegments(List<byte[]> segments)
+    private byte[] reconstructXmpSegments(List<ByteSlice> segments)
     {
-        if (!segments.isEmpty())
+        if (segments.isEmpty())
         {
-            try (ByteArrayOutputStream baos = new ByteArrayOutputStream())
-            {
-                for (byte[] seg : segments)
-                {
-                    baos.write(seg);
-                }
+            return null;
+        }
 
-                LOGGER.debug(String.format("Successfully reconstructed XMP metadata from [%d] segment(s)", segments.size()));
+        int totalLength = 0;
 
-                return baos.toByteArray();
-            }
+        for (ByteSlice seg : segments)
+        {
+            totalLength += seg.length();
+        }
 
-            catch (IOException exc)
-            {
-                LOGGER.error("Failed to concatenate XMP segments", exc);
-            }
+        byte[] xmp = new byte[totalLength];
+        int pos = 0;
+
+        for (ByteSlice seg : segments)
+        {
+            seg.copyTo(xmp, pos);
+            pos += seg.length();
         }
 
-        return null;
+        LOGGER.debug(String.format("Successfully reconstructed XMP metadata from [%d] segment(s)", segments.size()));
+
+        return xmp;
     }
 
     /**
-     * Reconstructs a complete ICC metadata block by concatenating multiple ICC profile segments.
-     * Segments are ordered by their sequence number as specified in the header.
+     * Validates the chunks of an ICC profile and orders them by the sequence number given in their
+     * headers. No profile data is copied.
      *
-     * @param segments
-     *        the list of raw ICC segments
-     * @return the concatenated byte array, or returns null if no valid segments are available
+     * @param chunks
+     *        the list of ICC chunks in file order, where null denotes a segment too short to hold a
+     *        header
+     * @return the ordered chunks, or returns null if no valid chunks are available
      */
-    private byte[] reconstructIccSegments(List<byte[]> segments)
+    private List<IccChunk> collectIccChunks(List<IccChunk> chunks)
     {
-        /*
-         * The header is 14 bytes: ICC_PROFILE\0 (12 bytes)
-         * + 1 byte sequence number + 1 byte total count
-         */
-        int headerLength = ICC_IDENTIFIER.length + 2;
-
-        if (segments.isEmpty())
+        if (chunks.isEmpty())
         {
             return null;
         }
 
-        for (byte[] seg : segments)
+        for (IccChunk chunk : chunks)
         {
-            if (seg.length < headerLength)
+            if (chunk == null)
             {
                 LOGGER.error("One or more ICC segments are too short to contain the required header information");
                 return null;
@@ -566,18 +1031,18 @@ public class JpgParser extends AbstractImageParser
         /*
          * Get the total number of segments (M) from the first segment's header (byte at index 13)
          */
-        int totalCount = segments.get(0)[ICC_IDENTIFIER.length + 1] & 0xFF;
+        int totalCount = chunks.get(0).count;
 
-        if (totalCount == 0 || totalCount != segments.size())
+        if (totalCount == 0 || totalCount != chunks.size())
         {
-            LOGGER.warn(String.format("ICC segment count mismatch. Expected [%d] segments, but found [%d]. Profile may be corrupted or incomplete.", totalCount, segments.size()));
+            LOGGER.warn(String.format("ICC segment count mismatch. Expected [%d] segments, but found [%d]. Profile may be corrupted or incomplete.", totalCount, chunks.size()));
             return null;
         }
 
         /* Make sure all segments share the same total count */
-        for (byte[] seg : segments)
+        for (IccChunk chunk : chunks)
         {
-            if ((seg[ICC_IDENTIFIER.length + 1] & 0xFF) != totalCount)
+            if (chunk.count != totalCount)
             {
                 LOGGER.error("Inconsistent total segment count (M) found across ICC segments. Profile is corrupted");
                 return null;
@@ -585,32 +1050,17 @@ public class JpgParser extends AbstractImageParser
         }
 
         /* Using an anonymous class */
-        segments.sort(new Comparator<byte[]>()
+        chunks.sort(new Comparator<IccChunk>()
         {
             @Override
-            public int compare(byte[] s1, byte[] s2)
+            public int compare(IccChunk c1, IccChunk c2)
             {
-                return Integer.compare(s1[ICC_IDENTIFIER.length] & 0xFF, s2[ICC_IDENTIFIER.length] & 0xFF);
+                return Integer.compare(c1.sequence, c2.sequence);
             }
         });
 
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream())
-        {
-            for (byte[] seg : segments)
-            {
-                baos.write(Arrays.copyOfRange(seg, headerLength, seg.length));
-            }
-
-            LOGGER.debug(String.format("Successfully reconstructed ICC profile from [%d] segment(s)", totalCount));
-
-            return baos.toByteArray();
-        }
-
-        catch (IOException exc)
-        {
-            LOGGER.error("Failed to concatenate ICC segments", exc);
-        }
+        LOGGER.debug(String.format("Successfully located ICC profile in [%d] segment(s)", totalCount));
 
-        return null;
+        return chunks;
     }
 }
\ No newline at end of file
@@ -0,0 +1,340 @@
+package jpg;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import common.ByteSlice;
+import common.ByteStreamReader;
+
+/**
+ * An immutable index of the segments preceding the compressed image data of a JPEG file, recording
+ * the marker, file offset, payload length and identifier type of each.
+ *
+ * <p>
+ * The index is produced by {@link JpgParser#readMetadata()} while it walks the markers, and is
+ * exposed by {@link JpgParser#getSegmentIndex()}. Passing it to a later job on the same file, for
+ * example: {@link JpgDatePatcher#patchAllDates(java.nio.file.Path, java.nio.file.attribute.FileTime, JpgSegmentIndex)}
+ * or {@link JpgParser#setSegmentIndex(JpgSegmentIndex)}, lets that job seek straight to the EXIF,
+ * XMP, ICC and MPF payloads instead of walking every marker again. The index is serialisable, so that it
+ * can be handed from the scan phase of a batch run to its patch phase.
+ * </p>
+ *
+ * <p>
+ * Since the file may have changed in the meantime, {@link #isValidFor(ByteStreamReader)} checks
+ * the length of the file and the marker bytes at every indexed metadata segment before the index
+ * is relied upon.
+ * </p>
+ *
+ * @author Trevor Maggs
+ * @version 1.0
+ * @since 16 October 2026
+ */
+public final class JpgSegmentIndex implements Serializable
+{
+    private static final long serialVersionUID = 1L;
+    public static final JpgSegmentIndex EMPTY = new JpgSegmentIndex(Collections.<Segment> emptyList(), -1L);
+    private final Segment[] segments;
+    private final long sourceLength;
+
+    /**
+     * Identifies the content of a segment from the identifier at the start of its payload.
+     */
+    public enum SegmentType
+    {
+        EXIF, XMP, EXTENDED_XMP, ICC, MPF, OTHER;
+    }
+
+    /**
+     * A single indexed segment.
+     */
+    public static final class Segment implements Serializable
+    {
+        private static final long serialVersionUID = 1L;
+        private final JpgSegmentConstants marker;
+        private final long offset;
+        private final int length;
+        private final SegmentType type;
+
+        /**
+         * Constructs an indexed segment. Note that this constructor has package-private visibility.
+         *
+         * @param marker
+         *        the segment marker
+         * @param offset
+         *        the file offset of the marker
+         * @param length
+         *        the length of the payload, excluding the marker and the length field
+         * @param type
+         *        the identifier type of the payload
+         */
+        Segment(JpgSegmentConstants marker, long offset, int length, SegmentType type)
+        {
+            this.marker = marker;
+            this.offset = offset;
+            this.length = length;
+            this.type = type;
+        }
+
+        /**
+         * @return the segment marker
+         */
+        public JpgSegmentConstants getMarker()
+        {
+            return marker;
+        }
+
+        /**
+         * @return the file offset of the {@code 0xFF} marker byte
+         */
+        public long getOffset()
+        {
+            return offset;
+        }
+
+        /**
+         * @return the file offset of the payload, which follows the marker and the length field
+         */
+        public long getPayloadOffset()
+        {
+            return offset + 4;
+        }
+
+        /**
+         * @return the length of the payload in bytes
+         */
+        public int getLength()
+        {
+            return length;
+        }
+
+        /**
+         * @return the identifier type of the payload
+         */
+        public SegmentType getType()
+        {
+            return type;
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%s at [0x%04X], length [%d], type [%s]", marker, offset, length, type);
+        }
+    }
+
+    /**
+     * Constructs an index from the segments in file order. Note that this constructor has
+     * package-private visibility.
+     *
+     * @param segments
+     *        the indexed segments
+     * @param sourceLength
+     *        the length of the indexed file, or -1 if it is unknown
+     */
+    JpgSegmentIndex(List<Segment> segments, long sourceLength)
+    {
+        this.segments = segments.toArray(new Segment[0]);
+        this.sourceLength = sourceLength;
+    }
+
+    /**
+     * Walks the markers from the current position of the reader up to the start of the compressed
+     * image data, and indexes every segment with a length field. Only the identifier at the start
+     * of each {@code APP1} and {@code APP2} payload is read, the rest is skipped. Note that this
+     * method has package-private visibility.
+     *
+     * @param reader
+     *        the reader positioned at the start of the JPEG data
+     * @return the index of the segments
+     *
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    static JpgSegmentIndex scan(ByteStreamReader reader) throws IOException
+    {
+        List<Segment> found = new ArrayList<>();
+        int headerLength = Math.max(JpgParser.XMP_EXTENSION_IDENTIFIER.length, Math.max(JpgParser.XMP_IDENTIFIER.length, JpgParser.ICC_IDENTIFIER.length));
+
+        while (reader.length() < 0 || reader.getCurrentPosition() < reader.length())
+        {
+            JpgSegmentConstants segment = JpgParser.fetchNextSegment(reader);
+
+            if (segment == null || segment == JpgSegmentConstants.END_OF_IMAGE || segment == JpgSegmentConstants.START_OF_STREAM)
+            {
+                break;
+            }
+
+            if (segment.hasLengthField())
+            {
+                long offset = reader.getCurrentPosition() - 2;
+                int length = reader.readUnsignedShort() - 2;
+
+                if (length <= 0)
+                {
+                    continue;
+                }
+
+                long payloadStart = reader.getCurrentPosition();
+                SegmentType type = SegmentType.OTHER;
+
+                if (segment == JpgSegmentConstants.APP1_SEGMENT || segment == JpgSegmentConstants.APP2_SEGMENT)
+                {
+                    type = classify(segment, ByteSlice.wrap(reader.peek(payloadStart, Math.min(length, headerLength))));
+                }
+
+                found.add(new Segment(segment, offset, length, type));
+                reader.seek(payloadStart + length);
+            }
+        }
+
+        return new JpgSegmentIndex(found, reader.length());
+    }
+
+    /**
+     * Identifies a segment from the start of its payload. Note that this method has
+     * package-private visibility.
+     *
+     * @param segment
+     *        the segment marker
+     * @param payload
+     *        the payload, or at least its leading bytes
+     * @return the identifier type
+     */
+    static SegmentType classify(JpgSegmentConstants segment, ByteSlice payload)
+    {
+        if (segment == JpgSegmentConstants.APP1_SEGMENT)
+        {
+            if (payload.startsWith(JpgParser.EXIF_IDENTIFIER))
+            {
+                return SegmentType.EXIF;
+            }
+
+            else if (payload.startsWith(JpgParser.XMP_IDENTIFIER))
+            {
+                return SegmentType.XMP;
+            }
+
+            else if (payload.startsWith(JpgParser.XMP_EXTENSION_IDENTIFIER))
+            {
+                return SegmentType.EXTENDED_XMP;
+            }
+        }
+
+        else if (segment == JpgSegmentConstants.APP2_SEGMENT)
+        {
+            if (payload.startsWith(JpgParser.ICC_IDENTIFIER))
+            {
+                return SegmentType.ICC;
+            }
+
+            else if (payload.startsWith(JpgParser.MPF_IDENTIFIER))
+            {
+                return SegmentType.MPF;
+            }
+        }
+
+        return SegmentType.OTHER;
+    }
+
+    /**
+     * Returns the indexed segments in file order.
+     *
+     * @return an unmodifiable list of segments
+     */
+    public List<Segment> getSegments()
+    {
+        return Collections.unmodifiableList(Arrays.asList(segments));
+    }
+
+    /**
+     * Returns the indexed segments of the specified type, in file order.
+     *
+     * @param type
+     *        the identifier type to look for
+     * @return a list of matching segments, which is empty if there are none
+     */
+    public List<Segment> getSegments(SegmentType type)
+    {
+        List<Segment> list = new ArrayList<>();
+
+        for (Segment seg : segments)
+        {
+            if (seg.getType() == type)
+            {
+                list.add(seg);
+            }
+        }
+
+        return list;
+    }
+
+    /**
+     * @return the number of indexed segments
+     */
+    public int size()
+    {
+        return segments.length;
+    }
+
+    /**
+     * @return the length of the indexed file, or -1 if it was not known
+     */
+    public long getSourceLength()
+    {
+        return sourceLength;
+    }
+
+    /**
+     * Checks whether this index still describes the data of the specified reader, namely that the
+     * length is unchanged and every segment other than {@link SegmentType#OTHER} still begins with
+     * its marker.
+     *
+     * @param reader
+     *        the reader holding the JPEG data
+     * @return true if the index can be relied upon
+     *
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    public boolean isValidFor(ByteStreamReader reader) throws IOException
+    {
+        if (sourceLength < 0 || reader.length() != sourceLength)
+        {
+            return false;
+        }
+
+        for (Segment seg : segments)
+        {
+            if (seg.getType() != SegmentType.OTHER)
+            {
+                if (seg.getPayloadOffset() + seg.getLength() > sourceLength)
+                {
+                    return false;
+                }
+
+                byte[] marker = reader.peek(seg.getOffset(), 2);
+
+                if ((marker[0] & 0xFF) != seg.getMarker().getMarker() || (marker[1] & 0xFF) != seg.getMarker().getFlag())
+                {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns a one-line summary of the index.
+     *
+     * @return a formatted string
+     */
+    @Override
+    public String toString()
+    {
+        return String.format("Segments [%d], source length [%d]", segments.length, sourceLength);
+    }
+}
\ No newline at end of file
@@ -3,7 +3,6 @@ package png;
 import java.io.IOException;
 import java.nio.ByteOrder;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -14,8 +13,8 @@ import java.util.Optional;
 import common.ByteStreamReader;
 import common.ByteValueConverter;
 import common.DigitalSignature;
+import common.ImageBufferedReader;
 import common.ImageHandler;
-import common.ImageRandomAccessReader;
 import logger.LogFactory;
 import png.ChunkType.Category;
 
@@ -71,7 +70,7 @@ public class ChunkHandler implements ImageHandler, AutoCloseable
     }
 
     /**
-     * Constructs a {@code ChunkHandler} using a default {@link ImageRandomAccessReader} in lenient
+     * Constructs a {@code ChunkHandler} using a default {@link ImageBufferedReader} in lenient
      * mode.
      * 
      * <p>
@@ -92,12 +91,12 @@ public class ChunkHandler implements ImageHandler, AutoCloseable
      *        chunks are extracted
      * 
      * @throws IOException
-     *         if the file cannot be opened or the {@link ImageRandomAccessReader} fails to
+     *         if the file cannot be opened or the {@link ImageBufferedReader} fails to
      *         initialise
      */
     public ChunkHandler(Path fpath, EnumSet<ChunkType> requiredChunks) throws IOException
     {
-        this(fpath, new ImageRandomAccessReader(fpath, PNG_BYTE_ORDER), requiredChunks, false);
+        this(fpath, new ImageBufferedReader(fpath, PNG_BYTE_ORDER), requiredChunks, false);
     }
 
     /**
@@ -385,7 +384,8 @@ public class ChunkHandler implements ImageHandler, AutoCloseable
         byte[] typeBytes;
         ChunkType chunkType;
         boolean foundIEND = false;
-        long fileSize = Files.size(imageFile);
+        // A negative length means a stream source whose total length is not known in advance
+        long fileSize = reader.length();
 
         while (!foundIEND)
         {
@@ -394,7 +394,7 @@ public class ChunkHandler implements ImageHandler, AutoCloseable
             /*
              * 12 bytes = minimum chunk size: (Length (4) + Type (4) + CRC (4)
              */
-            if (fileSize == 0 || reader.getCurrentPosition() + 12 > fileSize)
+            if (fileSize == 0 || (fileSize > 0 && reader.getCurrentPosition() + 12 > fileSize))
             {
                 throw new IllegalStateException("Unexpected end of PNG file before IEND chunk detected");
             }
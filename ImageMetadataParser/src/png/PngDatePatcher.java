@@ -118,10 +118,12 @@ public final class PngDatePatcher
 
                 try (ImageRandomAccessWriter writer = new ImageRandomAccessWriter(imagePath, ChunkHandler.PNG_BYTE_ORDER))
                 {
+                    writer.beginBatch();
                     processExifSegment(handler, writer, zdt);
                     processXmpSegment(handler, writer, zdt, xmpDump);
                     processTimeSegment(handler, writer, zdt);
                     processTextualChunk(handler, writer, zdt);
+                    writer.commitBatch(false);
                 }
             }
         }
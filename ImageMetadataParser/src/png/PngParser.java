@@ -9,7 +9,10 @@ import java.util.List;
 import java.util.Optional;
 import com.adobe.internal.xmp.XMPException;
 import common.AbstractImageParser;
+import common.ByteStreamReader;
 import common.DigitalSignature;
+import common.ImageFileInputStream;
+import common.ImageParserFactory;
 import common.Metadata;
 import common.MetadataConstants;
 import common.Utils;
@@ -130,7 +133,33 @@ public class PngParser extends AbstractImageParser
     public PngParser(Path fpath) throws IOException
     {
         super(fpath);
+        checkFileExtension();
+    }
 
+    /**
+     * Constructs a new instance over a reader that is already open, for example: an
+     * {@link ImageFileInputStream} over a non-seekable upload stream, pipe or zip entry, or the
+     * file reader used by {@link ImageParserFactory} to detect the format. The reader is consumed
+     * and closed by {@link #readMetadata()}.
+     *
+     * @param reader
+     *        the reader positioned at the start of the PNG data
+     */
+    public PngParser(ByteStreamReader reader)
+    {
+        super(reader);
+
+        if (!isStreamSource())
+        {
+            checkFileExtension();
+        }
+    }
+
+    /**
+     * Logs a warning if the file extension does not match the detected PNG format.
+     */
+    private void checkFileExtension()
+    {
         String ext = Utils.getFileExtension(getImageFile());
 
         if (!ext.equalsIgnoreCase("png"))
@@ -169,7 +198,7 @@ public class PngParser extends AbstractImageParser
     {
         EnumSet<ChunkType> chunkSet = EnumSet.of(ChunkType.tEXt, ChunkType.zTXt, ChunkType.iTXt, ChunkType.eXIf, ChunkType.tIME);
 
-        try (ChunkHandler handler = new ChunkHandler(getImageFile(), chunkSet))
+        try (ChunkHandler handler = new ChunkHandler(getImageFile(), openReader(ChunkHandler.PNG_BYTE_ORDER), chunkSet, false))
         {
             metadata = new PngMetadata();
 
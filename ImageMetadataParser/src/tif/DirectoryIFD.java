@@ -1,11 +1,12 @@
 package tif;
 
+import java.io.IOException;
 import java.nio.ByteOrder;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.NoSuchElementException;
+import common.ByteSlice;
 import common.Directory;
 import common.MetadataConstants;
 import common.RationalNumber;
@@ -27,6 +28,14 @@ import tif.tagspecs.Taggable;
  * data, others may store only metadata structures, such as EXIF or GPS blocks.
  * </p>
  *
+ * <p>
+ * Entries are held in insertion order in an array, alongside a parallel array of their tag IDs,
+ * so no boxed key or hash node is retained per entry. Since the TIFF specification requires the
+ * entries of an IFD to be sorted by tag ID, the tag IDs are normally ascending and a lookup is a
+ * binary search. Only if an entry is added out of order is an open-addressing hash index built,
+ * keeping lookups constant-time for malformed directories.
+ * </p>
+ *
  * @author Trevor Maggs
  * @version 1.1
  * @since 13 August 2025
@@ -34,7 +43,12 @@ import tif.tagspecs.Taggable;
  */
 public class DirectoryIFD implements Directory<EntryIFD>
 {
-    private final Map<Integer, EntryIFD> entryMap = new LinkedHashMap<>();
+    private static final EntryIFD[] NO_ENTRIES = new EntryIFD[0];
+    private static final int[] NO_IDS = new int[0];
+    private EntryIFD[] entries;
+    private int[] tagIDs;
+    private int[] slots;
+    private int size;
     private DirectoryIdentifier directoryType;
 
     /**
@@ -50,6 +64,13 @@ public class DirectoryIFD implements Directory<EntryIFD>
      * Instances of this class are immutable. Internal byte arrays are defensively copied to ensure
      * data integrity.
      * </p>
+     *
+     * <p>
+     * The value is materialised lazily. Bytes stored outside the directory are fetched from the
+     * source on the first call to {@link #getByteArray()} or {@link #getData()}, and inline bytes
+     * are held as a view of the entry table they were decoded from until then. Decoding is likewise
+     * deferred until the parsed data is first requested. Both results are memoised.
+     * </p>
      */
     public final static class EntryIFD
     {
@@ -57,8 +78,13 @@ public class DirectoryIFD implements Directory<EntryIFD>
         private final TifFieldType fieldType;
         private final long count;
         private final long valueOffset;
-        private final byte[] value;
-        private final Object parsedData;
+        private final ByteOrder order;
+        private final boolean inline;
+        private IFDValueSource source;
+        private ByteSlice inlineBytes;
+        private byte[] value;
+        private Object parsedData;
+        private boolean parsed;
 
         /**
          * Constructs an immutable {@code EntryIFD} instance from raw bytes.
@@ -77,13 +103,134 @@ public class DirectoryIFD implements Directory<EntryIFD>
          *        the byte order used to parse the bytes
          */
         public EntryIFD(Taggable tag, TifFieldType ttype, long length, long offset, byte[] bytes, ByteOrder order)
+        {
+            this(tag, ttype, length, offset, order, (bytes != null ? Arrays.copyOf(bytes, bytes.length) : null), length * ttype.getFieldSize() <= IFDHandler.ENTRY_MAX_VALUE_LENGTH);
+        }
+
+        /**
+         * Constructs an entry that takes ownership of the supplied byte array without copying it.
+         *
+         * @param tag
+         *        the tag descriptor (Taggable enum)
+         * @param ttype
+         *        the TIFF field type
+         * @param length
+         *        the number of values (count)
+         * @param offset
+         *        the raw offset or immediate value field
+         * @param order
+         *        the byte order used to parse the bytes
+         * @param bytes
+         *        the raw value bytes, which must not be shared with any other object
+         * @param inline
+         *        true if the value is held in the entry itself rather than at the offset
+         */
+        private EntryIFD(Taggable tag, TifFieldType ttype, long length, long offset, ByteOrder order, byte[] bytes, boolean inline)
         {
             this.tagEnum = tag;
             this.fieldType = ttype;
             this.count = length;
             this.valueOffset = offset;
-            this.value = (bytes != null ? Arrays.copyOf(bytes, bytes.length) : null);
-            this.parsedData = fieldType.parse(value, count, order);
+            this.order = order;
+            this.value = bytes;
+            this.inline = inline;
+        }
+
+        /**
+         * Constructs an entry whose value bytes are fetched from the specified source on first
+         * access.
+         *
+         * @param tag
+         *        the tag descriptor (Taggable enum)
+         * @param ttype
+         *        the TIFF field type
+         * @param length
+         *        the number of values (count)
+         * @param offset
+         *        the absolute offset of the value bytes
+         * @param order
+         *        the byte order used to parse the bytes
+         * @param source
+         *        the source holding the value bytes
+         */
+        private EntryIFD(Taggable tag, TifFieldType ttype, long length, long offset, ByteOrder order, IFDValueSource source)
+        {
+            this(tag, ttype, length, offset, order, null, false);
+            this.source = source;
+        }
+
+        /**
+         * Creates an entry from the inline value bytes freshly read by the parser, given as a view
+         * of the entry table. No bytes are copied until the value is first requested. Note that
+         * this method has package-private visibility.
+         *
+         * @param tag
+         *        the tag descriptor (Taggable enum)
+         * @param ttype
+         *        the TIFF field type
+         * @param length
+         *        the number of values (count)
+         * @param offset
+         *        the raw offset or immediate value field
+         * @param bytes
+         *        a view of the raw value bytes, whose backing array must not be modified afterwards
+         * @param order
+         *        the byte order used to parse the bytes
+         * @return the new entry
+         */
+        static EntryIFD adopt(Taggable tag, TifFieldType ttype, long length, long offset, ByteSlice bytes, ByteOrder order)
+        {
+            EntryIFD entry = new EntryIFD(tag, ttype, length, offset, order, null, true);
+
+            entry.inlineBytes = bytes;
+
+            return entry;
+        }
+
+        /**
+         * Creates an entry whose value lies outside the directory, without reading it yet. The
+         * bytes can only be fetched while the underlying reader is open, unless the source is held
+         * in memory. Note that this method has package-private visibility.
+         *
+         * @param tag
+         *        the tag descriptor (Taggable enum)
+         * @param ttype
+         *        the TIFF field type
+         * @param length
+         *        the number of values (count)
+         * @param offset
+         *        the absolute offset of the value bytes
+         * @param order
+         *        the byte order used to parse the bytes
+         * @param source
+         *        the source holding the value bytes
+         * @return the new entry
+         */
+        static EntryIFD defer(Taggable tag, TifFieldType ttype, long length, long offset, ByteOrder order, IFDValueSource source)
+        {
+            return new EntryIFD(tag, ttype, length, offset, order, source);
+        }
+
+        /**
+         * Copies the inline value bytes out of the entry table, or fetches them from the source, if
+         * this has not been done yet. Note that this method has package-private visibility.
+         *
+         * @throws IOException
+         *         if the value bytes cannot be read
+         */
+        synchronized void load() throws IOException
+        {
+            if (inlineBytes != null)
+            {
+                value = inlineBytes.toByteArray();
+                inlineBytes = null;
+            }
+
+            else if (source != null)
+            {
+                value = source.fetch(valueOffset, (int) getByteLength());
+                source = null;
+            }
         }
 
         /**
@@ -128,12 +275,34 @@ public class DirectoryIFD implements Directory<EntryIFD>
 
         /**
          * @return a defensive copy of the raw byte array, or null if not set
+         *
+         * @throws IllegalStateException
+         *         if the value bytes cannot be read, for example: after the handler has been closed
          */
-        public byte[] getByteArray()
+        public synchronized byte[] getByteArray()
         {
+            try
+            {
+                load();
+            }
+
+            catch (IOException exc)
+            {
+                throw new IllegalStateException(String.format("Unable to read value of tag [%s] at offset [0x%04X]", tagEnum, valueOffset), exc);
+            }
+
             return value;
         }
 
+        /**
+         * @return true if the value is held in the entry itself, which allows up to 4 bytes, or 8
+         *         bytes in BigTIFF, rather than at the offset
+         */
+        public boolean isInline()
+        {
+            return inline;
+        }
+
         /**
          * @return the total byte length of the data based on type and count
          */
@@ -145,8 +314,14 @@ public class DirectoryIFD implements Directory<EntryIFD>
         /**
          * @return the parsed data object, or null if no value is available
          */
-        public Object getData()
+        public synchronized Object getData()
         {
+            if (!parsed)
+            {
+                parsedData = fieldType.parse(getByteArray(), count, order);
+                parsed = true;
+            }
+
             return parsedData;
         }
 
@@ -155,7 +330,9 @@ public class DirectoryIFD implements Directory<EntryIFD>
          */
         public boolean isArray()
         {
-            return (parsedData != null && parsedData.getClass().isArray());
+            Object data = getData();
+
+            return (data != null && data.getClass().isArray());
         }
 
         /**
@@ -169,14 +346,26 @@ public class DirectoryIFD implements Directory<EntryIFD>
         public String toString()
         {
             StringBuilder sb = new StringBuilder();
+            String text;
+
+            try
+            {
+                text = TagValueConverter.toStringValue(this);
+            }
+
+            catch (IllegalStateException exc)
+            {
+                // Values never fetched are no longer readable once the reader has been closed
+                text = "Unavailable [" + getByteLength() + " bytes]";
+            }
 
             // Tag, Type, and Count Information
             sb.append(String.format(MetadataConstants.FORMATTER, "Tag Name", getTag() + " (Tag ID: " + String.format("0x%04X", getTagID()) + ")"));
             sb.append(String.format(MetadataConstants.FORMATTER, "Field Type", getFieldType() + " (count: " + getCount() + ")"));
-            sb.append(String.format(MetadataConstants.FORMATTER, "Value", TagValueConverter.toStringValue(this)));
+            sb.append(String.format(MetadataConstants.FORMATTER, "Value", text));
             sb.append(String.format(MetadataConstants.FORMATTER, "Hint", getTag().getHint()));
 
-            if (getByteLength() > IFDHandler.ENTRY_MAX_VALUE_LENGTH)
+            if (!isInline())
             {
                 sb.append(String.format(MetadataConstants.FORMATTER, "Jump Offset", String.format("0x%04X", valueOffset)));
             }
@@ -198,12 +387,30 @@ public class DirectoryIFD implements Directory<EntryIFD>
      *        the directory type identifier, for example: IFD0, EXIF, etc
      */
     public DirectoryIFD(DirectoryIdentifier dirType)
+    {
+        this(dirType, 0);
+    }
+
+    /**
+     * Constructs a new directory instance for a specific directory type, with room for the
+     * specified number of entries, so that a directory of known size is stored without spare
+     * capacity.
+     *
+     * @param dirType
+     *        the directory type identifier, for example: IFD0, EXIF, etc
+     * @param capacity
+     *        the number of entries expected
+     */
+    public DirectoryIFD(DirectoryIdentifier dirType, int capacity)
     {
         this.directoryType = dirType;
+        this.entries = (capacity > 0 ? new EntryIFD[capacity] : NO_ENTRIES);
+        this.tagIDs = (capacity > 0 ? new int[capacity] : NO_IDS);
     }
 
     /**
-     * Adds a new {@code EntryIFD} entry to the collection.
+     * Adds a new {@code EntryIFD} entry to the collection. An entry with the same tag ID as an
+     * existing one replaces it in place, keeping its original position.
      *
      * @param entry
      *        {@code EntryIFD} object
@@ -211,7 +418,44 @@ public class DirectoryIFD implements Directory<EntryIFD>
     @Override
     public void add(EntryIFD entry)
     {
-        entryMap.put(entry.getTagID(), entry);
+        int tagID = entry.getTagID();
+        int index = indexOf(tagID);
+
+        if (index >= 0)
+        {
+            entries[index] = entry;
+            return;
+        }
+
+        if (size == entries.length)
+        {
+            int capacity = Math.max(4, size + (size >> 1));
+
+            entries = Arrays.copyOf(entries, capacity);
+            tagIDs = Arrays.copyOf(tagIDs, capacity);
+        }
+
+        entries[size] = entry;
+        tagIDs[size] = tagID;
+        size++;
+
+        if (slots != null)
+        {
+            if (size * 2 > slots.length)
+            {
+                buildIndex();
+            }
+
+            else
+            {
+                insertSlot(size - 1);
+            }
+        }
+
+        else if (size > 1 && tagID < tagIDs[size - 2])
+        {
+            buildIndex();
+        }
     }
 
     /**
@@ -223,7 +467,23 @@ public class DirectoryIFD implements Directory<EntryIFD>
     @Override
     public boolean remove(EntryIFD entry)
     {
-        return entryMap.remove(entry.getTagID(), entry);
+        int index = indexOf(entry.getTagID());
+
+        if (index < 0 || entries[index] != entry)
+        {
+            return false;
+        }
+
+        System.arraycopy(entries, index + 1, entries, index, size - index - 1);
+        System.arraycopy(tagIDs, index + 1, tagIDs, index, size - index - 1);
+        entries[--size] = null;
+
+        if (slots != null)
+        {
+            buildIndex();
+        }
+
+        return true;
     }
 
     /**
@@ -236,7 +496,9 @@ public class DirectoryIFD implements Directory<EntryIFD>
     @Override
     public boolean contains(EntryIFD entry)
     {
-        return entryMap.containsValue(entry);
+        int index = indexOf(entry.getTagID());
+
+        return (index >= 0 && entries[index] == entry);
     }
 
     /**
@@ -247,7 +509,7 @@ public class DirectoryIFD implements Directory<EntryIFD>
     @Override
     public int size()
     {
-        return entryMap.size();
+        return size;
     }
 
     /**
@@ -258,18 +520,39 @@ public class DirectoryIFD implements Directory<EntryIFD>
     @Override
     public boolean isEmpty()
     {
-        return entryMap.isEmpty();
+        return (size == 0);
     }
 
     /**
-     * Retrieves an iterator to navigate through a collection of {@code EntryIFD} objects.
+     * Retrieves an iterator to navigate through a collection of {@code EntryIFD} objects, in the
+     * order they were added. The iterator does not support removal.
      *
      * @return an Iterator object
      */
     @Override
     public Iterator<EntryIFD> iterator()
     {
-        return entryMap.values().iterator();
+        return new Iterator<EntryIFD>()
+        {
+            private int cursor;
+
+            @Override
+            public boolean hasNext()
+            {
+                return (cursor < size);
+            }
+
+            @Override
+            public EntryIFD next()
+            {
+                if (cursor >= size)
+                {
+                    throw new NoSuchElementException();
+                }
+
+                return entries[cursor++];
+            }
+        };
     }
 
     /**
@@ -303,7 +586,7 @@ public class DirectoryIFD implements Directory<EntryIFD>
      */
     public boolean hasTag(Taggable tag)
     {
-        return entryMap.containsKey(tag.getNumberID());
+        return (indexOf(tag.getNumberID()) >= 0);
     }
 
     /**
@@ -320,7 +603,7 @@ public class DirectoryIFD implements Directory<EntryIFD>
      */
     public byte[] getRawByteArray(Taggable tag)
     {
-        EntryIFD entry = entryMap.get(tag.getNumberID());
+        EntryIFD entry = getEntry(tag.getNumberID());
 
         if (entry == null)
         {
@@ -553,7 +836,9 @@ public class DirectoryIFD implements Directory<EntryIFD>
      */
     public EntryIFD getEntry(int tagID)
     {
-        return entryMap.get(tagID);
+        int index = indexOf(tagID);
+
+        return (index >= 0 ? entries[index] : null);
     }
 
     /**
@@ -590,6 +875,97 @@ public class DirectoryIFD implements Directory<EntryIFD>
      */
     private EntryIFD findEntryByTag(Taggable tag)
     {
-        return entryMap.get(tag.getNumberID());
+        return getEntry(tag.getNumberID());
+    }
+
+    /**
+     * Finds the position of the entry with the specified tag ID, using a binary search while the
+     * tag IDs are ascending, or the hash index otherwise.
+     *
+     * @param tagID
+     *        the tag ID number to look for
+     * @return the position of the entry in insertion order, or -1 if not found
+     */
+    private int indexOf(int tagID)
+    {
+        if (slots == null)
+        {
+            int index = Arrays.binarySearch(tagIDs, 0, size, tagID);
+
+            return (index >= 0 ? index : -1);
+        }
+
+        int mask = slots.length - 1;
+
+        for (int i = hash(tagID) & mask; slots[i] != 0; i = (i + 1) & mask)
+        {
+            if (tagIDs[slots[i] - 1] == tagID)
+            {
+                return slots[i] - 1;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Rebuilds the hash index over all entries, sized to at most half full. If the tag IDs are in
+     * ascending order again, for example: after a removal, the index is dropped instead.
+     */
+    private void buildIndex()
+    {
+        boolean ascending = true;
+
+        for (int i = 1; i < size && ascending; i++)
+        {
+            ascending = (tagIDs[i - 1] < tagIDs[i]);
+        }
+
+        if (ascending)
+        {
+            slots = null;
+            return;
+        }
+
+        slots = new int[Integer.highestOneBit(Math.max(size, 2) * 2 - 1) << 1];
+
+        for (int i = 0; i < size; i++)
+        {
+            insertSlot(i);
+        }
+    }
+
+    /**
+     * Records the entry at the specified position in the hash index, using linear probing. The
+     * slots hold the position plus one, so that zero marks an empty slot.
+     *
+     * @param index
+     *        the position of the entry in insertion order
+     */
+    private void insertSlot(int index)
+    {
+        int mask = slots.length - 1;
+        int i = hash(tagIDs[index]) & mask;
+
+        while (slots[i] != 0)
+        {
+            i = (i + 1) & mask;
+        }
+
+        slots[i] = index + 1;
+    }
+
+    /**
+     * Spreads the bits of a tag ID, so that neighbouring IDs do not cluster in the hash index.
+     *
+     * @param tagID
+     *        the tag ID number
+     * @return the mixed hash value
+     */
+    private static int hash(int tagID)
+    {
+        int h = tagID * 0x9E3779B9;
+
+        return h ^ (h >>> 16);
     }
 }
\ No newline at end of file
@@ -15,12 +15,20 @@ public enum DirectoryIdentifier
     IFD_DIRECTORY_IFD1("IFD1"),
     IFD_DIRECTORY_IFD2("IFD2"),
     IFD_DIRECTORY_IFD3("IFD3"),
+    IFD_DIRECTORY_PAGE("Page IFD"),
 
     IFD_EXIF_SUBIFD_DIRECTORY("Exif SubIFD"),
     IFD_DIRECTORY_SUBIFD("SubIFD"),
     IFD_GPS_DIRECTORY("GPS IFD"),
     EXIF_INTEROP_DIRECTORY("Interop IFD"),
     EXIF_DIRECTORY_MAKER_NOTES("Maker Notes"),
+    MAKER_NOTES_CANON("Canon Maker Notes"),
+    MAKER_NOTES_NIKON("Nikon Maker Notes"),
+    MAKER_NOTES_SONY("Sony Maker Notes"),
+    MAKER_NOTES_FUJIFILM("Fujifilm Maker Notes"),
+    MAKER_NOTES_OLYMPUS("Olympus Maker Notes"),
+    MAKER_NOTES_OLYMPUS_EQUIPMENT("Olympus Equipment"),
+    MAKER_NOTES_PANASONIC("Panasonic Maker Notes"),
     IFD_DIRECTORY_UNKNOWN("Unknown");
 
     public static final DirectoryIdentifier IFD_ROOT_DIRECTORY = IFD_DIRECTORY_IFD0;
@@ -52,20 +60,41 @@ public enum DirectoryIdentifier
     /**
      * Determines if this directory is part of the primary sequential TIFF chain.
      * 
-     * @return {@code true} for root-level IFDs (IFD0-IFD3)
+     * @return {@code true} for root-level IFDs (IFD0-IFD3 and any later page)
      */
     public boolean isMainChain()
     {
-        return this.ordinal() <= IFD_DIRECTORY_IFD3.ordinal();
+        return this.ordinal() <= IFD_DIRECTORY_PAGE.ordinal();
+    }
+
+    /**
+     * Returns the directory type of a page in the primary TIFF chain. The first four pages map to
+     * IFD0 through IFD3, and every later page shares the {@link #IFD_DIRECTORY_PAGE} type.
+     *
+     * @param index
+     *        the zero-based page index
+     * @return the {@link DirectoryIdentifier} of the page
+     *
+     * @throws IllegalArgumentException
+     *         if the index is negative
+     */
+    public static DirectoryIdentifier forPage(int index)
+    {
+        if (index < 0)
+        {
+            throw new IllegalArgumentException("Page index [" + index + "] cannot be negative");
+        }
+
+        return (index < IFD_DIRECTORY_PAGE.ordinal() ? values()[index] : IFD_DIRECTORY_PAGE);
     }
 
     /**
      * Retrieves the next sequential directory type in the TIFF chain. For example, moving from IFD0
-     * to IFD1.
+     * to IFD1. Any page after IFD3 is followed by another {@link #IFD_DIRECTORY_PAGE}.
      * 
      * @param dirType
      *        the current directory type being processed
-     * @return the next {@link DirectoryIdentifier}, or {@code null} if the chain ends
+     * @return the next {@link DirectoryIdentifier}
      * 
      * @throws IllegalArgumentException
      *         if the directory is null or non-sequential
@@ -79,13 +108,8 @@ public enum DirectoryIdentifier
             throw new IllegalArgumentException(String.format("Directory %s is not part of the sequential chain", desc));
         }
 
-        int nextOrdinal = dirType.ordinal() + 1;
-
-        if (nextOrdinal < values().length && values()[nextOrdinal].isMainChain())
-        {
-            return values()[nextOrdinal];
-        }
+        int nextOrdinal = Math.min(dirType.ordinal() + 1, IFD_DIRECTORY_PAGE.ordinal());
 
-        return null;
+        return values()[nextOrdinal];
     }
 }
\ No newline at end of file
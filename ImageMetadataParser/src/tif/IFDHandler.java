@@ -3,21 +3,30 @@ package tif;
 import java.io.IOException;
 import java.nio.ByteOrder;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import common.ByteSlice;
 import common.ByteStreamReader;
 import common.ByteValueConverter;
+import common.EndianDecoder;
 import common.ImageHandler;
-import common.ImageRandomAccessReader;
+import common.ImageParserFactory;
 import common.SequentialByteArrayReader;
 import logger.LogFactory;
 import tif.DirectoryIFD.EntryIFD;
 import tif.tagspecs.TagIFD_Baseline;
 import tif.tagspecs.TagIFD_Exif;
 import tif.tagspecs.TagIFD_Extension;
+import tif.tagspecs.TagIFD_Private;
 import tif.tagspecs.TagRegistry;
 import tif.tagspecs.Taggable;
 
@@ -26,15 +35,64 @@ import tif.tagspecs.Taggable;
  * Image File Directories (IFDs).
  *
  * <p>
- * This handler performs a deep recursive traversal of the IFD chain, following pointers to
- * sub-directories such as {@code EXIF}, {@code GPS}, and {@code INTEROP}. It adheres to the TIFF
- * 6.0 specification for directory structures and tag entry parsing.
+ * Each IFD in the primary chain is treated as a page. Parsing first indexes the chain by reading
+ * only the entry count and the next IFD pointer of every page, without decoding any entries. The
+ * first two pages are then parsed, covering the primary image and the thumbnail of EXIF data,
+ * whereas later pages are parsed on demand by {@link #getPage(int)}. When a page is parsed, the
+ * pointers to its sub-directories such as {@code EXIF}, {@code GPS}, and {@code INTEROP} are
+ * followed recursively. It adheres to the TIFF 6.0 specification for directory structures and tag
+ * entry parsing.
  * </p>
  *
  * <p>
- * <strong>Note:</strong> While this handler detects BigTIFF (version 43), it currently only
- * supports Standard TIFF (version 42). This class focuses exclusively on IFD-based metadata. Other
- * formats like XMP or ICC profiles should be managed by a different Image Parser.
+ * Raw camera formats built on TIFF, such as DNG, CR2, NEF and ARW, store their full-resolution and
+ * preview images in sub-directories listed by a {@code SubIFDs} entry, which may hold an array of
+ * offsets. Every offset of the array is followed, and each sub-directory is added to the page in
+ * the order of the array. Only the directory tables and their values are read, whereas the strip
+ * and tile data they describe is never touched. Values embedding bulk image data, for example: the
+ * original raw file carried by a DNG, are likewise left in place, so that scanning a large raw file
+ * reads just a few kilobytes.
+ * </p>
+ *
+ * <p>
+ * Alternatively, {@link #setForwardOnly(boolean)} selects a single forward pass over the data.
+ * Every pending read, whether a directory table, a sub-directory or an out-of-line value, is held
+ * in a priority queue ordered by file offset and consumed in ascending order. All pages are then
+ * parsed in one sweep with sequential reads, which suits non-seekable sources such as an
+ * {@link common.ImageFileInputStream}, as well as archives on rotating disks. Data placed before
+ * the current position can only be reached if the reader can still seek back to it, for example:
+ * within the look-back window of a stream. Any value that cannot be reached is dropped.
+ * </p>
+ *
+ * <p>
+ * Either traversal is bounded by a {@link TraversalBudget}. Sub-directories are followed
+ * iteratively, without recursion, down to a maximum depth, and a directory whose offset has
+ * already been visited within the same page is skipped. Pointers forming a loop, for example: an
+ * {@code INTEROP} pointer leading back to IFD0, therefore cannot stall the parser. Once the
+ * budget for directories, entries or value bytes is spent, the traversal stops and the
+ * directories parsed so far are kept as a partial result, as reported by {@link #isTruncated()}.
+ * </p>
+ *
+ * <p>
+ * Both Standard TIFF (version 42) and BigTIFF (version 43) are supported. BigTIFF widens offsets
+ * and counts to 8 bytes, so each entry takes 20 bytes and may hold up to 8 bytes of value inline.
+ * Since every offset is a {@code long}, files larger than 2 GB are handled, provided the reader
+ * supports them, for example: the memory-mapped reader returned by
+ * {@link ImageParserFactory#createReader(Path, ByteOrder)} for large files.
+ * </p>
+ *
+ * <p>
+ * This class focuses exclusively on IFD-based metadata. Other formats like XMP or ICC profiles
+ * should be managed by a different Image Parser.
+ * </p>
+ *
+ * <p>
+ * Values stored outside their directory are not read during the traversal. Each entry records the
+ * offset of its value, which is fetched from the reader on first access. When the handler reads
+ * from a file, it must therefore stay open for as long as such values may still be requested.
+ * After it is closed, only the values already fetched, and those read during a forward-only
+ * traversal, remain available. Requesting any other value then fails with an
+ * {@link IllegalStateException}. Content held in memory is not affected.
  * </p>
  *
  * @author Trevor Maggs
@@ -42,6 +100,7 @@ import tif.tagspecs.Taggable;
  * @since 5 September 2025
  * @see <a href="https://partners.adobe.com/public/developer/en/tiff/TIFF6.pdf">TIFF 6.0
  *      Specification</a>
+ * @see <a href="https://www.awaresystems.be/imaging/tiff/bigtiff.html">BigTIFF Format</a>
  */
 public class IFDHandler implements ImageHandler, AutoCloseable
 {
@@ -50,10 +109,29 @@ public class IFDHandler implements ImageHandler, AutoCloseable
     private static final int TIFF_BIG_VERSION = 43;
     public static final int ENTRY_MAX_VALUE_LENGTH = 4;
     public static final int ENTRY_MAX_VALUE_LENGTH_BIG = 8;
+    private static final int ENTRY_SIZE = 12;
+    private static final int ENTRY_SIZE_BIG = 20;
+    private static final int OFFSET_SIZE_BIG = 8;
+    private static final int HEADER_SIZE_BIG = 16;
+    private static final int EAGER_PAGE_COUNT = 2;
     private final List<DirectoryIFD> directoryList = new ArrayList<>();
+    private final List<Long> pageOffsets = new ArrayList<>();
+    private final List<List<DirectoryIFD>> pages = new ArrayList<>();
     private static final Map<Taggable, DirectoryIdentifier> subIfdMap;
+    private static final Set<Taggable> bulkDataTags;
     private final ByteStreamReader reader;
+    private final IFDValueSource valueSource;
     private boolean isTiffBig;
+    private boolean closed;
+    private boolean forwardOnly;
+    private long nextIFDOffset;
+    private long valueBase;
+    private TraversalBudget budget = TraversalBudget.DEFAULT;
+    private final Set<String> exhaustedLimits = new HashSet<>();
+    private int directoriesRead;
+    private long entriesRead;
+    private long valueBytesDeclared;
+    private boolean truncated;
 
     static
     {
@@ -63,6 +141,11 @@ public class IFDHandler implements ImageHandler, AutoCloseable
         subIfdMap.put(TagIFD_Extension.IFD_EXIF_POINTER, DirectoryIdentifier.IFD_EXIF_SUBIFD_DIRECTORY);
         subIfdMap.put(TagIFD_Extension.IFD_GPS_INFO_POINTER, DirectoryIdentifier.IFD_GPS_DIRECTORY);
         subIfdMap.put(TagIFD_Exif.EXIF_INTEROPERABILITY_POINTER, DirectoryIdentifier.EXIF_INTEROP_DIRECTORY);
+
+        /* Values embedding image data, which are never read in bulk */
+        bulkDataTags = new HashSet<>();
+        bulkDataTags.add(TagIFD_Private.IFD_ORIGINAL_RAW_FILE_DATA);
+        bulkDataTags.add(TagIFD_Private.IFD_IMAGE_SOURCE_DATA);
     }
 
     /**
@@ -74,6 +157,7 @@ public class IFDHandler implements ImageHandler, AutoCloseable
     public IFDHandler(ByteStreamReader reader)
     {
         this.reader = reader;
+        this.valueSource = new IFDValueSource(reader);
     }
 
     /**
@@ -91,7 +175,8 @@ public class IFDHandler implements ImageHandler, AutoCloseable
      */
     public IFDHandler(Path fpath) throws IOException
     {
-        this.reader = new ImageRandomAccessReader(fpath);
+        this.reader = ImageParserFactory.createReader(fpath, ByteOrder.BIG_ENDIAN);
+        this.valueSource = new IFDValueSource(reader);
     }
 
     /**
@@ -103,10 +188,25 @@ public class IFDHandler implements ImageHandler, AutoCloseable
     public IFDHandler(byte[] payload)
     {
         this.reader = new SequentialByteArrayReader(payload);
+        this.valueSource = new IFDValueSource(reader);
     }
 
     /**
-     * Returns the list of IFD directories that were successfully parsed.
+     * Constructs a handler for a read-only view of an in-memory buffer. The viewed bytes are read
+     * in place without being copied.
+     *
+     * @param payload
+     *        the view containing TIFF-formatted data
+     */
+    public IFDHandler(ByteSlice payload)
+    {
+        this.reader = payload.newReader(ByteOrder.BIG_ENDIAN);
+        this.valueSource = new IFDValueSource(reader);
+    }
+
+    /**
+     * Returns the list of IFD directories that were successfully parsed, including those of any
+     * page loaded by {@link #getPage(int)} so far.
      *
      * @return an unmodifiable {@link List} of all parsed {@link DirectoryIFD} structures
      */
@@ -115,6 +215,29 @@ public class IFDHandler implements ImageHandler, AutoCloseable
         return Collections.unmodifiableList(directoryList);
     }
 
+    /**
+     * Returns the directories of the first two pages, namely the primary image and, in EXIF data,
+     * the thumbnail, which are always parsed by {@link #parseMetadata()}, regardless of the
+     * traversal mode or of any page loaded since.
+     *
+     * @return an unmodifiable {@link List} of the {@link DirectoryIFD} structures of the first two
+     *         pages
+     */
+    public List<DirectoryIFD> getPrimaryDirectories()
+    {
+        int count = 0;
+
+        for (int i = 0; i < Math.min(EAGER_PAGE_COUNT, pages.size()); i++)
+        {
+            if (pages.get(i) != null)
+            {
+                count += pages.get(i).size();
+            }
+        }
+
+        return Collections.unmodifiableList(directoryList.subList(0, Math.min(count, directoryList.size())));
+    }
+
     /**
      * Returns the byte order, indicating how metadata values should be interpreted correctly.
      *
@@ -135,18 +258,134 @@ public class IFDHandler implements ImageHandler, AutoCloseable
         return isTiffBig;
     }
 
+    /**
+     * Selects whether {@link #parseMetadata()} reads the data in a single forward pass, ordered by
+     * file offset, instead of following each pointer as it is found. In this mode, all pages are
+     * parsed up front and every out-of-line value is read during the pass.
+     *
+     * @param forwardOnly
+     *        true to traverse the directories in ascending offset order
+     */
+    public void setForwardOnly(boolean forwardOnly)
+    {
+        this.forwardOnly = forwardOnly;
+    }
+
+    /**
+     * Indicates whether the directories are traversed in a single forward pass.
+     *
+     * @return {@code true} if the offset-ordered traversal is selected
+     */
+    public boolean isForwardOnly()
+    {
+        return forwardOnly;
+    }
+
+    /**
+     * Sets the limits applied to the traversal by {@link #parseMetadata()}, and to any page loaded
+     * later by {@link #getPage(int)}. The {@link TraversalBudget#DEFAULT} limits apply otherwise.
+     *
+     * @param budget
+     *        the {@link TraversalBudget} to apply
+     *
+     * @throws NullPointerException
+     *         if the budget is null
+     */
+    public void setBudget(TraversalBudget budget)
+    {
+        this.budget = Objects.requireNonNull(budget, "Traversal budget cannot be null");
+    }
+
+    /**
+     * Returns the limits applied to the traversal.
+     *
+     * @return the current {@link TraversalBudget}
+     */
+    public TraversalBudget getBudget()
+    {
+        return budget;
+    }
+
+    /**
+     * Indicates whether the traversal stopped short of the full structure, because a limit of the
+     * {@link TraversalBudget} was reached. In that case, the parsed directories are a partial
+     * result.
+     *
+     * @return {@code true} if any directory, entry or value was left out due to the budget
+     */
+    public boolean isTruncated()
+    {
+        return truncated;
+    }
+
+    /**
+     * Returns the number of pages, namely the IFDs in the primary chain, found by
+     * {@link #parseMetadata()}.
+     *
+     * @return the page count, or zero if nothing has been parsed
+     */
+    public int pageCount()
+    {
+        return pageOffsets.size();
+    }
+
+    /**
+     * Returns the directories of the specified page, parsing them first if this has not been done
+     * yet. The page's own IFD is always at index 0, followed by its linked sub-directories. If the
+     * traversal budget ran out before the page was reached, the list is empty.
+     *
+     * <p>
+     * A page not yet loaded is read from the underlying reader, which must therefore still be open
+     * unless it is backed by an in-memory buffer.
+     * </p>
+     *
+     * @param index
+     *        the zero-based page index
+     * @return an unmodifiable {@link List} of the page's {@link DirectoryIFD} structures
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the index is out of range
+     * @throws IOException
+     *         if the handler has been closed, the page directory is malformed, or an I/O error
+     *         occurs
+     */
+    public synchronized List<DirectoryIFD> getPage(int index) throws IOException
+    {
+        if (index < 0 || index >= pageCount())
+        {
+            throw new IndexOutOfBoundsException("Page index [" + index + "] out of range [0, " + pageCount() + "]");
+        }
+
+        if (pages.get(index) == null)
+        {
+            if (closed && !valueSource.isMemoryBacked())
+            {
+                throw new IOException("Handler for [" + reader.getFilename() + "] has been closed before page [" + index + "] was loaded");
+            }
+
+            if (!loadPage(index))
+            {
+                throw new IOException("Directory of page [" + index + "] is malformed");
+            }
+        }
+
+        return pages.get(index);
+    }
+
     /**
      * Executes the parsing logic, performing a deep scan and populating the directory list.
      *
      * <p>
-     * It validates the header and traverses the IFD chain. In specific cases, for example: JPEGs
-     * where the thumbnail IFD1 appears before the primary IFD0, the handler re-orders the results
-     * to ensure the primary image metadata is consistently at index 0.
+     * It validates the header, indexes the pages of the IFD chain and parses the first two of
+     * them. In specific cases, for example: JPEGs where the thumbnail IFD1 appears before the
+     * primary IFD0, the handler re-orders the results to ensure the primary image metadata is
+     * consistently at index 0.
      * </p>
      *
      * <p>
      * If any part of the directory structure is found to be corrupt, the directory list is cleared
-     * to maintain data integrity.
+     * to maintain data integrity. However, if the traversal budget runs out, the directories parsed
+     * up to that point are kept, and {@link #isTruncated()} returns {@code true}.
      * </p>
      *
      * @return {@code true} if at least one valid directory (IFD0) was extracted
@@ -164,29 +403,53 @@ public class IFDHandler implements ImageHandler, AutoCloseable
             return false;
         }
 
-        if (!navigateImageFileDirectory(DirectoryIdentifier.IFD_ROOT_DIRECTORY, firstIFDoffset))
+        exhaustedLimits.clear();
+        directoriesRead = 0;
+        entriesRead = 0;
+        valueBytesDeclared = 0;
+        truncated = false;
+
+        if (forwardOnly)
         {
-            directoryList.clear();
-            return false;
+            if (!traverseInOffsetOrder(firstIFDoffset))
+            {
+                directoryList.clear();
+                return false;
+            }
+        }
+
+        else
+        {
+            if (!indexPages(firstIFDoffset))
+            {
+                return false;
+            }
+
+            for (int i = 0; i < Math.min(EAGER_PAGE_COUNT, pageCount()); i++)
+            {
+                if (!loadPage(i))
+                {
+                    directoryList.clear();
+                    return false;
+                }
+            }
         }
 
         // Do identity check
-        if (!directoryList.isEmpty())
+        if (pageCount() > 1 && !pages.get(1).isEmpty())
         {
-            DirectoryIFD firstIFD = directoryList.get(0);
+            DirectoryIFD firstIFD = pages.get(0).get(0);
             boolean hasThumbnailTag = firstIFD.hasTag(TagIFD_Baseline.IFD_JPEG_INTERCHANGE_FORMAT)
                     || firstIFD.hasTag(TagIFD_Baseline.IFD_NEW_SUBFILE_TYPE);
 
             if (hasThumbnailTag && firstIFD.getDirectoryType() == DirectoryIdentifier.IFD_ROOT_DIRECTORY)
             {
+                DirectoryIFD secondIFD = pages.get(1).get(0);
+
                 LOGGER.debug("Detected IFD1 data in IFD0 slot. Re-ordering directories");
                 firstIFD.setDirectoryType(DirectoryIdentifier.IFD_THUMBNAIL_DIRECTORY);
-
-                if (directoryList.size() > 1)
-                {
-                    directoryList.get(1).setDirectoryType(DirectoryIdentifier.IFD_DIRECTORY_IFD0);
-                    Collections.swap(directoryList, 0, 1);
-                }
+                secondIFD.setDirectoryType(DirectoryIdentifier.IFD_DIRECTORY_IFD0);
+                Collections.swap(directoryList, 0, directoryList.indexOf(secondIFD));
             }
         }
 
@@ -206,14 +469,27 @@ public class IFDHandler implements ImageHandler, AutoCloseable
     }
 
     /**
-     * Closes the underlying stream reader and releases system resources.
+     * Closes the underlying stream reader and releases system resources. Values already fetched, or
+     * read during a forward-only traversal, stay available. Requesting any other value of the parsed
+     * entries afterwards fails with an {@link IllegalStateException}, unless the content is held in
+     * memory.
      */
     @Override
     public void close() throws IOException
     {
-        if (reader != null)
+        closed = true;
+
+        try
         {
-            reader.close();
+            valueSource.detach();
+        }
+
+        finally
+        {
+            if (reader != null)
+            {
+                reader.close();
+            }
         }
     }
 
@@ -225,8 +501,12 @@ public class IFDHandler implements ImageHandler, AutoCloseable
      * preambles (HEIF/JPEG markers) must be skipped prior to calling this method.
      * </p>
      *
-     * @return the absolute offset to IFD0, or {@code 0L} if the header is malformed or unsupported,
-     *         for example: BigTIFF
+     * <p>
+     * A BigTIFF header carries the byte size of its offsets, which must be 8, and a reserved zero
+     * word, followed by an 8-byte offset to IFD0.
+     * </p>
+     *
+     * @return the absolute offset to IFD0, or {@code 0L} if the header is malformed or unsupported
      *
      * @throws IOException
      *         if an I/O error occurs
@@ -254,10 +534,27 @@ public class IFDHandler implements ImageHandler, AutoCloseable
         int tiffVer = reader.readUnsignedShort();
         isTiffBig = (tiffVer == TIFF_BIG_VERSION);
 
+        long firstOffset;
+
         if (isTiffBig)
         {
-            LOGGER.warn("BigTIFF (version 43) not supported yet");
-            return 0L;
+            int offsetSize = reader.readUnsignedShort();
+            int reserved = reader.readUnsignedShort();
+
+            if (offsetSize != OFFSET_SIZE_BIG || reserved != 0)
+            {
+                LOGGER.error(String.format("Unsupported BigTIFF offset size [%d] or reserved field [%d]", offsetSize, reserved));
+                return 0L;
+            }
+
+            /* Advance by offset from base to IFD0 */
+            firstOffset = reader.readLong();
+
+            if (firstOffset < HEADER_SIZE_BIG)
+            {
+                LOGGER.error("Malformed BigTIFF header: IFD0 offset points to invalid location");
+                return 0L;
+            }
         }
 
         else if (tiffVer != TIFF_STANDARD_VERSION)
@@ -266,10 +563,13 @@ public class IFDHandler implements ImageHandler, AutoCloseable
             return 0L;
         }
 
-        /* Advance by offset from base to IFD0 */
-        long firstOffset = reader.readUnsignedInteger();
+        else
+        {
+            /* Advance by offset from base to IFD0 */
+            firstOffset = reader.readUnsignedInteger();
+        }
 
-        if (firstOffset < 8L || firstOffset >= reader.length())
+        if (firstOffset < 8L || firstOffset >= length())
         {
             LOGGER.error("Malformed TIFF header: IFD0 offset points to invalid location");
             return 0L;
@@ -279,44 +579,342 @@ public class IFDHandler implements ImageHandler, AutoCloseable
     }
 
     /**
-     * Recursively traverses a physical IFD and its linked sub-directories.
+     * Walks the primary IFD chain from IFD0 and records the offset of every page. Only the entry
+     * count and the next IFD pointer of each IFD are read, while its entries are skipped. No more
+     * pages are indexed than the traversal budget allows directories.
+     *
+     * @param firstOffset
+     *        the file offset of IFD0
+     * @return {@code true} if the chain was indexed successfully
+     *
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    private boolean indexPages(long firstOffset) throws IOException
+    {
+        int entrySize = (isTiffBig ? ENTRY_SIZE_BIG : ENTRY_SIZE);
+        long offset = firstOffset;
+
+        pageOffsets.clear();
+        pages.clear();
+
+        while (true)
+        {
+            if (pageOffsets.size() >= budget.getMaxDirectories())
+            {
+                exhaustBudget("directories");
+                break;
+            }
+
+            reader.seek(offset);
+
+            long entryCount = readEntryCount(DirectoryIdentifier.forPage(pageOffsets.size()));
+
+            if (entryCount < 0)
+            {
+                pageOffsets.clear();
+                return false;
+            }
+
+            pageOffsets.add(offset);
+            reader.skip(entryCount * entrySize);
+
+            /*
+             * Decode pointer to the next IFD in the primary chain,
+             * such as the transition from IFD0 to IFD1. This pointer
+             * is always located immediately after the last entry
+             */
+            long nextOffset = (isTiffBig ? reader.readLong() : reader.readUnsignedInteger());
+
+            if (nextOffset == 0x0000L)
+            {
+                break;
+            }
+
+            if (nextOffset <= offset || nextOffset >= length())
+            {
+                LOGGER.error(String.format("Next IFD offset [0x%04X] invalid. Malformed file likely", nextOffset));
+                pageOffsets.clear();
+                return false;
+            }
+
+            offset = nextOffset;
+        }
+
+        pages.addAll(Collections.nCopies(pageOffsets.size(), null));
+
+        return true;
+    }
+
+    /**
+     * Parses the directory of the specified page, along with its linked sub-directories, and adds
+     * them to the directory list.
+     *
+     * @param index
+     *        the zero-based page index
+     * @return {@code true} if the page and all linked IFDs were successfully parsed
+     *
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    private boolean loadPage(int index) throws IOException
+    {
+        List<DirectoryIFD> page = new ArrayList<>();
+
+        if (!navigateImageFileDirectory(DirectoryIdentifier.forPage(index), pageOffsets.get(index), page))
+        {
+            return false;
+        }
+
+        pages.set(index, Collections.unmodifiableList(page));
+        directoryList.addAll(page);
+
+        return true;
+    }
+
+    /**
+     * Reads the entry count of the IFD at the current position, which takes 2 bytes, or 8 bytes in
+     * BigTIFF, and verifies that the entries and the next IFD pointer fit in the remaining data.
+     *
+     * @param dirType
+     *        the directory being read, used for logging
+     * @return the entry count, or -1 if it is out of bounds
+     *
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    private long readEntryCount(DirectoryIdentifier dirType) throws IOException
+    {
+        int entrySize = (isTiffBig ? ENTRY_SIZE_BIG : ENTRY_SIZE);
+        int pointerSize = (isTiffBig ? OFFSET_SIZE_BIG : 4);
+        long entryCount = (isTiffBig ? reader.readLong() : reader.readUnsignedShort());
+        long remaining = length() - reader.getCurrentPosition() - pointerSize;
+
+        /*
+         * A 64-bit count must be checked before it is used to size the entry table. The
+         * checks divide rather than multiply, so that a huge count cannot overflow, and
+         * the table length is kept within the range of an int.
+         */
+        if (entryCount < 0 || entryCount > (Integer.MAX_VALUE - pointerSize) / entrySize || remaining < 0 || entryCount > remaining / entrySize)
+        {
+            LOGGER.error(String.format("Entry count [%d] exceeds the bounds of directory [%s]", entryCount, dirType));
+            return -1L;
+        }
+
+        return entryCount;
+    }
+
+    /**
+     * Parses a physical IFD and traverses its linked sub-directories, adding each one to the
+     * specified list. The pointer to the next IFD in the primary chain is not followed, since the
+     * chain is walked by {@link #indexPages(long)}.
      *
      * <p>
-     * Each IFD is parsed as a 2-byte entry count, followed by a sequence of 12-byte
-     * entries, and a 4-byte pointer to the next IFD in the main chain.
+     * The traversal uses an explicit stack instead of recursion, and reads the sub-directories
+     * depth first, in the order their pointers appear. Directories rejected by
+     * {@link #admitDirectory(PendingRead)} are skipped without failing the page.
      * </p>
      *
      * @param dirType
      *        the physical directory identity being processed
      * @param startOffset
      *        the file offset where the IFD block begins
+     * @param page
+     *        the list receiving the parsed directories of the page
      * @return {@code true} if the directory and all linked IFDs were successfully parsed
      *
      * @throws IOException
      *         if an I/O error occurs
      */
-    private boolean navigateImageFileDirectory(DirectoryIdentifier dirType, long startOffset) throws IOException
+    private boolean navigateImageFileDirectory(DirectoryIdentifier dirType, long startOffset, List<DirectoryIFD> page) throws IOException
     {
-        if (startOffset < 0 || startOffset >= reader.length())
+        Deque<PendingRead> stack = new ArrayDeque<>();
+        DirectoryNode root = new DirectoryNode(new HashSet<Long>(), 0);
+
+        stack.push(new PendingRead(startOffset, 0, dirType, root, null, null));
+
+        while (!stack.isEmpty())
         {
-            LOGGER.warn(String.format("Invalid offset [0x%04X] for directory [%s]", startOffset, dirType));
+            PendingRead item = stack.pop();
+
+            if (!admitDirectory(item))
+            {
+                continue;
+            }
+
+            DirectoryIFD ifd = readDirectory(item.dirType, item.offset);
+
+            if (ifd == null)
+            {
+                return false;
+            }
+
+            item.node.directory = ifd;
+
+            List<PendingRead> children = new ArrayList<>();
+
+            for (EntryIFD entry : ifd)
+            {
+                DirectoryIdentifier childType = subIfdMap.get(entry.getTag());
+
+                if (childType != null)
+                {
+                    DirectoryNode group = item.node.addChild();
+
+                    for (long pointer : readPointers(entry))
+                    {
+                        children.add(new PendingRead(pointer, 0, childType, group.addMember(), null, null));
+                    }
+                }
+            }
+
+            /* Pushed in reverse, so that the first pointer is followed first */
+            for (int i = children.size() - 1; i >= 0; i--)
+            {
+                stack.push(children.get(i));
+            }
+        }
+
+        root.collect(page);
+
+        return true;
+    }
+
+    /**
+     * Decides whether the directory of a pending read is parsed. It is skipped if the traversal
+     * budget allows no more directories, if it lies deeper than the maximum depth, or if its
+     * offset has already been visited within the same page, which indicates a cyclic or shared
+     * pointer.
+     *
+     * @param item
+     *        the pending directory read
+     * @return {@code true} if the directory should be read
+     */
+    private boolean admitDirectory(PendingRead item)
+    {
+        if (directoriesRead >= budget.getMaxDirectories())
+        {
+            exhaustBudget("directories");
+            return false;
+        }
+
+        if (item.node.depth > budget.getMaxDepth())
+        {
+            LOGGER.warn(String.format("Directory [%s] at offset [0x%04X] exceeds maximum depth [%d] and is skipped", item.dirType, item.offset, budget.getMaxDepth()));
+            truncated = true;
             return false;
         }
 
+        if (!item.node.visited.add(item.offset))
+        {
+            LOGGER.warn(String.format("Directory [%s] at offset [0x%04X] has already been visited. Cyclic pointer ignored", item.dirType, item.offset));
+            return false;
+        }
+
+        directoriesRead++;
+
+        return true;
+    }
+
+    /**
+     * Marks the traversal as truncated because a limit of the budget has been reached. Only the
+     * first occurrence of each limit is logged.
+     *
+     * @param limit
+     *        the name of the limit reached
+     */
+    private void exhaustBudget(String limit)
+    {
+        if (exhaustedLimits.add(limit))
+        {
+            LOGGER.warn("Traversal budget for [" + limit + "] exhausted. Returning partial results");
+        }
+
+        truncated = true;
+    }
+
+    /**
+     * Parses the entries of a single physical IFD. Out-of-line values are not read, but deferred
+     * to the value source. The pointer to the next IFD is decoded as well and kept until the next
+     * call, where {@link #traverseInOffsetOrder(long)} picks it up.
+     *
+     * <p>
+     * Each IFD is parsed as a 2-byte entry count, followed by a sequence of 12-byte entries and a
+     * 4-byte pointer to the next IFD. In BigTIFF, the entry count and the next IFD pointer take 8
+     * bytes each, and the entries are 20 bytes long.
+     * </p>
+     *
+     * <p>
+     * The entries are read into an array of their own with a single call, and each entry is decoded
+     * in place from that array. Inline values are kept as views of it, so no array is allocated per
+     * entry. Entries beyond the budget for entries are skipped without being read, and out-of-line
+     * values whose declared length would exceed the budget for value bytes are left out.
+     * </p>
+     *
+     * @param dirType
+     *        the physical directory identity being processed
+     * @param startOffset
+     *        the file offset where the IFD block begins
+     * @return the parsed directory, or null if it is malformed
+     *
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    private DirectoryIFD readDirectory(DirectoryIdentifier dirType, long startOffset) throws IOException
+    {
+        if (startOffset < 0 || startOffset >= length())
+        {
+            LOGGER.warn(String.format("Invalid offset [0x%04X] for directory [%s]", startOffset, dirType));
+            return null;
+        }
+
         reader.seek(startOffset);
-        DirectoryIFD ifd = new DirectoryIFD(dirType);
-        int entryCount = reader.readUnsignedShort();
+        int entrySize = (isTiffBig ? ENTRY_SIZE_BIG : ENTRY_SIZE);
+        int pointerSize = (isTiffBig ? OFFSET_SIZE_BIG : 4);
+        int inlineLimit = (isTiffBig ? ENTRY_MAX_VALUE_LENGTH_BIG : ENTRY_MAX_VALUE_LENGTH);
+        long rawCount = readEntryCount(dirType);
+
+        if (rawCount < 0)
+        {
+            return null;
+        }
 
-        /* Process all 12-byte entries in this IFD first */
-        for (int i = 0; i < entryCount; i++)
+        int entryCount = (int) rawCount;
+        int decodeCount = entryCount;
+        ByteOrder order = getTifByteOrder();
+        EndianDecoder decoder = EndianDecoder.of(order);
+
+        if (entryCount > budget.getMaxEntries() - entriesRead)
+        {
+            decodeCount = (int) (budget.getMaxEntries() - entriesRead);
+            exhaustBudget("entries");
+        }
+
+        int tableLength = decodeCount * entrySize;
+
+        byte[] entryTable = new byte[tableLength];
+
+        reader.readBytes(entryTable, 0, tableLength);
+        entriesRead += decodeCount;
+        DirectoryIFD ifd = new DirectoryIFD(dirType, decodeCount);
+
+        /* Process all 12-byte (or 20-byte BigTIFF) entries in this IFD first */
+        for (int i = 0; i < decodeCount; i++)
         {
-            byte[] data;
-            int tagID = reader.readUnsignedShort();
+            int pos = i * entrySize;
+            int valuePos = pos + 4 + pointerSize;
+            int tagID = decoder.getShort(entryTable, pos) & 0xFFFF;
             Taggable tagEnum = TagRegistry.resolve(tagID, dirType);
-            TifFieldType fieldType = TifFieldType.getTiffType(reader.readUnsignedShort());
-            long count = reader.readUnsignedInteger();
-            byte[] valueBytes = reader.readBytes(4);
-            long offset = ByteValueConverter.toUnsignedInteger(valueBytes, getTifByteOrder());
+            TifFieldType fieldType = TifFieldType.getTiffType(decoder.getShort(entryTable, pos + 2) & 0xFFFF);
+            long count = (isTiffBig ? decoder.getLong(entryTable, pos + 4) : decoder.getInteger(entryTable, pos + 4) & 0xFFFFFFFFL);
+            long offset = (isTiffBig ? decoder.getLong(entryTable, valuePos) : decoder.getInteger(entryTable, valuePos) & 0xFFFFFFFFL);
+
+            if (count < 0 || count > Integer.MAX_VALUE)
+            {
+                LOGGER.error(String.format("Value count [%d] out of range for [%s]", count, tagEnum));
+                continue;
+            }
+
             long totalBytes = count * fieldType.getFieldSize();
 
             if (totalBytes == 0L || fieldType == TifFieldType.TYPE_ERROR)
@@ -325,74 +923,394 @@ public class IFDHandler implements ImageHandler, AutoCloseable
             }
 
             /*
-             * A length of the value that is larger than 4 bytes indicates
-             * the entry is an offset outside this directory field.
+             * A length of the value that is larger than 4 bytes (8 bytes
+             * in BigTIFF) indicates the entry is an offset outside this
+             * directory field.
              */
-            if (totalBytes > ENTRY_MAX_VALUE_LENGTH)
+            if (totalBytes > inlineLimit)
             {
-                if (offset < 0 || offset + totalBytes > reader.length() || totalBytes > Integer.MAX_VALUE)
+                offset += valueBase;
+
+                if (offset < 0 || offset > length() || totalBytes > length() - offset || totalBytes > Integer.MAX_VALUE)
                 {
                     LOGGER.error(String.format("Offset [0x%04X] out of bounds for [%s]", offset, tagEnum));
                     continue;
                 }
-
-                data = reader.peek(offset, (int) totalBytes);
-            }
-
-            else
-            {
-                data = valueBytes;
             }
 
             /* Make sure the tag ID is known and defined in TIF Specification 6.0 */
             if (TifFieldType.dataTypeinRange(fieldType.getDataType()))
             {
-                ifd.add(new EntryIFD(tagEnum, fieldType, count, offset, data, getTifByteOrder()));
+                if (totalBytes > inlineLimit)
+                {
+                    // Charged as declared, whether the value is read now or fetched later
+                    if (totalBytes > budget.getMaxValueBytes() - valueBytesDeclared)
+                    {
+                        exhaustBudget("value bytes");
+                        continue;
+                    }
+
+                    valueBytesDeclared += totalBytes;
+
+                    // The value is only read when it is first requested
+                    ifd.add(EntryIFD.defer(tagEnum, fieldType, count, offset, order, valueSource));
+                }
+
+                else
+                {
+                    ifd.add(EntryIFD.adopt(tagEnum, fieldType, count, offset, ByteSlice.wrap(entryTable, valuePos, pos + entrySize - valuePos), order));
+                }
             }
         }
 
-        directoryList.add(ifd);
+        /* Entries left out by the budget are skipped to reach the next IFD pointer */
+        reader.skip((long) (entryCount - decodeCount) * entrySize);
+
+        nextIFDOffset = (isTiffBig ? reader.readLong() : reader.readUnsignedInteger());
         LOGGER.debug("New directory [" + dirType + "] added");
 
-        /*
-         * Read pointer to the next IFD in the primary chain,
-         * such as the transition from IFD0 to IFD1. This pointer
-         * is always located immediately after the last entry
-         */
-        long nextOffset = reader.readUnsignedInteger();
+        return ifd;
+    }
+
+    /**
+     * Parses every page and its sub-directories in a single forward pass. Pending reads are kept
+     * in a priority queue and consumed in ascending offset order, so that the reader only moves
+     * backwards when a structure overlaps data already passed. Out-of-line values are read as
+     * they are reached and handed to the value source, and sub-directory pointers stored
+     * out-of-line are resolved once their value has been read. Bulk image data is skipped.
+     *
+     * <p>
+     * The pages are assembled afterwards, with each page's directories in the same order as the
+     * recursive traversal produces.
+     * </p>
+     *
+     * @param firstOffset
+     *        the file offset of IFD0
+     * @return {@code true} if all directories were successfully parsed
+     *
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    private boolean traverseInOffsetOrder(long firstOffset) throws IOException
+    {
+        PriorityQueue<PendingRead> queue = new PriorityQueue<>();
+        List<DirectoryNode> roots = new ArrayList<>();
+        DirectoryNode first = new DirectoryNode(new HashSet<Long>(), 0);
+        long sequence = 0;
+
+        pageOffsets.clear();
+        pages.clear();
+        pageOffsets.add(firstOffset);
+        roots.add(first);
+        queue.add(new PendingRead(firstOffset, sequence++, DirectoryIdentifier.forPage(0), first, null, null));
 
-        for (EntryIFD entry : ifd)
+        while (!queue.isEmpty())
         {
-            Taggable tag = entry.getTag();
+            PendingRead item = queue.poll();
 
-            if (subIfdMap.containsKey(tag))
+            if (item.entry == null)
             {
-                long subIfdOffset = ByteValueConverter.toUnsignedInteger(entry.getByteArray(), getTifByteOrder());
+                if (!admitDirectory(item))
+                {
+                    continue;
+                }
 
-                reader.mark();
+                DirectoryIFD ifd = readDirectory(item.dirType, item.offset);
 
-                if (!navigateImageFileDirectory(subIfdMap.get(tag), subIfdOffset))
+                if (ifd == null)
                 {
-                    reader.reset();
                     return false;
                 }
 
-                reader.reset();
+                item.node.directory = ifd;
+
+                for (EntryIFD entry : ifd)
+                {
+                    DirectoryIdentifier childType = subIfdMap.get(entry.getTag());
+                    DirectoryNode group = null;
+
+                    if (childType != null)
+                    {
+                        group = item.node.addChild();
+                    }
+
+                    if (!entry.isInline())
+                    {
+                        if (!bulkDataTags.contains(entry.getTag()))
+                        {
+                            queue.add(new PendingRead(entry.getOffset(), sequence++, childType, group, entry, ifd));
+                        }
+                    }
+
+                    else if (group != null)
+                    {
+                        for (long pointer : readPointers(entry))
+                        {
+                            queue.add(new PendingRead(pointer, sequence++, childType, group.addMember(), null, null));
+                        }
+                    }
+                }
+
+                if (item.dirType.isMainChain() && nextIFDOffset != 0x0000L)
+                {
+                    if (nextIFDOffset <= item.offset || nextIFDOffset >= length())
+                    {
+                        LOGGER.error(String.format("Next IFD offset [0x%04X] invalid. Malformed file likely", nextIFDOffset));
+                        return false;
+                    }
+
+                    DirectoryNode next = new DirectoryNode(new HashSet<Long>(), 0);
+
+                    pageOffsets.add(nextIFDOffset);
+                    roots.add(next);
+                    queue.add(new PendingRead(nextIFDOffset, sequence++, DirectoryIdentifier.forPage(roots.size() - 1), next, null, null));
+                }
+            }
+
+            else
+            {
+                byte[] value;
+
+                try
+                {
+                    reader.seek(item.offset);
+                    value = reader.readBytes((int) item.entry.getByteLength());
+                }
+
+                catch (IOException exc)
+                {
+                    LOGGER.warn(String.format("Value of [%s] at offset [0x%04X] is out of reach and dropped. [%s]", item.entry.getTag(), item.offset, exc.getMessage()));
+                    item.parent.remove(item.entry);
+                    continue;
+                }
+
+                valueSource.preload(item.offset, value);
+
+                if (item.node != null)
+                {
+                    for (long pointer : readPointers(item.entry))
+                    {
+                        queue.add(new PendingRead(pointer, sequence++, item.dirType, item.node.addMember(), null, null));
+                    }
+                }
             }
         }
 
-        if (nextOffset == 0x0000L)
+        for (DirectoryNode root : roots)
         {
-            return true;
+            List<DirectoryIFD> page = new ArrayList<>();
+
+            /* A page reached after the budget ran out is not kept */
+            if (root.directory == null)
+            {
+                pageOffsets.subList(pages.size(), pageOffsets.size()).clear();
+                break;
+            }
+
+            root.collect(page);
+            pages.add(Collections.unmodifiableList(page));
+            directoryList.addAll(page);
         }
 
-        if (nextOffset <= startOffset || nextOffset >= reader.length())
+        return true;
+    }
+
+    /**
+     * Parses a single directory embedded in a block of bytes, such as a camera maker note, reusing
+     * the entry decoding of the main traversal. Vendors differ in where the value offsets of such
+     * a directory are measured from, so each one is shifted by the specified base to obtain a
+     * position within the block. Values falling outside the block are dropped. Note that this
+     * method has package-private visibility.
+     *
+     * @param block
+     *        the bytes holding the directory and its values
+     * @param dirType
+     *        the directory identity, which selects the tag definitions
+     * @param start
+     *        the position of the directory within the block
+     * @param base
+     *        the amount added to each value offset to make it a position within the block
+     * @param order
+     *        the byte order of the directory
+     * @return the parsed directory, or null if it is malformed
+     *
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    static DirectoryIFD parseEmbeddedDirectory(byte[] block, DirectoryIdentifier dirType, int start, long base, ByteOrder order) throws IOException
+    {
+        IFDHandler handler = new IFDHandler(block);
+
+        handler.reader.setByteOrder(order);
+        handler.valueBase = base;
+
+        return handler.readDirectory(dirType, start);
+    }
+
+    /**
+     * Decodes the sub-directory offsets held by a pointer entry, each of which is 8 bytes wide for
+     * the BigTIFF IFD8 type and 4 bytes wide otherwise. A {@code SubIFDs} entry may list several
+     * sub-directories, whereas any other pointer is expected to hold a single offset, so only its
+     * first one is used.
+     *
+     * @param entry
+     *        the pointer entry
+     * @return the offsets of the sub-directories, in the order they are listed
+     */
+    private long[] readPointers(EntryIFD entry)
+    {
+        byte[] pointers = entry.getByteArray();
+        ByteOrder order = getTifByteOrder();
+        int width = (entry.getFieldType().getFieldSize() == 8 ? 8 : 4);
+        long count = (entry.getTag() == TagIFD_Extension.IFD_IFDSUB_POINTER ? entry.getCount() : 1);
+        long[] offsets = new long[(int) Math.min(count, pointers.length / width)];
+
+        for (int i = 0; i < offsets.length; i++)
         {
-            LOGGER.error(String.format("Next IFD offset [0x%04X] invalid. Malformed file likely", nextOffset));
-            return false;
+            offsets[i] = (width == 8 ? ByteValueConverter.toLong(pointers, i * 8, order) : ByteValueConverter.toUnsignedInteger(pointers, i * 4, order));
+        }
+
+        return offsets;
+    }
+
+    /**
+     * Returns the length of the data, or {@link Long#MAX_VALUE} if a stream does not know its
+     * length in advance, so that bounds checks do not reject every offset.
+     *
+     * @return the usable length of the reader
+     */
+    private long length()
+    {
+        long len = reader.length();
+
+        return (len < 0 ? Long.MAX_VALUE : len);
+    }
+
+    /**
+     * A directory in the tree built by either traversal, whose children are the sub-directories in
+     * the order their pointers appear. A pointer entry listing several sub-directories, such as
+     * {@code SubIFDs}, is represented by a group node without a directory of its own, whose
+     * members are the sub-directories in the order of the array. All nodes of a page share the set
+     * of offsets visited within that page.
+     */
+    private static final class DirectoryNode
+    {
+        private final List<DirectoryNode> children = new ArrayList<>();
+        private final Set<Long> visited;
+        private final int depth;
+        private DirectoryIFD directory;
+
+        /**
+         * Constructs a node.
+         *
+         * @param visited
+         *        the offsets visited within the page
+         * @param depth
+         *        the nesting level, where the page's own IFD is at level 0
+         */
+        private DirectoryNode(Set<Long> visited, int depth)
+        {
+            this.visited = visited;
+            this.depth = depth;
+        }
+
+        /**
+         * Appends a node for a sub-directory, one level deeper than this one.
+         *
+         * @return the new child node
+         */
+        private DirectoryNode addChild()
+        {
+            DirectoryNode child = new DirectoryNode(visited, depth + 1);
+
+            children.add(child);
+
+            return child;
+        }
+
+        /**
+         * Appends a member to this group node, at the same level as the group.
+         *
+         * @return the new member node
+         */
+        private DirectoryNode addMember()
+        {
+            DirectoryNode member = new DirectoryNode(visited, depth);
+
+            children.add(member);
+
+            return member;
+        }
+
+        /**
+         * Adds this directory followed by its descendants, depth first, to the specified list.
+         * Directories that could not be read are left out. A node without a directory only has
+         * children if it is a group, in which case its members are added.
+         *
+         * @param page
+         *        the list to populate
+         */
+        private void collect(List<DirectoryIFD> page)
+        {
+            if (directory != null)
+            {
+                page.add(directory);
+            }
+
+            for (DirectoryNode child : children)
+            {
+                child.collect(page);
+            }
         }
+    }
 
-        /* Follow the main chain, for example: IFD0 -> IFD1 */
-        return navigateImageFileDirectory(DirectoryIdentifier.getNextDirectoryType(dirType), nextOffset);
+    /**
+     * A read waiting in the queue of the forward traversal, or on the stack of the depth-first
+     * traversal, either a directory table or the out-of-line value of an entry. Reads are ordered
+     * by file offset, and then by the order in which they were queued.
+     */
+    private static final class PendingRead implements Comparable<PendingRead>
+    {
+        private final long offset;
+        private final long sequence;
+        private final DirectoryIdentifier dirType;
+        private final DirectoryNode node;
+        private final EntryIFD entry;
+        private final DirectoryIFD parent;
+
+        /**
+         * Constructs a pending read.
+         *
+         * @param offset
+         *        the file offset to read from
+         * @param sequence
+         *        the order in which the read was queued
+         * @param dirType
+         *        the type of the directory to read, or of the sub-directory the value points to
+         * @param node
+         *        the node receiving the directory, the group node receiving the directories a
+         *        value points to, or null for a value not pointing to any
+         * @param entry
+         *        the entry whose value is read, or null for a directory read
+         * @param parent
+         *        the directory holding the entry, or null for a directory read
+         */
+        private PendingRead(long offset, long sequence, DirectoryIdentifier dirType, DirectoryNode node, EntryIFD entry, DirectoryIFD parent)
+        {
+            this.offset = offset;
+            this.sequence = sequence;
+            this.dirType = dirType;
+            this.node = node;
+            this.entry = entry;
+            this.parent = parent;
+        }
+
+        @Override
+        public int compareTo(PendingRead other)
+        {
+            int cmp = Long.compare(offset, other.offset);
+
+            return (cmp != 0 ? cmp : Long.compare(sequence, other.sequence));
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,123 @@
+package tif;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import common.ByteStreamReader;
+import common.SequentialByteArrayReader;
+
+/**
+ * Supplies the out-of-line value bytes of IFD entries on demand, so that a directory walk only
+ * records where each value lives and the bytes are fetched on first access.
+ *
+ * <p>
+ * Values are read from the reader the directories were parsed from. An in-memory reader remains
+ * valid for as long as the entries refer to it. A file-backed reader, however, stays usable only
+ * until it is closed, so {@link #detach()} must be called beforehand. Values already held in memory
+ * remain available after that, while requesting any other value fails with an {@link IOException}.
+ * Note that this class has package-private visibility.
+ * </p>
+ *
+ * <p>
+ * A traversal that reads the values itself, in file order, can hand them over with
+ * {@link #preload(long, byte[])}, in which case they are served from memory instead of the reader.
+ * </p>
+ *
+ * <p>
+ * Fetches are synchronised, since entries from several directories may share one reader.
+ * </p>
+ *
+ * @author Trevor Maggs
+ * @version 1.0
+ * @since 16 October 2026
+ */
+final class IFDValueSource
+{
+    private final ByteStreamReader reader;
+    private final Map<Long, byte[]> preloaded = new HashMap<>();
+    private boolean detached;
+
+    /**
+     * Constructs a value source over the reader used to walk the directories.
+     *
+     * @param reader
+     *        the reader holding the TIFF content
+     */
+    IFDValueSource(ByteStreamReader reader)
+    {
+        this.reader = reader;
+    }
+
+    /**
+     * Supplies value bytes already read from the specified offset, so that entries pointing there
+     * do not need to access the reader. If bytes were supplied for the same offset before, the
+     * longer array is kept.
+     *
+     * @param offset
+     *        the absolute offset the bytes were read from
+     * @param bytes
+     *        the value bytes, which must not be modified afterwards
+     */
+    synchronized void preload(long offset, byte[] bytes)
+    {
+        byte[] existing = preloaded.get(offset);
+
+        if (existing == null || existing.length < bytes.length)
+        {
+            preloaded.put(offset, bytes);
+        }
+    }
+
+    /**
+     * Reads the bytes of a value with a positional read, which does not move the reader position,
+     * unless they were preloaded.
+     *
+     * @param offset
+     *        the absolute offset of the value
+     * @param length
+     *        the number of bytes to read
+     * @return a new array holding the value bytes
+     *
+     * @throws IOException
+     *         if the value cannot be read, or the handler owning the reader has already been
+     *         closed
+     */
+    synchronized byte[] fetch(long offset, int length) throws IOException
+    {
+        byte[] bytes = preloaded.get(offset);
+
+        if (bytes != null && bytes.length >= length)
+        {
+            return Arrays.copyOf(bytes, length);
+        }
+
+        if (detached)
+        {
+            throw new IOException("Handler for [" + reader.getFilename() + "] has been closed before the value at offset [" + offset + "] was fetched");
+        }
+
+        return reader.readAt(offset, length);
+    }
+
+    /**
+     * Stops serving values from the reader, after which it may be closed. Preloaded values remain
+     * available, whereas any later request for a value still stored in the reader fails. An
+     * in-memory reader stays valid, so its values remain available as well.
+     */
+    synchronized void detach()
+    {
+        detached = !isMemoryBacked();
+    }
+
+    /**
+     * Checks whether the reader holds its content in memory, in which case it stays valid after it
+     * is closed. Note that this method has package-private visibility.
+     *
+     * @return true if the reader is backed by a byte array
+     */
+    boolean isMemoryBacked()
+    {
+        return (reader instanceof SequentialByteArrayReader);
+    }
+}
@@ -0,0 +1,335 @@
+package tif;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import common.ByteValueConverter;
+import logger.LogFactory;
+import tif.DirectoryIFD.EntryIFD;
+import tif.tagspecs.TagMakerNote;
+
+/**
+ * Decodes the proprietary maker note stored by a camera in the EXIF {@code MakerNote} tag
+ * (0x927C) into {@link DirectoryIFD} structures.
+ *
+ * <p>
+ * Most vendors store the maker note as an ordinary IFD, but differ in the header preceding it, the
+ * byte order, and the position their value offsets are measured from. The following layouts are
+ * recognised:
+ * </p>
+ *
+ * <ul>
+ * <li>Canon: no header, offsets relative to the enclosing TIFF header</li>
+ * <li>Nikon type 3: a {@code Nikon\0} header followed by a complete TIFF header at byte 10, which
+ * sets the byte order and the base of the offsets</li>
+ * <li>Sony: an optional 12-byte {@code SONY DSC} header, offsets relative to the enclosing TIFF
+ * header</li>
+ * <li>Fujifilm: a {@code FUJIFILM} header holding the position of the IFD, always little-endian,
+ * offsets relative to the maker note</li>
+ * <li>Olympus: either the old {@code OLYMP\0} header with offsets relative to the enclosing TIFF
+ * header, or the newer {@code OLYMPUS\0} and {@code OM SYSTEM} headers, which carry their own byte
+ * order and use offsets relative to the maker note. The {@code Equipment} sub-directory, holding
+ * the lens and serial numbers, is decoded as well</li>
+ * <li>Panasonic: a 12-byte {@code Panasonic} header, offsets relative to the enclosing TIFF
+ * header</li>
+ * </ul>
+ *
+ * <p>
+ * Values whose offsets fall outside the maker note are dropped, since only the maker note bytes
+ * are decoded. Note that this class has package-private visibility.
+ * </p>
+ *
+ * @author Trevor Maggs
+ * @version 1.0
+ * @since 16 October 2026
+ */
+final class MakerNoteHandler
+{
+    private static final LogFactory LOGGER = LogFactory.getLogger(MakerNoteHandler.class);
+    private static final byte[] NIKON_HEADER = "Nikon\0".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FUJIFILM_HEADER = "FUJIFILM".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] OLYMPUS_OLD_HEADER = "OLYMP\0".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] OLYMPUS_NEW_HEADER = "OLYMPUS\0".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] OM_SYSTEM_HEADER = "OM SYSTEM\0".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PANASONIC_HEADER = "Panasonic\0\0\0".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[][] SONY_HEADERS = {
+            "SONY DSC \0\0\0".getBytes(StandardCharsets.US_ASCII),
+            "SONY CAM \0\0\0".getBytes(StandardCharsets.US_ASCII),
+            "SONY MOBILE\0".getBytes(StandardCharsets.US_ASCII)
+    };
+
+    /**
+     * Prevents instantiation, since this class only offers static methods.
+     */
+    private MakerNoteHandler()
+    {
+    }
+
+    /**
+     * Decodes the specified maker note entry. The vendor is identified from the header of the
+     * maker note, or, for vendors writing no header, from the camera make.
+     *
+     * @param entry
+     *        the {@code MakerNote} entry of the EXIF directory
+     * @param make
+     *        the camera make recorded in IFD0, or null if absent
+     * @param order
+     *        the byte order of the enclosing TIFF structure
+     * @return the maker note directory, followed by any sub-directory, or an empty list if the
+     *         maker note is malformed or its layout is not recognised
+     */
+    static List<DirectoryIFD> decode(EntryIFD entry, String make, ByteOrder order)
+    {
+        byte[] note;
+
+        try
+        {
+            note = entry.getByteArray();
+        }
+
+        catch (IllegalStateException exc)
+        {
+            LOGGER.warn("Maker note cannot be read. [" + exc.getMessage() + "]");
+            return Collections.emptyList();
+        }
+
+        if (note == null || note.length < 8)
+        {
+            return Collections.emptyList();
+        }
+
+        String vendor = (make == null ? "" : make.trim().toUpperCase(Locale.ROOT));
+
+        /* Offsets relative to the enclosing TIFF header are rebased onto the maker note */
+        long tiffBase = -entry.getOffset();
+
+        try
+        {
+            if (startsWith(note, NIKON_HEADER) && note[6] == 0x02 && note.length >= 18)
+            {
+                ByteOrder nikonOrder = byteOrderAt(note, 10);
+
+                if (nikonOrder == null)
+                {
+                    return Collections.emptyList();
+                }
+
+                long start = ByteValueConverter.toUnsignedInteger(note, 14, nikonOrder) + 10;
+
+                return decode(note, DirectoryIdentifier.MAKER_NOTES_NIKON, start, 10, nikonOrder);
+            }
+
+            if (startsWith(note, FUJIFILM_HEADER) && note.length >= 12)
+            {
+                long start = ByteValueConverter.toUnsignedInteger(note, 8, ByteOrder.LITTLE_ENDIAN);
+
+                return decode(note, DirectoryIdentifier.MAKER_NOTES_FUJIFILM, start, 0, ByteOrder.LITTLE_ENDIAN);
+            }
+
+            if (startsWith(note, OLYMPUS_NEW_HEADER) && note.length >= 12)
+            {
+                return decodeOlympus(note, 12, 0, byteOrderAt(note, 8));
+            }
+
+            if (startsWith(note, OM_SYSTEM_HEADER) && note.length >= 16)
+            {
+                return decodeOlympus(note, 16, 0, byteOrderAt(note, 12));
+            }
+
+            if (startsWith(note, OLYMPUS_OLD_HEADER))
+            {
+                return decodeOlympus(note, 8, tiffBase, order);
+            }
+
+            if (startsWith(note, PANASONIC_HEADER))
+            {
+                return decode(note, DirectoryIdentifier.MAKER_NOTES_PANASONIC, PANASONIC_HEADER.length, tiffBase, order);
+            }
+
+            for (byte[] header : SONY_HEADERS)
+            {
+                if (startsWith(note, header))
+                {
+                    return decode(note, DirectoryIdentifier.MAKER_NOTES_SONY, 12, tiffBase, order);
+                }
+            }
+
+            if (vendor.startsWith("SONY"))
+            {
+                return decode(note, DirectoryIdentifier.MAKER_NOTES_SONY, 0, tiffBase, order);
+            }
+
+            if (vendor.startsWith("CANON"))
+            {
+                return decode(note, DirectoryIdentifier.MAKER_NOTES_CANON, 0, tiffBase, order);
+            }
+        }
+
+        catch (IOException exc)
+        {
+            LOGGER.warn("Maker note of [" + make + "] is malformed. [" + exc.getMessage() + "]");
+            return Collections.emptyList();
+        }
+
+        LOGGER.debug("Maker note layout of [" + make + "] is not supported");
+
+        return Collections.emptyList();
+    }
+
+    /**
+     * Decodes an Olympus maker note, followed by its {@code Equipment} sub-directory if the pointer
+     * to it is present.
+     *
+     * @param note
+     *        the maker note bytes
+     * @param start
+     *        the position of the IFD within the maker note
+     * @param base
+     *        the amount added to each value offset to make it a position within the maker note
+     * @param order
+     *        the byte order of the maker note, or null if its header is invalid
+     * @return the decoded directories, or an empty list if the maker note is malformed
+     *
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    private static List<DirectoryIFD> decodeOlympus(byte[] note, int start, long base, ByteOrder order) throws IOException
+    {
+        if (order == null)
+        {
+            return Collections.emptyList();
+        }
+
+        List<DirectoryIFD> dirs = decode(note, DirectoryIdentifier.MAKER_NOTES_OLYMPUS, start, base, order);
+
+        if (!dirs.isEmpty())
+        {
+            EntryIFD pointer = dirs.get(0).getTagEntry(TagMakerNote.OLYMPUS_EQUIPMENT);
+
+            /* Older models embed the sub-directory as an undefined blob instead, which is skipped */
+            if (pointer != null && pointer.getCount() == 1 && (pointer.getFieldType() == TifFieldType.TYPE_IFD_POINTER || pointer.getFieldType() == TifFieldType.TYPE_LONG_U))
+            {
+                long subStart = ByteValueConverter.toUnsignedInteger(pointer.getByteArray(), order) + base;
+                DirectoryIFD equipment = parse(note, DirectoryIdentifier.MAKER_NOTES_OLYMPUS_EQUIPMENT, subStart, base, order);
+
+                if (equipment != null)
+                {
+                    dirs = new ArrayList<>(dirs);
+                    dirs.add(equipment);
+                    dirs = Collections.unmodifiableList(dirs);
+                }
+            }
+        }
+
+        return dirs;
+    }
+
+    /**
+     * Decodes the single IFD of a maker note.
+     *
+     * @param note
+     *        the maker note bytes
+     * @param dirType
+     *        the vendor directory identity
+     * @param start
+     *        the position of the IFD within the maker note
+     * @param base
+     *        the amount added to each value offset to make it a position within the maker note
+     * @param order
+     *        the byte order of the maker note
+     * @return a list holding the decoded directory, or an empty list if it is malformed
+     *
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    private static List<DirectoryIFD> decode(byte[] note, DirectoryIdentifier dirType, long start, long base, ByteOrder order) throws IOException
+    {
+        DirectoryIFD dir = parse(note, dirType, start, base, order);
+
+        return (dir != null ? Collections.singletonList(dir) : Collections.<DirectoryIFD> emptyList());
+    }
+
+    /**
+     * Parses an IFD within the maker note, after checking its position.
+     *
+     * @param note
+     *        the maker note bytes
+     * @param dirType
+     *        the vendor directory identity
+     * @param start
+     *        the position of the IFD within the maker note
+     * @param base
+     *        the amount added to each value offset to make it a position within the maker note
+     * @param order
+     *        the byte order of the maker note
+     * @return the decoded directory, or null if it is malformed
+     *
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    private static DirectoryIFD parse(byte[] note, DirectoryIdentifier dirType, long start, long base, ByteOrder order) throws IOException
+    {
+        if (start < 0 || start + 2 > note.length)
+        {
+            LOGGER.warn(String.format("Directory [%s] offset [0x%04X] lies outside the maker note", dirType, start));
+            return null;
+        }
+
+        return IFDHandler.parseEmbeddedDirectory(note, dirType, (int) start, base, order);
+    }
+
+    /**
+     * Reads a TIFF byte order mark, either {@code II} or {@code MM}.
+     *
+     * @param note
+     *        the maker note bytes
+     * @param pos
+     *        the position of the mark
+     * @return the byte order, or null if no valid mark is present
+     */
+    private static ByteOrder byteOrderAt(byte[] note, int pos)
+    {
+        if (note[pos] == 0x49 && note[pos + 1] == 0x49)
+        {
+            return ByteOrder.LITTLE_ENDIAN;
+        }
+
+        else if (note[pos] == 0x4D && note[pos + 1] == 0x4D)
+        {
+            return ByteOrder.BIG_ENDIAN;
+        }
+
+        return null;
+    }
+
+    /**
+     * Checks whether the maker note begins with the specified signature.
+     *
+     * @param note
+     *        the maker note bytes
+     * @param header
+     *        the signature to look for
+     * @return true if the signature matches
+     */
+    private static boolean startsWith(byte[] note, byte[] header)
+    {
+        if (note.length < header.length)
+        {
+            return false;
+        }
+
+        for (int i = 0; i < header.length; i++)
+        {
+            if (note[i] != header[i])
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
\ No newline at end of file
@@ -7,7 +7,9 @@ import java.util.Arrays;
 import java.nio.charset.StandardCharsets;
 
 /**
- * An enumeration class of data format types defined in the TIFF specification 6.0 document.
+ * An enumeration class of data format types defined in the TIFF specification 6.0 document,
+ * together with the 64-bit types introduced by BigTIFF. Unsigned 64-bit values are returned as
+ * Java {@code long} values, so any value above {@link Long#MAX_VALUE} appears negative.
  * 
  * @author Trevor Maggs
  * @version 1.2
@@ -86,14 +88,7 @@ public enum TifFieldType
 
             if (count > 1)
             {
-                int[] unsignedShorts = new int[(int) count];
-
-                for (int i = 0; i < unsignedShorts.length; i++)
-                {
-                    unsignedShorts[i] = ByteValueConverter.toUnsignedShort(value, i * 2, order);
-                }
-
-                return unsignedShorts;
+                return ByteValueConverter.toUnsignedShortArray(value, 0, (int) count, order);
             }
 
             else
@@ -115,14 +110,7 @@ public enum TifFieldType
 
             if (count > 1)
             {
-                long[] unsignedLongs = new long[(int) count];
-
-                for (int i = 0; i < unsignedLongs.length; i++)
-                {
-                    unsignedLongs[i] = ByteValueConverter.toUnsignedInteger(value, i * 4, order);
-                }
-
-                return unsignedLongs;
+                return ByteValueConverter.toUnsignedIntegerArray(value, 0, (int) count, order);
             }
 
             else
@@ -144,14 +132,7 @@ public enum TifFieldType
 
             if (count > 1)
             {
-                RationalNumber[] rationalsU = new RationalNumber[(int) count];
-
-                for (int i = 0; i < rationalsU.length; i++)
-                {
-                    rationalsU[i] = ByteValueConverter.toRational(value, i * 8, order, RationalNumber.DataType.UNSIGNED);
-                }
-
-                return rationalsU;
+                return ByteValueConverter.toRationalArray(value, 0, (int) count, order, RationalNumber.DataType.UNSIGNED);
             }
 
             else
@@ -209,14 +190,7 @@ public enum TifFieldType
 
             if (count > 1)
             {
-                short[] signedShorts = new short[(int) count];
-
-                for (int i = 0; i < signedShorts.length; i++)
-                {
-                    signedShorts[i] = ByteValueConverter.toShort(value, i * 2, order);
-                }
-
-                return signedShorts;
+                return ByteValueConverter.toShortArray(value, 0, (int) count, order);
             }
 
             else
@@ -238,14 +212,7 @@ public enum TifFieldType
 
             if (count > 1)
             {
-                int[] signedLongs = new int[(int) count];
-
-                for (int i = 0; i < signedLongs.length; i++)
-                {
-                    signedLongs[i] = ByteValueConverter.toInteger(value, i * 4, order);
-                }
-
-                return signedLongs;
+                return ByteValueConverter.toIntegerArray(value, 0, (int) count, order);
             }
 
             else
@@ -267,14 +234,7 @@ public enum TifFieldType
 
             if (count > 1)
             {
-                RationalNumber[] rationalsS = new RationalNumber[(int) count];
-
-                for (int i = 0; i < rationalsS.length; i++)
-                {
-                    rationalsS[i] = ByteValueConverter.toRational(value, i * 8, order, RationalNumber.DataType.SIGNED);
-                }
-
-                return rationalsS;
+                return ByteValueConverter.toRationalArray(value, 0, (int) count, order, RationalNumber.DataType.SIGNED);
             }
 
             else
@@ -296,14 +256,7 @@ public enum TifFieldType
 
             if (count > 1)
             {
-                float[] floats = new float[(int) count];
-
-                for (int i = 0; i < floats.length; i++)
-                {
-                    floats[i] = ByteValueConverter.toFloat(value, i * 4, order);
-                }
-
-                return floats;
+                return ByteValueConverter.toFloatArray(value, 0, (int) count, order);
             }
 
             else
@@ -325,14 +278,7 @@ public enum TifFieldType
 
             if (count > 1)
             {
-                double[] doubles = new double[(int) count];
-
-                for (int i = 0; i < doubles.length; i++)
-                {
-                    doubles[i] = ByteValueConverter.toDouble(value, i * 8, order);
-                }
-
-                return doubles;
+                return ByteValueConverter.toDoubleArray(value, 0, (int) count, order);
             }
 
             else
@@ -354,25 +300,84 @@ public enum TifFieldType
 
             if (count > 1)
             {
-                long[] unsignedLongs = new long[(int) count];
+                return ByteValueConverter.toUnsignedIntegerArray(value, 0, (int) count, order);
+            }
 
-                for (int i = 0; i < unsignedLongs.length; i++)
-                {
-                    unsignedLongs[i] = ByteValueConverter.toUnsignedInteger(value, i * 4, order);
-                }
+            else
+            {
+                return ByteValueConverter.toUnsignedInteger(value, 0, order);
+            }
+        }
+    },
 
-                return unsignedLongs;
+    TYPE_LONG8_U(16, "Flag for 64-bit unsigned integer (8 bytes) defined in BigTIFF", 8)
+    {
+        @Override
+        public Object parse(byte[] value, long count, ByteOrder order)
+        {
+            if (count > Integer.MAX_VALUE)
+            {
+                throw new OutOfMemoryError(String.format("TIFF array count (%,d) exceeds maximum Java array size (%,d)", count, Integer.MAX_VALUE));
+            }
+
+            if (count > 1)
+            {
+                return ByteValueConverter.toLongArray(value, 0, (int) count, order);
             }
 
             else
             {
-                return ByteValueConverter.toUnsignedInteger(value, 0, order);
+                return ByteValueConverter.toLong(value, 0, order);
+            }
+        }
+    },
+
+    TYPE_LONG8_S(17, "Flag for 64-bit signed integer (8 bytes) defined in BigTIFF", 8)
+    {
+        @Override
+        public Object parse(byte[] value, long count, ByteOrder order)
+        {
+            if (count > Integer.MAX_VALUE)
+            {
+                throw new OutOfMemoryError(String.format("TIFF array count (%,d) exceeds maximum Java array size (%,d)", count, Integer.MAX_VALUE));
+            }
+
+            if (count > 1)
+            {
+                return ByteValueConverter.toLongArray(value, 0, (int) count, order);
+            }
+
+            else
+            {
+                return ByteValueConverter.toLong(value, 0, order);
+            }
+        }
+    },
+
+    TYPE_IFD8_POINTER(18, "Flag for 64-bit IFD pointer defined in BigTIFF", 8)
+    {
+        @Override
+        public Object parse(byte[] value, long count, ByteOrder order)
+        {
+            if (count > Integer.MAX_VALUE)
+            {
+                throw new OutOfMemoryError(String.format("TIFF array count (%,d) exceeds maximum Java array size (%,d)", count, Integer.MAX_VALUE));
+            }
+
+            if (count > 1)
+            {
+                return ByteValueConverter.toLongArray(value, 0, (int) count, order);
+            }
+
+            else
+            {
+                return ByteValueConverter.toLong(value, 0, order);
             }
         }
     };
 
     public static final int MIN_DATATYPE = TYPE_BYTE_U.getDataType();
-    public static final int MAX_DATATYPE = TYPE_IFD_POINTER.getDataType();
+    public static final int MAX_DATATYPE = TYPE_IFD8_POINTER.getDataType();
     private final int dataType;
     private final String description;
     private final int elementLength;
@@ -436,8 +441,8 @@ public enum TifFieldType
     }
 
     /**
-     * Verifies if the given data type code is a valid type defined in this enumeration (TYPE_BYTE_U
-     * through TYPE_IFD_POINTER).
+     * Verifies if the given data type code is within the range of this enumeration (TYPE_BYTE_U
+     * through TYPE_IFD8_POINTER). Codes 14 and 15 are unassigned and resolve to TYPE_ERROR.
      *
      * @param dataType
      *        the data type code to be checked
@@ -456,7 +461,7 @@ public enum TifFieldType
      */
     public boolean isIFDPointer()
     {
-        return (this == TYPE_IFD_POINTER);
+        return (this == TYPE_IFD_POINTER || this == TYPE_IFD8_POINTER);
     }
 
     /**
@@ -472,6 +477,8 @@ public enum TifFieldType
             case TYPE_LONG_U:
             case TYPE_SHORT_S:
             case TYPE_LONG_S:
+            case TYPE_LONG8_U:
+            case TYPE_LONG8_S:
             case TYPE_FLOAT:
             case TYPE_DOUBLE:
                 return true;
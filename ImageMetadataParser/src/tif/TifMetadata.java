@@ -1,12 +1,17 @@
 package tif;
 
+import java.io.IOException;
 import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import common.SmartDateParser;
+import tif.tagspecs.TagIFD_Baseline;
 import tif.tagspecs.TagIFD_Exif;
 import xmp.XmpDirectory;
 import xmp.XmpProperty;
@@ -19,6 +24,21 @@ import xmp.XmpProperty;
  * This class provides access to Image File Directories (IFDs), such as the primary IFD and the EXIF
  * sub-IFD, typically found in TIFF and JPEG files.
  * </p>
+ *
+ * <p>
+ * The directories held by identifier are those of the first two pages. Several directories may
+ * share one identifier, for example: the SubIFDs of a DNG file, which hold the full-size raw image
+ * and its previews. They are kept in the order they were added and are available through
+ * {@link #getDirectories(DirectoryIdentifier)}. Multi-page documents, such
+ * as fax archives or scans, expose every page through {@link #pageCount()} and
+ * {@link #getPage(int)}, which parses a page only when it is first requested.
+ * </p>
+ *
+ * <p>
+ * Likewise, the maker note of the EXIF sub-directory is kept as an opaque entry until
+ * {@link #getMakerNoteDirectories()} is first called, at which point it is decoded for the camera
+ * vendors that are supported.
+ * </p>
  * 
  * @author Trevor Maggs
  * @version 1.0
@@ -26,9 +46,12 @@ import xmp.XmpProperty;
  */
 public class TifMetadata implements TifMetadataProvider
 {
-    private final Map<DirectoryIdentifier, DirectoryIFD> ifdMap;
+    private final Map<DirectoryIdentifier, List<DirectoryIFD>> ifdMap;
     private ByteOrder byteOrder;
     private XmpDirectory xmpDir;
+    private IFDHandler pageHandler;
+    private boolean handlerRetained;
+    private List<DirectoryIFD> makerNotes;
 
     /**
      * Constructs an empty metadata container.
@@ -71,6 +94,132 @@ public class TifMetadata implements TifMetadataProvider
     {
         return byteOrder;
     }
+
+    /**
+     * Attaches the handler the directories were parsed from, which serves the pages on demand.
+     * Note that this method has package-private visibility.
+     *
+     * @param handler
+     *        the {@link IFDHandler} holding the page index
+     */
+    void setPageHandler(IFDHandler handler)
+    {
+        this.pageHandler = handler;
+    }
+
+    /**
+     * Takes ownership of the attached handler, whose reader then stays open until
+     * {@link #release()} is called. Note that this method has package-private visibility.
+     */
+    synchronized void retainPageHandler()
+    {
+        handlerRetained = (pageHandler != null);
+    }
+
+    /**
+     * Closes the reader retained for this metadata by a {@link TifParser} configured with
+     * {@link TifParser#setRetainReader(boolean)}. Values not fetched by then are no longer
+     * available afterwards. Has no effect if no reader is retained.
+     *
+     * @throws IOException
+     *         if the reader cannot be closed
+     */
+    public synchronized void release() throws IOException
+    {
+        if (handlerRetained)
+        {
+            handlerRetained = false;
+            pageHandler.close();
+        }
+    }
+
+    /**
+     * Returns the number of pages, namely the IFDs in the primary chain of the TIFF structure.
+     *
+     * @return the page count, or zero if no TIFF structure was parsed
+     */
+    public int pageCount()
+    {
+        return (pageHandler != null ? pageHandler.pageCount() : 0);
+    }
+
+    /**
+     * Returns the directories decoded from the maker note of the EXIF sub-directory, which holds
+     * vendor-specific fields, such as the lens model and the serial numbers. Canon, Nikon (type 3),
+     * Sony, Fujifilm, Olympus and Panasonic maker notes are supported, and each is identified by a
+     * vendor-specific {@link DirectoryIdentifier}, for example:
+     * {@link DirectoryIdentifier#MAKER_NOTES_CANON}.
+     *
+     * <p>
+     * The maker note is decoded on the first call only, and the result is retained, so that
+     * callers that never request it do not pay for its decoding. If the maker note is stored in an
+     * image file and has not been read yet, the parser that produced this container must still be
+     * open.
+     * </p>
+     *
+     * @return an unmodifiable {@link List} holding the maker note directory, followed by any of its
+     *         sub-directories, or an empty list if there is no maker note or its layout is not
+     *         supported
+     */
+    public synchronized List<DirectoryIFD> getMakerNoteDirectories()
+    {
+        if (makerNotes == null)
+        {
+            DirectoryIFD exif = getDirectory(DirectoryIdentifier.IFD_EXIF_SUBIFD_DIRECTORY);
+            DirectoryIFD root = getDirectory(DirectoryIdentifier.IFD_DIRECTORY_IFD0);
+
+            makerNotes = Collections.emptyList();
+
+            if (exif != null && exif.hasTag(TagIFD_Exif.EXIF_MAKER_NOTE))
+            {
+                String make = (root != null && root.hasTag(TagIFD_Baseline.IFD_MAKE) ? root.getString(TagIFD_Baseline.IFD_MAKE) : null);
+
+                makerNotes = MakerNoteHandler.decode(exif.getTagEntry(TagIFD_Exif.EXIF_MAKER_NOTE), make, byteOrder);
+            }
+        }
+
+        return makerNotes;
+    }
+
+    /**
+     * Indicates whether the directories are a partial result, because the traversal stopped once a
+     * limit of its {@link TraversalBudget} was reached.
+     *
+     * @return {@code true} if some of the TIFF structure was left out
+     */
+    public boolean isTruncated()
+    {
+        return (pageHandler != null && pageHandler.isTruncated());
+    }
+
+    /**
+     * Returns the directories of the specified page, with the page's own IFD at index 0, followed
+     * by its linked sub-directories, such as EXIF and GPS.
+     *
+     * <p>
+     * A page that has not been requested before is parsed from the image file, so the parser that
+     * produced this container must still be open, unless it parsed an in-memory payload.
+     * </p>
+     *
+     * @param index
+     *        the zero-based page index
+     * @return an unmodifiable {@link List} of the page's directories
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the index is out of range
+     * @throws IOException
+     *         if the page cannot be read, for example: after the parser has been closed
+     */
+    public List<DirectoryIFD> getPage(int index) throws IOException
+    {
+        if (pageHandler == null)
+        {
+            throw new IndexOutOfBoundsException("Page index [" + index + "] out of range [0, 0]");
+        }
+
+        return pageHandler.getPage(index);
+    }
+
     /**
      * Checks if a specific directory type is present.
      *
@@ -84,7 +233,8 @@ public class TifMetadata implements TifMetadataProvider
     }
 
     /**
-     * Adds a new {@link DirectoryIFD} to the container.
+     * Adds a new {@link DirectoryIFD} to the container. A directory sharing its identifier with
+     * one added before is kept alongside it.
      *
      * @param directory
      *        the directory to add
@@ -108,7 +258,15 @@ public class TifMetadata implements TifMetadataProvider
             throw new IllegalStateException("ByteOrder is undefined. Please ensure the TIFF header is processed first");
         }
 
-        ifdMap.put(directory.getDirectoryType(), directory);
+        List<DirectoryIFD> list = ifdMap.get(directory.getDirectoryType());
+
+        if (list == null)
+        {
+            list = new ArrayList<>(1);
+            ifdMap.put(directory.getDirectoryType(), list);
+        }
+
+        list.add(directory);
     }
 
     /**
@@ -129,7 +287,19 @@ public class TifMetadata implements TifMetadataProvider
             throw new NullPointerException("Directory cannot be null");
         }
 
-        return (ifdMap.remove(directory.getDirectoryType()) != null);
+        List<DirectoryIFD> list = ifdMap.get(directory.getDirectoryType());
+
+        if (list == null || !list.remove(directory))
+        {
+            return false;
+        }
+
+        if (list.isEmpty())
+        {
+            ifdMap.remove(directory.getDirectoryType());
+        }
+
+        return true;
     }
 
     /**
@@ -153,7 +323,8 @@ public class TifMetadata implements TifMetadataProvider
     }
 
     /**
-     * Retrieves a {@link DirectoryIFD} from the container by its identifier.
+     * Retrieves a {@link DirectoryIFD} from the container by its identifier. If several directories
+     * share the identifier, the one added first is returned.
      *
      * @param key
      *        the {@link DirectoryIdentifier} of the directory to retrieve
@@ -162,7 +333,25 @@ public class TifMetadata implements TifMetadataProvider
     @Override
     public DirectoryIFD getDirectory(DirectoryIdentifier key)
     {
-        return ifdMap.get(key);
+        List<DirectoryIFD> list = ifdMap.get(key);
+
+        return (list != null ? list.get(0) : null);
+    }
+
+    /**
+     * Retrieves every {@link DirectoryIFD} sharing the specified identifier, for example: all
+     * SubIFDs referenced by IFD0.
+     *
+     * @param key
+     *        the {@link DirectoryIdentifier} of the directories to retrieve
+     * @return an unmodifiable {@link List} of the directories in the order they were added, or an
+     *         empty list if none is found
+     */
+    public List<DirectoryIFD> getDirectories(DirectoryIdentifier key)
+    {
+        List<DirectoryIFD> list = ifdMap.get(key);
+
+        return (list != null ? Collections.unmodifiableList(list) : Collections.<DirectoryIFD> emptyList());
     }
 
     /**
@@ -207,7 +396,14 @@ public class TifMetadata implements TifMetadataProvider
     @Override
     public Iterator<DirectoryIFD> iterator()
     {
-        return ifdMap.values().iterator();
+        List<DirectoryIFD> all = new ArrayList<>();
+
+        for (List<DirectoryIFD> list : ifdMap.values())
+        {
+            all.addAll(list);
+        }
+
+        return Collections.unmodifiableList(all).iterator();
     }
 
     /**
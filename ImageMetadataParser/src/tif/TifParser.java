@@ -1,17 +1,26 @@
 package tif;
 
 import java.io.IOException;
+import java.nio.ByteOrder;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
 import com.adobe.internal.xmp.XMPException;
 import common.AbstractImageParser;
+import common.ByteSlice;
+import common.ByteStreamReader;
 import common.DigitalSignature;
+import common.ImageFileInputStream;
+import common.ImageParserFactory;
 import common.Metadata;
 import common.MetadataConstants;
 import common.Utils;
 import logger.LogFactory;
+import tif.tagspecs.TagIFD_Baseline;
 import tif.tagspecs.TagIFD_Extension;
+import tif.tagspecs.TagIFD_Private;
 import xmp.XmpDirectory;
 import xmp.XmpHandler;
 
@@ -25,6 +34,12 @@ import xmp.XmpHandler;
  * nested sub-directories such as EXIF.
  * </p>
  *
+ * <p>
+ * Raw camera files built on TIFF are parsed as well, and their format is identified from IFD0 once
+ * the metadata has been read, namely DNG from the {@code DNGVersion} tag, and CR2, NEF and ARW from
+ * the camera {@code Make}.
+ * </p>
+ *
  * @see <a href="https://www.itu.int/itudoc/itu-t/com16/tiff-fx/docs/tiff6.pdf">TIFF 6.0
  *      Specification</a>
  * 
@@ -36,6 +51,10 @@ public class TifParser extends AbstractImageParser
 {
     private static final LogFactory LOGGER = LogFactory.getLogger(TifParser.class);
     private TifMetadata metadata;
+    private IFDHandler valueHandler;
+    private TraversalBudget budget = TraversalBudget.DEFAULT;
+    private boolean retainReader;
+    private DigitalSignature format = DigitalSignature.TIF;
 
     /**
      * Creates an instance for parsing the specified TIFF image file.
@@ -63,10 +82,45 @@ public class TifParser extends AbstractImageParser
     public TifParser(Path fpath) throws IOException
     {
         super(fpath);
+        checkFileExtension();
+    }
+
+    /**
+     * Constructs a new instance over a reader that is already open, for example: an
+     * {@link ImageFileInputStream} over a non-seekable upload stream, pipe or zip entry, or the
+     * file reader used by {@link ImageParserFactory} to detect the format. The reader is consumed
+     * by {@link #readMetadata()} and closed by {@link #close()}.
+     *
+     * @param reader
+     *        the reader positioned at the start of the TIFF data
+     */
+    public TifParser(ByteStreamReader reader)
+    {
+        super(reader);
+
+        if (!isStreamSource())
+        {
+            checkFileExtension();
+        }
+    }
 
+    /**
+     * Logs a warning if the file extension does not match the detected TIFF format, or one of the
+     * raw camera formats built on it.
+     */
+    private void checkFileExtension()
+    {
         String ext = Utils.getFileExtension(getImageFile());
 
-        if (!ext.equalsIgnoreCase("tif") && !ext.equalsIgnoreCase("tiff"))
+        for (DigitalSignature sig : DigitalSignature.values())
+        {
+            if (sig.isTiffBased() && ext.equalsIgnoreCase(sig.getFileExtensionName()))
+            {
+                return;
+            }
+        }
+
+        if (!ext.equalsIgnoreCase("tiff"))
         {
             String filename = getImageFile().getFileName().toString();
             LOGGER.warn(String.format("Mismatched file extension detected in file [%s]. Should be [%s] (TIF extension)",
@@ -75,6 +129,36 @@ public class TifParser extends AbstractImageParser
         }
     }
 
+    /**
+     * Sets the limits on the work performed by {@link #readMetadata()} to traverse the directories
+     * of the file, so that a crafted or corrupted file cannot stall the caller. The
+     * {@link TraversalBudget#DEFAULT} limits apply otherwise.
+     *
+     * @param budget
+     *        the {@link TraversalBudget} to apply
+     *
+     * @throws NullPointerException
+     *         if the budget is null
+     */
+    public void setTraversalBudget(TraversalBudget budget)
+    {
+        this.budget = Objects.requireNonNull(budget, "Traversal budget cannot be null");
+    }
+
+    /**
+     * Specifies whether the reader serving the tag values is kept open after this parser is closed.
+     * If enabled, {@link #close()} hands the reader over to the metadata, so that values not yet
+     * fetched can still be read. It stays open until {@link TifMetadata#release()} is called, which
+     * the caller is then responsible for. By default, the reader is closed along with the parser.
+     *
+     * @param retain
+     *        true to keep the reader open for the lifetime of the metadata
+     */
+    public void setRetainReader(boolean retain)
+    {
+        this.retainReader = retain;
+    }
+
     /**
      * Parses TIFF metadata from a byte array, assuming it is a valid TIFF or EXIF payload,
      * including the 8-byte header length.
@@ -89,6 +173,20 @@ public class TifParser extends AbstractImageParser
      * @return a {@link TifMetadata} object, it guarantees non-null even if parsing fails
      */
     public static TifMetadata parseTiffMetadataFromBytes(byte[] payload)
+    {
+        return parseTiffMetadataFromBytes(ByteSlice.wrap(payload));
+    }
+
+    /**
+     * Parses TIFF metadata from a read-only view of a larger buffer, for example: the APP1 segment
+     * of a JPEG file past its {@code Exif\0\0} preamble. The viewed bytes are read in place and
+     * are not copied.
+     *
+     * @param payload
+     *        the view containing TIFF-formatted data
+     * @return a {@link TifMetadata} object, it guarantees non-null even if parsing fails
+     */
+    public static TifMetadata parseTiffMetadataFromBytes(ByteSlice payload)
     {
         try (IFDHandler handler = new IFDHandler(payload))
         {
@@ -96,7 +194,9 @@ public class TifParser extends AbstractImageParser
             {
                 TifMetadata tif = new TifMetadata(handler.getTifByteOrder());
 
-                for (DirectoryIFD ifd : handler.getDirectories())
+                tif.setPageHandler(handler);
+
+                for (DirectoryIFD ifd : handler.getPrimaryDirectories())
                 {
                     tif.addDirectory(ifd);
                 }
@@ -124,6 +224,19 @@ public class TifParser extends AbstractImageParser
      * metadata container.
      * </p>
      *
+     * <p>
+     * Tag values stored outside their directories are fetched on first access, so the reader is
+     * kept open until this parser is closed. Values fetched by then remain available afterwards,
+     * whereas requesting any other value fails with an {@link IllegalStateException}. Either the
+     * metadata is consumed before the parser is closed, or the reader is retained via
+     * {@link #setRetainReader(boolean)}.
+     * </p>
+     *
+     * <p>
+     * When reading from a non-seekable stream, the directories and their values are read in a
+     * single forward pass, ordered by file offset.
+     * </p>
+     *
      * @return {@code true} if metadata was successfully populated
      * 
      * @throws IOException
@@ -132,20 +245,33 @@ public class TifParser extends AbstractImageParser
     @Override
     public boolean readMetadata() throws IOException
     {
-        try (IFDHandler handler = new IFDHandler(getImageFile()))
+        closeValueHandler();
+
+        IFDHandler handler = new IFDHandler(openReader(ByteOrder.BIG_ENDIAN));
+
+        handler.setForwardOnly(isStreamSource());
+        handler.setBudget(budget);
+
+        try
         {
             if (handler.parseMetadata())
             {
-                List<DirectoryIFD> dirList = handler.getDirectories();
+                List<DirectoryIFD> dirList = handler.getPrimaryDirectories();
                 metadata = new TifMetadata(handler.getTifByteOrder());
+                metadata.setPageHandler(handler);
+                format = identifyFormat(dirList.isEmpty() ? null : dirList.get(0));
+
+                // Directories sharing an identifier are kept in file order
+                for (DirectoryIFD dir : dirList)
+                {
+                    metadata.addDirectory(dir);
+                }
 
                 // Traverse in reverse to honour the "last-one-wins" XMP strategy
                 for (int i = dirList.size() - 1; i >= 0; i--)
                 {
                     DirectoryIFD dir = dirList.get(i);
 
-                    metadata.addDirectory(dir);
-
                     if (!metadata.hasXmpData() && dir.hasTag(TagIFD_Extension.IFD_XML_PACKET))
                     {
                         byte[] rawXmp = dir.getRawByteArray(TagIFD_Extension.IFD_XML_PACKET);
@@ -167,6 +293,8 @@ public class TifParser extends AbstractImageParser
                 {
                     LOGGER.debug("No XMP payload found");
                 }
+
+                valueHandler = handler;
             }
 
             else
@@ -182,9 +310,68 @@ public class TifParser extends AbstractImageParser
             throw exc;
         }
 
+        finally
+        {
+            if (valueHandler != handler)
+            {
+                handler.close();
+            }
+        }
+
         /* metadata is already guaranteed non-null */
         return metadata.hasMetadata();
     }
+
+    /**
+     * Closes the reader and returns the leased buffers to the pool. Tag values not yet fetched are
+     * no longer available from the metadata afterwards, and requesting one fails with an
+     * {@link IllegalStateException}. If {@link #setRetainReader(boolean)} is enabled, the reader
+     * is handed over to the metadata instead, and closed by {@link TifMetadata#release()}.
+     *
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            if (retainReader && valueHandler != null)
+            {
+                metadata.retainPageHandler();
+                valueHandler = null;
+                handOverSourceReader();
+            }
+
+            else
+            {
+                closeValueHandler();
+            }
+        }
+
+        finally
+        {
+            super.close();
+        }
+    }
+
+    /**
+     * Closes the handler retained by the last call to {@link #readMetadata()}, if any.
+     *
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    private void closeValueHandler() throws IOException
+    {
+        if (valueHandler != null)
+        {
+            IFDHandler handler = valueHandler;
+
+            valueHandler = null;
+            handler.close();
+        }
+    }
+
     /**
      * Retrieves the extracted metadata, or a safe fallback if unavailable.
      *
@@ -206,13 +393,69 @@ public class TifParser extends AbstractImageParser
     }
 
     /**
-     * Returns the detected TIFF format.
+     * Returns the detected TIFF format, which is refined to one of the raw camera formats, for
+     * example: {@link DigitalSignature#DNG} or {@link DigitalSignature#NEF}, once
+     * {@link #readMetadata()} has identified it.
      *
      * @return a {@link DigitalSignature} enum class
      */
     @Override
     public DigitalSignature getImageFormat()
     {
+        return format;
+    }
+
+    /**
+     * Identifies the raw camera format from IFD0. A {@code DNGVersion} tag marks a DNG file,
+     * otherwise the camera {@code Make} selects the proprietary format of the vendor. Since plain
+     * TIFF images from cameras and scanners of the same vendors keep their image in IFD0, a
+     * proprietary raw file must also list {@code SubIFDs} or hold a JPEG-compressed preview in IFD0.
+     *
+     * @param ifd0
+     *        the first directory of the file, or null if none was parsed
+     * @return the raw format, or {@link DigitalSignature#TIF} if it is a plain TIFF file
+     */
+    private static DigitalSignature identifyFormat(DirectoryIFD ifd0)
+    {
+        if (ifd0 == null || ifd0.getDirectoryType() != DirectoryIdentifier.IFD_DIRECTORY_IFD0)
+        {
+            return DigitalSignature.TIF;
+        }
+
+        if (ifd0.hasTag(TagIFD_Private.IFD_DNG_VERSION))
+        {
+            return DigitalSignature.DNG;
+        }
+
+        boolean rawLayout = ifd0.hasTag(TagIFD_Extension.IFD_IFDSUB_POINTER);
+
+        if (!rawLayout && ifd0.isConvertibleToInt(TagIFD_Baseline.IFD_COMPRESSION))
+        {
+            int compression = ifd0.getIntValue(TagIFD_Baseline.IFD_COMPRESSION);
+
+            rawLayout = (compression == 6 || compression == 7);
+        }
+
+        if (rawLayout && ifd0.hasTag(TagIFD_Baseline.IFD_MAKE))
+        {
+            String make = ifd0.getString(TagIFD_Baseline.IFD_MAKE).trim().toUpperCase(Locale.ROOT);
+
+            if (make.startsWith("CANON"))
+            {
+                return DigitalSignature.CR2;
+            }
+
+            else if (make.startsWith("NIKON"))
+            {
+                return DigitalSignature.NEF;
+            }
+
+            else if (make.startsWith("SONY"))
+            {
+                return DigitalSignature.ARW;
+            }
+        }
+
         return DigitalSignature.TIF;
     }
 
@@ -84,8 +84,22 @@ public final class TiffDatePatcher
                 try (ImageRandomAccessWriter writer = new ImageRandomAccessWriter(imagePath, handler.getTifByteOrder()))
                 {
                     boolean xmpProcessed = false;
+
+                    /* Every page may carry its own dates, so load the ones parsed on demand */
+                    for (int i = 0; i < handler.pageCount(); i++)
+                    {
+                        handler.getPage(i);
+                    }
+
+                    if (handler.isTruncated())
+                    {
+                        LOGGER.warn("Traversal budget exhausted. Dates in directories beyond it are left unchanged in [" + imagePath + "]");
+                    }
+
                     List<DirectoryIFD> dirList = handler.getDirectories();
 
+                    writer.beginBatch();
+
                     for (int i = dirList.size() - 1; i >= 0; i--)
                     {
                         DirectoryIFD dir = dirList.get(i);
@@ -118,6 +132,8 @@ public final class TiffDatePatcher
                             processXmpSegment(writer, entry, zdt, xmpDump);
                         }
                     }
+
+                    writer.commitBatch(false);
                 }
             }
         }
@@ -0,0 +1,105 @@
+package tif;
+
+/**
+ * An immutable set of limits on the work {@link IFDHandler} performs for a single file, namely the
+ * nesting depth of sub-directories, and the number of directories, entries and out-of-line value
+ * bytes it accepts. Value bytes are counted by the length each entry declares, when the entry is
+ * parsed, so the limit also bounds what can be fetched later from the parsed directories.
+ *
+ * <p>
+ * The limits bound the time and memory spent on a crafted or corrupted file, for example: one
+ * whose directories point to each other in a loop, or that declares millions of pages. When a
+ * limit is reached, the traversal stops short and the directories parsed so far are returned as a
+ * partial result, which {@link IFDHandler#isTruncated()} reports. The {@link #DEFAULT} limits are
+ * well above what genuine images use.
+ * </p>
+ *
+ * @author Trevor Maggs
+ * @version 1.0
+ * @since 16 October 2026
+ */
+public final class TraversalBudget
+{
+    public static final int DEFAULT_MAX_DEPTH = 8;
+    public static final int DEFAULT_MAX_DIRECTORIES = 65536;
+    public static final long DEFAULT_MAX_ENTRIES = 1L << 22;
+    public static final long DEFAULT_MAX_VALUE_BYTES = 1L << 30;
+    public static final TraversalBudget DEFAULT = new TraversalBudget(DEFAULT_MAX_DEPTH, DEFAULT_MAX_DIRECTORIES, DEFAULT_MAX_ENTRIES, DEFAULT_MAX_VALUE_BYTES);
+    public static final TraversalBudget UNLIMITED = new TraversalBudget(Integer.MAX_VALUE, Integer.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE);
+    private final int maxDepth;
+    private final int maxDirectories;
+    private final long maxEntries;
+    private final long maxValueBytes;
+
+    /**
+     * Constructs a budget with the specified limits.
+     *
+     * @param maxDepth
+     *        the deepest sub-directory level followed, where a page's own IFD is at level 0 and its
+     *        EXIF directory at level 1
+     * @param maxDirectories
+     *        the maximum number of directories parsed, which also caps the number of pages indexed
+     * @param maxEntries
+     *        the maximum number of entries decoded across all directories
+     * @param maxValueBytes
+     *        the maximum total length declared by the values stored outside their directories
+     *
+     * @throws IllegalArgumentException
+     *         if the depth is negative, or any other limit is not positive
+     */
+    public TraversalBudget(int maxDepth, int maxDirectories, long maxEntries, long maxValueBytes)
+    {
+        if (maxDepth < 0 || maxDirectories < 1 || maxEntries < 1 || maxValueBytes < 1)
+        {
+            throw new IllegalArgumentException(String.format("Invalid traversal limits [%d, %d, %d, %d]", maxDepth, maxDirectories, maxEntries, maxValueBytes));
+        }
+
+        this.maxDepth = maxDepth;
+        this.maxDirectories = maxDirectories;
+        this.maxEntries = maxEntries;
+        this.maxValueBytes = maxValueBytes;
+    }
+
+    /**
+     * @return the deepest sub-directory level followed
+     */
+    public int getMaxDepth()
+    {
+        return maxDepth;
+    }
+
+    /**
+     * @return the maximum number of directories parsed
+     */
+    public int getMaxDirectories()
+    {
+        return maxDirectories;
+    }
+
+    /**
+     * @return the maximum number of entries decoded
+     */
+    public long getMaxEntries()
+    {
+        return maxEntries;
+    }
+
+    /**
+     * @return the maximum total length declared by the out-of-line values
+     */
+    public long getMaxValueBytes()
+    {
+        return maxValueBytes;
+    }
+
+    /**
+     * Returns a one-line summary of the limits.
+     *
+     * @return a formatted string
+     */
+    @Override
+    public String toString()
+    {
+        return String.format("Depth [%d], directories [%d], entries [%d], value bytes [%d]", maxDepth, maxDirectories, maxEntries, maxValueBytes);
+    }
+}
@@ -0,0 +1,79 @@
+package tif.tagspecs;
+
+import tif.DirectoryIdentifier;
+import tif.TagHint;
+
+/**
+ * Tags of the MP Index IFD and the MP Attribute IFD, defined by the CIPA DC-007 Multi-Picture
+ * Format specification and stored in the {@code MPF} APP2 segment of a JPEG file. Both IFDs use the
+ * TIFF structure, so they are registered against the root directory, where the IDs do not collide
+ * with any baseline or EXIF tag.
+ *
+ * @author Trevor Maggs
+ * @version 1.0
+ * @since 16 October 2026
+ */
+public enum TagIFD_MPF implements Taggable
+{
+    MPF_VERSION(0xB000, DirectoryIdentifier.IFD_ROOT_DIRECTORY, "MPF Version", TagHint.HINT_STRING),
+    MPF_NUMBER_OF_IMAGES(0xB001, DirectoryIdentifier.IFD_ROOT_DIRECTORY, "Number Of Images"),
+    MPF_MP_ENTRY(0xB002, DirectoryIdentifier.IFD_ROOT_DIRECTORY, "MP Entry", TagHint.HINT_BYTE_STREAM),
+    MPF_IMAGE_UID_LIST(0xB003, DirectoryIdentifier.IFD_ROOT_DIRECTORY, "Image UID List", TagHint.HINT_BYTE_STREAM),
+    MPF_TOTAL_FRAMES(0xB004, DirectoryIdentifier.IFD_ROOT_DIRECTORY, "Total Frames"),
+    MPF_INDIVIDUAL_NUM(0xB101, DirectoryIdentifier.IFD_ROOT_DIRECTORY, "MP Individual Num"),
+    MPF_PAN_ORIENTATION(0xB201, DirectoryIdentifier.IFD_ROOT_DIRECTORY, "Pan Orientation"),
+    MPF_PAN_OVERLAP_H(0xB202, DirectoryIdentifier.IFD_ROOT_DIRECTORY, "Pan Overlap H"),
+    MPF_PAN_OVERLAP_V(0xB203, DirectoryIdentifier.IFD_ROOT_DIRECTORY, "Pan Overlap V"),
+    MPF_BASE_VIEWPOINT_NUM(0xB204, DirectoryIdentifier.IFD_ROOT_DIRECTORY, "Base Viewpoint Num"),
+    MPF_CONVERGENCE_ANGLE(0xB205, DirectoryIdentifier.IFD_ROOT_DIRECTORY, "Convergence Angle"),
+    MPF_BASELINE_LENGTH(0xB206, DirectoryIdentifier.IFD_ROOT_DIRECTORY, "Baseline Length"),
+    MPF_VERTICAL_DIVERGENCE(0xB207, DirectoryIdentifier.IFD_ROOT_DIRECTORY, "Vertical Divergence"),
+    MPF_AXIS_DISTANCE_X(0xB208, DirectoryIdentifier.IFD_ROOT_DIRECTORY, "Axis Distance X"),
+    MPF_AXIS_DISTANCE_Y(0xB209, DirectoryIdentifier.IFD_ROOT_DIRECTORY, "Axis Distance Y"),
+    MPF_AXIS_DISTANCE_Z(0xB20A, DirectoryIdentifier.IFD_ROOT_DIRECTORY, "Axis Distance Z"),
+    MPF_YAW_ANGLE(0xB20B, DirectoryIdentifier.IFD_ROOT_DIRECTORY, "Yaw Angle"),
+    MPF_PITCH_ANGLE(0xB20C, DirectoryIdentifier.IFD_ROOT_DIRECTORY, "Pitch Angle"),
+    MPF_ROLL_ANGLE(0xB20D, DirectoryIdentifier.IFD_ROOT_DIRECTORY, "Roll Angle");
+
+    private final int numID;
+    private final DirectoryIdentifier directory;
+    private final TagHint hint;
+    private final String desc;
+
+    private TagIFD_MPF(int id, DirectoryIdentifier dir, String desc)
+    {
+        this(id, dir, desc, TagHint.HINT_DEFAULT);
+    }
+
+    private TagIFD_MPF(int id, DirectoryIdentifier dir, String desc, TagHint clue)
+    {
+        this.numID = id;
+        this.directory = dir;
+        this.desc = desc;
+        this.hint = clue;
+    }
+
+    @Override
+    public int getNumberID()
+    {
+        return numID;
+    }
+
+    @Override
+    public DirectoryIdentifier getDirectoryType()
+    {
+        return directory;
+    }
+
+    @Override
+    public TagHint getHint()
+    {
+        return hint;
+    }
+
+    @Override
+    public String getDescription()
+    {
+        return desc;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,86 @@
+package tif.tagspecs;
+
+import tif.DirectoryIdentifier;
+import tif.TagHint;
+
+public enum TagMakerNote implements Taggable
+{
+    CANON_IMAGE_TYPE(0x0006, DirectoryIdentifier.MAKER_NOTES_CANON, "Image Type"),
+    CANON_FIRMWARE_VERSION(0x0007, DirectoryIdentifier.MAKER_NOTES_CANON, "Firmware Version"),
+    CANON_OWNER_NAME(0x0009, DirectoryIdentifier.MAKER_NOTES_CANON, "Owner Name"),
+    CANON_SERIAL_NUMBER(0x000C, DirectoryIdentifier.MAKER_NOTES_CANON, "Serial Number"),
+    CANON_MODEL_ID(0x0010, DirectoryIdentifier.MAKER_NOTES_CANON, "Model ID"),
+    CANON_LENS_MODEL(0x0095, DirectoryIdentifier.MAKER_NOTES_CANON, "Lens Model"),
+    CANON_INTERNAL_SERIAL_NUMBER(0x0096, DirectoryIdentifier.MAKER_NOTES_CANON, "Internal Serial Number"),
+
+    NIKON_MAKER_NOTE_VERSION(0x0001, DirectoryIdentifier.MAKER_NOTES_NIKON, "Maker Note Version", TagHint.HINT_BYTE),
+    NIKON_ISO(0x0002, DirectoryIdentifier.MAKER_NOTES_NIKON, "ISO"),
+    NIKON_SERIAL_NUMBER(0x001D, DirectoryIdentifier.MAKER_NOTES_NIKON, "Serial Number"),
+    NIKON_LENS_TYPE(0x0083, DirectoryIdentifier.MAKER_NOTES_NIKON, "Lens Type", TagHint.HINT_BYTE),
+    NIKON_LENS(0x0084, DirectoryIdentifier.MAKER_NOTES_NIKON, "Lens", TagHint.HINT_RATIONAL),
+    NIKON_SHUTTER_COUNT(0x00A7, DirectoryIdentifier.MAKER_NOTES_NIKON, "Shutter Count"),
+
+    SONY_MODEL_ID(0xB001, DirectoryIdentifier.MAKER_NOTES_SONY, "Sony Model ID"),
+    SONY_LENS_TYPE(0xB027, DirectoryIdentifier.MAKER_NOTES_SONY, "Lens Type"),
+    SONY_LENS_SPEC(0xB02A, DirectoryIdentifier.MAKER_NOTES_SONY, "Lens Spec", TagHint.HINT_BYTE),
+
+    FUJIFILM_VERSION(0x0000, DirectoryIdentifier.MAKER_NOTES_FUJIFILM, "Version"),
+    FUJIFILM_INTERNAL_SERIAL_NUMBER(0x0010, DirectoryIdentifier.MAKER_NOTES_FUJIFILM, "Internal Serial Number"),
+
+    OLYMPUS_CAMERA_ID(0x0209, DirectoryIdentifier.MAKER_NOTES_OLYMPUS, "Camera ID"),
+    OLYMPUS_EQUIPMENT(0x2010, DirectoryIdentifier.MAKER_NOTES_OLYMPUS, "Equipment"),
+    OLYMPUS_CAMERA_SETTINGS(0x2020, DirectoryIdentifier.MAKER_NOTES_OLYMPUS, "Camera Settings"),
+    OLYMPUS_CAMERA_TYPE(0x0100, DirectoryIdentifier.MAKER_NOTES_OLYMPUS_EQUIPMENT, "Camera Type"),
+    OLYMPUS_SERIAL_NUMBER(0x0101, DirectoryIdentifier.MAKER_NOTES_OLYMPUS_EQUIPMENT, "Serial Number"),
+    OLYMPUS_INTERNAL_SERIAL_NUMBER(0x0102, DirectoryIdentifier.MAKER_NOTES_OLYMPUS_EQUIPMENT, "Internal Serial Number"),
+    OLYMPUS_LENS_TYPE(0x0201, DirectoryIdentifier.MAKER_NOTES_OLYMPUS_EQUIPMENT, "Lens Type", TagHint.HINT_BYTE),
+    OLYMPUS_LENS_SERIAL_NUMBER(0x0202, DirectoryIdentifier.MAKER_NOTES_OLYMPUS_EQUIPMENT, "Lens Serial Number"),
+    OLYMPUS_LENS_MODEL(0x0203, DirectoryIdentifier.MAKER_NOTES_OLYMPUS_EQUIPMENT, "Lens Model"),
+
+    PANASONIC_FIRMWARE_VERSION(0x0002, DirectoryIdentifier.MAKER_NOTES_PANASONIC, "Firmware Version"),
+    PANASONIC_INTERNAL_SERIAL_NUMBER(0x0025, DirectoryIdentifier.MAKER_NOTES_PANASONIC, "Internal Serial Number"),
+    PANASONIC_LENS_TYPE(0x0051, DirectoryIdentifier.MAKER_NOTES_PANASONIC, "Lens Type"),
+    PANASONIC_LENS_SERIAL_NUMBER(0x0052, DirectoryIdentifier.MAKER_NOTES_PANASONIC, "Lens Serial Number");
+
+    private final int numID;
+    private final DirectoryIdentifier directory;
+    private final TagHint hint;
+    private final String desc;
+
+    private TagMakerNote(int id, DirectoryIdentifier dir, String desc)
+    {
+        this(id, dir, desc, TagHint.HINT_DEFAULT);
+    }
+
+    private TagMakerNote(int id, DirectoryIdentifier dir, String desc, TagHint clue)
+    {
+        this.numID = id;
+        this.directory = dir;
+        this.desc = desc;
+        this.hint = clue;
+    }
+
+    @Override
+    public int getNumberID()
+    {
+        return numID;
+    }
+
+    @Override
+    public DirectoryIdentifier getDirectoryType()
+    {
+        return directory;
+    }
+
+    @Override
+    public TagHint getHint()
+    {
+        return hint;
+    }
+
+    @Override
+    public String getDescription()
+    {
+        return desc;
+    }
+}
\ No newline at end of file
@@ -1,7 +1,6 @@
 package tif.tagspecs;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import logger.LogFactory;
 import tif.DirectoryIdentifier;
 
@@ -22,64 +21,114 @@ import tif.DirectoryIdentifier;
  * extension tag resolution.
  * </p>
  *
+ * <p>
+ * Lookups avoid boxing and hashing. Each directory has a two-level table indexed by the high and
+ * the low byte of the 16-bit tag ID, where only the 256-entry pages holding at least one tag are
+ * allocated. The tables are built on the first call to {@link #resolve(int, DirectoryIdentifier)},
+ * rather than when the class is loaded.
+ * </p>
+ *
+ * <p>
+ * Unrecognised tags, which are common in maker notes, are served from a small, fixed-size cache
+ * keyed by tag ID and directory, so that the same {@link TagIFD_Unknown} instance is shared across
+ * files instead of being allocated for every entry. The cache is thread-safe and never grows.
+ * </p>
+ *
  * @author Trevor Maggs
  * @version 1.1
  */
 public final class TagRegistry
 {
     private static final LogFactory LOGGER = LogFactory.getLogger(TagRegistry.class);
-    private static final Map<DirectoryIdentifier, Map<Integer, Taggable>> TAG_REGISTRY = new HashMap<>();
+    private static final int PAGE_BITS = 8;
+    private static final int PAGE_MASK = (1 << PAGE_BITS) - 1;
+    private static final int UNKNOWN_CACHE_BITS = 12;
+    private static final AtomicReferenceArray<TagIFD_Unknown> UNKNOWN_CACHE = new AtomicReferenceArray<>(1 << UNKNOWN_CACHE_BITS);
 
-    static
+    /**
+     * Holds the lookup tables, which are built when this class is first accessed, namely by the
+     * first call to {@link TagRegistry#resolve(int, DirectoryIdentifier)}.
+     */
+    private static final class Tables
     {
-        for (DirectoryIdentifier dir : DirectoryIdentifier.values())
-        {
-            TAG_REGISTRY.put(dir, new HashMap<>());
-        }
+        /* Indexed by directory ordinal, then by the high byte and low byte of the tag ID */
+        private static final Taggable[][][] TAG_TABLES = build();
+    }
+
+    /**
+     * Builds the lookup tables from all supported tag sets.
+     *
+     * @return the tables, indexed by directory ordinal, high byte and low byte of the tag ID
+     */
+    private static Taggable[][][] build()
+    {
+        Taggable[][][] tables = new Taggable[DirectoryIdentifier.values().length][1 << (16 - PAGE_BITS)][];
 
         /*
          * Populate the registry with all supported tag sets. Note: Tag sets
          * are registered based on their internal DirectoryIdentifier.
          */
-        register(TagIFD_Baseline.values());
-        register(TagIFD_Extension.values());
-        register(TagIFD_Exif.values());
-        register(TagIFD_GPS.values());
-        register(TagIFD_Private.values());
-        register(TagExif_Interop.values());
+        register(tables, TagIFD_Baseline.values());
+        register(tables, TagIFD_Extension.values());
+        register(tables, TagIFD_Exif.values());
+        register(tables, TagIFD_GPS.values());
+        register(tables, TagIFD_Private.values());
+        register(tables, TagIFD_MPF.values());
+        register(tables, TagExif_Interop.values());
+        register(tables, TagMakerNote.values());
 
         if (LOGGER.isDebugEnabled())
         {
-            for (Map.Entry<DirectoryIdentifier, Map<Integer, Taggable>> entry : TAG_REGISTRY.entrySet())
+            for (DirectoryIdentifier dir : DirectoryIdentifier.values())
             {
-                for (Taggable tag : entry.getValue().values())
+                for (Taggable[] page : tables[dir.ordinal()])
                 {
-                    LOGGER.debug(String.format("Registered: %-10s | 0x%04X | %s", entry.getKey(), tag.getNumberID(), tag));
+                    if (page != null)
+                    {
+                        for (Taggable tag : page)
+                        {
+                            if (tag != null)
+                            {
+                                LOGGER.debug(String.format("Registered: %-10s | 0x%04X | %s", dir, tag.getNumberID(), tag));
+                            }
+                        }
+                    }
                 }
             }
         }
+
+        return tables;
     }
 
     /**
-     * Registers an array of {@link Taggable} constants into the global registry.
+     * Registers an array of {@link Taggable} constants into the lookup tables.
      *
      * <p>
-     * Maps each tag to its respective directory-specific map based on the associated
-     * {@link DirectoryIdentifier}.
+     * Maps each tag to the table of its respective {@link DirectoryIdentifier}, allocating the page
+     * covering its ID when needed. A later registration of the same ID replaces an earlier one.
      * </p>
      *
+     * @param tables
+     *        the tables being built
      * @param tags
      *        the array of tags to register
      */
-    private static void register(Taggable[] tags)
+    private static void register(Taggable[][][] tables, Taggable[] tags)
     {
         for (Taggable tag : tags)
         {
-            Map<Integer, Taggable> dirMap = TAG_REGISTRY.get(tag.getDirectoryType());
+            int id = tag.getNumberID();
 
-            if (dirMap != null)
+            if (tag.getDirectoryType() != null && (id & ~0xFFFF) == 0)
             {
-                dirMap.put(tag.getNumberID(), tag);
+                Taggable[][] table = tables[tag.getDirectoryType().ordinal()];
+
+                if (table[id >>> PAGE_BITS] == null)
+                {
+                    table[id >>> PAGE_BITS] = new Taggable[PAGE_MASK + 1];
+                }
+
+                table[id >>> PAGE_BITS][id & PAGE_MASK] = tag;
             }
         }
     }
@@ -103,19 +152,43 @@ public final class TagRegistry
     public static Taggable resolve(int id, DirectoryIdentifier directory)
     {
         DirectoryIdentifier lookupKey = directory.isMainChain() ? DirectoryIdentifier.IFD_ROOT_DIRECTORY : directory;
-        Map<Integer, Taggable> directoryMap = TAG_REGISTRY.get(lookupKey);
 
-        if (directoryMap != null)
+        if ((id & ~0xFFFF) == 0)
         {
-            Taggable tag = directoryMap.get(id);
+            Taggable[] page = Tables.TAG_TABLES[lookupKey.ordinal()][id >>> PAGE_BITS];
 
-            if (tag != null)
+            if (page != null && page[id & PAGE_MASK] != null)
             {
-                return tag;
+                return page[id & PAGE_MASK];
             }
         }
 
         // Fallback
-        return new TagIFD_Unknown(id, directory);
+        return resolveUnknown(id, directory);
+    }
+
+    /**
+     * Returns a {@link TagIFD_Unknown} instance for an unrecognised tag, taken from the cache if
+     * the same tag was seen in the same directory recently. The cache is direct-mapped, so a
+     * colliding tag simply replaces the cached instance.
+     *
+     * @param id
+     *        the unsigned 16-bit Tag ID
+     * @param directory
+     *        the directory context (IFD) where the tag was encountered
+     * @return the unknown tag instance
+     */
+    private static Taggable resolveUnknown(int id, DirectoryIdentifier directory)
+    {
+        int slot = ((id ^ (directory.ordinal() << 16)) * 0x9E3779B9) >>> (32 - UNKNOWN_CACHE_BITS);
+        TagIFD_Unknown tag = UNKNOWN_CACHE.get(slot);
+
+        if (tag == null || tag.getNumberID() != id || tag.getDirectoryType() != directory)
+        {
+            tag = new TagIFD_Unknown(id, directory);
+            UNKNOWN_CACHE.set(slot, tag);
+        }
+
+        return tag;
     }
 }
\ No newline at end of file
@@ -76,8 +76,10 @@ public final class WebPDatePatcher
 
                 try (ImageRandomAccessWriter writer = new ImageRandomAccessWriter(imagePath, WebpHandler.WEBP_BYTE_ORDER))
                 {
+                    writer.beginBatch();
                     processExifSegment(handler, writer, zdt);
                     processXmpSegment(handler, writer, zdt, xmpDump);
+                    writer.commitBatch(false);
                 }
             }
         }
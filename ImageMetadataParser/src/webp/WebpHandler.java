@@ -12,11 +12,14 @@ import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import common.BufferPool;
+import common.ByteSlice;
 import common.ByteStreamReader;
 import common.ByteValueConverter;
+import common.ImageBufferedReader;
 import common.ImageHandler;
-import common.ImageRandomAccessReader;
 import common.SequentialByteArrayReader;
+import common.UnpooledBufferPool;
 import logger.LogFactory;
 
 /**
@@ -45,6 +48,7 @@ public class WebpHandler implements ImageHandler, AutoCloseable
     private final ByteStreamReader reader;
     private final List<WebpChunk> chunks = new ArrayList<>();
     private final Set<WebPChunkType> requiredChunks;
+    private final BufferPool bufferPool;
     private int extendedFormat;
 
     /**
@@ -57,8 +61,27 @@ public class WebpHandler implements ImageHandler, AutoCloseable
      *        processed
      */
     public WebpHandler(ByteStreamReader reader, EnumSet<WebPChunkType> requiredChunks)
+    {
+        this(reader, requiredChunks, UnpooledBufferPool.INSTANCE);
+    }
+
+    /**
+     * Constructs a handler to parse selected chunks from a WebP image file, reading each chunk
+     * payload into a buffer drawn from the specified pool. The buffers are handed back to the pool
+     * as soon as the payload has been copied into its {@link WebpChunk}.
+     *
+     * @param reader
+     *        the {@link ByteStreamReader} for the WebP stream
+     * @param requiredChunks
+     *        optional set of chunk types to extract. If {@code null}, all encountered chunks are
+     *        processed
+     * @param pool
+     *        the pool from which payload buffers are drawn
+     */
+    public WebpHandler(ByteStreamReader reader, EnumSet<WebPChunkType> requiredChunks, BufferPool pool)
     {
         this.reader = reader;
+        this.bufferPool = pool;
 
         if (requiredChunks == null)
         {
@@ -97,7 +120,7 @@ public class WebpHandler implements ImageHandler, AutoCloseable
      */
     public WebpHandler(Path fpath, EnumSet<WebPChunkType> requiredChunks) throws IOException
     {
-        this(new ImageRandomAccessReader(fpath, WEBP_BYTE_ORDER), requiredChunks);
+        this(new ImageBufferedReader(fpath, WEBP_BYTE_ORDER), requiredChunks);
     }
 
     /**
@@ -151,7 +174,7 @@ public class WebpHandler implements ImageHandler, AutoCloseable
      */
     public long getRealFileSize()
     {
-        return reader.getFilename().toFile().length();
+        return Math.max(0L, reader.length());
     }
 
     /**
@@ -348,24 +371,37 @@ public class WebpHandler implements ImageHandler, AutoCloseable
             if (requiredChunks == null || requiredChunks.contains(chunkType))
             {
                 long currentDataOffset = reader.getCurrentPosition();
-                byte[] data = reader.readBytes((int) payloadLength);
+                byte[] data = bufferPool.acquire((int) payloadLength);
 
-                if (chunkType == WebPChunkType.VP8X)
+                try
                 {
-                    parseVP8X(data);
-                }
+                    reader.readBytes(data, 0, (int) payloadLength);
 
-                else if (chunkType == WebPChunkType.VP8)
-                {
-                    parseVP8(data);
+                    ByteSlice payload = ByteSlice.wrap(data, 0, (int) payloadLength);
+
+                    if (chunkType == WebPChunkType.VP8X)
+                    {
+                        parseVP8X(payload);
+                    }
+
+                    else if (chunkType == WebPChunkType.VP8)
+                    {
+                        parseVP8(payload);
+                    }
+
+                    else if (chunkType == WebPChunkType.VP8L)
+                    {
+                        parseVP8L(payload);
+                    }
+
+                    // The chunk keeps its own copy of the payload, so the buffer can be reused
+                    addChunk(chunkType, fourCC, (int) payloadLength, data, currentDataOffset);
                 }
 
-                else if (chunkType == WebPChunkType.VP8L)
+                finally
                 {
-                    parseVP8L(data);
+                    bufferPool.release(data);
                 }
-
-                addChunk(chunkType, fourCC, (int) payloadLength, data, currentDataOffset);
             }
 
             else
@@ -419,9 +455,9 @@ public class WebpHandler implements ImageHandler, AutoCloseable
      *      "https://developers.google.com/speed/webp/docs/riff_container#extended_file_format">More
      *      VP8X details</a>
      */
-    private void parseVP8X(byte[] payload)
+    private void parseVP8X(ByteSlice payload)
     {
-        try (SequentialByteArrayReader subReader = new SequentialByteArrayReader(payload, WEBP_BYTE_ORDER))
+        try (SequentialByteArrayReader subReader = payload.newReader(WEBP_BYTE_ORDER))
         {
             extendedFormat = subReader.readUnsignedByte();
 
@@ -462,14 +498,14 @@ public class WebpHandler implements ImageHandler, AutoCloseable
      * @param payload
      *        the raw bytes from the {@code VP8} chunk
      */
-    private void parseVP8(byte[] payload)
+    private void parseVP8(ByteSlice payload)
     {
-        if (payload.length < 10)
+        if (payload.length() < 10)
         {
             return;
         }
 
-        try (SequentialByteArrayReader subReader = new SequentialByteArrayReader(payload, WEBP_BYTE_ORDER))
+        try (SequentialByteArrayReader subReader = payload.newReader(WEBP_BYTE_ORDER))
         {
             // Skip the 3-byte Frame Tag
             subReader.skip(3);
@@ -499,14 +535,14 @@ public class WebpHandler implements ImageHandler, AutoCloseable
      * @param payload
      *        the raw bytes from the 'VP8L' chunk
      */
-    private void parseVP8L(byte[] payload)
+    private void parseVP8L(ByteSlice payload)
     {
-        if (payload.length < 5)
+        if (payload.length() < 5)
         {
             return;
         }
 
-        try (SequentialByteArrayReader subReader = new SequentialByteArrayReader(payload, WEBP_BYTE_ORDER))
+        try (SequentialByteArrayReader subReader = payload.newReader(WEBP_BYTE_ORDER))
         {
             int signature = subReader.readUnsignedByte();
 
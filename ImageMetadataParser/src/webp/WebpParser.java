@@ -7,7 +7,10 @@ import java.util.EnumSet;
 import java.util.Optional;
 import com.adobe.internal.xmp.XMPException;
 import common.AbstractImageParser;
+import common.ByteStreamReader;
 import common.DigitalSignature;
+import common.ImageFileInputStream;
+import common.ImageParserFactory;
 import common.MetadataConstants;
 import common.Metadata;
 import common.Utils;
@@ -125,7 +128,33 @@ public class WebpParser extends AbstractImageParser
     public WebpParser(Path fpath) throws IOException
     {
         super(fpath);
+        checkFileExtension();
+    }
 
+    /**
+     * Constructs a new instance over a reader that is already open, for example: an
+     * {@link ImageFileInputStream} over a non-seekable upload stream, pipe or zip entry, or the
+     * file reader used by {@link ImageParserFactory} to detect the format. The reader is consumed
+     * and closed by {@link #readMetadata()}.
+     *
+     * @param reader
+     *        the reader positioned at the start of the WebP data
+     */
+    public WebpParser(ByteStreamReader reader)
+    {
+        super(reader);
+
+        if (!isStreamSource())
+        {
+            checkFileExtension();
+        }
+    }
+
+    /**
+     * Logs a warning if the file extension does not match the detected WebP format.
+     */
+    private void checkFileExtension()
+    {
         String ext = Utils.getFileExtension(getImageFile());
 
         if (!ext.equalsIgnoreCase("webp"))
@@ -155,7 +184,7 @@ public class WebpParser extends AbstractImageParser
     {
         metadata = new TifMetadata();
 
-        try (WebpHandler handler = new WebpHandler(getImageFile(), DEFAULT_METADATA_CHUNKS))
+        try (WebpHandler handler = new WebpHandler(openReader(WebpHandler.WEBP_BYTE_ORDER), DEFAULT_METADATA_CHUNKS, getTrackedBufferPool()))
         {
             if (handler.parseMetadata())
             {